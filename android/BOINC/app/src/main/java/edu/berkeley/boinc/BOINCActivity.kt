@@ -55,6 +55,7 @@ import edu.berkeley.boinc.attach.AboutActivity
 import edu.berkeley.boinc.attach.AttachAccountManagerActivity
 import edu.berkeley.boinc.attach.SelectionListActivity
 import edu.berkeley.boinc.client.ClientStatus
+import edu.berkeley.boinc.client.ClientStatusReplica
 import edu.berkeley.boinc.client.IMonitor
 import edu.berkeley.boinc.client.Monitor
 import edu.berkeley.boinc.client.MonitorAsync
@@ -80,11 +81,16 @@ class BOINCActivity : AppCompatActivity() {
     private var mDrawerTitle: CharSequence? = null
     private lateinit var mDrawerToggle: ActionBarDrawerToggle
     private lateinit var mDrawerListAdapter: NavDrawerListAdapter
+
+    // the fragments read the client status from here instead of through the binder
+    private val replica by lazy { ClientStatusReplica(applicationContext) }
     private val mConnection: ServiceConnection = object : ServiceConnection {
         override fun onServiceConnected(className: ComponentName, service: IBinder) {
             // This is called when the connection with the service has been established, getService returns
             // the Monitor object that is needed to call functions.
-            monitor = MonitorAsync(IMonitor.Stub.asInterface(service))
+            val remote = IMonitor.Stub.asInterface(service)
+            replica.attach(remote)
+            monitor = MonitorAsync(remote, replica)
             mIsBound = true
             determineStatus()
         }
@@ -93,6 +99,7 @@ class BOINCActivity : AppCompatActivity() {
             // This should not happen
             monitor = null
             mIsBound = false
+            replica.detach()
 
             Logging.logError(Logging.Category.GUI_ACTIVITY, "BOINCActivity onServiceDisconnected")
         }
@@ -228,6 +235,7 @@ class BOINCActivity : AppCompatActivity() {
     private fun doUnbindService() {
         if (mIsBound) {
             // Detach existing connection.
+            replica.detach()
             unbindService(mConnection)
             mIsBound = false
         }
@@ -310,8 +318,9 @@ class BOINCActivity : AppCompatActivity() {
                     clientComputingStatus = newComputingStatus
                     invalidateOptionsMenu()
                 }
-                if (numberProjectsInNavList != monitor!!.projects.size) {
-                    numberProjectsInNavList = mDrawerListAdapter.compareAndAddProjects(monitor!!.projects)
+                val projects = monitor!!.projects.items
+                if (numberProjectsInNavList != projects.size) {
+                    numberProjectsInNavList = mDrawerListAdapter.compareAndAddProjects(projects)
                 }
                 mDrawerListAdapter.updateUseAccountManagerItem()
             }
@@ -29,6 +29,7 @@ import android.view.ViewGroup
 import androidx.fragment.app.Fragment
 import androidx.recyclerview.widget.LinearLayoutManager
 import edu.berkeley.boinc.adapter.NoticesRecyclerViewAdapter
+import edu.berkeley.boinc.client.ClientStatusChange
 import edu.berkeley.boinc.databinding.NoticesLayoutBinding
 import edu.berkeley.boinc.rpc.Notice
 import edu.berkeley.boinc.utils.Logging
@@ -39,23 +40,24 @@ class NoticesFragment : Fragment() {
         override fun onReceive(context: Context, intent: Intent) {
             Logging.logVerbose(Logging.Category.GUI_VIEW, "NoticesFragment ClientStatusChange - onReceive()")
 
-            // data retrieval
-            val notices = updateNotices()
-            data.clear()
-            data.addAll(notices)
-            noticesRecyclerViewAdapter.notifyDataSetChanged()
+            val change = ClientStatusChange.fromIntent(intent)
+            if (change != null && change.newNotices == 0) {
+                return
+            }
+
+            // data retrieval, the adapter diffs against the displayed notices in the background
+            noticesRecyclerViewAdapter.submitList(updateNotices())
         }
     }
 
     private lateinit var noticesRecyclerViewAdapter: NoticesRecyclerViewAdapter
-    private var data: MutableList<Notice> = ArrayList()
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
         Logging.logVerbose(Logging.Category.GUI_VIEW, "NoticesFragment onCreateView")
 
         val binding = NoticesLayoutBinding.inflate(inflater, container, false)
 
-        noticesRecyclerViewAdapter = NoticesRecyclerViewAdapter(this, data)
+        noticesRecyclerViewAdapter = NoticesRecyclerViewAdapter(this)
         binding.noticesList.adapter = noticesRecyclerViewAdapter
         binding.noticesList.layoutManager = LinearLayoutManager(context)
         return binding.root
@@ -85,8 +87,7 @@ class NoticesFragment : Fragment() {
 
     private fun updateNotices(): List<Notice> {
         return try {
-            BOINCActivity.monitor!!.rssNotices.sortedWith(compareBy<Notice> { it.createTime }
-                    .reversed())
+            BOINCActivity.monitor!!.rssNotices // newest first, see NoticeStore
         } catch (e: Exception) {
             Logging.logException(Logging.Category.GUI_VIEW, "NoticesFragment.updateNotices error: ", e)
 
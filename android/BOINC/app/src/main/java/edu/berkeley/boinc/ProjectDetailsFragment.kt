@@ -70,7 +70,7 @@ class ProjectDetailsFragment : Fragment() {
     private val currentProjectData: Unit
         get() {
             try {
-                project = BOINCActivity.monitor!!.projects.firstOrNull { it.masterURL == url }
+                project = BOINCActivity.monitor!!.projects.items.firstOrNull { it.masterURL == url }
                 projectInfo = BOINCActivity.monitor!!.getProjectInfoAsync(url).await()
             } catch (e: Exception) {
                 Logging.logError(Logging.Category.GUI_VIEW, "ProjectDetailsFragment getCurrentProjectData could not" +
@@ -352,7 +352,7 @@ class ProjectDetailsFragment : Fragment() {
 
         val success = withContext(Dispatchers.Default) {
             slideshowImages = try {
-                BOINCActivity.monitor!!.getSlideshowForProject(project!!.masterURL)
+                BOINCActivity.monitor!!.getSlideshowForProject(project!!.masterURL).images
             } catch (e: Exception) {
                 Logging.logError(Logging.Category.GUI_VIEW, "updateSlideshowImages: Could not load data, " +
                         "clientStatus not initialized.")
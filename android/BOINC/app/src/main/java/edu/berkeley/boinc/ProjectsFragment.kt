@@ -42,6 +42,9 @@ import androidx.recyclerview.widget.LinearLayoutManager
 import edu.berkeley.boinc.adapter.ProjectControlsRecyclerViewAdapter
 import edu.berkeley.boinc.adapter.ProjectsListAdapter
 import edu.berkeley.boinc.attach.ManualUrlInputFragment
+import edu.berkeley.boinc.client.ClientStatusChange
+import edu.berkeley.boinc.client.awaitAddAcctMgr
+import edu.berkeley.boinc.client.awaitSynchronizeAcctMgr
 import edu.berkeley.boinc.databinding.DialogConfirmBinding
 import edu.berkeley.boinc.databinding.DialogListBinding
 import edu.berkeley.boinc.databinding.ProjectsLayoutBinding
@@ -52,6 +55,7 @@ import edu.berkeley.boinc.rpc.RpcClient
 import edu.berkeley.boinc.rpc.Transfer
 import edu.berkeley.boinc.utils.ERR_OK
 import edu.berkeley.boinc.utils.Logging
+import java.time.Instant
 import java.util.*
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.coroutineScope
@@ -71,7 +75,13 @@ class ProjectsFragment : Fragment() {
     private val ifcsc = IntentFilter("edu.berkeley.boinc.clientstatuschange")
     private val mClientStatusChangeRec: BroadcastReceiver = object : BroadcastReceiver() {
         override fun onReceive(context: Context, intent: Intent) {
-            populateLayout()
+            val change = ClientStatusChange.fromIntent(intent)
+            if (change == null || change.projectsChanged || change.transfersChanged || change.newNotices > 0 ||
+                    change.statusChanged) {
+                populateLayout()
+            } else {
+                listAdapter.refreshRows(countdownRows()) // only refresh back-off times
+            }
         }
     }
 
@@ -129,26 +139,41 @@ class ProjectsFragment : Fragment() {
     private fun populateLayout() {
         try {
             // read projects from state saved in ClientStatus
-            val statusProjects = BOINCActivity.monitor!!.projects
+            val statusProjects = BOINCActivity.monitor!!.projects.items
             val statusAcctMgr = BOINCActivity.monitor!!.clientAcctMgrInfo
-            val statusTransfers = BOINCActivity.monitor!!.transfers
+            val statusTransfers = BOINCActivity.monitor!!.transfers.items
 
             // get server / scheduler notices to display if device does not meet
             val serverNotices = BOINCActivity.monitor!!.serverNotices
 
             // Update Project data
-            updateData(statusProjects, statusAcctMgr, serverNotices, statusTransfers)
+            val changed = updateData(statusProjects, statusAcctMgr, serverNotices, statusTransfers)
 
-            // Force list adapter to refresh
-            listAdapter.notifyDataSetChanged()
+            // rebind the changed rows, entries were added or removed if null
+            if (changed == null) {
+                listAdapter.notifyDataSetChanged()
+            } else {
+                listAdapter.refreshRows(changed + countdownRows())
+            }
         } catch (e: Exception) {
             // data retrieval failed, set layout to loading...
             Logging.logError(Logging.Category.GUI_VIEW, "ProjectsActivity data retrieval failed.")
         }
     }
 
+    // ids of the projects whose back-off or transfer retry countdown is shown
+    private fun countdownRows(): Set<String> {
+        val now = Instant.now().epochSecond
+        return data.filter { !it.isMgr && (!it.projectTransfers.isNullOrEmpty() || it.project!!.minRPCTime > now) }
+                .mapTo(HashSet()) { it.id }
+    }
+
+    // returns the ids of the changed entries, or null if entries were added or removed
     private fun updateData(latestRpcProjectsList: List<Project>, acctMgrInfo: AcctMgrInfo,
-                           serverNotices: List<Notice>?, ongoingTransfers: List<Transfer>) {
+                           serverNotices: List<Notice>?, ongoingTransfers: List<Transfer>): Set<String>? {
+        var structureChanged = false
+        val changed = HashSet<String>()
+
         // ACCOUNT MANAGER
         //loop through list adapter array to find index of account manager entry (0 || 1 manager possible)
         val mgrIndex = data.indexOfFirst { it.isMgr }
@@ -159,6 +184,7 @@ class ProjectsFragment : Fragment() {
             if (acctMgrInfo.isPresent) {
                 // add new manager entry, at top of the list
                 data.add(ProjectsListData(null, acctMgrInfo, null))
+                structureChanged = true
 
                 Logging.logDebug(Logging.Category.GUI_VIEW, "New acct mgr found: " + acctMgrInfo.acctMgrName)
             }
@@ -168,69 +194,80 @@ class ProjectsFragment : Fragment() {
             if (!acctMgrInfo.isPresent) {
                 // manager got detached, remove from list
                 data.removeAt(mgrIndex)
+                structureChanged = true
 
                 Logging.logDebug(Logging.Category.GUI_VIEW, "Acct mgr removed from list.")
             }
         }
 
         // ATTACHED PROJECTS
+        val entries = data.associateBy { it.id }
+        val transfersByProject = ongoingTransfers.groupBy { it.projectUrl }
         //loop through all received Result items to add new projects
         for (rpcResult in latestRpcProjectsList) {
+            val projectTransfers = mapTransfersToProject(rpcResult.masterURL, transfersByProject)
             //check whether this project is new
-            val index = data.indexOfFirst { it.id == rpcResult.masterURL }
-            if (index < 0) { // Project is new, add
+            val entry = entries[rpcResult.masterURL]
+            if (entry == null) { // Project is new, add
                 Logging.logDebug(Logging.Category.GUI_VIEW, "New project found, id: " + rpcResult.masterURL +
                         ", managed: " + rpcResult.attachedViaAcctMgr)
 
                 if (rpcResult.attachedViaAcctMgr) {
                     data.add(ProjectsListData(rpcResult, null,
-                            mapTransfersToProject(rpcResult.masterURL,
-                                    ongoingTransfers))) // append to end of list (after manager)
+                            projectTransfers)) // append to end of list (after manager)
                 } else {
                     data.add(0, ProjectsListData(rpcResult, null,
-                            mapTransfersToProject(rpcResult.masterURL,
-                                    ongoingTransfers))) // put at top of list (before manager)
+                            projectTransfers)) // put at top of list (before manager)
                 }
+                structureChanged = true
             } else { // Project was present before, update its data
-                data[index].updateProjectData(rpcResult, null,
-                        mapTransfersToProject(rpcResult.masterURL,
-                                ongoingTransfers))
+                if (entry.project != rpcResult || entry.projectTransfers != projectTransfers) {
+                    changed.add(entry.id)
+                }
+                entry.updateProjectData(rpcResult, null, projectTransfers)
             }
         }
 
         //loop through the list adapter to find removed (ready/aborted) projects
-        data.removeIf { !it.isMgr && latestRpcProjectsList.none { (masterURL) -> it.id == masterURL } }
+        val masterUrls = latestRpcProjectsList.mapTo(HashSet()) { it.masterURL }
+        if (data.removeIf { !it.isMgr && it.id !in masterUrls }) {
+            structureChanged = true
+        }
 
         // SERVER NOTICES
         // loop through active projects to add/remove server notices
         if (serverNotices != null) {
-            var mappedServerNotices = 0
+            // most recent notice per project, the list is newest first
+            val noticesByProject = HashMap<String, Notice>()
+            for (serverNotice in serverNotices) {
+                noticesByProject.getOrPut(serverNotice.projectName) { serverNotice }
+            }
+            var mappedProjects = 0
             for (project in data) {
                 if (project.isMgr) {
                     continue  // do not seek notices in manager entries (crashes)
                 }
-                var noticeFound = false
-                for (serverNotice in serverNotices) {
-                    if (project.project!!.projectName == serverNotice.projectName) {
-                        project.addServerNotice(serverNotice)
-                        noticeFound = true
-                        mappedServerNotices++
-                    }
+                val serverNotice = noticesByProject[project.project!!.projectName]
+                if (project.lastServerNotice != serverNotice) {
+                    changed.add(project.id)
                 }
-                if (!noticeFound) {
-                    project.addServerNotice(null)
+                project.addServerNotice(serverNotice)
+                if (serverNotice != null) {
+                    mappedProjects++
                 }
             }
-            if (mappedServerNotices != serverNotices.size) {
-                Logging.logError(Logging.Category.GUI_VIEW, "could not match notice: " + mappedServerNotices + "/" + serverNotices.size)
+            if (mappedProjects != noticesByProject.size) {
+                Logging.logError(Logging.Category.GUI_VIEW, "could not match notice: " + mappedProjects + "/" + noticesByProject.size)
             }
         }
+
+        return if (structureChanged) null else changed
     }
 
-    // takes list of all ongoing transfers and a project id (url) and returns transfer that belong to given project
-    private fun mapTransfersToProject(id: String, allTransfers: List<Transfer>): List<Transfer> {
-        // project id matches url in transfer, add to list
-        val projectTransfers = allTransfers.filter { it.projectUrl == id }
+    // takes all ongoing transfers by project url and a project id (url) and returns transfer that belong to given project
+    private fun mapTransfersToProject(id: String, allTransfers: Map<String, List<Transfer>>): List<Transfer> {
+        // project id matches url in transfer
+        val projectTransfers = allTransfers[id].orEmpty()
         Logging.logDebug(Logging.Category.GUI_VIEW, "ProjectsActivity mapTransfersToProject() mapped " + projectTransfers.size +
                 " transfers to project " + id)
 
@@ -420,7 +457,7 @@ class ProjectsFragment : Fragment() {
         }
     }
 
-    private fun performProjectOperation(data: ProjectsListData, operation: Int): Boolean {
+    private suspend fun performProjectOperation(data: ProjectsListData, operation: Int): Boolean {
         try {
             Logging.logVerbose(Logging.Category.USER_ACTION,
                     "ProjectOperationAsync isMgr: ${data.isMgr}, url: ${data.id}," +
@@ -431,9 +468,9 @@ class ProjectsFragment : Fragment() {
                 RpcClient.PROJECT_NNW, RpcClient.PROJECT_ANW, RpcClient.PROJECT_DETACH,
                 RpcClient.PROJECT_RESET -> return BOINCActivity.monitor!!.projectOp(operation, data.id)
                 RpcClient.MGR_SYNC ->
-                    return BOINCActivity.monitor!!.synchronizeAcctMgr(data.acctMgrInfo!!.acctMgrUrl)
+                    return BOINCActivity.monitor!!.awaitSynchronizeAcctMgr(data.acctMgrInfo!!.acctMgrUrl)
                 RpcClient.MGR_DETACH ->
-                    return BOINCActivity.monitor!!.addAcctMgrErrorNum("", "", "")
+                    return BOINCActivity.monitor!!.awaitAddAcctMgr("", "", "")
                             .code == ERR_OK
                 RpcClient.TRANSFER_RETRY ->
                     return data.projectTransfers.isNullOrEmpty() ||
@@ -320,6 +320,10 @@ class SettingsFragment : PreferenceFragmentCompat(), SharedPreferences.OnSharedP
                 BOINCActivity.monitor!!.logLevel = logLevel
                 Logging.setLogLevel(logLevel)
             }
+            "parserEngine" -> {
+                BOINCActivity.monitor!!.parserEngine = sharedPreferences.getString(key,
+                    getString(R.string.prefs_default_parser_engine))!!
+            }
         }
     }
 
@@ -34,6 +34,7 @@ import androidx.fragment.app.Fragment
 import androidx.lifecycle.lifecycleScope
 import edu.berkeley.boinc.attach.SelectionListActivity
 import edu.berkeley.boinc.client.ClientStatus
+import edu.berkeley.boinc.client.ClientStatusChange
 import edu.berkeley.boinc.utils.Logging
 import edu.berkeley.boinc.utils.RUN_MODE_AUTO
 import edu.berkeley.boinc.utils.SUSPEND_REASON_BATTERIES
@@ -55,7 +56,10 @@ class StatusFragment : Fragment() {
         override fun onReceive(context: Context, intent: Intent) {
             Logging.logVerbose(Logging.Category.GUI_VIEW, "StatusFragment ClientStatusChange - onReceive()")
 
-            loadLayout()
+            val change = ClientStatusChange.fromIntent(intent)
+            if (change == null || change.statusChanged) {
+                loadLayout()
+            }
         }
     }
     private val ifcsc = IntentFilter("edu.berkeley.boinc.clientstatuschange")
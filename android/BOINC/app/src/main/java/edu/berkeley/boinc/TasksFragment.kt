@@ -41,7 +41,11 @@ import androidx.fragment.app.Fragment
 import androidx.lifecycle.lifecycleScope
 import androidx.preference.PreferenceManager
 import androidx.recyclerview.widget.LinearLayoutManager
+import edu.berkeley.boinc.adapter.TaskDisplayRow
+import edu.berkeley.boinc.adapter.TaskDisplayRowBuilder
 import edu.berkeley.boinc.adapter.TaskRecyclerViewAdapter
+import edu.berkeley.boinc.client.ClientStatusChange
+import edu.berkeley.boinc.client.TaskQuery
 import edu.berkeley.boinc.databinding.DialogConfirmBinding
 import edu.berkeley.boinc.databinding.TasksLayoutBinding
 import edu.berkeley.boinc.rpc.Result
@@ -49,18 +53,27 @@ import edu.berkeley.boinc.rpc.RpcClient
 import edu.berkeley.boinc.utils.*
 import kotlin.collections.ArrayList
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
 
 class TasksFragment : Fragment() {
     private lateinit var recyclerViewAdapter: TaskRecyclerViewAdapter
-    private val data: MutableList<TaskData> = ArrayList()
+    private lateinit var rowBuilder: TaskDisplayRowBuilder
+    // keyed by result name, in the order the tasks are listed
+    private val data = LinkedHashMap<String, TaskData>()
     private var lastFullUpdateTimeStamp: Long = 0
+    // one update at a time, a status change during an update is loaded right after it
+    private var loadJob: Job? = null
+    private var reloadPending = false
     private val mClientStatusChangeRec: BroadcastReceiver = object : BroadcastReceiver() {
         override fun onReceive(context: Context, intent: Intent) {
             Logging.logVerbose(Logging.Category.GUI_VIEW, "TasksActivity onReceive")
-            loadData()
+            val change = ClientStatusChange.fromIntent(intent)
+            if (change == null || change.tasksChanged) {
+                loadData()
+            }
         }
     }
     private val ifcsc = IntentFilter("edu.berkeley.boinc.clientstatuschange")
@@ -113,7 +126,8 @@ class TasksFragment : Fragment() {
         showBatterySaverOptions()
         // Inflate the layout for this fragment
         val binding = TasksLayoutBinding.inflate(inflater, container, false)
-        recyclerViewAdapter = TaskRecyclerViewAdapter(this, data)
+        recyclerViewAdapter = TaskRecyclerViewAdapter(this)
+        rowBuilder = TaskDisplayRowBuilder(requireContext())
         binding.tasksList.adapter = recyclerViewAdapter
         binding.tasksList.layoutManager = LinearLayoutManager(context)
         return binding.root
@@ -136,85 +150,105 @@ class TasksFragment : Fragment() {
         super.onPause()
     }
 
-    private fun loadTasks(start: Int, count: Int, isActive: Boolean): List<Result> {
-        return BOINCActivity.monitor?.getTasks(start, count, isActive) ?: emptyList()
+    private fun loadTasks(query: TaskQuery): List<Result> {
+        return BOINCActivity.monitor?.queryTasks(query)?.items ?: emptyList()
     }
 
     private fun loadTasks(isActive: Boolean): MutableList<Result> {
-        val tasks: MutableList<Result> = ArrayList()
-        var start = 0
-        val count = 10
+        // keyed by name, a page restarts at the beginning if the tasks were updated in between
+        val tasks = LinkedHashMap<String, Result>()
+        var query = TaskQuery(isActive)
 
         while (true) {
-            val data = loadTasks(start, count, isActive)
-            tasks.addAll(data);
-            if (data.size < count) break
-            start += count
+            val data = loadTasks(query)
+            data.associateByTo(tasks) { it.name }
+            if (data.size < query.count) break
+            query = query.next(data)
         }
 
-        return tasks
+        return tasks.values.toMutableList()
     }
 
     private fun compareTwoListsOfActiveTasks(old: List<TaskData>, new: List<Result>): Boolean {
         if (old.size != new.size) {
             return false
         }
-        return old.none { o -> new.indexOfFirst { it.name == o.id } == -1 }
+        val names = new.mapTo(HashSet(new.size)) { it.name }
+        return old.all { it.id in names }
     }
 
     private fun loadData() {
-        val tasks: MutableList<Result> = ArrayList()
+        if (loadJob?.isActive == true) {
+            reloadPending = true
+            return
+        }
+        loadJob = lifecycleScope.launch {
+            do {
+                reloadPending = false
+                loadDataAsync()
+            } while (reloadPending)
+        }
+    }
+
+    private suspend fun loadDataAsync() {
         val activeTasks: MutableList<TaskData> = ArrayList()
         val timestamp = System.currentTimeMillis()
         // perform full update every 10 seconds
         var fullUpdate: Boolean = (timestamp - lastFullUpdateTimeStamp) > (10 * 1000)
 
-        for (task in data) {
+        for (task in data.values) {
             if (task.isTaskActive) {
                 activeTasks.add(task)
             }
         }
 
-        val newActiveTasks = loadTasks(true)
+        // retrieve the tasks and format their rows in the background
+        val (tasks, rows) = withContext(Dispatchers.Default) {
+            val tasks: MutableList<Result> = ArrayList()
+            val newActiveTasks = loadTasks(true)
 
-        if (!fullUpdate) {
-            fullUpdate = !(compareTwoListsOfActiveTasks(activeTasks, newActiveTasks))
-        }
+            if (!fullUpdate) {
+                fullUpdate = !(compareTwoListsOfActiveTasks(activeTasks, newActiveTasks))
+            }
 
-        tasks.addAll(newActiveTasks)
+            tasks.addAll(newActiveTasks)
 
+            if (fullUpdate) {
+                tasks.addAll(loadTasks(false))
+            }
+            tasks to rowBuilder.build(tasks, fullUpdate)
+        }
         if (fullUpdate) {
-            tasks.addAll(loadTasks(false))
             lastFullUpdateTimeStamp = timestamp
         }
 
         //setup list and adapter
-        //deep copy, so ArrayList adapter actually recognizes the difference
-        updateData(tasks, fullUpdate)
-        recyclerViewAdapter.notifyDataSetChanged() //force list adapter to refresh
+        //the adapter diffs the snapshot against the displayed one and rebinds changed tasks only
+        updateData(tasks, rows, fullUpdate)
+        recyclerViewAdapter.submitList(data.values.map { TaskRecyclerViewAdapter.Item(it, it.row, it.nextState) })
     }
 
-    private fun updateData(newData: List<Result>, fullUpdate: Boolean) {
+    private fun updateData(newData: List<Result>, rows: List<TaskDisplayRow>, fullUpdate: Boolean) {
         //loop through all received Result items to add new results
-        for (rpcResult in newData) {
+        newData.forEachIndexed { i, rpcResult ->
             //check whether this Result is new
-            val index = data.indexOfFirst { it.id == rpcResult.name }
-            if (index == -1) { // result is new, add
+            val task = data[rpcResult.name]
+            if (task == null) { // result is new, add
                 Logging.logDebug(Logging.Category.GUI_VIEW, "new result found, id: " + rpcResult.name)
 
-                data.add(TaskData(rpcResult))
+                data[rpcResult.name] = TaskData(rpcResult, rows[i])
             } else { // result was present before, update its data
-                data[index].updateResultData(rpcResult)
+                task.updateResultData(rpcResult, rows[i])
             }
         }
 
         if (fullUpdate) {
-            //loop through the list adapter to find removed (ready/aborted) Results
-            data.removeIf { item -> newData.none { it.name == item.id } }
+            //remove the tasks that are gone (ready/aborted) Results
+            data.keys.retainAll(newData.mapTo(HashSet(newData.size)) { it.name })
         }
     }
 
-    inner class TaskData(var result: Result) {
+    inner class TaskData(var result: Result, var row: TaskDisplayRow) {
         var sharedPreferences = PreferenceManager.getDefaultSharedPreferences(requireContext())
         var isExpanded = sharedPreferences.getBoolean("expandWuData", false)
         var id = result.name
@@ -223,8 +257,9 @@ class TasksFragment : Fragment() {
         // amount of refresh, until transition times out
         private val transitionTimeout = resources.getInteger(R.integer.tasks_transistion_timeout_number_monitor_loops)
 
-        fun updateResultData(result: Result) {
+        fun updateResultData(result: Result, row: TaskDisplayRow) {
             this.result = result
+            this.row = row
             val currentState = determineState()
             if (nextState == -1) {
                 return
@@ -290,28 +325,13 @@ class TasksFragment : Fragment() {
                         Logging.logError(Logging.Category.GUI_VIEW, "could not map operation tag")
                     }
                 }
-                recyclerViewAdapter.notifyDataSetChanged() //force list adapter to refresh
+                recyclerViewAdapter.notifyTaskChanged(id) //show the pending state
             } catch (e: Exception) {
                 Logging.logError(Logging.Category.GUI_VIEW, "failed parsing view tag")
             }
         }
 
-        fun determineState(): Int {
-            if (result.isSuspendedViaGUI) {
-                return RESULT_SUSPENDED_VIA_GUI
-            }
-            if (result.isProjectSuspendedViaGUI) {
-                return RESULT_PROJECT_SUSPENDED
-            }
-            if (result.isReadyToReport && result.state != RESULT_ABORTED && result.state != RESULT_COMPUTE_ERROR) {
-                return RESULT_READY_TO_REPORT
-            }
-            return if (result.isActiveTask) {
-                result.activeTaskState
-            } else {
-                result.state
-            }
-        }
+        fun determineState() = determineState(result)
 
         val isTaskActive: Boolean
             get() = result.isActiveTask
@@ -340,4 +360,23 @@ class TasksFragment : Fragment() {
             Logging.logError(Logging.Category.GUI_VIEW, "performResultOperation() failed.")
         }
     }
+
+    companion object {
+        fun determineState(result: Result): Int {
+            if (result.isSuspendedViaGUI) {
+                return RESULT_SUSPENDED_VIA_GUI
+            }
+            if (result.isProjectSuspendedViaGUI) {
+                return RESULT_PROJECT_SUSPENDED
+            }
+            if (result.isReadyToReport && result.state != RESULT_ABORTED && result.state != RESULT_COMPUTE_ERROR) {
+                return RESULT_READY_TO_REPORT
+            }
+            return if (result.isActiveTask) {
+                result.activeTaskState
+            } else {
+                result.state
+            }
+        }
+    }
 }
@@ -24,6 +24,8 @@ import android.view.LayoutInflater
 import android.view.ViewGroup
 import androidx.core.net.toUri
 import androidx.core.text.parseAsHtml
+import androidx.recyclerview.widget.DiffUtil
+import androidx.recyclerview.widget.ListAdapter
 import androidx.recyclerview.widget.RecyclerView
 import edu.berkeley.boinc.BOINCActivity
 import edu.berkeley.boinc.NoticesFragment
@@ -35,10 +37,13 @@ import edu.berkeley.boinc.utils.secondsToLocalDateTime
 import java.time.format.DateTimeFormatter
 import java.time.format.FormatStyle
 
+/**
+ * Notices are keyed by their seqno, new lists are diffed in the background and only inserted or
+ * changed notices are bound.
+ */
 class NoticesRecyclerViewAdapter(
-        private val fragment: NoticesFragment,
-        private val notices: List<Notice>
-) : RecyclerView.Adapter<NoticesRecyclerViewAdapter.ViewHolder>() {
+        private val fragment: NoticesFragment
+) : ListAdapter<Notice, NoticesRecyclerViewAdapter.ViewHolder>(DIFF_CALLBACK) {
     private val dateTimeFormatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG,
             FormatStyle.SHORT)
 
@@ -47,10 +52,8 @@ class NoticesRecyclerViewAdapter(
         return ViewHolder(binding)
     }
 
-    override fun getItemCount() = notices.size
-
     override fun onBindViewHolder(holder: ViewHolder, position: Int) {
-        val listItem = notices[position]
+        val listItem = getItem(position)
 
         holder.root.setOnClickListener {
             val link = listItem.link
@@ -62,7 +65,7 @@ class NoticesRecyclerViewAdapter(
             }
         }
 
-        val icon = getIcon(position)
+        val icon = getIcon(listItem)
         // if available set icon, if not boinc logo
         if (icon == null) {
             holder.projectIcon.setImageResource(R.drawable.ic_boinc)
@@ -77,9 +80,9 @@ class NoticesRecyclerViewAdapter(
         holder.time.text = dateTimeFormatter.format(listItem.createTime.toLong().secondsToLocalDateTime())
     }
 
-    private fun getIcon(position: Int): Bitmap? {
+    private fun getIcon(notice: Notice): Bitmap? {
         return try {
-            BOINCActivity.monitor!!.getProjectIconByName(notices[position].projectName)
+            BOINCActivity.monitor!!.getProjectIconByName(notice.projectName)
         } catch (e: Exception) {
             Logging.logException(Logging.Category.MONITOR, "TasksListAdapter: Could not load data, clientStatus not initialized.", e)
 
@@ -95,4 +98,13 @@ class NoticesRecyclerViewAdapter(
         val content = binding.noticeContent
         val time = binding.noticeTime
     }
+
+    companion object {
+        @JvmField
+        val DIFF_CALLBACK = object : DiffUtil.ItemCallback<Notice>() {
+            override fun areItemsTheSame(oldItem: Notice, newItem: Notice) = oldItem.seqno == newItem.seqno
+
+            override fun areContentsTheSame(oldItem: Notice, newItem: Notice) = oldItem == newItem
+        }
+    }
 }
@@ -49,7 +49,7 @@ import org.apache.commons.lang3.StringUtils
 
 class ProjectsListAdapter(
     private val activity: Activity,
-    listView: ListView,
+    private val listView: ListView,
     textViewResourceId: Int,
     private val entries: List<ProjectsListData>
 ) :
@@ -70,6 +70,32 @@ class ProjectsListAdapter(
         return position.toLong()
     }
 
+    /**
+     * Rebinds the visible rows of the entries with the given ids in place,
+     * instead of every row as notifyDataSetChanged() does.
+     * Falls back to notifyDataSetChanged() if a row does not show its entry yet.
+     */
+    fun refreshRows(ids: Set<String>) {
+        if (ids.isEmpty()) {
+            return
+        }
+        // child positions of the list view include its header views
+        val first = listView.firstVisiblePosition - listView.headerViewsCount
+        for (i in 0 until listView.childCount) {
+            val position = first + i
+            if (position !in entries.indices || entries[position].id !in ids) {
+                continue
+            }
+            val row = listView.getChildAt(i)
+            if (!StringUtils.equals(entries[position].id, row.tag?.toString())) {
+                // getView() would set up a new view instead of rebinding this row
+                notifyDataSetChanged()
+                return
+            }
+            getView(position, row, listView)
+        }
+    }
+
     fun getDiskUsage(position: Int): String {
         val diskUsage = entries[position].project!!.diskUsage
         val df = DecimalFormat("#.##")
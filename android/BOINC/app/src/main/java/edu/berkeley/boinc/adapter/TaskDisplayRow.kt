@@ -0,0 +1,66 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.adapter
+
+import android.graphics.Bitmap
+
+/**
+ * Immutable, pre-formatted content of one row of the task list, built by [TaskDisplayRowBuilder].
+ * Binding a row only assigns these fields to its views.
+ */
+data class TaskDisplayRow(
+        val name: String,
+        val icon: Bitmap?,
+        val header: String?,
+        val projectName: String?,
+        /**
+         * state as determined by [edu.berkeley.boinc.TasksFragment.determineState]
+         */
+        val state: Int,
+        val isActiveTask: Boolean,
+        val statusText: String,
+        val showPercentage: Boolean,
+        val percentage: String,
+        /**
+         * of [PROGRESS_MAX]
+         */
+        val progress: Int,
+        /**
+         * task is active and executing, its progress bar is also shown when collapsed
+         */
+        val isExecuting: Boolean,
+        val elapsedTime: String,
+        val deadline: String,
+        val isAborted: Boolean,
+        /**
+         * operation of the suspend/resume button, [NO_OPERATION] if the button is hidden
+         */
+        val suspendResumeOperation: Int
+) {
+    /**
+     * True if this row differs from [other] in the fields that follow the progress of the task only.
+     */
+    fun isProgressOf(other: TaskDisplayRow) =
+            copy(percentage = other.percentage, progress = other.progress, elapsedTime = other.elapsedTime) == other
+
+    companion object {
+        const val PROGRESS_MAX = 100
+        const val NO_OPERATION = -1
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.adapter
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.text.format.DateUtils
+import edu.berkeley.boinc.BOINCActivity
+import edu.berkeley.boinc.R
+import edu.berkeley.boinc.TasksFragment
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.RpcClient
+import edu.berkeley.boinc.utils.Logging
+import edu.berkeley.boinc.utils.PROCESS_ABORTED
+import edu.berkeley.boinc.utils.PROCESS_ABORT_PENDING
+import edu.berkeley.boinc.utils.PROCESS_EXECUTING
+import edu.berkeley.boinc.utils.PROCESS_QUIT_PENDING
+import edu.berkeley.boinc.utils.PROCESS_SUSPENDED
+import edu.berkeley.boinc.utils.PROCESS_UNINITIALIZED
+import edu.berkeley.boinc.utils.RESULT_ABORTED
+import edu.berkeley.boinc.utils.RESULT_COMPUTE_ERROR
+import edu.berkeley.boinc.utils.RESULT_FILES_DOWNLOADED
+import edu.berkeley.boinc.utils.RESULT_FILES_DOWNLOADING
+import edu.berkeley.boinc.utils.RESULT_FILES_UPLOADED
+import edu.berkeley.boinc.utils.RESULT_FILES_UPLOADING
+import edu.berkeley.boinc.utils.RESULT_NEW
+import edu.berkeley.boinc.utils.RESULT_PROJECT_SUSPENDED
+import edu.berkeley.boinc.utils.RESULT_READY_TO_REPORT
+import edu.berkeley.boinc.utils.RESULT_SUSPENDED_VIA_GUI
+import edu.berkeley.boinc.utils.RESULT_UPLOAD_FAILED
+import edu.berkeley.boinc.utils.secondsToLocalDateTime
+import java.text.NumberFormat
+import java.time.format.DateTimeFormatter
+import java.time.format.FormatStyle
+import kotlin.math.roundToInt
+
+/**
+ * Builds the [TaskDisplayRow]s of the task list once per status update, off the main thread.
+ * The last row of every task is kept with the result it was built from; a field is only formatted
+ * again if its source values changed, and project icons are fetched from the monitor once per project.
+ * Not thread-safe, one update at a time.
+ */
+class TaskDisplayRowBuilder(
+        private val context: Context,
+        private val loadIcon: (projectUrl: String) -> Bitmap? = { loadProjectIcon(it) }
+) {
+    private val dateTimeFormatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM)
+    private val elapsedTimeStringBuilder = StringBuilder()
+    private val percentNumberFormat = NumberFormat.getPercentInstance().apply { minimumFractionDigits = 3 }
+
+    private val built = HashMap<String, Built>()
+    // null if the project has no icon (yet), looked up again on the next update
+    private val icons = HashMap<String, Bitmap?>()
+
+    private class Built(val result: Result, val row: TaskDisplayRow)
+
+    /**
+     * Returns the rows of [results], in their order. If [complete], [results] are all tasks
+     * and the rows of the tasks that are gone are dropped.
+     */
+    fun build(results: List<Result>, complete: Boolean): List<TaskDisplayRow> {
+        icons.entries.removeIf { it.value == null }
+
+        val rows = results.map { result ->
+            val previous = built[result.name]
+            if (previous != null && previous.result === result) {
+                previous.row // unchanged, e.g. shared with the previous update
+            } else {
+                build(result, previous).also { built[result.name] = Built(result, it) }
+            }
+        }
+
+        if (complete) {
+            built.keys.retainAll(results.mapTo(HashSet(results.size)) { it.name })
+        }
+        return rows
+    }
+
+    private fun build(result: Result, previous: Built?): TaskDisplayRow {
+        val old = previous?.result
+        val row = previous?.row
+        val state = TasksFragment.determineState(result)
+
+        val statusText = if (row != null && row.state == state && row.isActiveTask == result.isActiveTask) {
+            row.statusText
+        } else {
+            determineStatusText(result, state)
+        }
+        val percentage = if (old != null && old.fractionDone == result.fractionDone) {
+            row!!.percentage
+        } else {
+            percentNumberFormat.format(result.fractionDone)
+        }
+        val elapsedTime = if (old != null && elapsedSeconds(old) == elapsedSeconds(result)) {
+            row!!.elapsedTime
+        } else {
+            DateUtils.formatElapsedTime(elapsedTimeStringBuilder, elapsedSeconds(result))
+        }
+        val deadline = if (old != null && old.reportDeadline == result.reportDeadline) {
+            row!!.deadline
+        } else {
+            dateTimeFormatter.format(result.reportDeadline.secondsToLocalDateTime())
+        }
+        val projectName = if (old != null && old.project?.name == result.project?.name &&
+                old.isProjectSuspendedViaGUI == result.isProjectSuspendedViaGUI) {
+            row!!.projectName
+        } else {
+            formatProjectName(result)
+        }
+
+        return TaskDisplayRow(
+                name = result.name,
+                icon = row?.icon ?: icon(result.projectURL),
+                header = result.app?.displayName,
+                projectName = projectName,
+                state = state,
+                isActiveTask = result.isActiveTask,
+                statusText = statusText,
+                showPercentage = result.state !in NO_PERCENTAGE_STATES,
+                percentage = percentage,
+                progress = (result.fractionDone * TaskDisplayRow.PROGRESS_MAX).roundToInt(),
+                // result and process state are overlapping, e.g. PROCESS_EXECUTING and RESULT_FILES_DOWNLOADING
+                // therefore check also whether task is active
+                isExecuting = result.isActiveTask && state == PROCESS_EXECUTING,
+                elapsedTime = elapsedTime,
+                deadline = deadline,
+                isAborted = state == PROCESS_ABORTED,
+                suspendResumeOperation = when {
+                    result.isSuspendedViaGUI -> RpcClient.RESULT_RESUME
+                    state == PROCESS_EXECUTING -> RpcClient.RESULT_SUSPEND
+                    else -> TaskDisplayRow.NO_OPERATION
+                })
+    }
+
+    private fun icon(projectUrl: String): Bitmap? {
+        if (projectUrl in icons) {
+            return icons[projectUrl]
+        }
+        return loadIcon(projectUrl).also { icons[projectUrl] = it }
+    }
+
+    private fun formatProjectName(result: Result): String? {
+        val project = result.project ?: return result.projectURL
+        var projectName = project.name
+        if (result.isProjectSuspendedViaGUI) {
+            projectName += " " + context.getString(R.string.tasks_header_project_paused)
+        }
+        return projectName
+    }
+
+    private fun determineStatusText(result: Result, status: Int): String {
+        // custom state
+        if (status == RESULT_SUSPENDED_VIA_GUI) {
+            return context.getString(R.string.tasks_custom_suspended_via_gui)
+        }
+        if (status == RESULT_PROJECT_SUSPENDED) {
+            return context.getString(R.string.tasks_custom_project_suspended_via_gui)
+        }
+        if (status == RESULT_READY_TO_REPORT) {
+            return context.getString(R.string.tasks_custom_ready_to_report)
+        }
+
+        //active state
+        return if (result.isActiveTask) {
+            when (status) {
+                PROCESS_UNINITIALIZED -> context.getString(R.string.tasks_active_uninitialized)
+                PROCESS_EXECUTING -> context.getString(R.string.tasks_active_executing)
+                PROCESS_ABORT_PENDING -> context.getString(R.string.tasks_active_abort_pending)
+                PROCESS_QUIT_PENDING -> context.getString(R.string.tasks_active_quit_pending)
+                PROCESS_SUSPENDED -> context.getString(R.string.tasks_active_suspended)
+                else -> {
+                    Logging.logError(Logging.Category.TASKS,"determineStatusText could not map: $status"
+                    )
+
+                    ""
+                }
+            }
+        } else {
+            // passive state
+            when (status) {
+                RESULT_NEW -> context.getString(R.string.tasks_result_new)
+                RESULT_FILES_DOWNLOADING -> context.getString(R.string.tasks_result_files_downloading)
+                RESULT_FILES_DOWNLOADED -> context.getString(R.string.tasks_result_files_downloaded)
+                RESULT_COMPUTE_ERROR -> context.getString(R.string.tasks_result_compute_error)
+                RESULT_FILES_UPLOADING -> context.getString(R.string.tasks_result_files_uploading)
+                RESULT_FILES_UPLOADED -> context.getString(R.string.tasks_result_files_uploaded)
+                RESULT_ABORTED -> context.getString(R.string.tasks_result_aborted)
+                RESULT_UPLOAD_FAILED -> context.getString(R.string.tasks_result_upload_failed)
+                else -> {
+                    Logging.logError(Logging.Category.TASKS,"determineStatusText could not map: $status"
+                    )
+
+                    ""
+                }
+            }
+        }
+    }
+
+    companion object {
+        private val NO_PERCENTAGE_STATES = setOf(RESULT_ABORTED, RESULT_COMPUTE_ERROR, RESULT_FILES_DOWNLOADING,
+                RESULT_FILES_UPLOADED, RESULT_FILES_UPLOADING, RESULT_READY_TO_REPORT, RESULT_UPLOAD_FAILED)
+
+        // show time depending whether task is active or not
+        private fun elapsedSeconds(result: Result) = if (result.isActiveTask) {
+            result.elapsedTime.toLong() //is 0 when task finished
+        } else {
+            result.finalElapsedTime.toLong()
+        }
+
+        private fun loadProjectIcon(projectUrl: String): Bitmap? {
+            // try to get current client status from monitor
+            return try {
+                BOINCActivity.monitor?.getProjectIcon(projectUrl)
+            } catch (e: Exception) {
+                Logging.logException(Logging.Category.MONITOR, "TaskDisplayRowBuilder: Could not load data, clientStatus not initialized.", e)
+
+                null
+            }
+        }
+    }
+}
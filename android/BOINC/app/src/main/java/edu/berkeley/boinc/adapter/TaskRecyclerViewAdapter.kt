@@ -18,121 +18,93 @@
  */
 package edu.berkeley.boinc.adapter
 
-import android.graphics.Bitmap
-import android.text.format.DateUtils
 import android.view.LayoutInflater
 import android.view.View
 import android.view.ViewGroup
 import androidx.appcompat.content.res.AppCompatResources
+import androidx.recyclerview.widget.DiffUtil
+import androidx.recyclerview.widget.ListAdapter
 import androidx.recyclerview.widget.RecyclerView
-import edu.berkeley.boinc.BOINCActivity
 import edu.berkeley.boinc.R
 import edu.berkeley.boinc.TasksFragment
 import edu.berkeley.boinc.TasksFragment.TaskData
 import edu.berkeley.boinc.databinding.TasksLayoutListItemBinding
 import edu.berkeley.boinc.rpc.RpcClient
-import edu.berkeley.boinc.utils.Logging
-import edu.berkeley.boinc.utils.PROCESS_ABORTED
-import edu.berkeley.boinc.utils.PROCESS_ABORT_PENDING
-import edu.berkeley.boinc.utils.PROCESS_EXECUTING
-import edu.berkeley.boinc.utils.PROCESS_QUIT_PENDING
-import edu.berkeley.boinc.utils.PROCESS_SUSPENDED
-import edu.berkeley.boinc.utils.PROCESS_UNINITIALIZED
-import edu.berkeley.boinc.utils.RESULT_ABORTED
-import edu.berkeley.boinc.utils.RESULT_COMPUTE_ERROR
-import edu.berkeley.boinc.utils.RESULT_FILES_DOWNLOADED
-import edu.berkeley.boinc.utils.RESULT_FILES_DOWNLOADING
-import edu.berkeley.boinc.utils.RESULT_FILES_UPLOADED
-import edu.berkeley.boinc.utils.RESULT_FILES_UPLOADING
-import edu.berkeley.boinc.utils.RESULT_NEW
-import edu.berkeley.boinc.utils.RESULT_PROJECT_SUSPENDED
-import edu.berkeley.boinc.utils.RESULT_READY_TO_REPORT
-import edu.berkeley.boinc.utils.RESULT_SUSPENDED_VIA_GUI
-import edu.berkeley.boinc.utils.RESULT_UPLOAD_FAILED
 import edu.berkeley.boinc.utils.getColorCompat
-import edu.berkeley.boinc.utils.secondsToLocalDateTime
-import java.text.NumberFormat
-import java.time.format.DateTimeFormatter
-import java.time.format.FormatStyle
-import kotlin.math.roundToInt
 
+/**
+ * Tasks are keyed by their name. Every status update is diffed in the background against the
+ * displayed list, tasks that only made progress are rebound with [PAYLOAD_PROGRESS].
+ * The rows are formatted by [TaskDisplayRowBuilder] beforehand, binding only assigns their fields.
+ */
 class TaskRecyclerViewAdapter(
-        private val fragment: TasksFragment,
-        private val taskList: List<TasksFragment.TaskData>
-) : RecyclerView.Adapter<TaskRecyclerViewAdapter.ViewHolder>() {
-    private val dateTimeFormatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM)
-    private val elapsedTimeStringBuilder = StringBuilder()
-    private val percentNumberFormat = NumberFormat.getPercentInstance().apply { minimumFractionDigits = 3 }
+        private val fragment: TasksFragment
+) : ListAdapter<TaskRecyclerViewAdapter.Item, TaskRecyclerViewAdapter.ViewHolder>(DIFF_CALLBACK) {
+    private val buttonColor = fragment.requireContext().getColorCompat(R.color.dark_green)
 
     override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): ViewHolder {
         val binding = TasksLayoutListItemBinding.inflate(LayoutInflater.from(parent.context))
+        binding.progressBar.isIndeterminate = false
+        binding.progressBar.progressDrawable = AppCompatResources.getDrawable(parent.context, R.drawable.progressbar)
+        binding.progressBar.max = TaskDisplayRow.PROGRESS_MAX
         return ViewHolder(binding)
     }
 
-    override fun getItemCount() = taskList.size
-
-    override fun onBindViewHolder(holder: ViewHolder, position: Int) {
-        holder.root.setOnClickListener {
-            val taskData = taskList[position]
-            taskData.isExpanded = !taskData.isExpanded
-            notifyDataSetChanged()
+    /**
+     * Rebinds the row of the given task after a change of its UI state, e.g. expanded or waiting for a new state.
+     */
+    fun notifyTaskChanged(name: String) {
+        val position = currentList.indexOfFirst { it.row.name == name }
+        if (position >= 0) {
+            notifyItemChanged(position)
         }
+    }
 
-        val item = taskList[position]
-        val finalIconId = holder.projectIcon.tag as String?
-
-        if (item.id != finalIconId) {
-            val icon = getIcon(position)
-            if (icon == null) {
-                holder.projectIcon.setImageResource(R.drawable.ic_boinc)
-            } else {
-                holder.projectIcon.setImageBitmap(icon)
-                holder.projectIcon.tag = item.id
-            }
+    override fun onBindViewHolder(holder: ViewHolder, position: Int, payloads: MutableList<Any>) {
+        if (payloads.isNotEmpty() && payloads.all { it == PAYLOAD_PROGRESS }) {
+            bindProgress(holder, getItem(position))
+        } else {
+            onBindViewHolder(holder, position)
         }
+    }
 
-        val result = item.result
-
-        holder.header.text = result.app!!.displayName
+    override fun onBindViewHolder(holder: ViewHolder, position: Int) {
+        val item = getItem(position)
+        val task = item.task
+        val row = item.row
+        holder.root.setOnClickListener {
+            task.isExpanded = !task.isExpanded
+            notifyTaskChanged(task.id)
+        }
 
-        var tempProjectName: String? = result.projectURL
-        val project = result.project
-        if (project != null) {
-            tempProjectName = project.name
-            if (result.isProjectSuspendedViaGUI) {
-                tempProjectName += " " + fragment.getString(R.string.tasks_header_project_paused)
-            }
+        if (row.icon == null) {
+            holder.projectIcon.setImageResource(R.drawable.ic_boinc)
+        } else {
+            holder.projectIcon.setImageBitmap(row.icon)
         }
-        holder.projectName.text = tempProjectName
 
-        holder.status.text = determineStatusText(item)
+        holder.header.text = row.header
+        holder.projectName.text = row.projectName
+        holder.status.text = row.statusText
 
-        if (result.state in arrayOf(RESULT_ABORTED, RESULT_COMPUTE_ERROR, RESULT_FILES_DOWNLOADING,
-                        RESULT_FILES_UPLOADED, RESULT_FILES_UPLOADING, RESULT_READY_TO_REPORT,
-                        RESULT_UPLOAD_FAILED)) {
-            holder.statusPercentage.visibility = View.GONE
-        } else {
+        if (row.showPercentage) {
             holder.statusPercentage.visibility = View.VISIBLE
-            holder.statusPercentage.text = percentNumberFormat.format(result.fractionDone)
+            holder.statusPercentage.text = row.percentage
+        } else {
+            holder.statusPercentage.visibility = View.GONE
         }
 
         // --- end of independent view elements
 
         // progress bar: show when task active or expanded
-        // result and process state are overlapping, e.g. PROCESS_EXECUTING and RESULT_FILES_DOWNLOADING
-        // therefore check also whether task is active
-        val active = item.isTaskActive && item.determineState() == PROCESS_EXECUTING
-        if (active || item.isExpanded) {
+        if (row.isExecuting || task.isExpanded) {
             holder.progressBar.visibility = View.VISIBLE
-            holder.progressBar.isIndeterminate = false
-            holder.progressBar.progressDrawable = AppCompatResources.getDrawable(fragment.requireContext(),
-                    R.drawable.progressbar)
-            holder.progressBar.progress = (item.result.fractionDone * holder.progressBar.max).roundToInt()
+            holder.progressBar.progress = row.progress
         } else {
             holder.progressBar.visibility = View.GONE
         }
 
-        if (!item.isExpanded) {
+        if (!task.isExpanded) {
             // view is collapsed
             holder.expandButton.setImageResource(R.drawable.ic_baseline_keyboard_arrow_right)
             holder.rightColumnExpandWrapper.visibility = View.GONE
@@ -143,46 +115,32 @@ class TaskRecyclerViewAdapter(
             holder.rightColumnExpandWrapper.visibility = View.VISIBLE
             holder.centerColumnExpandWrapper.visibility = View.VISIBLE
 
-            // elapsed time
-            // show time depending whether task is active or not
-            val elapsedTime = if (item.result.isActiveTask) {
-                item.result.elapsedTime.toLong() //is 0 when task finished
-            } else {
-                item.result.finalElapsedTime.toLong()
-            }
-            holder.time.text = DateUtils.formatElapsedTime(elapsedTimeStringBuilder, elapsedTime)
-
-            // set deadline
-            val deadline = dateTimeFormatter.format(item.result.reportDeadline.secondsToLocalDateTime())
-            holder.deadline.text = deadline
-            // set application friendly name
-            if (result.app != null) {
-                holder.taskName.text = item.result.name
-            }
+            holder.time.text = row.elapsedTime
+            holder.deadline.text = row.deadline
+            holder.taskName.text = row.name
 
             // buttons
-            if (item.determineState() == PROCESS_ABORTED) { //dont show buttons for aborted task
+            if (row.isAborted) { //dont show buttons for aborted task
                 holder.rightColumnExpandWrapper.visibility = View.INVISIBLE
             } else {
-                if (item.nextState == -1) { // not waiting for new state
-                    holder.suspendResumeButton.setOnClickListener(item.iconClickListener)
-                    holder.abortButton.setOnClickListener(item.iconClickListener)
+                if (task.nextState == -1) { // not waiting for new state
+                    holder.suspendResumeButton.setOnClickListener(task.iconClickListener)
+                    holder.abortButton.setOnClickListener(task.iconClickListener)
                     holder.abortButton.tag = RpcClient.RESULT_ABORT // tag on button specified operation triggered in iconClickListener
                     holder.abortButton.visibility = View.VISIBLE
                     holder.requestProgressBar.visibility = View.GONE
-                    val context = fragment.requireContext()
 
                     // checking what suspendResume button should be shown
-                    when {
-                        item.result.isSuspendedViaGUI -> { // show play
+                    when (row.suspendResumeOperation) {
+                        RpcClient.RESULT_RESUME -> { // show play
                             holder.suspendResumeButton.visibility = View.VISIBLE
-                            holder.suspendResumeButton.setBackgroundColor(context.getColorCompat(R.color.dark_green))
+                            holder.suspendResumeButton.setBackgroundColor(buttonColor)
                             holder.suspendResumeButton.setImageResource(R.drawable.ic_baseline_play_arrow_white)
                             holder.suspendResumeButton.tag = RpcClient.RESULT_RESUME // tag on button specified operation triggered in iconClickListener
                         }
-                        item.determineState() == PROCESS_EXECUTING -> { // show pause
+                        RpcClient.RESULT_SUSPEND -> { // show pause
                             holder.suspendResumeButton.visibility = View.VISIBLE
-                            holder.suspendResumeButton.setBackgroundColor(context.getColorCompat(R.color.dark_green))
+                            holder.suspendResumeButton.setBackgroundColor(buttonColor)
                             holder.suspendResumeButton.setImageResource(R.drawable.ic_baseline_pause_white)
                             holder.suspendResumeButton.tag = RpcClient.RESULT_SUSPEND // tag on button specified operation triggered in iconClickListener
                         }
@@ -200,66 +158,12 @@ class TaskRecyclerViewAdapter(
         }
     }
 
-    private fun getIcon(position: Int): Bitmap? {
-        // try to get current client status from monitor
-        return try {
-            BOINCActivity.monitor!!.getProjectIcon(taskList[position].result.projectURL)
-        } catch (e: Exception) {
-            Logging.logException(Logging.Category.MONITOR, "TasksListAdapter: Could not load data, clientStatus not initialized.", e)
-
-            null
-        }
-    }
-
-    private fun determineStatusText(tmp: TaskData): String {
-        //read status
-        val status = tmp.determineState()
-
-        // custom state
-        if (status == RESULT_SUSPENDED_VIA_GUI) {
-            return fragment.getString(R.string.tasks_custom_suspended_via_gui)
-        }
-        if (status == RESULT_PROJECT_SUSPENDED) {
-            return fragment.getString(R.string.tasks_custom_project_suspended_via_gui)
-        }
-        if (status == RESULT_READY_TO_REPORT) {
-            return fragment.getString(R.string.tasks_custom_ready_to_report)
-        }
-
-        //active state
-        return if (tmp.result.isActiveTask) {
-            when (status) {
-                PROCESS_UNINITIALIZED -> fragment.getString(R.string.tasks_active_uninitialized)
-                PROCESS_EXECUTING -> fragment.getString(R.string.tasks_active_executing)
-                PROCESS_ABORT_PENDING -> fragment.getString(R.string.tasks_active_abort_pending)
-                PROCESS_QUIT_PENDING -> fragment.getString(R.string.tasks_active_quit_pending)
-                PROCESS_SUSPENDED -> fragment.getString(R.string.tasks_active_suspended)
-                else -> {
-                    Logging.logError(Logging.Category.TASKS,"determineStatusText could not map: $status"
-                    )
-
-                    ""
-                }
-            }
-        } else {
-            // passive state
-            when (status) {
-                RESULT_NEW -> fragment.getString(R.string.tasks_result_new)
-                RESULT_FILES_DOWNLOADING -> fragment.getString(R.string.tasks_result_files_downloading)
-                RESULT_FILES_DOWNLOADED -> fragment.getString(R.string.tasks_result_files_downloaded)
-                RESULT_COMPUTE_ERROR -> fragment.getString(R.string.tasks_result_compute_error)
-                RESULT_FILES_UPLOADING -> fragment.getString(R.string.tasks_result_files_uploading)
-                RESULT_FILES_UPLOADED -> fragment.getString(R.string.tasks_result_files_uploaded)
-                RESULT_ABORTED -> fragment.getString(R.string.tasks_result_aborted)
-                RESULT_UPLOAD_FAILED -> fragment.getString(R.string.tasks_result_upload_failed)
-                else -> {
-                    Logging.logError(Logging.Category.TASKS,"determineStatusText could not map: $status"
-                    )
-
-                    ""
-                }
-            }
-        }
+    // only the texts and bars that follow the progress of a task, its state is unchanged
+    private fun bindProgress(holder: ViewHolder, item: Item) {
+        val row = item.row
+        holder.statusPercentage.text = row.percentage
+        holder.progressBar.progress = row.progress
+        holder.time.text = row.elapsedTime
     }
 
     class ViewHolder(binding: TasksLayoutListItemBinding) : RecyclerView.ViewHolder(binding.root) {
@@ -280,4 +184,28 @@ class TaskRecyclerViewAdapter(
         val abortButton = binding.abortTask
         val deadline = binding.deadline
     }
+
+    /**
+     * Row of the list: the task with its UI state, and the display row and pending state the row is diffed on.
+     */
+    class Item(val task: TaskData, val row: TaskDisplayRow, val nextState: Int)
+
+    companion object {
+        /**
+         * Change payload of a task that made progress without changing its state.
+         */
+        const val PAYLOAD_PROGRESS = "progress"
+
+        val DIFF_CALLBACK = object : DiffUtil.ItemCallback<Item>() {
+            override fun areItemsTheSame(oldItem: Item, newItem: Item) = oldItem.row.name == newItem.row.name
+
+            override fun areContentsTheSame(oldItem: Item, newItem: Item) =
+                    oldItem.nextState == newItem.nextState && oldItem.row == newItem.row
+
+            override fun getChangePayload(oldItem: Item, newItem: Item): Any? {
+                val sameState = oldItem.nextState == newItem.nextState && oldItem.row.isProgressOf(newItem.row)
+                return if (sameState) PAYLOAD_PROGRESS else null
+            }
+        }
+    }
 }
@@ -33,6 +33,11 @@ import edu.berkeley.boinc.R
 import edu.berkeley.boinc.client.IMonitor
 import edu.berkeley.boinc.client.Monitor
 import edu.berkeley.boinc.client.PersistentStorage
+import edu.berkeley.boinc.client.awaitAddAcctMgr
+import edu.berkeley.boinc.client.awaitAttachProject
+import edu.berkeley.boinc.client.awaitCreateAccount
+import edu.berkeley.boinc.client.awaitLookupCredentials
+import edu.berkeley.boinc.client.awaitProjectConfig
 import edu.berkeley.boinc.rpc.*
 import edu.berkeley.boinc.utils.*
 import java.util.*
@@ -243,7 +248,7 @@ class ProjectAttachService : LifecycleService() {
      * @param pwd  password
      * @return result code, see BOINCErrors
      */
-    fun attachAcctMgr(url: String, name: String, pwd: String?): ErrorCodeDescription {
+    suspend fun attachAcctMgr(url: String, name: String, pwd: String): ErrorCodeDescription {
         var reply = ErrorCodeDescription()
         val maxAttempts = resources.getInteger(R.integer.attach_acctmgr_retries)
         var attemptCounter = 0
@@ -255,7 +260,7 @@ class ProjectAttachService : LifecycleService() {
         // makes login more robust on bad network connections
         while (retry && attemptCounter < maxAttempts) {
             try {
-                reply = monitor!!.addAcctMgrErrorNum(url, name, pwd)
+                reply = monitor!!.awaitAddAcctMgr(url, name, pwd)
             } catch (e: RemoteException) {
                 Logging.logException(Logging.Category.MONITOR, "ProjectAttachService.attachAcctMgr error: ", e)
             }
@@ -269,7 +274,7 @@ class ProjectAttachService : LifecycleService() {
                 else -> retry = false
             }
             if (retry) {
-                Thread.sleep(resources.getInteger(R.integer.attach_step_interval_ms).toLong())
+                delay(resources.getInteger(R.integer.attach_step_interval_ms).toLong())
             }
         }
         if (reply.isOK) {
@@ -346,7 +351,7 @@ class ProjectAttachService : LifecycleService() {
          *
          * @return returns status conflict
          */
-        fun lookupAndAttach(forceLookup: Boolean): Int {
+        suspend fun lookupAndAttach(forceLookup: Boolean): Int {
             var isForceLookup = forceLookup
 
             Logging.logDebug(Logging.Category.PROJECT_SERVICE, "ProjectAttachWrapper.attach: attempting: $name")
@@ -457,7 +462,7 @@ class ProjectAttachService : LifecycleService() {
          *
          * @return credentials
          */
-        private fun register(): AccountOut? {
+        private suspend fun register(): AccountOut? {
             var credentials: AccountOut? = null
             var retry = true
             var attemptCounter = 0
@@ -467,7 +472,7 @@ class ProjectAttachService : LifecycleService() {
             while (retry && attemptCounter < maxAttempts) {
                 if (mIsBound) {
                     try {
-                        credentials = monitor!!.createAccountPolling(getAccountIn(email, user, pwd))
+                        credentials = monitor!!.awaitCreateAccount(getAccountIn(email, user, pwd))
                     } catch (e: RemoteException) {
                         Logging.logException(Logging.Category.PROJECT_SERVICE, "ProjectAttachService.register error: ", e)
                     }
@@ -500,7 +505,7 @@ class ProjectAttachService : LifecycleService() {
          *
          * @return credentials
          */
-        fun login(): AccountOut? {
+        suspend fun login(): AccountOut? {
             var credentials: AccountOut? = null
             var retry = true
             var attemptCounter = 0
@@ -510,7 +515,7 @@ class ProjectAttachService : LifecycleService() {
             while (retry && attemptCounter < maxAttempts) {
                 if (mIsBound) {
                     try {
-                        credentials = monitor!!.lookupCredentials(getAccountIn(email, user, pwd))
+                        credentials = monitor!!.awaitLookupCredentials(getAccountIn(email, user, pwd))
                     } catch (e: RemoteException) {
                         Logging.logException(Logging.Category.PROJECT_SERVICE, "ProjectAttachService.login error: ", e)
                     }
@@ -531,16 +536,16 @@ class ProjectAttachService : LifecycleService() {
                     }
                 }
                 if (retry) {
-                    Thread.sleep(resources.getInteger(R.integer.attach_step_interval_ms).toLong())
+                    delay(resources.getInteger(R.integer.attach_step_interval_ms).toLong())
                 }
             }
             return credentials
         }
 
-        private fun attach(authenticator: String?): Boolean {
+        private suspend fun attach(authenticator: String?): Boolean {
             if (mIsBound) {
                 try {
-                    return monitor!!.attachProject(config!!.masterUrl, config!!.name, authenticator)
+                    return monitor!!.awaitAttachProject(config!!.masterUrl, config!!.name, authenticator)
                 } catch (e: RemoteException) {
                     Logging.logException(Logging.Category.PROJECT_SERVICE, "ProjectAttachService.attach error: ", e)
                 }
@@ -601,7 +606,7 @@ class ProjectAttachService : LifecycleService() {
         while (retry && attemptCounter < maxAttempts) {
             if (mIsBound) {
                 try {
-                    config = monitor!!.getProjectConfigPolling(url)
+                    config = monitor!!.awaitProjectConfig(url)
                 } catch (e: RemoteException) {
                     Logging.logException(Logging.Category.PROJECT_SERVICE, "ProjectAttachService.getProjectConfig error: ", e)
                 }
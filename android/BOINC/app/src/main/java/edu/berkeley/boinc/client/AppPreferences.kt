@@ -21,6 +21,7 @@ package edu.berkeley.boinc.client
 import android.content.Context
 import androidx.preference.PreferenceManager
 import edu.berkeley.boinc.R
+import edu.berkeley.boinc.rpc.ParserEngine
 import edu.berkeley.boinc.utils.Logging
 import javax.inject.Inject
 import javax.inject.Singleton
@@ -46,6 +47,11 @@ class AppPreferences @Inject constructor(val context: Context) {
             field = value
             Logging.setLogCategories(value)
         }
+    var parserEngine = prefs.getString("parserEngine", context.getString(R.string.prefs_default_parser_engine))!!
+        set(value) {
+            field = value
+            ParserEngine.current = ParserEngine.valueOf(value)
+        }
     var powerSourceAc = prefs.getBoolean("powerSourceAc", context.resources.getBoolean(R.bool.prefs_power_source_ac))
     var powerSourceUsb = prefs.getBoolean("powerSourceUsb", context.resources.getBoolean(R.bool.prefs_power_source_usb))
     var powerSourceWireless = prefs.getBoolean("powerSourceWireless",
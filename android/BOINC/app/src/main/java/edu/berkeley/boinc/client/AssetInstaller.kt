@@ -0,0 +1,168 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.utils.Logging
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.nio.channels.Channels
+import java.security.DigestInputStream
+import java.security.MessageDigest
+import okio.ByteString.Companion.toByteString
+
+/**
+ * Installs files from the assets of the APK into the working directory of the client and tells
+ * whether an installed file is up to date without reading it.
+ *
+ * The build writes SHA-256 and size of every asset to [MANIFEST] (see app/build.gradle). For every
+ * installed file, hash, size and modification time are recorded in [RECORDS] in the working directory.
+ * A file is up to date if its size and modification time still match the record and the recorded hash
+ * matches the manifest. Assets missing from the manifest, e.g. in builds without the manifest task,
+ * are hashed while streaming them once.
+ *
+ * @param openAsset opens an asset by its path, e.g. AssetManager.open
+ * @param workingDir the working directory of the client
+ */
+class AssetInstaller(private val openAsset: (String) -> InputStream, private val workingDir: File) {
+    private class Entry(val sha256: String, val size: Long, val modified: Long = 0L)
+
+    private val manifest: Map<String, Entry> by lazy { readManifest() }
+    private val records: MutableMap<String, Entry> by lazy { readRecords() }
+
+    /**
+     * @param asset path of the asset
+     * @param target installed copy of [asset]
+     * @return whether [target] has the content of [asset]
+     */
+    @Synchronized
+    fun isInstalled(asset: String, target: File): Boolean {
+        val record = records[target.name]
+        if (record == null || !target.isFile || target.length() != record.size ||
+                target.lastModified() != record.modified) {
+            return false // never installed by this installer, or changed since
+        }
+        val expected = manifest[asset]?.sha256 ?: assetSha256(asset)
+        return expected == record.sha256
+    }
+
+    /**
+     * Copies [asset] to [target] through a temporary file, so an interrupted copy does not leave a
+     * truncated file behind, and records the hash of what was written.
+     *
+     * @return success
+     */
+    @Synchronized
+    fun install(asset: String, target: File, executable: Boolean): Boolean {
+        target.parentFile?.mkdirs()
+        val temporary = File(target.path + ".tmp")
+        try {
+            val digest = MessageDigest.getInstance("SHA-256")
+            val size = DigestInputStream(openAsset(asset), digest).use { input ->
+                Channels.newChannel(input).use { source ->
+                    FileOutputStream(temporary).channel.use { it.transferFrom(source, 0, Long.MAX_VALUE) }
+                }
+            }
+            if (!temporary.renameTo(target)) {
+                throw IOException("could not rename $temporary to $target")
+            }
+            if (executable && !target.setExecutable(true)) {
+                return false
+            }
+            records[target.name] = Entry(digest.digest().toByteString().hex(), size, target.lastModified())
+            writeRecords()
+            return true
+        } catch (e: IOException) {
+            Logging.logException(Logging.Category.MONITOR, "AssetInstaller: install of $asset failed", e)
+            temporary.delete()
+            records.remove(target.name)
+            return false
+        }
+    }
+
+    private fun assetSha256(asset: String): String? {
+        return try {
+            val digest = MessageDigest.getInstance("SHA-256")
+            DigestInputStream(openAsset(asset), digest).use { input ->
+                val buffer = ByteArray(BUFFER_SIZE)
+                while (input.read(buffer) != -1) {
+                    // digest only
+                }
+            }
+            digest.digest().toByteString().hex()
+        } catch (e: IOException) {
+            Logging.logException(Logging.Category.MONITOR, "AssetInstaller: could not hash $asset", e)
+            null
+        }
+    }
+
+    private fun readManifest(): Map<String, Entry> {
+        return try {
+            openAsset(MANIFEST).bufferedReader().useLines { lines ->
+                lines.mapNotNull { parse(it) }.associate { (path, entry) -> path to entry }
+            }
+        } catch (e: IOException) {
+            Logging.logDebug(Logging.Category.MONITOR, "AssetInstaller: no asset manifest, assets are hashed")
+            emptyMap()
+        }
+    }
+
+    // line format: <sha256> <size> <path>
+    private fun parse(line: String): Pair<String, Entry>? {
+        val fields = line.split(' ', limit = 3)
+        val size = fields.getOrNull(1)?.toLongOrNull() ?: return null
+        return if (fields.size == 3) fields[2] to Entry(fields[0], size) else null
+    }
+
+    private fun readRecords(): MutableMap<String, Entry> {
+        val records = HashMap<String, Entry>()
+        try {
+            File(workingDir, RECORDS).takeIf { it.isFile }?.forEachLine { line ->
+                // line format: <sha256> <size> <modified> <file name>
+                val fields = line.split(' ', limit = 4)
+                val size = fields.getOrNull(1)?.toLongOrNull()
+                val modified = fields.getOrNull(2)?.toLongOrNull()
+                if (fields.size == 4 && size != null && modified != null) {
+                    records[fields[3]] = Entry(fields[0], size, modified)
+                }
+            }
+        } catch (e: IOException) {
+            Logging.logException(Logging.Category.MONITOR, "AssetInstaller: could not read $RECORDS", e)
+        }
+        return records
+    }
+
+    private fun writeRecords() {
+        val text = records.entries.joinToString("") { (name, entry) ->
+            "${entry.sha256} ${entry.size} ${entry.modified} $name\n"
+        }
+        try {
+            File(workingDir, RECORDS).writeText(text)
+        } catch (e: IOException) {
+            Logging.logException(Logging.Category.MONITOR, "AssetInstaller: could not write $RECORDS", e)
+        }
+    }
+
+    companion object {
+        const val MANIFEST = "asset_manifest.txt"
+        const val RECORDS = ".installed_assets"
+        private const val BUFFER_SIZE = 8192
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import androidx.collection.LruCache
+import java.io.File
+
+/**
+ * Memory bounded LRU cache for the project icons and slideshow images of ClientStatus.
+ * Resolved soft links and decoded bitmaps are both validated by the modification time
+ * of their file, so a project update that replaces a file is picked up on the next access.
+ */
+class BitmapCache @JvmOverloads constructor(
+        maxBytes: Int = defaultMaxBytes(),
+        private val decoder: (String) -> Bitmap? = BitmapFactory::decodeFile
+) {
+    private class CachedBitmap(val bitmap: Bitmap, val lastModified: Long)
+
+    private class CachedLink(val target: String?, val lastModified: Long)
+
+    private val bitmaps = object : LruCache<String, CachedBitmap>(maxBytes) {
+        override fun sizeOf(key: String, value: CachedBitmap) = value.bitmap.byteCount
+    }
+    private val links = HashMap<String, CachedLink>()
+    private val warmed = HashMap<String, Long>() // modification time of the warmed up files
+
+    /**
+     * Target of a BOINC soft link file, resolved again only if the link file changed.
+     *
+     * @param resolve reads the soft link file, returns null if it can not be parsed
+     */
+    @Synchronized
+    fun resolveSoftLink(pathOfSoftLink: String, resolve: (String) -> String?): String? {
+        val lastModified = File(pathOfSoftLink).lastModified() // 0 if it does not exist
+        val cached = links[pathOfSoftLink]
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.target
+        }
+        val target = if (lastModified == 0L) null else resolve(pathOfSoftLink)
+        links[pathOfSoftLink] = CachedLink(target, lastModified)
+        return target
+    }
+
+    /**
+     * Decoded image file, decoded again only if the file changed.
+     */
+    fun decode(path: String): Bitmap? {
+        val lastModified = File(path).lastModified()
+        val cached = bitmaps[path]
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.bitmap
+        }
+        val bitmap = decoder(path)
+        if (bitmap == null) {
+            bitmaps.remove(path)
+        } else {
+            bitmaps.put(path, CachedBitmap(bitmap, lastModified))
+        }
+        return bitmap
+    }
+
+    /**
+     * Decodes the image file ahead of its first use, if it is new or changed since it was warmed up.
+     * Unlike [decode], a bitmap evicted since is not decoded again, it is decoded on its next use.
+     */
+    fun warm(path: String) {
+        val lastModified = File(path).lastModified()
+        if (synchronized(warmed) { warmed.put(path, lastModified) } != lastModified) {
+            decode(path)
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        links.clear()
+        synchronized(warmed) { warmed.clear() }
+        bitmaps.evictAll()
+    }
+
+    companion object {
+        // an eighth of the heap of the Monitor process, at most 16 MiB
+        private fun defaultMaxBytes() = minOf(Runtime.getRuntime().maxMemory() / 8, 16L shl 20).toInt()
+    }
+}
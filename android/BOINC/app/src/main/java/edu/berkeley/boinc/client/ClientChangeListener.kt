@@ -0,0 +1,122 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.ClientChanges
+import edu.berkeley.boinc.rpc.PollBackoff
+import edu.berkeley.boinc.rpc.RpcClient
+import edu.berkeley.boinc.utils.Logging
+
+/**
+ * Long-polls the client with wait_for_changes on a connection of its own and calls [onChange]
+ * from its own thread whenever the client reports changed tasks, transfers, notices or status.
+ * If the client does not know the RPC, the listener stops for good and [isSupported] turns false,
+ * the Monitor relies on polling alone then.
+ *
+ * @param connect opens and authorizes the given connection
+ * @param onChange called with every non-empty change set
+ */
+class ClientChangeListener @JvmOverloads constructor(
+        private val connect: (RpcClient) -> Boolean,
+        private val onChange: (ClientChanges) -> Unit,
+        private val client: RpcClient = RpcClient(),
+        private val reconnectBackoff: PollBackoff = PollBackoff(1000, 30000)
+) {
+    @Volatile
+    var isSupported = true
+        private set
+
+    /**
+     * Connected and waiting for changes, i.e. the Monitor is woken up on changes
+     */
+    @Volatile
+    var isListening = false
+        private set
+
+    @Volatile
+    private var running = false
+    private var thread: Thread? = null
+
+    @Synchronized
+    fun start() {
+        if (!isSupported) {
+            return
+        }
+        running = true
+        if (thread?.isAlive == true) {
+            return // still waiting for its last reply, keeps going
+        }
+        thread = Thread(::listen, "ClientChangeListener").apply {
+            isDaemon = true
+            start()
+        }
+    }
+
+    /**
+     * Stops after the pending wait_for_changes returned, i.e. within its timeout
+     */
+    @Synchronized
+    fun stop() {
+        running = false
+    }
+
+    private fun listen() {
+        var seqno = 0L
+        var retryDelayMs = reconnectBackoff.initialDelayMs
+        try {
+            while (running) {
+                val changes = if (client.connectionAlive() || connect(client)) {
+                    client.waitForChanges(seqno, RpcClient.WAIT_FOR_CHANGES_TIMEOUT)
+                } else {
+                    null
+                }
+                when {
+                    changes == null -> {
+                        // connection problem or client restarted, its sequence numbers start over
+                        isListening = false
+                        client.close()
+                        seqno = 0L
+                        Thread.sleep(retryDelayMs)
+                        retryDelayMs = reconnectBackoff.next(retryDelayMs)
+                    }
+                    changes.unsupported -> {
+                        Logging.logDebug(Logging.Category.MONITOR,
+                                "ClientChangeListener: client does not support wait_for_changes, polling only")
+                        isSupported = false
+                        running = false
+                    }
+                    else -> {
+                        isListening = true
+                        retryDelayMs = reconnectBackoff.initialDelayMs
+                        // the first reply only hands out the current sequence number
+                        if (seqno != 0L && !changes.isEmpty) {
+                            onChange(changes)
+                        }
+                        seqno = changes.seqno
+                    }
+                }
+            }
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+        } finally {
+            isListening = false
+            client.close()
+        }
+    }
+}
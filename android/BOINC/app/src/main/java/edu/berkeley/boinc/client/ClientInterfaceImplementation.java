@@ -1,18 +1,15 @@
 package edu.berkeley.boinc.client;
 
-import edu.berkeley.boinc.rpc.AccountIn;
+import android.os.SystemClock;
+import androidx.annotation.VisibleForTesting;
 import edu.berkeley.boinc.rpc.AccountManager;
-import edu.berkeley.boinc.rpc.AccountOut;
-import edu.berkeley.boinc.rpc.AcctMgrRPCReply;
 import edu.berkeley.boinc.rpc.GlobalPreferences;
 import edu.berkeley.boinc.rpc.Message;
 import edu.berkeley.boinc.rpc.Project;
-import edu.berkeley.boinc.rpc.ProjectAttachReply;
-import edu.berkeley.boinc.rpc.ProjectConfig;
 import edu.berkeley.boinc.rpc.ProjectInfo;
 import edu.berkeley.boinc.rpc.RpcClient;
+import edu.berkeley.boinc.rpc.RpcLane;
 import edu.berkeley.boinc.rpc.Transfer;
-import edu.berkeley.boinc.utils.BOINCErrors;
 import edu.berkeley.boinc.utils.Logging;
 import java.io.BufferedReader;
 import java.io.File;
@@ -21,7 +18,9 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -32,9 +31,28 @@ import javax.inject.Singleton;
  */
 @Singleton
 public class ClientInterfaceImplementation extends RpcClient {
-    // interval between polling retries in ms
-    private final int minRetryInterval = 1000;
+    static final long PRIORITY_RECONNECT_INTERVAL_MS = 10000;
+
     private ClientStatus clientStatus;
+    // second connection for control RPCs (task, project, transfer and mode operations),
+    // so they never wait behind bulk reads like get_state on the main connection
+    private final RpcClient priorityClient = new RpcClient();
+    private final RpcLane bulkLane = new RpcLane("bulk", this);
+    private final RpcLane priorityLane = new RpcLane("priority", priorityClient);
+    // where the priority connection was opened, to reopen it after it broke. Null while disconnected.
+    private volatile String prioritySocketAddress = null;
+    private volatile String priorityAuthFilePath = null;
+    private final Object priorityReconnectLock = new Object();
+    // elapsed realtime before which the priority connection is not reopened, guarded by priorityReconnectLock
+    private long priorityReconnectAt = 0;
+    private final ProjectCatalog projectCatalog = new ProjectCatalog(this::getAllProjects);
+    // client messages read so far, only newer ones are requested from the client. Guarded by itself.
+    private final MessageLog messageLog = new MessageLog();
+    // the message log holds every message with a seqno from here on the client had when it was read,
+    // Integer.MAX_VALUE if nothing was read yet. Guarded by messageLog.
+    private int messageLogFrom = Integer.MAX_VALUE;
+    // process key of the client the message log was read from, empty if none
+    private String messageLogClient = "";
 
     @Inject
     public ClientInterfaceImplementation(ClientStatus clientStatus) {
@@ -59,7 +77,7 @@ public class ClientInterfaceImplementation extends RpcClient {
      * @return success
      */
     public Boolean setRunMode(Integer mode) {
-        return setRunMode(mode, 0);
+        return getPriorityLane().call(client -> client.setRunMode(mode, 0));
     }
 
     /**
@@ -69,7 +87,7 @@ public class ClientInterfaceImplementation extends RpcClient {
      * @return success
      */
     public Boolean setNetworkMode(Integer mode) {
-        return setNetworkMode(mode, 0);
+        return getPriorityLane().call(client -> client.setNetworkMode(mode, 0));
     }
 
     /**
@@ -114,79 +132,6 @@ public class ClientInterfaceImplementation extends RpcClient {
         return authKey;
     }
 
-    /**
-     * Reads project configuration for specified master URL.
-     *
-     * @param url master URL of the project
-     * @return project configuration information
-     */
-    public ProjectConfig getProjectConfigPolling(String url) {
-        ProjectConfig config = null;
-
-        Boolean success = getProjectConfig(url); //asynchronous call
-        if (success) { //only continue if attach command did not fail
-            // verify success of getProjectConfig with poll function
-            Boolean loop = true;
-            while (loop) {
-                loop = false;
-                try {
-                    Thread.sleep(minRetryInterval);
-                } catch (Exception ignored) {
-                }
-                config = getProjectConfigPoll();
-                if (config == null) {
-                    Logging.logError(Logging.Category.CLIENT, "ClientInterfaceImplementation.getProjectConfigPolling: returned null.");
-
-                    return null;
-                }
-                if (config.getErrorNum() == BOINCErrors.ERR_IN_PROGRESS) {
-                    loop = true; //no result yet, keep looping
-                } else {
-                    //final result ready
-                    if (config.getErrorNum() == 0) {
-                        Logging.logDebug(Logging.Category.CLIENT,
-                                "ClientInterfaceImplementation.getProjectConfigPolling: ProjectConfig retrieved: " +
-                                config.getName());
-                    } else {
-                        Logging.logDebug(Logging.Category.CLIENT,
-                                "ClientInterfaceImplementation.getProjectConfigPolling: final result with error_num: " +
-                                config.getErrorNum());
-                    }
-                }
-            }
-        }
-        return config;
-    }
-
-    /**
-     * Attaches project, requires authenticator
-     *
-     * @param url           URL of project to be attached, either masterUrl(HTTP) or webRpcUrlBase(HTTPS)
-     * @param projectName   name of project as shown in the manager
-     * @param authenticator user authentication key, has to be obtained first
-     * @return success
-     */
-
-    public Boolean attachProject(String url, String projectName, String authenticator) {
-        Boolean success = projectAttach(url, authenticator, projectName); //asynchronous call to attach project
-        if (success) {
-            // verify success of projectAttach with poll function
-            ProjectAttachReply reply = projectAttachPoll();
-            while (reply != null && reply.getErrorNum() ==
-                                    BOINCErrors.ERR_IN_PROGRESS) { // loop as long as reply.error_num == BOINCErrors.ERR_IN_PROGRESS
-                try {
-                    Thread.sleep(minRetryInterval);
-                } catch (Exception ignored) {
-                }
-                reply = projectAttachPoll();
-            }
-            return (reply != null && reply.getErrorNum() == BOINCErrors.ERR_OK);
-        } else {
-            Logging.logDebug(Logging.Category.CLIENT, "rpc.projectAttach failed.");
-        }
-        return false;
-    }
-
     /**
      * Checks whether project of given master URL is currently attached to BOINC client
      *
@@ -210,51 +155,6 @@ public class ClientInterfaceImplementation extends RpcClient {
         return false;
     }
 
-    /**
-     * Looks up account credentials for given user data.
-     * Contains authentication key for project attachment.
-     *
-     * @param credentials account credentials
-     * @return account credentials
-     */
-
-    public AccountOut lookupCredentials(AccountIn credentials) {
-        AccountOut auth = null;
-        Boolean success = lookupAccount(credentials); //asynch
-        if (success) {
-            // get authentication token from lookupAccountPoll
-            Boolean loop = true;
-            while (loop) {
-                loop = false;
-                try {
-                    Thread.sleep(minRetryInterval);
-                } catch (Exception ignored) {
-                }
-                auth = lookupAccountPoll();
-                if (auth == null) {
-                    Logging.logError(Logging.Category.CLIENT, "ClientInterfaceImplementation.lookupCredentials: returned null.");
-
-                    return null;
-                }
-                if (auth.getErrorNum() == BOINCErrors.ERR_IN_PROGRESS) {
-                    loop = true; //no result yet, keep looping
-                } else {
-                    //final result ready
-                    if (auth.getErrorNum() == 0) {
-                        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.lookupCredentials: authenticator retrieved.");
-                    } else {
-                        Logging.logDebug(Logging.Category.CLIENT,
-                                "ClientInterfaceImplementation.lookupCredentials: final result with error_num: " +
-                                auth.getErrorNum());
-                    }
-                }
-            }
-        } else {
-            Logging.logDebug(Logging.Category.CLIENT, "rpc.lookupAccount failed.");
-        }
-        return auth;
-    }
-
     /**
      * Runs transferOp for a list of given transfers.
      * E.g. batch pausing of transfers
@@ -265,219 +165,92 @@ public class ClientInterfaceImplementation extends RpcClient {
      */
 
     boolean transferOperation(List<Transfer> transfers, int operation) {
-        boolean success = true;
-        for (Transfer transfer : transfers) {
-            success = success && transferOp(operation, transfer.getProjectUrl(), transfer.getName());
+        return getPriorityLane().call(client -> {
+            boolean success = true;
+            for (Transfer transfer : transfers) {
+                success = success && client.transferOp(operation, transfer.getProjectUrl(), transfer.getName());
 
-            Logging.logDebug(Logging.Category.CLIENT, "transfer: " + transfer.getName() + " " + success);
-        }
-        return success;
+                Logging.logDebug(Logging.Category.CLIENT, "transfer: " + transfer.getName() + " " + success);
+            }
+            return success;
+        });
     }
 
-    /**
-     * Creates account for given user information and returns account credentials if successful.
-     *
-     * @param information account credentials
-     * @return account credentials (see status inside, to check success)
-     */
-
-    public AccountOut createAccountPolling(AccountIn information) {
-        AccountOut auth = null;
-
-        Boolean success = createAccount(information); //asynchronous call to attach project
-        if (success) {
-            Boolean loop = true;
-            while (loop) {
-                loop = false;
-                try {
-                    Thread.sleep(minRetryInterval);
-                } catch (Exception ignored) {
-                }
-                auth = createAccountPoll();
-                if (auth == null) {
-                    Logging.logError(Logging.Category.CLIENT, "ClientInterfaceImplementation.createAccountPolling: returned null.");
-
-                    return null;
-                }
-                if (auth.getErrorNum() == BOINCErrors.ERR_IN_PROGRESS) {
-                    loop = true; //no result yet, keep looping
-                } else {
-                    //final result ready
-                    if (auth.getErrorNum() == 0) {
-                        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.createAccountPolling: authenticator retrieved.");
-                    } else {
-                        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.createAccountPolling: final result with error_num: "
-                                + auth.getErrorNum());
-                    }
-                }
-            }
-        } else {
-            Logging.logDebug(Logging.Category.CLIENT, "rpc.createAccount returned false.");
-        }
-        return auth;
+    @Override
+    public boolean setCcConfig(String ccConfig) {
+        // set CC config and trigger re-read.
+        super.setCcConfig(ccConfig);
+        return super.readCcConfig();
     }
 
     /**
-     * Adds account manager to BOINC client.
-     * There can only be a single acccount manager be active at a time.
+     * Returns event log messages within a window of sequence numbers.
+     * Messages the log does not hold yet are requested from the client first.
      *
-     * @param url      URL of account manager
-     * @param userName user name
-     * @param pwd      password
-     * @return status of attachment
+     * @param from lowest sequence number, inclusive
+     * @param to   highest sequence number, exclusive
+     * @return list of the oldest {@link MessageLog#MAX_WINDOW} messages of the window in ascending order,
+     * empty if none are kept in the window. Continue after the last one for the rest of the window.
      */
-
-    public AcctMgrRPCReply addAcctMgr(String url, String userName, String pwd) {
-        AcctMgrRPCReply reply = null;
-        Boolean success = acctMgrRPC(url, userName, pwd);
-        if (success) {
-            Boolean loop = true;
-            while (loop) {
-                reply = acctMgrRPCPoll();
-                if (reply == null || reply.getErrorNum() != BOINCErrors.ERR_IN_PROGRESS) {
-                    loop = false;
-                    //final result ready
-                    if (reply == null) {
-                        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.addAcctMgr: failed, reply null.");
-                    } else {
-                        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.addAcctMgr: returned " +
-                                reply.getErrorNum());
-                    }
-                } else {
-                    try {
-                        Thread.sleep(minRetryInterval);
-                    } catch (Exception ignored) {
-                    }
-                }
-            }
-        } else {
-            Logging.logDebug(Logging.Category.CLIENT, "rpc.acctMgrRPC returned false.");
+    List<Message> getMessageWindow(int from, int to) {
+        synchronized(messageLog) {
+            readMessages(from);
+            return messageLog.window(from, to, MessageLog.MAX_WINDOW);
         }
-        return reply;
     }
 
-
     /**
-     * Synchronized BOINC client projects with information of account manager.
-     * Sequence copied from BOINC's desktop manager.
+     * Returns List of event log messages
      *
-     * @param url URL of account manager
-     * @return success
+     * @param seqNo  upper bound of sequence number, exclusive. if seqNo <= 0, the most recent messages
+     * @param number number of messages returned max, can be less. At most {@link MessageLog#MAX_WINDOW}
+     * @return list of messages in ascending order
      */
-    boolean synchronizeAcctMgr(String url) {
-        // 1st get_project_config for account manager url
-        boolean success = getProjectConfig(url);
-        ProjectConfig reply;
-        if (success) {
-            boolean loop = true;
-            while (loop) {
-                loop = false;
-                try {
-                    Thread.sleep(minRetryInterval);
-                } catch (Exception ignored) {
-                }
-                reply = getProjectConfigPoll();
-                if (reply == null) {
-                    Logging.logError(Logging.Category.CLIENT, "ClientInterfaceImplementation.synchronizeAcctMgr: getProjectConfig returned null.");
-
-                    return false;
-                }
-                if (reply.getErrorNum() == BOINCErrors.ERR_IN_PROGRESS) {
-                    loop = true; //no result yet, keep looping
-                } else {
-                    //final result ready
-                    if (reply.getErrorNum() == 0) {
-                        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.synchronizeAcctMgr: project config retrieved.");
-                    } else {
-                        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.synchronize" +
-                                "AcctMgr: final result with error_num: " + reply.getErrorNum());
-                    }
-                }
-            }
-        } else {
-            Logging.logDebug(Logging.Category.CLIENT, "rpc.getProjectConfig returned false.");
-        }
-
-        // 2nd acct_mgr_rpc with <use_config_file/>
-        AcctMgrRPCReply reply2;
-        success = acctMgrRPC(); //asynchronous call to synchronize account manager
-        if (success) {
-            boolean loop = true;
-            while (loop) {
-                loop = false;
-                try {
-                    Thread.sleep(minRetryInterval);
-                } catch (Exception ignored) {
-                }
-                reply2 = acctMgrRPCPoll();
-                if (reply2 == null) {
-                    Logging.logError(Logging.Category.CLIENT,
-                                     "ClientInterfaceImplementation.synchronizeAcctMgr: acctMgrRPCPoll returned null.");
-
-                    return false;
-                }
-                if (reply2.getErrorNum() == BOINCErrors.ERR_IN_PROGRESS) {
-                    loop = true; //no result yet, keep looping
-                } else {
-                    //final result ready
-                    if (reply2.getErrorNum() == 0) {
-                        Logging.logDebug(Logging.Category.CLIENT,
-                                         "ClientInterfaceImplementation.synchronizeAcctMgr: Account Manager reply retrieved.");
-                    } else {
-                        Logging.logDebug(Logging.Category.CLIENT,
-                                         "ClientInterfaceImplementation.synchronizeAcctMgr: final result with error_num: " + reply2.getErrorNum());
-                    }
-                }
+    List<Message> getEventLogMessages(int seqNo, int number) {
+        number = Math.min(number, MessageLog.MAX_WINDOW);
+        synchronized(messageLog) {
+            if (seqNo > 0) {
+                readMessages(seqNo - number);
+                return messageLog.window(seqNo - number, seqNo);
             }
-        } else {
-            Logging.logDebug(Logging.Category.CLIENT, "rpc.acctMgrRPC returned false.");
+            // the newest seqno is only asked for before the first read, later the log knows it
+            int newest = messageLog.isEmpty() ? getMessageCount() : messageLog.getLastSeqNo();
+            readMessages(newest - number + 1);
+            int to = messageLog.getLastSeqNo() + 1;
+            return messageLog.window(to - number, to);
         }
-
-        return true;
-    }
-
-    @Override
-    public boolean setCcConfig(String ccConfig) {
-        // set CC config and trigger re-read.
-        super.setCcConfig(ccConfig);
-        return super.readCcConfig();
     }
 
     /**
-     * Returns List of event log messages
+     * Drops the message log if it was read from another client process, whose messages are
+     * numbered differently. Called by the Monitor whenever it connected to the client.
      *
-     * @param seqNo  lower bound of sequence number
-     * @param number number of messages returned max, can be less
-     * @return list of messages
+     * @param clientKey {@link ProcessInspector#processKey(int)} of the client process now connected, empty if unknown
      */
-
-    // returns given number of client messages, older than provided seqNo
-    // if seqNo <= 0 initial data retrieval
-    List<Message> getEventLogMessages(int seqNo, int number) {
-        // determine oldest message seqNo for data retrieval
-        int lowerBound;
-        if (seqNo > 0)
-            lowerBound = seqNo - number - 2;
-        else
-            lowerBound = getMessageCount() - number - 1; // can result in >number results, if client writes message btwn. here and rpc.getMessages!
-
-        // less than desired number of messsages available, adapt lower bound
-        if (lowerBound < 0)
-            lowerBound = 0;
-        List<Message> msgs = getMessages(lowerBound); // returns ever messages with seqNo > lowerBound
-
-        if (seqNo > 0) {
-            // remove messages that are >= seqNo
-            msgs.removeIf(message -> message.getSeqno() >= seqNo);
+    void setMessageLogClient(String clientKey) {
+        synchronized(messageLog) {
+            if(!clientKey.equals(messageLogClient)) {
+                Logging.logDebug(Logging.Category.CLIENT, "setMessageLogClient: client process changed, reset message log");
+                messageLog.reset();
+                messageLogFrom = Integer.MAX_VALUE;
+                messageLogClient = clientKey;
+            }
         }
+    }
 
-        if(!msgs.isEmpty()) {
-            Logging.logDebug(Logging.Category.CLIENT, "getEventLogMessages: returning array with " + msgs.size()
-                               + " entries. for lowerBound: " + lowerBound + " at 0: "
-                               + msgs.get(0).getSeqno() + " at " + (msgs.size() - 1) + ": "
-                               + msgs.get(msgs.size() - 1).getSeqno());
+    // reads the messages with seqno >= from the log does not hold yet and the ones the client logged
+    // since the last call. The client sends all messages newer than the seqno asked for,
+    // so the first read only goes back as far as needed instead of fetching the client's whole log.
+    private void readMessages(int from) {
+        from = Math.max(from, 1);
+        if (from < messageLogFrom && messageLog.size() < messageLog.getCapacity()) {
+            List<Message> messages = getMessages(from - 1);
+            messageLog.prepend(messages); // older than the log, as far as there is room
+            messageLog.append(messages); // newer than the log
+            messageLogFrom = messageLog.size() < messageLog.getCapacity() ? from : messageLog.getFirstSeqNo();
+        } else {
+            messageLog.append(getMessages(messageLog.getLastSeqNo()));
         }
-        return msgs;
     }
 
     /**
@@ -491,40 +264,26 @@ public class ClientInterfaceImplementation extends RpcClient {
     List<ProjectInfo> getAttachableProjects(String boincPlatformName, String boincAltPlatformName) {
         Logging.logDebug(Logging.Category.CLIENT, "getAttachableProjects for platform: " + boincPlatformName + " or " + boincAltPlatformName);
 
-        List<ProjectInfo> allProjectsList = getAllProjectsList(); // all_projects_list.xml
-        List<Project> attachedProjects = getState().getProjects(); // currently attached projects
-
-        List<ProjectInfo> attachableProjects = new ArrayList<>(); // array to be filled and returned
-
-        if (allProjectsList == null)
+        ProjectCatalog.Catalog catalog = projectCatalog.get(); // all_projects_list.xml
+        if (catalog == null)
             return Collections.emptyList();
 
-        //filter projects that do not support Android
-        for (ProjectInfo candidate : allProjectsList) {
-            // check whether already attached
-            boolean alreadyAttached = false;
-            for (Project attachedProject : attachedProjects) {
-                if (attachedProject.getMasterURL().equals(candidate.getUrl())) {
-                    alreadyAttached = true;
-                    break;
-                }
-            }
-            if (alreadyAttached)
-                continue;
-
-            // project is not yet attached, check whether it supports CPU architecture
-            for (String supportedPlatform : candidate.getPlatforms()) {
-                if (supportedPlatform.contains(boincPlatformName) ||
-                   (!boincAltPlatformName.isEmpty() && supportedPlatform.contains(boincAltPlatformName))) {
-                    // project is not yet attached and does support platform
-                    // add to list, if not already in it
-                    if (!attachableProjects.contains(candidate))
-                        attachableProjects.add(candidate);
-                    break;
-                }
+        Set<String> attachedUrls = clientStatus.getAttachedProjectUrls(); // currently attached projects
+        if (attachedUrls == null) {
+            // monitor not set up yet, ask the client
+            attachedUrls = new HashSet<>();
+            for (Project attachedProject : getProjectStatus()) {
+                attachedUrls.add(attachedProject.getMasterURL());
             }
         }
 
+        // projects supporting the CPU architecture, minus the ones already attached
+        List<ProjectInfo> attachableProjects = new ArrayList<>();
+        for (ProjectInfo candidate : catalog.forPlatform(boincPlatformName, boincAltPlatformName)) {
+            if (!attachedUrls.contains(candidate.getUrl()))
+                attachableProjects.add(candidate);
+        }
+
         Logging.logDebug(Logging.Category.CLIENT, "getAttachableProjects: number of candidates found: "+
                 attachableProjects.size());
 
@@ -537,7 +296,8 @@ public class ClientInterfaceImplementation extends RpcClient {
      * @return list of account managers
      */
     List<AccountManager> getAccountManagers() {
-        List<AccountManager> accountManagers = getAccountManagersList(); // from all_projects_list.xml
+        ProjectCatalog.Catalog catalog = projectCatalog.get(); // from all_projects_list.xml
+        List<AccountManager> accountManagers = catalog == null ? Collections.emptyList() : catalog.getAccountManagers();
 
         Logging.logDebug(Logging.Category.CLIENT, "getAccountManagers: number of account managers found: " + accountManagers.size());
 
@@ -545,17 +305,25 @@ public class ClientInterfaceImplementation extends RpcClient {
     }
 
     ProjectInfo getProjectInfo(String url) {
-        List<ProjectInfo> allProjectsList = getAllProjectsList(); // all_projects_list.xml
-        for (ProjectInfo tmp : allProjectsList) {
-            if (tmp.getUrl().equals(url))
-                return tmp;
-        }
+        ProjectCatalog.Catalog catalog = projectCatalog.get(); // all_projects_list.xml
+        ProjectInfo info = catalog == null ? null : catalog.projectInfo(url);
+        if (info != null)
+            return info;
 
         Logging.logError(Logging.Category.CLIENT, "getProjectInfo: could not find info for: " + url);
 
         return null;
     }
 
+    /**
+     * Sets the installed all_projects_list.xml, whose content decides when the parsed catalogue is reloaded.
+     *
+     * @param file all_projects_list.xml in the client's working directory
+     */
+    public void setAllProjectsListFile(File file) {
+        projectCatalog.setFile(file);
+    }
+
     boolean setDomainName(String deviceName) {
         boolean success = setDomainNameRpc(deviceName);
 
@@ -572,4 +340,105 @@ public class ClientInterfaceImplementation extends RpcClient {
     public Boolean connect() {
         return open("localhost", 31416);
     }
+
+    /**
+     * Opens and authorizes the connection of the priority lane.
+     * Control RPCs fall back to the main connection as long as this connection is not available.
+     *
+     * @param socketAddress address of the local socket, null to connect via TCP like {@link #connect()}
+     * @param authFilePath absolute path to file containing gui authentication key
+     * @return success
+     */
+    public boolean connectPriorityLane(String socketAddress, String authFilePath) {
+        prioritySocketAddress = socketAddress;
+        priorityAuthFilePath = authFilePath;
+        boolean success = openPriorityLane(socketAddress, authFilePath);
+
+        Logging.logDebug(Logging.Category.CLIENT, "connectPriorityLane: success " + success);
+
+        return success;
+    }
+
+    @VisibleForTesting
+    boolean openPriorityLane(String socketAddress, String authFilePath) {
+        return connectSecondary(priorityClient, socketAddress, authFilePath);
+    }
+
+    /**
+     * Reopens the priority connection after it broke, e.g. because the client restarted.
+     * Attempts are at least {@link #PRIORITY_RECONNECT_INTERVAL_MS} apart, so control RPCs do not
+     * each wait for a connect while the client is not reachable.
+     *
+     * @return true if the priority connection is alive again
+     */
+    private boolean reconnectPriorityLane() {
+        synchronized (priorityReconnectLock) {
+            String authFilePath = priorityAuthFilePath;
+            if (authFilePath == null) {
+                return false;
+            }
+            if (priorityClient.connectionAlive()) {
+                return true; // reopened by a concurrent caller
+            }
+            long now = SystemClock.elapsedRealtime();
+            if (now < priorityReconnectAt) {
+                return false;
+            }
+            priorityReconnectAt = now + PRIORITY_RECONNECT_INTERVAL_MS;
+            boolean success = openPriorityLane(prioritySocketAddress, authFilePath);
+
+            Logging.logDebug(Logging.Category.CLIENT, "reconnectPriorityLane: success " + success);
+
+            return success;
+        }
+    }
+
+    /**
+     * Opens and authorizes the connection of a {@link ClientChangeListener}, which blocks it with wait_for_changes.
+     *
+     * @param client connection of the listener
+     * @param socketAddress address of the local socket, null to connect via TCP like {@link #connect()}
+     * @param authFilePath absolute path to file containing gui authentication key
+     * @return success
+     */
+    public boolean connectChangeListener(RpcClient client, String socketAddress, String authFilePath) {
+        boolean success = connectSecondary(client, socketAddress, authFilePath);
+
+        Logging.logDebug(Logging.Category.CLIENT, "connectChangeListener: success " + success);
+
+        return success;
+    }
+
+    private boolean connectSecondary(RpcClient client, String socketAddress, String authFilePath) {
+        boolean success = socketAddress == null ? client.open("localhost", 31416) : client.open(socketAddress);
+        success = success && client.authorize(readAuthToken(authFilePath));
+        if (!success) {
+            client.close();
+        }
+        return success;
+    }
+
+    /**
+     * Lane for reads, runs on the main connection
+     */
+    public RpcLane getBulkLane() {
+        return bulkLane;
+    }
+
+    /**
+     * Lane for control RPCs (resultOp, projectOp, transferOp, setRunMode, setNetworkMode)
+     *
+     * @return the priority lane, or the bulk lane if the priority connection is not available
+     * and could not be reopened
+     */
+    public RpcLane getPriorityLane() {
+        return priorityClient.connectionAlive() || reconnectPriorityLane() ? priorityLane : bulkLane;
+    }
+
+    @Override
+    public synchronized void close() {
+        priorityAuthFilePath = null; // closed on purpose, do not reopen
+        priorityClient.close();
+        super.close();
+    }
 }
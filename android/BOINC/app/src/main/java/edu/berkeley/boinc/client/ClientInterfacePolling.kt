@@ -0,0 +1,177 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@file:JvmName("ClientInterfacePolling")
+
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.AccountIn
+import edu.berkeley.boinc.rpc.AccountOut
+import edu.berkeley.boinc.rpc.AcctMgrRPCReply
+import edu.berkeley.boinc.rpc.ProjectAttachReply
+import edu.berkeley.boinc.rpc.ProjectConfig
+import edu.berkeley.boinc.rpc.RpcPoller
+import edu.berkeley.boinc.utils.ERR_OK
+import edu.berkeley.boinc.utils.Logging
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+
+// Suspending versions of the RPC sequences that start an asynchronous operation in the client
+// and poll for its result. The Monitor runs them in its lifecycle scope for the IMonitor.poll*
+// calls and reports the result to the IPollingCallback of the caller.
+
+/**
+ * Reads project configuration for specified master URL.
+ *
+ * @param url master URL of the project
+ * @return project configuration information, null if the RPC failed
+ */
+suspend fun ClientInterfaceImplementation.awaitProjectConfig(url: String?): ProjectConfig? {
+    if (!withContext(Dispatchers.IO) { getProjectConfig(url) }) {
+        Logging.logDebug(Logging.Category.CLIENT, "rpc.getProjectConfig returned false.")
+
+        return null
+    }
+    val config = RpcPoller<ProjectConfig>({ it.errorNum }) { projectConfigPoll }.await()
+    when {
+        config == null -> Logging.logError(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.getProjectConfigPolling: returned null.")
+        config.errorNum == ERR_OK -> Logging.logDebug(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.getProjectConfigPolling: ProjectConfig retrieved: ${config.name}")
+        else -> Logging.logDebug(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.getProjectConfigPolling: final result with error_num: ${config.errorNum}")
+    }
+    return config
+}
+
+/**
+ * Attaches project, requires authenticator
+ *
+ * @return success
+ */
+suspend fun ClientInterfaceImplementation.awaitAttachProject(url: String?, projectName: String?,
+                                                             authenticator: String?): Boolean {
+    if (!withContext(Dispatchers.IO) { projectAttach(url, authenticator, projectName) }) {
+        Logging.logDebug(Logging.Category.CLIENT, "rpc.projectAttach failed.")
+
+        return false
+    }
+    val reply = RpcPoller<ProjectAttachReply>({ it.errorNum }) { projectAttachPoll() }.await()
+    return reply?.errorNum == ERR_OK
+}
+
+/**
+ * Looks up account credentials for given user data.
+ *
+ * @return account credentials, null if the RPC failed
+ */
+suspend fun ClientInterfaceImplementation.awaitLookupCredentials(credentials: AccountIn?): AccountOut? {
+    if (!withContext(Dispatchers.IO) { lookupAccount(credentials) }) {
+        Logging.logDebug(Logging.Category.CLIENT, "rpc.lookupAccount failed.")
+
+        return null
+    }
+    return awaitAccountOut("lookupCredentials") { lookupAccountPoll() }
+}
+
+/**
+ * Creates account for given user information.
+ *
+ * @return account credentials (see status inside, to check success), null if the RPC failed
+ */
+suspend fun ClientInterfaceImplementation.awaitCreateAccount(information: AccountIn?): AccountOut? {
+    if (!withContext(Dispatchers.IO) { createAccount(information) }) {
+        Logging.logDebug(Logging.Category.CLIENT, "rpc.createAccount returned false.")
+
+        return null
+    }
+    return awaitAccountOut("createAccountPolling") { createAccountPoll() }
+}
+
+private suspend fun awaitAccountOut(caller: String, poll: () -> AccountOut?): AccountOut? {
+    val auth = RpcPoller<AccountOut>({ it.errorNum }, poll = poll).await()
+    when {
+        auth == null -> Logging.logError(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.$caller: returned null.")
+        auth.errorNum == ERR_OK -> Logging.logDebug(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.$caller: authenticator retrieved.")
+        else -> Logging.logDebug(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.$caller: final result with error_num: ${auth.errorNum}")
+    }
+    return auth
+}
+
+/**
+ * Adds account manager to BOINC client.
+ *
+ * @return status of attachment, null if the RPC failed
+ */
+suspend fun ClientInterfaceImplementation.awaitAddAcctMgr(url: String?, userName: String?,
+                                                          pwd: String?): AcctMgrRPCReply? {
+    if (!withContext(Dispatchers.IO) { acctMgrRPC(url, userName, pwd) }) {
+        Logging.logDebug(Logging.Category.CLIENT, "rpc.acctMgrRPC returned false.")
+
+        return null
+    }
+    val reply = RpcPoller<AcctMgrRPCReply>({ it.errorNum }) { acctMgrRPCPoll() }.await()
+    if (reply == null) {
+        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.addAcctMgr: failed, reply null.")
+    } else {
+        Logging.logDebug(Logging.Category.CLIENT, "ClientInterfaceImplementation.addAcctMgr: returned ${reply.errorNum}")
+    }
+    return reply
+}
+
+/**
+ * Synchronizes BOINC client projects with information of account manager.
+ * Sequence copied from BOINC's desktop manager.
+ *
+ * @return false if one of the polls failed
+ */
+suspend fun ClientInterfaceImplementation.awaitSynchronizeAcctMgr(url: String?): Boolean {
+    // 1st get_project_config for account manager url
+    if (withContext(Dispatchers.IO) { getProjectConfig(url) }) {
+        val reply = RpcPoller<ProjectConfig>({ it.errorNum }) { projectConfigPoll }.await()
+        if (reply == null) {
+            Logging.logError(Logging.Category.CLIENT,
+                    "ClientInterfaceImplementation.synchronizeAcctMgr: getProjectConfig returned null.")
+
+            return false
+        }
+        Logging.logDebug(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.synchronizeAcctMgr: project config error_num: ${reply.errorNum}")
+    } else {
+        Logging.logDebug(Logging.Category.CLIENT, "rpc.getProjectConfig returned false.")
+    }
+
+    // 2nd acct_mgr_rpc with <use_config_file/>
+    if (withContext(Dispatchers.IO) { acctMgrRPC() }) {
+        val reply = RpcPoller<AcctMgrRPCReply>({ it.errorNum }) { acctMgrRPCPoll() }.await()
+        if (reply == null) {
+            Logging.logError(Logging.Category.CLIENT,
+                    "ClientInterfaceImplementation.synchronizeAcctMgr: acctMgrRPCPoll returned null.")
+
+            return false
+        }
+        Logging.logDebug(Logging.Category.CLIENT,
+                "ClientInterfaceImplementation.synchronizeAcctMgr: account manager error_num: ${reply.errorNum}")
+    } else {
+        Logging.logDebug(Logging.Category.CLIENT, "rpc.acctMgrRPC returned false.")
+    }
+    return true
+}
@@ -22,12 +22,15 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.wifi.WifiManager;
 import android.os.PowerManager;
 import android.os.PowerManager.WakeLock;
+import android.os.RemoteCallbackList;
+import android.os.RemoteException;
+import android.os.SystemClock;
 import android.text.format.DateUtils;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.collection.ArraySet;
 import androidx.core.content.ContextCompat;
 import edu.berkeley.boinc.R;
@@ -52,9 +55,15 @@ import java.nio.charset.Charset;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.inject.Inject;
@@ -78,6 +87,11 @@ public class ClientStatus {
     //RPC wrapper
     private CcStatus status;
     private List<Result> results;
+    private final TaskIndex taskIndex = new TaskIndex();
+    // project icons and slideshow images
+    private final BitmapCache bitmapCache = new BitmapCache();
+    // matching relevant path of soft link file, see parseSoftLinkToAbsPath
+    private static final Pattern SOFT_LINK_PATTERN = Pattern.compile("/(\\w+?\\.?\\w*?)</soft_link>");
     private List<Project> projects;
     private List<Transfer> transfers;
     private GlobalPreferences prefs;
@@ -117,10 +131,25 @@ public class ClientStatus {
     // indicates that status could not be parsed and is therefore invalid
     private Boolean networkParseError = false;
 
-    // notices
-    private List<Notice> rssNotices = new ArrayList<>();
-    private List<Notice> serverNotices = new ArrayList<>();
-    private int mostRecentNoticeSeqNo = 0;
+    // notices, bounded and sorted by creation time
+    private final NoticeStore notices = new NoticeStore();
+
+    // previous snapshot, to tell consumers what changed
+    private final ClientStatusDiffer differ = new ClientStatusDiffer();
+
+    // last known state on disk, shown after a cold start until the first update replaces it
+    private ClientStatusSnapshot snapshot;
+    private long snapshotWrittenAt = 0; // elapsed realtime
+    // progress alone is written at most this often, tasks or projects coming and going right away
+    private static final long SNAPSHOT_INTERVAL_MS = 60000;
+    // marshals and writes the snapshots, only the latest state that is waiting gets written
+    @VisibleForTesting
+    Executor snapshotWriter = Executors.newSingleThreadExecutor();
+    private final AtomicReference<ClientStatusSnapshot.State> pendingSnapshot = new AtomicReference<>();
+
+    // read-only copies in the UI process, see ClientStatusReplica
+    private final RemoteCallbackList<IClientStatusCallback> replicas = new RemoteCallbackList<>();
+    private long version = 0; // of the last batch pushed to the replicas
 
     private DeviceStatus deviceStatus;
 
@@ -202,9 +231,26 @@ public class ClientStatus {
      * fires "clientstatuschange" broadcast, so registered Activities can update their model.
      */
     public synchronized void fire() {
+        fire(null);
+    }
+
+    /*
+     * fires "clientstatuschange" broadcast with the given change set,
+     * receivers assume that everything changed if it is null.
+     */
+    private void fire(@Nullable ClientStatusChange change) {
+        // a replica sends the broadcast itself after it applied the batch, so its receivers never read
+        // a replica that is behind the broadcast
+        if(pushToReplicas(change) > 0) {
+            return;
+        }
+
         if(context != null) {
             Intent clientChanged = new Intent();
             clientChanged.setAction("edu.berkeley.boinc.clientstatuschange");
+            if(change != null) {
+                change.putInto(clientChanged);
+            }
             context.sendBroadcast(clientChanged, null);
         }
         else {
@@ -212,18 +258,143 @@ public class ClientStatus {
         }
     }
 
+    /*
+     * registers the replica of another process and returns the full batch to seed it with,
+     * every later change is pushed to it as a delta batch on top of that.
+     */
+    public synchronized ClientStatusBatch attachReplica(IClientStatusCallback replica) {
+        replicas.register(replica);
+        return fullBatch();
+    }
+
+    public void detachReplica(IClientStatusCallback replica) {
+        replicas.unregister(replica);
+    }
+
+    /*
+     * full batch of the current state, for replicas that missed a delta batch
+     */
+    public synchronized ClientStatusBatch getFullBatch() {
+        return fullBatch();
+    }
+
+    private ClientStatusBatch fullBatch() {
+        return new ClientStatusBatch(version, ClientStatusBatch.FULL,
+                                     results == null ? Collections.emptyList() : results,
+                                     Collections.emptyList(), null,
+                                     projects == null ? Collections.emptyList() : projects,
+                                     transfers == null ? Collections.emptyList() : transfers,
+                                     acctMgrInfo, setupStatus, computingStatus, computingSuspendReason,
+                                     networkSuspendReason, getCurrentStatusTitle(), getCurrentStatusDescription(),
+                                     null);
+    }
+
+    /*
+     * returns the number of replicas the batch got pushed to
+     */
+    private int pushToReplicas(@Nullable ClientStatusChange change) {
+        version++;
+        int count = replicas.beginBroadcast();
+        int pushed = 0;
+        try {
+            if(count == 0) {
+                return 0;
+            }
+            ClientStatusBatch batch = deltaBatch(change);
+            for(int i = 0; i < count; i++) {
+                try {
+                    replicas.getBroadcastItem(i).onBatch(batch);
+                    pushed++;
+                }
+                catch(RemoteException e) {
+                    // dead replicas are dropped by the callback list
+                    Logging.logException(Logging.Category.CLIENT, "ClientStatus could not push to replica", e);
+                }
+            }
+        }
+        finally {
+            replicas.finishBroadcast();
+        }
+        return pushed;
+    }
+
+    /*
+     * what changed since the previous version, the status alone if there is no change set,
+     * i.e. for setup status changes
+     */
+    private ClientStatusBatch deltaBatch(@Nullable ClientStatusChange change) {
+        List<Result> changedResults = new ArrayList<>();
+        List<String> removedTasks = Collections.emptyList();
+        List<String> taskOrder = null;
+        List<Project> changedProjects = null;
+        List<Transfer> changedTransfers = null;
+        if(change != null) {
+            if(change.getTasksChanged() && results != null) {
+                Set<String> names = new HashSet<>(change.getAddedTasks());
+                names.addAll(change.getChangedTasks());
+                for(Result result : results) {
+                    if(names.contains(result.getName())) {
+                        changedResults.add(result);
+                    }
+                }
+                removedTasks = change.getRemovedTasks();
+                if(!change.getAddedTasks().isEmpty() || !removedTasks.isEmpty()) {
+                    taskOrder = new ArrayList<>(results.size());
+                    for(Result result : results) {
+                        taskOrder.add(result.getName());
+                    }
+                }
+            }
+            if(change.getProjectsChanged()) {
+                changedProjects = projects;
+            }
+            if(change.getTransfersChanged()) {
+                changedTransfers = transfers;
+            }
+        }
+        return new ClientStatusBatch(version, version - 1, changedResults, removedTasks, taskOrder,
+                                     changedProjects, changedTransfers, acctMgrInfo, setupStatus, computingStatus,
+                                     computingSuspendReason, networkSuspendReason, getCurrentStatusTitle(),
+                                     getCurrentStatusDescription(), change);
+    }
+
     /*
      * called frequently by Monitor to set the RPC data. These objects are used to determine the client status and parse it in the data model of this class.
+     * returns the change set against the previous update, the Monitor paces its updates by it.
+     * Icons of changed projects are decoded after the lock got released, so the getters are not blocked by it.
      */
-    public synchronized void setClientStatus(CcStatus status, List<Result> results, List<Project> projects, List<Transfer> transfers, HostInfo hostinfo, AcctMgrInfo acctMgrInfo, List<Notice> newNotices) {
+    public ClientStatusChange setClientStatus(CcStatus status, List<Result> results, List<Project> projects, List<Transfer> transfers, HostInfo hostinfo, AcctMgrInfo acctMgrInfo, List<Notice> newNotices) {
+        List<String> iconProjectDirs = new ArrayList<>();
+        ClientStatusChange change;
+        synchronized(this) {
+            change = updateClientStatus(status, results, projects, transfers, hostinfo, acctMgrInfo, newNotices);
+            if(change.getProjectsChanged()) {
+                for(Project project : projects) {
+                    iconProjectDirs.add(project.getProjectDir());
+                }
+            }
+        }
+        warmProjectIcons(iconProjectDirs); // decode here, on the Monitor thread, instead of during the first list binds
+        return change;
+    }
+
+    private synchronized ClientStatusChange updateClientStatus(CcStatus status, List<Result> results, List<Project> projects, List<Transfer> transfers, HostInfo hostinfo, AcctMgrInfo acctMgrInfo, List<Notice> newNotices) {
+        final List<Integer> previousStatus = Arrays.asList(setupStatus, computingStatus, computingSuspendReason,
+                                                           networkStatus, networkSuspendReason);
+        boolean statusChanged = !Objects.equals(this.status, status) || !Objects.equals(this.hostinfo, hostinfo) ||
+                                !Objects.equals(this.acctMgrInfo, acctMgrInfo);
         this.status = status;
         this.results = results;
+        taskIndex.update(results);
         this.projects = projects;
         this.transfers = transfers;
         this.hostinfo = hostinfo;
         this.acctMgrInfo = acctMgrInfo;
         parseClientStatus();
-        appendNewNotices(newNotices);
+        int appendedNotices = notices.add(newNotices);
+        statusChanged = statusChanged || !previousStatus.equals(Arrays.asList(setupStatus, computingStatus,
+                computingSuspendReason, networkStatus, networkSuspendReason));
+        ClientStatusChange change = differ.diff(results, projects, transfers, appendedNotices, statusChanged);
 
         Logging.logVerbose(Logging.Category.CLIENT,
                 "setClientStatus: #results: " + results.size() + " #projects: " + projects.size() +
@@ -233,10 +404,22 @@ public class ClientStatus {
                 " networkParseError: " + networkParseError + " networkStatus: " + networkStatus +
                 " networkSuspendReason: " + networkSuspendReason);
 
+        if(!change.isEmpty()) {
+            // notices right away too, the Monitor persists their sequence number
+            boolean structural = !change.getAddedTasks().isEmpty() || !change.getRemovedTasks().isEmpty() ||
+                                 change.getProjectsChanged() || change.getNewNotices() > 0;
+            if(structural || SystemClock.elapsedRealtime() - snapshotWrittenAt >= SNAPSHOT_INTERVAL_MS) {
+                writeSnapshot();
+            }
+        }
+
         if(!computingParseError && !networkParseError && !setupStatusParseError) {
-            fire(); // broadcast that status has changed
+            fire(change); // broadcast that status has been updated, receivers decide by change set what to reload
         }
         else {
+            // the differ moved on already, the tasks, projects, transfers and notices of this change
+            // would be lost for the replicas and receivers if nothing got fired
+            fire(change.withoutStatus());
             Logging.logDebug(Logging.Category.CLIENT,
                     "ClientStatus discard status change due to parse error: " +
                     " computingParseError: " + computingParseError + " computingStatus: " + computingStatus +
@@ -244,6 +427,78 @@ public class ClientStatus {
                     " networkStatus: " + networkStatus + " networkSuspendReason: " + networkSuspendReason + " - " +
                     " setupStatusParseError: " + setupStatusParseError);
         }
+        return change;
+    }
+
+    /*
+     * called by Monitor on creation, off the main thread and before the client is set up.
+     * Loads the last known state from the snapshot, if nothing has been read from the client yet,
+     * and fires a broadcast so the UI can show it right away. Later updates are written to the snapshot.
+     * The file is read without holding the lock, so the getters are not blocked by it.
+     * noticeSeqNo is the sequence number the notices of the snapshot have been read up to.
+     * returns whether a state got restored
+     */
+    public boolean restoreSnapshot(ClientStatusSnapshot snapshot, int noticeSeqNo) {
+        synchronized(this) {
+            this.snapshot = snapshot;
+            if(results != null) {
+                return false; // live data already
+            }
+        }
+        ClientStatusSnapshot.State state = snapshot.read();
+        if(state == null) {
+            return false;
+        }
+        synchronized(this) {
+            if(results != null) {
+                return false; // live data got read in the meantime
+            }
+            status = state.getStatus();
+            results = state.getResults();
+            taskIndex.update(results);
+            projects = state.getProjects();
+            transfers = state.getTransfers();
+            hostinfo = state.getHostInfo();
+            acctMgrInfo = state.getAcctMgrInfo();
+            notices.restore(state.getNotices(), noticeSeqNo);
+            parseClientStatus();
+            ClientStatusChange change = differ.diff(results, projects, transfers, 0, true);
+
+            Logging.logDebug(Logging.Category.CLIENT, "ClientStatus.restoreSnapshot: #results: " + results.size() +
+                    " #projects: " + projects.size() + " #transfers: " + transfers.size());
+
+            fire(change);
+        }
+        return true;
+    }
+
+    /*
+     * writes the current state to the snapshot, e.g. before the Monitor gets destroyed.
+     * The state is taken under the lock, the file is written on the snapshotWriter thread.
+     */
+    public void writeSnapshot() {
+        final ClientStatusSnapshot snapshot;
+        final ClientStatusSnapshot.State state;
+        synchronized(this) {
+            if(this.snapshot == null || results == null || projects == null || transfers == null) {
+                return;
+            }
+            snapshot = this.snapshot;
+            List<Notice> kept = notices.getServerNotices();
+            kept.addAll(notices.getRssNotices());
+            // copies, the Monitor keeps updating the lists it hands over
+            state = new ClientStatusSnapshot.State(status, new ArrayList<>(results), new ArrayList<>(projects),
+                                                   new ArrayList<>(transfers), hostinfo, acctMgrInfo, kept);
+            snapshotWrittenAt = SystemClock.elapsedRealtime();
+        }
+        if(pendingSnapshot.getAndSet(state) == null) {
+            snapshotWriter.execute(() -> {
+                ClientStatusSnapshot.State latest = pendingSnapshot.getAndSet(null);
+                if(latest != null) {
+                    snapshot.write(latest);
+                }
+            });
+        }
     }
 
     /*
@@ -265,16 +520,26 @@ public class ClientStatus {
         this.prefs = prefs;
     }
 
-    public int getMostRecentNoticeSeqNo() {
-        return mostRecentNoticeSeqNo;
+    public synchronized int getMostRecentNoticeSeqNo() {
+        return notices.getMostRecentSeqNo();
     }
 
+    // newest first
     public synchronized List<Notice> getRssNotices() {
-        return rssNotices;
+        return notices.getRssNotices();
     }
 
+    // newest first
     public synchronized List<Notice> getServerNotices() {
-        return serverNotices;
+        return notices.getServerNotices();
+    }
+
+    /*
+     * called by Monitor when it connects to another client process than the notices have been read from,
+     * the client numbers its notices anew when it starts.
+     */
+    public synchronized void resetNotices() {
+        notices.clear();
     }
 
     public synchronized CcStatus getClientStatus() {
@@ -286,31 +551,18 @@ public class ClientStatus {
         return status;
     }
 
+    // start is the position within the active or inactive tasks
     public synchronized List<Result> getTasks(int start, int count, boolean isActive) {
+        return queryTasks(new TaskQuery(isActive, start, count));
+    }
+
+    public synchronized List<Result> queryTasks(TaskQuery query) {
         if(results == null) { //check in case monitor is not set up yet (e.g. while logging in)
             Logging.logDebug(Logging.Category.CLIENT, "tasks is null");
 
             return Collections.emptyList();
         }
-
-        List<Result> tasks = new ArrayList<>();
-        int counter = 0;
-
-        for (Result res : results) {
-            if (tasks.size() == count) {
-                break;
-            }
-
-            if (start > counter++) {
-                continue;
-            }
-
-            if ((isActive && res.isActiveTask()) || (!isActive && !res.isActiveTask())) {
-                tasks.add(res);
-            }
-        }
-
-        return tasks;
+        return taskIndex.page(query);
     }
 
     public synchronized int getTasksCount() {
@@ -349,50 +601,73 @@ public class ClientStatus {
         return projects;
     }
 
+    /**
+     * Master URLs of the attached projects as of the last update.
+     *
+     * @return set of master URLs, null if the monitor is not set up yet
+     */
+    @Nullable
+    public synchronized Set<String> getAttachedProjectUrls() {
+        if(projects == null) {
+            return null;
+        }
+        Set<String> urls = new HashSet<>();
+        for(Project project : projects) {
+            urls.add(project.getMasterURL());
+        }
+        return urls;
+    }
+
     public synchronized String getProjectStatus(String master_url) {
-        StringBuffer sb = new StringBuffer();
         for(Project project : projects) {
-            if(!project.getMasterURL().equals(master_url)) {
-                continue;
+            if(project.getMasterURL().equals(master_url)) {
+                return formatProjectStatus(context, project);
             }
+        }
+        return "";
+    }
 
-            if(project.getSuspendedViaGUI()) {
-                appendToStatus(sb, context.getResources().getString(R.string.projects_status_suspendedviagui));
-            }
-            if(project.getDoNotRequestMoreWork()) {
-                appendToStatus(sb, context.getResources().getString(R.string.projects_status_dontrequestmorework));
-            }
-            if(project.getEnded()) {
-                appendToStatus(sb, context.getResources().getString(R.string.projects_status_ended));
-            }
-            if(project.getDetachWhenDone()) {
-                appendToStatus(sb, context.getResources().getString(R.string.projects_status_detachwhendone));
-            }
-            if(project.getScheduledRPCPending() > 0) {
-                appendToStatus(sb, context.getResources().getString(R.string.projects_status_schedrpcpending));
-                appendToStatus(sb, BOINCUtils.translateRPCReason(context, project.getScheduledRPCPending()));
-            }
-            if(project.getSchedulerRPCInProgress()) {
-                appendToStatus(sb, context.getResources().getString(R.string.projects_status_schedrpcinprogress));
-            }
-            if(project.getTrickleUpPending()) {
-                appendToStatus(sb, context.getResources().getString(R.string.projects_status_trickleuppending));
-            }
+    /*
+     * status line of a project as shown in the projects tab, used by ClientStatusReplica too
+     */
+    public static String formatProjectStatus(Context context, Project project) {
+        StringBuffer sb = new StringBuffer();
+        if(project.getSuspendedViaGUI()) {
+            appendToStatus(sb, context.getResources().getString(R.string.projects_status_suspendedviagui));
+        }
+        if(project.getDoNotRequestMoreWork()) {
+            appendToStatus(sb, context.getResources().getString(R.string.projects_status_dontrequestmorework));
+        }
+        if(project.getEnded()) {
+            appendToStatus(sb, context.getResources().getString(R.string.projects_status_ended));
+        }
+        if(project.getDetachWhenDone()) {
+            appendToStatus(sb, context.getResources().getString(R.string.projects_status_detachwhendone));
+        }
+        if(project.getScheduledRPCPending() > 0) {
+            appendToStatus(sb, context.getResources().getString(R.string.projects_status_schedrpcpending));
+            appendToStatus(sb, BOINCUtils.translateRPCReason(context, project.getScheduledRPCPending()));
+        }
+        if(project.getSchedulerRPCInProgress()) {
+            appendToStatus(sb, context.getResources().getString(R.string.projects_status_schedrpcinprogress));
+        }
+        if(project.getTrickleUpPending()) {
+            appendToStatus(sb, context.getResources().getString(R.string.projects_status_trickleuppending));
+        }
 
-            final Instant now = Instant.now();
-            final Instant minRPCTime = Instant.ofEpochSecond((long) project.getMinRPCTime());
-            if(minRPCTime.compareTo(now) > 0) {
-                final String elapsedTime = DateUtils.formatElapsedTime(Duration.between(now, minRPCTime)
-                                                                               .getSeconds());
-                final String backoff = context.getResources().getString(R.string.projects_status_backoff,
-                                                                        elapsedTime);
-                appendToStatus(sb, backoff);
-            }
+        final Instant now = Instant.now();
+        final Instant minRPCTime = Instant.ofEpochSecond((long) project.getMinRPCTime());
+        if(minRPCTime.compareTo(now) > 0) {
+            final String elapsedTime = DateUtils.formatElapsedTime(Duration.between(now, minRPCTime)
+                                                                           .getSeconds());
+            final String backoff = context.getResources().getString(R.string.projects_status_backoff,
+                                                                    elapsedTime);
+            appendToStatus(sb, backoff);
         }
         return sb.toString();
     }
 
-    private void appendToStatus(StringBuffer existing, String additional) {
+    private static void appendToStatus(StringBuffer existing, String additional) {
         if(existing.length() == 0) {
             existing.append(additional);
         }
@@ -445,7 +720,7 @@ public class ClientStatus {
 
             // load images from paths
             for(String filePath : allImagePaths) {
-                Bitmap tmp = BitmapFactory.decodeFile(filePath);
+                Bitmap tmp = bitmapCache.decode(filePath);
                 if(tmp != null) {
                     images.add(new ImageWrapper(tmp, project.getProjectName(), filePath));
                 }
@@ -457,6 +732,17 @@ public class ClientStatus {
         return images;
     }
 
+    // the bitmap cache is thread safe, called without holding the lock
+    // only icons with a new file path or modification time are decoded
+    private void warmProjectIcons(List<String> projectDirs) {
+        for(String projectDir : projectDirs) {
+            String iconAbsPath = parseSoftLinkToAbsPath(projectDir + "/stat_icon", projectDir);
+            if(iconAbsPath != null) {
+                bitmapCache.warm(iconAbsPath);
+            }
+        }
+    }
+
     // returns project icon for given master url
     // bitmap: 40 * 40 pixel, symbolic link in /projects/PNAME/stat_icon
     @Nullable
@@ -477,7 +763,7 @@ public class ClientStatus {
 
                         return null;
                     }
-                    return BitmapFactory.decodeFile(iconAbsPath);
+                    return bitmapCache.decode(iconAbsPath);
                 }
             }
         }
@@ -511,7 +797,7 @@ public class ClientStatus {
 
                         return null;
                     }
-                    return BitmapFactory.decodeFile(iconAbsPath);
+                    return bitmapCache.decode(iconAbsPath);
                 }
             }
         }
@@ -777,27 +1063,15 @@ public class ClientStatus {
         }
     }
 
-    private void appendNewNotices(List<Notice> newNotices) {
-        for(Notice newNotice : newNotices) {
-            Logging.logDebug(Logging.Category.CLIENT, "ClientStatus.appendNewNotices new notice with seq number: " +
-                    newNotice.getSeqno() + " is server notice: " + newNotice.isServerNotice());
-
-            if(newNotice.getSeqno() > mostRecentNoticeSeqNo) {
-                if(!newNotice.isClientNotice() && !newNotice.isServerNotice()) {
-                    rssNotices.add(newNotice);
-                }
-                if(newNotice.isServerNotice()) {
-                    serverNotices.add(newNotice);
-                }
-                mostRecentNoticeSeqNo = newNotice.getSeqno();
-            }
-        }
-    }
-
     // helper method for loading images from file
     // reads the symbolic link provided in pathOfSoftLink file
     // and returns absolute path to an image file.
+    // the result is cached until the soft link file changes.
     private String parseSoftLinkToAbsPath(String pathOfSoftLink, String projectDir) {
+        return bitmapCache.resolveSoftLink(pathOfSoftLink, path -> readSoftLink(path, projectDir));
+    }
+
+    private String readSoftLink(String pathOfSoftLink, String projectDir) {
         // setup file
         File softLink = new File(pathOfSoftLink);
         if(!softLink.exists()) {
@@ -825,8 +1099,7 @@ public class ClientStatus {
         // matching relevant path of String
         // matching 1+ word characters and 0 or 1 dot . and 0+ word characters
         // e.g. "icon.png", "icon", "icon.bmp"
-        Pattern statIconPattern = Pattern.compile("/(\\w+?\\.?\\w*?)</soft_link>");
-        Matcher m = statIconPattern.matcher(softLinkContent);
+        Matcher m = SOFT_LINK_PATTERN.matcher(softLinkContent);
         if(!m.find()) {
             Logging.logError(Logging.Category.CLIENT,
                     "parseSoftLinkToAbsPath() could not match pattern in soft link file: " + pathOfSoftLink);
@@ -0,0 +1,124 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.os.Parcel
+import android.os.Parcelable
+import edu.berkeley.boinc.rpc.AcctMgrInfo
+import edu.berkeley.boinc.rpc.InterningParcelCodec
+import edu.berkeley.boinc.rpc.ParcelCodec
+import edu.berkeley.boinc.rpc.Project
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+
+/**
+ * State of ClientStatus as pushed to the [ClientStatusReplica] of the UI process.
+ * A full batch ([isFull]) carries everything, a delta batch only what changed since [baseVersion]:
+ * added and changed tasks, removed task names, and projects and transfers only if they changed.
+ * The status fields are part of every batch.
+ * [change] is the change set the replica broadcasts once it applied the batch.
+ */
+class ClientStatusBatch(
+        val version: Long,
+        val baseVersion: Long,
+        val results: List<Result>, // full batch: all tasks in client order, else added and changed tasks
+        val removedTasks: List<String> = emptyList(),
+        val taskOrder: List<String>? = null, // names of all tasks in client order, if tasks came or went
+        val projects: List<Project>? = null, // null if unchanged
+        val transfers: List<Transfer>? = null, // null if unchanged
+        val acctMgrInfo: AcctMgrInfo? = null,
+        val setupStatus: Int = ClientStatus.SETUP_STATUS_LAUNCHING,
+        val computingStatus: Int = ClientStatus.COMPUTING_STATUS_IDLE,
+        val computingSuspendReason: Int = 0,
+        val networkSuspendReason: Int = 0,
+        val statusTitle: String = "",
+        val statusDescription: String = "",
+        val change: ClientStatusChange? = null // null: everything may have changed
+) : Parcelable {
+    val isFull: Boolean
+        get() = baseVersion == FULL
+
+    private constructor(parcel: Parcel, codec: ParcelCodec) : this(
+            version = parcel.readLong(),
+            baseVersion = parcel.readLong(),
+            results = readItems(parcel) { Result(parcel, codec) }!!,
+            removedTasks = parcel.createStringArrayList()!!,
+            taskOrder = parcel.createStringArrayList(),
+            projects = readItems(parcel) { Project(parcel, codec) },
+            transfers = readItems(parcel) { Transfer(parcel, codec) },
+            acctMgrInfo = parcel.readValue(AcctMgrInfo::class.java.classLoader) as AcctMgrInfo?,
+            setupStatus = parcel.readInt(),
+            computingStatus = parcel.readInt(),
+            computingSuspendReason = parcel.readInt(),
+            networkSuspendReason = parcel.readInt(),
+            statusTitle = parcel.readString() ?: "",
+            statusDescription = parcel.readString() ?: "",
+            change = ClientStatusChange.readFromParcel(parcel)
+    )
+
+    override fun describeContents() = 0
+
+    // tasks, projects and transfers share one table, tasks reference their project
+    override fun writeToParcel(dest: Parcel, flags: Int) {
+        val codec = InterningParcelCodec()
+        dest.writeLong(version)
+        dest.writeLong(baseVersion)
+        writeItems(dest, results) { it.writeToParcel(dest, codec) }
+        dest.writeStringList(removedTasks)
+        dest.writeStringList(taskOrder)
+        writeItems(dest, projects) { it.writeToParcel(dest, codec) }
+        writeItems(dest, transfers) { it.writeToParcel(dest, codec) }
+        dest.writeValue(acctMgrInfo)
+        dest.writeInt(setupStatus)
+        dest.writeInt(computingStatus)
+        dest.writeInt(computingSuspendReason)
+        dest.writeInt(networkSuspendReason)
+        dest.writeString(statusTitle)
+        dest.writeString(statusDescription)
+        ClientStatusChange.writeToParcel(change, dest)
+    }
+
+    companion object {
+        /**
+         * [baseVersion] of a full batch
+         */
+        const val FULL = -1L
+
+        private fun <T> writeItems(dest: Parcel, items: List<T>?, write: (T) -> Unit) {
+            if (items == null) {
+                dest.writeInt(-1)
+            } else {
+                dest.writeInt(items.size)
+                items.forEach(write)
+            }
+        }
+
+        private fun <T> readItems(parcel: Parcel, read: () -> T): List<T>? {
+            val size = parcel.readInt()
+            return if (size < 0) null else List(size) { read() }
+        }
+
+        @JvmField
+        val CREATOR: Parcelable.Creator<ClientStatusBatch> = object : Parcelable.Creator<ClientStatusBatch> {
+            override fun createFromParcel(parcel: Parcel) = ClientStatusBatch(parcel, InterningParcelCodec())
+
+            override fun newArray(size: Int) = arrayOfNulls<ClientStatusBatch>(size)
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.content.Intent
+import android.os.Parcel
+import edu.berkeley.boinc.rpc.Project
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+
+/**
+ * What changed between two consecutive ClientStatus updates.
+ * Tasks are identified by name, projects by master URL.
+ */
+data class ClientStatusChange(
+        val addedTasks: List<String> = emptyList(),
+        val removedTasks: List<String> = emptyList(),
+        val changedTasks: List<String> = emptyList(),
+        val changedProjects: List<String> = emptyList(), // including attached and detached projects
+        val transfersChanged: Boolean = false,
+        val newNotices: Int = 0,
+        val statusChanged: Boolean = false // computing, network or setup status, host or account manager info
+) {
+    val tasksChanged: Boolean
+        get() = addedTasks.isNotEmpty() || removedTasks.isNotEmpty() || changedTasks.isNotEmpty()
+
+    val projectsChanged: Boolean
+        get() = changedProjects.isNotEmpty()
+
+    val isEmpty: Boolean
+        get() = !tasksChanged && !projectsChanged && !transfersChanged && newNotices == 0 && !statusChanged
+
+    /**
+     * The same change set without the status part, the tasks, projects, transfers and notices still changed.
+     */
+    fun withoutStatus() = copy(statusChanged = false)
+
+    /**
+     * Attaches this change set to the "clientstatuschange" broadcast.
+     */
+    fun putInto(intent: Intent) {
+        intent.putExtra(EXTRA_CHANGE_SET, true)
+        intent.putStringArrayListExtra(EXTRA_ADDED_TASKS, ArrayList(addedTasks))
+        intent.putStringArrayListExtra(EXTRA_REMOVED_TASKS, ArrayList(removedTasks))
+        intent.putStringArrayListExtra(EXTRA_CHANGED_TASKS, ArrayList(changedTasks))
+        intent.putStringArrayListExtra(EXTRA_CHANGED_PROJECTS, ArrayList(changedProjects))
+        intent.putExtra(EXTRA_TRANSFERS_CHANGED, transfersChanged)
+        intent.putExtra(EXTRA_NEW_NOTICES, newNotices)
+        intent.putExtra(EXTRA_STATUS_CHANGED, statusChanged)
+    }
+
+    companion object {
+        private const val EXTRA_CHANGE_SET = "edu.berkeley.boinc.clientstatuschange.changeSet"
+        private const val EXTRA_ADDED_TASKS = "edu.berkeley.boinc.clientstatuschange.addedTasks"
+        private const val EXTRA_REMOVED_TASKS = "edu.berkeley.boinc.clientstatuschange.removedTasks"
+        private const val EXTRA_CHANGED_TASKS = "edu.berkeley.boinc.clientstatuschange.changedTasks"
+        private const val EXTRA_CHANGED_PROJECTS = "edu.berkeley.boinc.clientstatuschange.changedProjects"
+        private const val EXTRA_TRANSFERS_CHANGED = "edu.berkeley.boinc.clientstatuschange.transfersChanged"
+        private const val EXTRA_NEW_NOTICES = "edu.berkeley.boinc.clientstatuschange.newNotices"
+        private const val EXTRA_STATUS_CHANGED = "edu.berkeley.boinc.clientstatuschange.statusChanged"
+
+        /**
+         * Writes the change set, or that there is none, to a [ClientStatusBatch] parcel.
+         */
+        @JvmStatic
+        fun writeToParcel(change: ClientStatusChange?, dest: Parcel) {
+            if (change == null) {
+                dest.writeInt(0)
+                return
+            }
+            dest.writeInt(1)
+            dest.writeStringList(change.addedTasks)
+            dest.writeStringList(change.removedTasks)
+            dest.writeStringList(change.changedTasks)
+            dest.writeStringList(change.changedProjects)
+            dest.writeInt(if (change.transfersChanged) 1 else 0)
+            dest.writeInt(change.newNotices)
+            dest.writeInt(if (change.statusChanged) 1 else 0)
+        }
+
+        @JvmStatic
+        fun readFromParcel(parcel: Parcel): ClientStatusChange? {
+            if (parcel.readInt() == 0) {
+                return null
+            }
+            return ClientStatusChange(
+                    parcel.createStringArrayList()!!,
+                    parcel.createStringArrayList()!!,
+                    parcel.createStringArrayList()!!,
+                    parcel.createStringArrayList()!!,
+                    parcel.readInt() != 0,
+                    parcel.readInt(),
+                    parcel.readInt() != 0
+            )
+        }
+
+        /**
+         * Reads the change set of a "clientstatuschange" broadcast.
+         *
+         * @return null if the broadcast carries no change set (e.g. setup status changes),
+         * receivers then have to assume that everything changed
+         */
+        @JvmStatic
+        fun fromIntent(intent: Intent): ClientStatusChange? {
+            if (!intent.getBooleanExtra(EXTRA_CHANGE_SET, false)) {
+                return null
+            }
+            return ClientStatusChange(
+                    intent.getStringArrayListExtra(EXTRA_ADDED_TASKS).orEmpty(),
+                    intent.getStringArrayListExtra(EXTRA_REMOVED_TASKS).orEmpty(),
+                    intent.getStringArrayListExtra(EXTRA_CHANGED_TASKS).orEmpty(),
+                    intent.getStringArrayListExtra(EXTRA_CHANGED_PROJECTS).orEmpty(),
+                    intent.getBooleanExtra(EXTRA_TRANSFERS_CHANGED, true),
+                    intent.getIntExtra(EXTRA_NEW_NOTICES, 0),
+                    intent.getBooleanExtra(EXTRA_STATUS_CHANGED, true)
+            )
+        }
+    }
+}
+
+/**
+ * Keeps the previous ClientStatus snapshot and computes the [ClientStatusChange] of the next one.
+ * The snapshot is copied, since the Monitor keeps updating the lists it hands over.
+ */
+class ClientStatusDiffer {
+    private var tasks: Map<String, Task>? = null
+    private var projects: Map<String, Project> = emptyMap()
+    private var transfers: List<Transfer> = emptyList()
+
+    /**
+     * A task as it is compared: its own fields, and of the project, app, app version and work unit
+     * it refers to only the keys. Changes of these, e.g. of the credit of the project, are reported
+     * for the project and do not mark all of its tasks changed.
+     */
+    private data class Task(
+            val result: Result, // without project, app, app version and work unit
+            val projectUrl: String?,
+            val appName: String?,
+            val appVersionNum: Int?,
+            val workUnitName: String?
+    ) {
+        constructor(result: Result) : this(
+                result.copy(project = null, app = null, appVersion = null, workUnit = null),
+                result.project?.masterURL, result.app?.name, result.appVersion?.versionNum, result.workUnit?.name)
+    }
+
+    fun diff(newResults: List<Result>, newProjects: List<Project>, newTransfers: List<Transfer>,
+             newNotices: Int, statusChanged: Boolean): ClientStatusChange {
+        val tasksByName = newResults.associateBy({ it.name }, { Task(it) })
+        val projectsByUrl = newProjects.associateBy { it.masterURL }
+        val previousTasks = tasks
+
+        val change = if (previousTasks == null) {
+            // first snapshot, everything is new
+            ClientStatusChange(addedTasks = tasksByName.keys.toList(),
+                    changedProjects = projectsByUrl.keys.toList(),
+                    transfersChanged = true, newNotices = newNotices, statusChanged = true)
+        } else {
+            ClientStatusChange(
+                    addedTasks = tasksByName.keys.filter { it !in previousTasks },
+                    removedTasks = previousTasks.keys.filter { it !in tasksByName },
+                    changedTasks = tasksByName.filter { (name, task) ->
+                        previousTasks[name].let { it != null && it != task }
+                    }.keys.toList(),
+                    changedProjects = (projectsByUrl.keys + projects.keys).filter {
+                        projectsByUrl[it] != projects[it]
+                    },
+                    transfersChanged = newTransfers != transfers,
+                    newNotices = newNotices,
+                    statusChanged = statusChanged
+            )
+        }
+
+        tasks = tasksByName
+        projects = projectsByUrl
+        transfers = newTransfers.toList()
+        return change
+    }
+}
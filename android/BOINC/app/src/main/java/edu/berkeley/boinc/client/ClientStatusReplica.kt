@@ -0,0 +1,204 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.content.Context
+import android.content.Intent
+import android.os.RemoteException
+import edu.berkeley.boinc.rpc.AcctMgrInfo
+import edu.berkeley.boinc.rpc.Project
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+import edu.berkeley.boinc.utils.Logging
+
+/**
+ * Read-only copy of ClientStatus in the UI process, so the UI reads tasks, projects, transfers
+ * and the status from memory instead of through the binder.
+ * It is seeded with a full batch on [attach], ClientStatus then pushes a delta batch on every change.
+ * The replica sends the "clientstatuschange" broadcast once it applied a batch, ClientStatus only sends it
+ * while no replica is attached. A batch that does not follow the version of the replica
+ * means one got lost, the replica fetches a full batch then.
+ */
+class ClientStatusReplica(private val context: Context) {
+    private val callback = object : IClientStatusCallback.Stub() {
+        override fun onBatch(batch: ClientStatusBatch) = applyBatch(batch)
+    }
+    @Volatile
+    private var monitor: IMonitor? = null
+
+    /**
+     * Version of ClientStatus the replica is in sync with, [NOT_SEEDED] while detached
+     */
+    @Volatile
+    var version = NOT_SEEDED
+        private set
+
+    val isSeeded: Boolean
+        get() = version != NOT_SEEDED
+
+    private var results: List<Result> = emptyList()
+    private val taskIndex = TaskIndex()
+
+    @get:Synchronized
+    var projects: List<Project> = emptyList()
+        private set
+
+    @get:Synchronized
+    var transfers: List<Transfer> = emptyList()
+        private set
+
+    @get:Synchronized
+    var acctMgrInfo: AcctMgrInfo? = null
+        private set
+
+    @get:Synchronized
+    var setupStatus = ClientStatus.SETUP_STATUS_LAUNCHING
+        private set
+
+    @get:Synchronized
+    var computingStatus = ClientStatus.COMPUTING_STATUS_IDLE
+        private set
+
+    @get:Synchronized
+    var computingSuspendReason = 0
+        private set
+
+    @get:Synchronized
+    var networkSuspendReason = 0
+        private set
+
+    @get:Synchronized
+    var currentStatusTitle = ""
+        private set
+
+    @get:Synchronized
+    var currentStatusDescription = ""
+        private set
+
+    val tasksCount: Int
+        @Synchronized get() = results.size
+
+    @Synchronized
+    fun queryTasks(query: TaskQuery): List<Result> = taskIndex.page(query)
+
+    fun getProjectStatus(url: String): String {
+        val project = projects.firstOrNull { it.masterURL == url } ?: return ""
+        return ClientStatus.formatProjectStatus(context, project)
+    }
+
+    /**
+     * Registers with the Monitor and seeds the replica, it stays unseeded if that fails.
+     */
+    fun attach(monitor: IMonitor) {
+        detach()
+        try {
+            this.monitor = monitor
+            applyBatch(monitor.attachReplica(callback))
+        } catch (e: RemoteException) {
+            Logging.logException(Logging.Category.MONITOR, "ClientStatusReplica.attach() failed", e)
+            this.monitor = null
+        }
+    }
+
+    fun detach() {
+        val attached = monitor ?: return
+        monitor = null
+        version = NOT_SEEDED
+        try {
+            attached.detachReplica(callback)
+        } catch (e: RemoteException) {
+            Logging.logException(Logging.Category.MONITOR, "ClientStatusReplica.detach() failed", e)
+        }
+    }
+
+    /**
+     * Applies the batch and broadcasts its change set, or fetches a full batch if one got missed.
+     */
+    internal fun applyBatch(batch: ClientStatusBatch) {
+        when (synchronized(this) { apply(batch) }) {
+            Outcome.APPLIED -> broadcast(if (batch.isFull) null else batch.change)
+            Outcome.MISSED -> resync()
+            Outcome.STALE -> {}
+        }
+    }
+
+    private fun apply(batch: ClientStatusBatch): Outcome {
+        when {
+            monitor == null -> return Outcome.STALE // detached, late batch
+            batch.version < version || batch.version == version && !batch.isFull -> return Outcome.STALE // fetched before
+            batch.isFull -> {
+                results = batch.results
+                projects = batch.projects.orEmpty()
+                transfers = batch.transfers.orEmpty()
+            }
+            batch.baseVersion == version -> {
+                val changed = batch.results.associateBy { it.name }
+                results = if (batch.taskOrder != null) {
+                    val previous = results.associateBy { it.name }
+                    batch.taskOrder.mapNotNull { changed[it] ?: previous[it] }
+                } else {
+                    results.map { changed[it.name] ?: it }
+                }
+                batch.projects?.let { projects = it }
+                batch.transfers?.let { transfers = it }
+            }
+            else -> {
+                Logging.logDebug(Logging.Category.MONITOR, "ClientStatusReplica missed the batches from " +
+                        "$version to ${batch.baseVersion}, fetching a full batch")
+                return Outcome.MISSED
+            }
+        }
+        taskIndex.update(results)
+        acctMgrInfo = batch.acctMgrInfo
+        setupStatus = batch.setupStatus
+        computingStatus = batch.computingStatus
+        computingSuspendReason = batch.computingSuspendReason
+        networkSuspendReason = batch.networkSuspendReason
+        currentStatusTitle = batch.statusTitle
+        currentStatusDescription = batch.statusDescription
+        version = batch.version
+        return Outcome.APPLIED
+    }
+
+    // the binder call is made without the lock, the getters keep serving the current data meanwhile
+    private fun resync() {
+        val monitor = monitor ?: return
+        val batch = try {
+            monitor.fullClientStatusBatch
+        } catch (e: RemoteException) {
+            Logging.logException(Logging.Category.MONITOR, "ClientStatusReplica.resync() failed", e)
+            version = NOT_SEEDED // read through the binder until the next batch
+            return
+        }
+        applyBatch(batch)
+    }
+
+    // receivers assume that everything changed if there is no change set
+    private fun broadcast(change: ClientStatusChange?) {
+        val clientChanged = Intent("edu.berkeley.boinc.clientstatuschange")
+        change?.putInto(clientChanged)
+        context.sendBroadcast(clientChanged, null)
+    }
+
+    private enum class Outcome { APPLIED, STALE, MISSED }
+
+    companion object {
+        const val NOT_SEEDED = -1L
+    }
+}
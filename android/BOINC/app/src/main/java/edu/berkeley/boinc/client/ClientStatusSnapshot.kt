@@ -0,0 +1,158 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.os.Build
+import android.os.Parcel
+import edu.berkeley.boinc.BuildConfig
+import edu.berkeley.boinc.rpc.AcctMgrInfo
+import edu.berkeley.boinc.rpc.CcStatus
+import edu.berkeley.boinc.rpc.HostInfo
+import edu.berkeley.boinc.rpc.Notice
+import edu.berkeley.boinc.rpc.Project
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+import edu.berkeley.boinc.utils.Logging
+import java.io.File
+import java.io.IOException
+
+/**
+ * Last known state of [ClientStatus] in a file of the app storage, so the UI has something to show
+ * right after a cold start, before the client is set up and read.
+ *
+ * The models are written with their Parcelable implementation. Since the Parcel format may differ
+ * between app and Android versions, both are part of the header and a snapshot written by another
+ * version is ignored.
+ */
+class ClientStatusSnapshot @JvmOverloads constructor(
+        private val file: File,
+        private val version: Int = BuildConfig.VERSION_CODE
+) {
+    data class State(
+            val status: CcStatus?,
+            val results: List<Result>,
+            val projects: List<Project>,
+            val transfers: List<Transfer>,
+            val hostInfo: HostInfo?,
+            val acctMgrInfo: AcctMgrInfo?,
+            val notices: List<Notice>
+    )
+
+    /**
+     * Writes [state] to a temporary file that replaces the snapshot, so readers never see a partial one.
+     *
+     * @return success
+     */
+    fun write(state: State): Boolean {
+        val parcel = Parcel.obtain()
+        try {
+            parcel.writeInt(MAGIC)
+            parcel.writeInt(FORMAT)
+            parcel.writeInt(version)
+            parcel.writeInt(Build.VERSION.SDK_INT)
+            writeStatus(parcel, state.status)
+            parcel.writeTypedList(state.results)
+            parcel.writeTypedList(state.projects)
+            parcel.writeTypedList(state.transfers)
+            parcel.writeParcelable(state.hostInfo, 0)
+            parcel.writeParcelable(state.acctMgrInfo, 0)
+            parcel.writeTypedList(state.notices)
+            val bytes = parcel.marshall()
+
+            val temporary = File(file.path + ".tmp")
+            temporary.writeBytes(bytes)
+            if (!temporary.renameTo(file)) {
+                throw IOException("could not rename $temporary to $file")
+            }
+            return true
+        } catch (e: Exception) {
+            Logging.logException(Logging.Category.CLIENT, "ClientStatusSnapshot.write() error: ", e)
+            return false
+        } finally {
+            parcel.recycle()
+        }
+    }
+
+    /**
+     * Reads the snapshot. Does file I/O, do not call on the main thread.
+     *
+     * @return last written state, null if there is none or it is unusable
+     */
+    fun read(): State? {
+        if (!file.isFile) {
+            return null
+        }
+        val parcel = Parcel.obtain()
+        try {
+            val bytes = file.readBytes()
+            parcel.unmarshall(bytes, 0, bytes.size)
+            parcel.setDataPosition(0)
+            if (parcel.readInt() != MAGIC || parcel.readInt() != FORMAT || parcel.readInt() != version ||
+                    parcel.readInt() != Build.VERSION.SDK_INT) {
+                Logging.logDebug(Logging.Category.CLIENT, "ClientStatusSnapshot: snapshot of other version ignored")
+                return null
+            }
+            val classLoader = ClientStatusSnapshot::class.java.classLoader
+            return State(
+                    readStatus(parcel),
+                    parcel.createTypedArrayList(Result.CREATOR).orEmpty(),
+                    parcel.createTypedArrayList(Project.CREATOR).orEmpty(),
+                    parcel.createTypedArrayList(Transfer.CREATOR).orEmpty(),
+                    parcel.readParcelable(classLoader),
+                    parcel.readParcelable(classLoader),
+                    parcel.createTypedArrayList(Notice.CREATOR).orEmpty()
+            )
+        } catch (e: Exception) {
+            // a snapshot is only a hint, never fail because of it
+            Logging.logException(Logging.Category.CLIENT, "ClientStatusSnapshot.read() error: ", e)
+            return null
+        } finally {
+            parcel.recycle()
+        }
+    }
+
+    fun delete() = file.delete()
+
+    // CcStatus is not Parcelable
+    private fun writeStatus(parcel: Parcel, status: CcStatus?) {
+        parcel.writeInt(if (status == null) 0 else 1)
+        status ?: return
+        parcel.writeIntArray(intArrayOf(status.taskMode, status.taskModePerm, status.taskSuspendReason,
+                status.networkMode, status.networkModePerm, status.networkSuspendReason, status.networkStatus))
+        parcel.writeDoubleArray(doubleArrayOf(status.taskModeDelay, status.networkModeDelay))
+        parcel.writeBooleanArray(booleanArrayOf(status.amsPasswordError, status.managerMustQuit,
+                status.disallowAttach, status.simpleGuiOnly))
+    }
+
+    private fun readStatus(parcel: Parcel): CcStatus? {
+        if (parcel.readInt() == 0) {
+            return null
+        }
+        val ints = parcel.createIntArray()!!
+        val doubles = parcel.createDoubleArray()!!
+        val booleans = parcel.createBooleanArray()!!
+        return CcStatus(ints[0], ints[1], doubles[0], ints[2], ints[3], ints[4], doubles[1], ints[5], ints[6],
+                booleans[0], booleans[1], booleans[2], booleans[3])
+    }
+
+    companion object {
+        private const val MAGIC = 0x424f4943 // "BOIC"
+        private const val FORMAT = 1
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Message
+
+/**
+ * Client messages in ascending seqno order, held in a ring buffer of fixed [capacity].
+ * Newer messages push the oldest ones out, older messages are only taken while there is room.
+ * Windows of seqnos are looked up by binary search, so gaps in the seqnos are fine.
+ * Not thread-safe.
+ */
+class MessageLog(val capacity: Int = DEFAULT_CAPACITY) : AbstractList<Message>() {
+    private val buffer = arrayOfNulls<Message>(capacity)
+    private var head = 0 // position of the oldest message
+
+    override var size = 0
+        private set
+
+    override fun get(index: Int): Message {
+        if (index < 0 || index >= size) {
+            throw IndexOutOfBoundsException("index: $index, size: $size")
+        }
+        return buffer[(head + index) % capacity]!!
+    }
+
+    /**
+     * seqno of the newest message, 0 if empty
+     */
+    val lastSeqNo: Int
+        get() = if (isEmpty()) 0 else get(size - 1).seqno
+
+    /**
+     * seqno of the oldest message, 0 if empty
+     */
+    val firstSeqNo: Int
+        get() = if (isEmpty()) 0 else get(0).seqno
+
+    /**
+     * Appends the messages that are newer than [lastSeqNo], in ascending seqno order.
+     *
+     * @return number of oldest messages pushed out
+     */
+    fun append(messages: List<Message>): Int {
+        var dropped = 0
+        for (message in messages) {
+            if (!isEmpty() && message.seqno <= lastSeqNo) {
+                continue
+            }
+            if (size == capacity) {
+                buffer[head] = null
+                head = (head + 1) % capacity
+                size--
+                dropped++
+            }
+            buffer[(head + size) % capacity] = message
+            size++
+        }
+        return dropped
+    }
+
+    /**
+     * Puts the messages that are older than [firstSeqNo] in front, as far as there is room.
+     *
+     * @param messages in ascending seqno order
+     * @return number of messages taken
+     */
+    fun prepend(messages: List<Message>): Int {
+        var taken = 0
+        for (message in messages.asReversed()) {
+            if (size == capacity) {
+                break
+            }
+            if (!isEmpty() && message.seqno >= firstSeqNo) {
+                continue
+            }
+            head = (head - 1 + capacity) % capacity
+            buffer[head] = message
+            size++
+            taken++
+        }
+        return taken
+    }
+
+    /**
+     * @return copy of the oldest [limit] messages with [from] <= seqno < [to]
+     */
+    @JvmOverloads
+    fun window(from: Int, to: Int, limit: Int = Int.MAX_VALUE): List<Message> {
+        val start = lowerBound(from)
+        val end = minOf(lowerBound(to), start + minOf(limit, size - start))
+        return if (start < end) ArrayList(subList(start, end)) else emptyList()
+    }
+
+    /**
+     * Drops all messages, e.g. after the client restarted and numbers its messages anew.
+     */
+    fun reset() {
+        buffer.fill(null)
+        head = 0
+        size = 0
+    }
+
+    // index of the first message with seqno >= [seqNo]
+    private fun lowerBound(seqNo: Int): Int {
+        var low = 0
+        var high = size
+        while (low < high) {
+            val middle = (low + high) ushr 1
+            if (get(middle).seqno < seqNo) low = middle + 1 else high = middle
+        }
+        return low
+    }
+
+    companion object {
+        const val DEFAULT_CAPACITY = 5000
+
+        // most messages passed over binder at once, larger windows are read page by page
+        const val MAX_WINDOW = 500
+    }
+}
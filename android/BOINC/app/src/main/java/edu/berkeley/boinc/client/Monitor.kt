@@ -36,14 +36,17 @@ import edu.berkeley.boinc.rpc.*
 import edu.berkeley.boinc.utils.*
 import java.io.File
 import java.io.IOException
-import java.io.InputStreamReader
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
 import javax.inject.Inject
 import kotlin.properties.Delegates
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.async
 import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.launch
-import okio.buffer
-import okio.source
+import kotlinx.coroutines.runBlocking
 
 typealias Message = edu.berkeley.boinc.rpc.Message
 
@@ -88,6 +91,9 @@ class Monitor : LifecycleService() {
     @Inject
     lateinit var noticeNotification: NoticeNotification
 
+    @Inject
+    lateinit var persistentStorage: PersistentStorage
+
     // XML defined variables, populated in onCreate
     private lateinit var fileNameClient: String
     private lateinit var fileNameCABundle: String
@@ -102,9 +108,22 @@ class Monitor : LifecycleService() {
     private var clientStatusInterval by Delegates.notNull<Int>()
     private var deviceStatusIntervalScreenOff: Int = 0
     private val updateTimer = Timer(true) // schedules frequent client status update
-    private val statusUpdateTask: TimerTask = StatusUpdateTimerTask()
+    private val updateLock = Any()
+    private var scheduledUpdate: TimerTask? = null // guarded by updateLock
+    private var scheduledUpdateAt = 0L // elapsed realtime, guarded by updateLock
+    private lateinit var updateScheduler: UpdateScheduler // picks the delay of the next update
+    private lateinit var assetInstaller: AssetInstaller // installs and checks files from the assets
+    private var clientBusy = false // a task is about to finish or a transfer is running
     private var updateBroadcastEnabled = false
-    private var screenOffStatusOmitCounter = 0
+    private var completeStateInterval: Int = 0
+    private lateinit var snapshotRestore: Job // reads the last known state, see onCreate
+
+    // last complete get_state, results of active tasks are merged into it in between
+    private var cachedState: CcState? = null
+    private var cachedAcctMgrInfo: AcctMgrInfo? = null
+    private var completeStateOmitCounter = 0
+    @Volatile
+    private var completeStateRequested = true
 
     // screen on/off updated by screenOnOffBroadcastReceiver
     private var screenOn = false
@@ -112,6 +131,21 @@ class Monitor : LifecycleService() {
 
     private var isRemote = false
 
+    // finds the client process in /proc, caches its PID
+    private val processInspector = ProcessInspector()
+
+    // wakes up the status update on changes, if the client supports wait_for_changes
+    private val changeListener = ClientChangeListener({
+        clientInterface.connectChangeListener(
+            it,
+            if (isRemote) null else clientSocketAddress,
+            boincWorkingDir + fileNameGuiAuthentication
+        )
+    }, ::onClientChanges)
+
+    // polled RPC sequences started through IMonitor, by the binder of their IPollingCallback
+    private val pollingJobs = ConcurrentHashMap<IBinder, Job>()
+
     /**
      * Determines BOINC platform name corresponding to device's cpu architecture (ARM, x86).
      * Defaults to ARM
@@ -193,6 +227,7 @@ class Monitor : LifecycleService() {
         // Read User log level and set logLevel of Logging Class
         Logging.setLogLevel(appPreferences.logLevel)
         Logging.setLogCategories(appPreferences.logCategories)
+        ParserEngine.current = ParserEngine.valueOf(appPreferences.parserEngine)
 
         Logging.logDebug(Logging.Category.MONITOR, "Monitor onCreate()")
 
@@ -203,15 +238,28 @@ class Monitor : LifecycleService() {
         fileNameClientConfig = getString(R.string.client_config)
         fileNameGuiAuthentication = getString(R.string.auth_file_name)
         fileNameAllProjectsList = getString(R.string.all_projects_list)
+        clientInterface.setAllProjectsListFile(File(boincWorkingDir + fileNameAllProjectsList))
         fileNameNoMedia = getString(R.string.nomedia)
         fileNameWelcomeState = "welcome.state"
+        assetInstaller = AssetInstaller(applicationContext.assets::open, File(boincWorkingDir))
         clientStatusInterval = resources.getInteger(R.integer.status_update_interval_ms)
         deviceStatusIntervalScreenOff =
             resources.getInteger(R.integer.device_status_update_screen_off_every_X_loop)
+        completeStateInterval = resources.getInteger(R.integer.complete_state_update_every_X_loop)
+        updateScheduler = UpdateScheduler(
+            clientStatusInterval.toLong(),
+            clientStatusInterval.toLong() * deviceStatusIntervalScreenOff
+        )
         clientSocketAddress = getString(R.string.client_socket_address)
 
         Logging.logDebug(Logging.Category.MONITOR, "Monitor onCreate(): singletons initialized")
 
+        // show the last known state until the client is set up and read
+        val snapshot = ClientStatusSnapshot(File(filesDir, "client_status.snapshot"))
+        snapshotRestore = lifecycleScope.launch(Dispatchers.IO) {
+            clientStatus.restoreSnapshot(snapshot, persistentStorage.lastNoticeSeqNo)
+        }
+
         // set current screen on/off status
         screenOn = getSystemService<PowerManager>()!!.isScreenOnCompat
 
@@ -229,6 +277,8 @@ class Monitor : LifecycleService() {
 
         updateBroadcastEnabled = false // prevent broadcast from currently running update task
         updateTimer.cancel() // cancel task
+        changeListener.stop()
+        clientStatus.writeSnapshot()
 
         // there might be still other AsyncTasks executing RPCs
         // close sockets in a synchronized way
@@ -261,10 +311,8 @@ class Monitor : LifecycleService() {
         // run here in order to recover, if mutex holding app gets closed.
         if (!updateBroadcastEnabled && mutex.acquire()) {
             updateBroadcastEnabled = true
-            // register and start update task
-            // using .scheduleAtFixedRate() can cause a series of bunched-up runs
-            // when previous executions are delayed (e.g. during clientSetup() )
-            updateTimer.schedule(statusUpdateTask, 0, clientStatusInterval.toLong())
+            // start update task, every update schedules the next one, see UpdateScheduler
+            scheduleUpdate(0)
         }
         if (!mutex.isAcquired) Logging.logError(
             Logging.Category.MONITOR,
@@ -304,11 +352,8 @@ class Monitor : LifecycleService() {
 
         Logging.logDebug(Logging.Category.MONITOR, "forceRefresh()")
 
-        try {
-            updateTimer.schedule(StatusUpdateTimerTask(), 0)
-        } catch (e: Exception) {
-            Logging.logException(Logging.Category.MONITOR, "Monitor.forceRefresh error: ", e)
-        } // throws IllegalStateException if called after timer got cancelled, i.e. after manual shutdown
+        completeStateRequested = true // user actions can change projects and tasks
+        scheduleUpdate(0)
     }
 
     fun getWelcomeStateFile(): Boolean {
@@ -337,31 +382,90 @@ class Monitor : LifecycleService() {
      */
     private inner class StatusUpdateTimerTask : TimerTask() {
         override fun run() {
-            updateStatus()
+            synchronized(updateLock) {
+                if (scheduledUpdate === this) scheduledUpdate = null
+            }
+            val change = updateStatus()
+            var delayMs = updateScheduler.next(
+                change, screenOn, !deviceStatus.status.isOnACPower, clientBusy,
+                changeListener.isListening
+            )
+            if (!clientInterface.connectionAlive()) {
+                // an RPC of this update failed, reconnect soon
+                delayMs = delayMs.coerceAtMost(clientStatusInterval.toLong())
+            }
+
+            Logging.logVerbose(
+                Logging.Category.MONITOR,
+                "next status update in $delayMs ms, average ${updateScheduler.averageDelayMs} ms"
+            )
+
+            scheduleUpdate(delayMs)
         }
     }
 
+    /**
+     * Schedules a status update in [delayMs], unless one is already scheduled earlier.
+     * Updates run one after another on the timer thread.
+     */
+    private fun scheduleUpdate(delayMs: Long) {
+        synchronized(updateLock) {
+            if (!updateBroadcastEnabled) return
+            val at = SystemClock.elapsedRealtime() + delayMs
+            scheduledUpdate?.let {
+                if (scheduledUpdateAt <= at) return
+                it.cancel()
+            }
+            val task = StatusUpdateTimerTask()
+            try {
+                updateTimer.schedule(task, delayMs)
+                scheduledUpdate = task
+                scheduledUpdateAt = at
+            } catch (e: IllegalStateException) {
+                // timer got cancelled, i.e. after manual shutdown
+                Logging.logException(Logging.Category.MONITOR, "Monitor.scheduleUpdate error: ", e)
+            }
+        }
+    }
+
+    /**
+     * Called by the change listener on its own thread, wakes up the status update
+     */
+    private fun onClientChanges(changes: ClientChanges) {
+        Logging.logVerbose(Logging.Category.MONITOR, "onClientChanges(): $changes")
+
+        if (changes.tasks) {
+            completeStateRequested = true // new and finished tasks are only part of get_state
+        }
+        scheduleUpdate(0)
+    }
+
     /**
      * Reports current device status to client and reads current client status.
      * Updates ClientStatus and fires Broadcast.
      * Called frequently to poll current status.
+     *
+     * @return change set of the update, null if it did not read the complete status
      */
-    private fun updateStatus() {
-        // check whether RPC client connection is alive
+    private fun updateStatus(): ClientStatusChange? {
+        var change: ClientStatusChange? = null
+        // the snapshot must not be restored over the state read from the client
+        if (!snapshotRestore.isCompleted) {
+            runBlocking { snapshotRestore.join() }
+        }
+        // check whether RPC client connection is alive, tracked by the RPCs of the previous updates
         if (!clientInterface.connectionAlive() && clientSetup()) { // start setup routine
             // interact with client only if connection established successfully
             reportDeviceStatus()
             readClientStatus(true) // read initial data
+            changeListener.start()
         }
-        if (!screenOn && screenOffStatusOmitCounter < deviceStatusIntervalScreenOff)
-            screenOffStatusOmitCounter++ // omit status reporting according to configuration
-        else {
-            // screen is on, or omit counter reached limit
-            if (clientInterface.connectionAlive()) {
-                reportDeviceStatus()
-                readClientStatus(false) // readClientStatus is also required when screen is off, otherwise no wakeLock acquisition.
-            }
+        // updates are further apart while the screen is off, see UpdateScheduler
+        if (clientInterface.connectionAlive()) {
+            reportDeviceStatus()
+            change = readClientStatus(false) // readClientStatus is also required when screen is off, otherwise no wakeLock acquisition.
         }
+        return change
     }
 
     /**
@@ -369,8 +473,10 @@ class Monitor : LifecycleService() {
      * Optimized to retrieve only subset of information (required to determine wakelock state) if screen is turned off
      *
      * @param forceCompleteUpdate forces update of entire status information, regardless of screen status
+     * @return change set of ClientStatus, null if only the computing status was read
      */
-    private fun readClientStatus(forceCompleteUpdate: Boolean) {
+    private fun readClientStatus(forceCompleteUpdate: Boolean): ClientStatusChange? {
+        var change: ClientStatusChange? = null
         try {
             val status: CcStatus? // read independently of screen status
 
@@ -386,16 +492,21 @@ class Monitor : LifecycleService() {
                 )
 
                 status = clientInterface.ccStatus
-                val state = clientInterface.state
+                val state = readState(forceCompleteUpdate)
                 val transfers = clientInterface.fileTransfers
-                val acctMgrInfo = clientInterface.acctMgrInfo
+                val acctMgrInfo = cachedAcctMgrInfo
                 val newNotices = clientInterface.getNotices(clientStatus.mostRecentNoticeSeqNo)
                 if (allNotNull(status, state, state?.hostInfo, acctMgrInfo)) {
-                    clientStatus.setClientStatus(
-                        status, state!!.results, state.projects,
+                    // copy, the cached list is updated by the next ticks
+                    change = clientStatus.setClientStatus(
+                        status, state!!.results.toList(), state.projects,
                         transfers, state.hostInfo, acctMgrInfo,
                         newNotices
                     )
+                    clientBusy = UpdateScheduler.isBusy(state.results, transfers)
+                    if (change.newNotices > 0) {
+                        persistentStorage.lastNoticeSeqNo = clientStatus.mostRecentNoticeSeqNo
+                    }
                 } else {
                     var nullValues = ""
                     if (state == null) {
@@ -437,6 +548,12 @@ class Monitor : LifecycleService() {
                 Logging.Category.MONITOR,
                 "readClientStatus(): computation enabled: $computing"
             )
+            if (Logging.isLoggable(Logging.Level.VERBOSE, Logging.Category.MONITOR)) {
+                Logging.logVerbose(
+                    Logging.Category.MONITOR,
+                    "readClientStatus(): RPC lanes: ${clientInterface.bulkLane}; ${clientInterface.priorityLane}"
+                )
+            }
 
             clientStatus.setWifiLock(computing)
             clientStatus.setWakeLock(computing)
@@ -448,6 +565,45 @@ class Monitor : LifecycleService() {
                 e
             )
         }
+        return change
+    }
+
+    /**
+     * Reads the client state for a complete status update.
+     * get_state is only read on the first update, when forced or requested, every
+     * complete_state_update_every_X_loop updates and when the set of active tasks changed.
+     * Otherwise only the active results are read and merged into the last complete state,
+     * get_state is read as well if reading them failed.
+     *
+     * @param forceComplete forces get_state
+     * @return the client state, null in case of connection problems
+     */
+    private fun readState(forceComplete: Boolean): CcState? {
+        val cached = cachedState
+        if (!forceComplete && !completeStateRequested && cached != null &&
+            completeStateOmitCounter < completeStateInterval
+        ) {
+            completeStateOmitCounter++
+            val activeResults = clientInterface.activeResults
+            if (activeResults == null) {
+                Logging.logError(
+                    Logging.Category.MONITOR,
+                    "readClientStatus(): reading active tasks failed, get complete state"
+                )
+            } else if (cached.mergeActiveResults(activeResults)) {
+                return cached
+            } else {
+                Logging.logDebug(
+                    Logging.Category.MONITOR,
+                    "readClientStatus(): active tasks changed, get complete state"
+                )
+            }
+        }
+        completeStateRequested = false
+        completeStateOmitCounter = 0
+        cachedState = clientInterface.state
+        cachedAcctMgrInfo = clientInterface.acctMgrInfo
+        return cachedState
     }
 
     /**
@@ -462,9 +618,7 @@ class Monitor : LifecycleService() {
             // make sure deviceStatus is initialized
             val reportStatusSuccess =
                 clientInterface.reportDeviceStatus(deviceStatus.update(screenOn)) // transmit device status via rpc
-            if (reportStatusSuccess)
-                screenOffStatusOmitCounter = 0
-            else
+            if (!reportStatusSuccess)
                 Logging.logDebug(
                     Logging.Category.MONITOR,
                     "reporting device status returned false."
@@ -489,97 +643,92 @@ class Monitor : LifecycleService() {
     private fun clientSetup(): Boolean {
         Logging.logVerbose(Logging.Category.MONITOR, "Monitor.clientSetup()")
 
-        clientStatus.setSetupStatus(ClientStatus.SETUP_STATUS_LAUNCHING, true)
+        val trace = StartupTrace()
+        // Keep the last known state on screen while reconnecting, e.g. after the client crashed.
+        // The first complete status read after the setup replaces it.
+        if (clientStatus.setupStatus != ClientStatus.SETUP_STATUS_AVAILABLE &&
+            clientStatus.setupStatus != ClientStatus.SETUP_STATUS_NOPROJECT
+        ) {
+            clientStatus.setSetupStatus(ClientStatus.SETUP_STATUS_LAUNCHING, true)
+        }
         val clientProcessName = boincWorkingDir + fileNameClient
-        val md5AssetClient = computeMd5(fileNameClient, true)
-        val md5InstalledClient = computeMd5(clientProcessName, false)
+
+        // The hash of the binary in the assets is taken from the build time manifest and compared
+        // against the record of the last install, the installed binary itself is not read.
+        // Whether the client is running already is looked up at the same time.
+        val (clientInstalled, runningPid) = runBlocking(Dispatchers.IO) {
+            val installed = async {
+                trace.measure("install check") {
+                    assetInstaller.isInstalled(
+                        assetsDirForCpuArchitecture + fileNameClient, File(clientProcessName)
+                    )
+                }
+            }
+            val pid = async { trace.measure("launch detection") { getPidForProcessName(clientProcessName) } }
+            installed.await() to pid.await()
+        }
+        var clientPid = runningPid
 
         // If client hashes do not match, we need to install the one that is a part
         // of the package. Shutdown the currently running client if needed.
         //
-        if (forceReinstall || md5InstalledClient != md5AssetClient) {
+        if (forceReinstall || !clientInstalled) {
             Logging.logDebug(
                 Logging.Category.MONITOR,
                 "Hashes of installed client does not match binary in assets - re-install."
             )
 
-            // try graceful shutdown using RPC (faster)
-            if (getPidForProcessName(clientProcessName) != null && connectClient()) {
-                clientInterface.quit()
-                val attempts =
-                    applicationContext.resources.getInteger(R.integer.shutdown_graceful_rpc_check_attempts)
-                val sleepPeriod =
-                    applicationContext.resources.getInteger(R.integer.shutdown_graceful_rpc_check_rate_ms)
-                var x = 0
-                while (x < attempts) {
-                    Thread.sleep(sleepPeriod.toLong())
-                    if (getPidForProcessName(clientProcessName) == null) { //client is now closed
+            val installed = trace.measure("install") {
+                // try graceful shutdown using RPC (faster)
+                if (clientPid != null && connectClient()) {
+                    clientInterface.quit()
+                    val attempts =
+                        applicationContext.resources.getInteger(R.integer.shutdown_graceful_rpc_check_attempts)
+                    val sleepPeriod =
+                        applicationContext.resources.getInteger(R.integer.shutdown_graceful_rpc_check_rate_ms)
+                    val start = SystemClock.elapsedRealtime()
+                    if (processInspector.awaitExit(clientProcessName, attempts.toLong() * sleepPeriod)) {
                         Logging.logDebug(
                             Logging.Category.MONITOR,
-                            "quitClient: graceful RPC shutdown successful after " + x +
-                                    " seconds"
+                            "quitClient: graceful RPC shutdown successful after " +
+                                    (SystemClock.elapsedRealtime() - start) + " ms"
                         )
-
-                        x = attempts
                     }
-                    x++
                 }
-            }
 
-            // quit with OS signals
-            if (getPidForProcessName(clientProcessName) != null) {
-                quitProcessOsLevel(clientProcessName)
-            }
+                // quit with OS signals
+                if (getPidForProcessName(clientProcessName) != null) {
+                    quitProcessOsLevel(clientProcessName)
+                }
+                clientPid = null
 
-            // at this point client is definitely not running. install new binary...
-            if (!installClient()) {
+                // at this point client is definitely not running. install new binary...
+                installClient()
+            }
+            if (!installed) {
                 Logging.logError(Logging.Category.MONITOR, "BOINC client installation failed!")
                 return false
             }
         }
 
         // Start the BOINC client if we need to.
-        val clientPid = getPidForProcessName(clientProcessName)
         if (clientPid == null) {
             Logging.logInfo(Logging.Category.MONITOR, "Starting the BOINC client")
 
-            if (!runClient(appPreferences.isRemote)) {
+            if (!trace.measure("launch") { runClient(appPreferences.isRemote) }) {
                 Logging.logError(Logging.Category.MONITOR, "BOINC client failed to start")
 
                 return false
             }
         }
 
-        // Try to connect to executed Client in loop
-        //
-        val retryRate = resources.getInteger(R.integer.monitor_setup_connection_retry_rate_ms)
-        val retryAttempts = resources.getInteger(R.integer.monitor_setup_connection_retry_attempts)
-        var connected = false
-        var counter = 0
-        while (!connected && counter < retryAttempts) {
-            Logging.logDebug(Logging.Category.MONITOR, "Attempting BOINC client connection...")
-            connected = connectClient()
-            counter++
-            Thread.sleep(retryRate.toLong())
-        }
+        val connected = trace.measure("connect") { connectClientWithRetry() }
         var init = false
         if (connected) { // connection established
             try {
                 // read preferences for GUI to be able to display data
-                val clientPrefs = clientInterface.globalPrefsWorkingStruct!!
+                val clientPrefs = trace.measure("preferences") { clientInterface.globalPrefsWorkingStruct!! }
                 clientStatus.prefs = clientPrefs
-
-                // set Android model as hostinfo
-                // should output something like "Samsung Galaxy SII - SDK:15 ABI:armeabi-v7a"
-                val model =
-                    "${Build.MANUFACTURER} ${Build.MODEL} - SDK: ${Build.VERSION.SDK_INT} ABI: $abi"
-                val version = Build.VERSION.RELEASE
-
-                Logging.logInfo(Logging.Category.MONITOR, "reporting hostinfo model name: $model")
-                Logging.logInfo(Logging.Category.MONITOR, "reporting hostinfo os name: Android")
-                Logging.logInfo(Logging.Category.MONITOR, "reporting hostinfo os version: $version")
-
-                clientInterface.setHostInfo(model, version)
                 init = true
             } catch (e: Exception) {
                 Logging.logError(
@@ -595,6 +744,17 @@ class Monitor : LifecycleService() {
             )
 
             clientStatus.setSetupStatus(ClientStatus.SETUP_STATUS_AVAILABLE, false)
+            // notices and messages read from another client process are numbered differently, read them again.
+            // PIDs get reused, the process is told apart by its start time as well
+            val clientKey = getPidForProcessName(clientProcessName)?.let { processInspector.processKey(it) } ?: ""
+            clientInterface.setMessageLogClient(clientKey)
+            if (clientKey != persistentStorage.lastNoticeClient) {
+                clientStatus.resetNotices()
+                persistentStorage.lastNoticeSeqNo = 0
+                persistentStorage.lastNoticeClient = clientKey
+            }
+            // the UI does not depend on it, report it after the first status update got read
+            lifecycleScope.launch(Dispatchers.IO) { reportHostInfo() }
         } else {
             Logging.logError(
                 Logging.Category.MONITOR,
@@ -603,9 +763,53 @@ class Monitor : LifecycleService() {
 
             clientStatus.setSetupStatus(ClientStatus.SETUP_STATUS_ERROR, true)
         }
+        Logging.logInfo(Logging.Category.MONITOR, "Monitor.clientSetup() timings: $trace")
+
         return connected
     }
 
+    /**
+     * Connects to the client as soon as it accepts connections. Retries with growing delays, the first
+     * ones are short, since the client binds its socket shortly after the launch. The socket of the
+     * client is in the abstract namespace, so there is no file whose creation could be watched.
+     *
+     * @return Boolean success
+     */
+    private fun connectClientWithRetry(): Boolean {
+        val retryRate = resources.getInteger(R.integer.monitor_setup_connection_retry_rate_ms).toLong()
+        val retryAttempts = resources.getInteger(R.integer.monitor_setup_connection_retry_attempts)
+        val backoff = PollBackoff(CONNECTION_RETRY_INITIAL_MS, retryRate)
+        val deadline = SystemClock.elapsedRealtime() + retryRate * retryAttempts
+        var delayMs = backoff.initialDelayMs
+        while (true) {
+            Logging.logDebug(Logging.Category.MONITOR, "Attempting BOINC client connection...")
+            if (connectClient()) {
+                return true
+            }
+            val remainingMs = deadline - SystemClock.elapsedRealtime()
+            if (remainingMs <= 0) {
+                return false
+            }
+            Thread.sleep(delayMs.coerceAtMost(remainingMs))
+            delayMs = backoff.next(delayMs)
+        }
+    }
+
+    /**
+     * Reports the Android model as host info
+     */
+    private fun reportHostInfo() {
+        // should output something like "Samsung Galaxy SII - SDK:15 ABI:armeabi-v7a"
+        val model = "${Build.MANUFACTURER} ${Build.MODEL} - SDK: ${Build.VERSION.SDK_INT} ABI: $abi"
+        val version = Build.VERSION.RELEASE
+
+        Logging.logInfo(Logging.Category.MONITOR, "reporting hostinfo model name: $model")
+        Logging.logInfo(Logging.Category.MONITOR, "reporting hostinfo os name: Android")
+        Logging.logInfo(Logging.Category.MONITOR, "reporting hostinfo os version: $version")
+
+        clientInterface.setHostInfo(model, version)
+    }
+
     /**
      * Executes BOINC client.
      * Using Java Runtime exec method
@@ -657,6 +861,13 @@ class Monitor : LifecycleService() {
         success = clientInterface.authorizeGuiFromFile(boincWorkingDir + fileNameGuiAuthentication)
         if (!success) {
             Logging.logError(Logging.Category.MONITOR, "Authorization failed!")
+        } else if (!clientInterface.connectPriorityLane(
+                if (isRemote) null else clientSocketAddress,
+                boincWorkingDir + fileNameGuiAuthentication
+            )
+        ) {
+            // not fatal, control RPCs use the main connection then
+            Logging.logWarning(Logging.Category.MONITOR, "Priority lane connection failed!")
         }
         return success
     }
@@ -705,8 +916,6 @@ class Monitor : LifecycleService() {
      * @return Boolean success
      */
     private fun installFile(file: String, executable: Boolean, targetFile: String): Boolean {
-        var success = false
-
         // If file is executable, cpu architecture has to be evaluated
         // and assets directory select accordingly
         val source = if (executable) assetsDirForCpuArchitecture + file else file
@@ -715,23 +924,14 @@ class Monitor : LifecycleService() {
         } else {
             File(boincWorkingDir + file)
         }
-        try {
-            // Copy file from the asset manager to clientPath
-            applicationContext.assets.open(source).copyToFile(target)
-            success = true //copy succeeded without exception
-
-            // Set executable, if requested
-            if (executable) {
-                success = target.setExecutable(true) // return false, if not executable
-            }
-
+        // Copy file from the asset manager to clientPath, set executable, if requested
+        val success = assetInstaller.install(source, target, executable)
+        if (success) {
             Logging.logDebug(
                 Logging.Category.MONITOR,
-                "Installation of " + source + " successful. Executable: " +
-                        executable + "/" + success
+                "Installation of $source successful. Executable: $executable"
             )
-        } catch (ioe: IOException) {
-            Logging.logError(Logging.Category.MONITOR, IOEXCEPTION_LOG + ioe.message)
+        } else {
             Logging.logError(Logging.Category.MONITOR, "Install of $source failed.")
         }
         return success
@@ -762,117 +962,24 @@ class Monitor : LifecycleService() {
             return archAssetsDirectory
         }
 
-    /**
-     * Computes MD5 hash of requested file
-     *
-     * @param fileName absolute path or name of file in assets directory, see inAssets parameter
-     * @param inAssets if true, fileName is file name in assets directory, if not, absolute path
-     * @return md5 hash of file
-     */
-    private fun computeMd5(fileName: String, inAssets: Boolean): String {
-        try {
-            val source = if (inAssets) {
-                applicationContext.assets.open(assetsDirForCpuArchitecture + fileName).source()
-            } else {
-                File(fileName).source()
-            }.buffer()
-            val md5 = source.readByteString().md5().hex()
-            source.close()
-            return md5
-        } catch (e: IOException) {
-            Logging.logError(Logging.Category.MONITOR, IOEXCEPTION_LOG + e.message)
-        }
-        return ""
-    }
-
     /**
      * Determines ProcessID corresponding to given process name
      *
-     * @param processName name of process, according to output of "ps"
-     * @return process id, according to output of "ps"
+     * @param processName absolute path of the executable the process was started with
+     * @return process id, null if no such process is running
      */
     private fun getPidForProcessName(processName: String): Int? {
-        val processLines: List<String>
+        val pid = processInspector.findPid(processName)
 
-        //run ps and read output
-        try {
-            val p = Runtime.getRuntime().exec("ps")
-            p.waitFor()
-            val isr = InputStreamReader(p.inputStream)
-            processLines = isr.readLines()
-            isr.close()
-        } catch (e: Exception) {
-            Logging.logError(Logging.Category.MONITOR, "Exception: " + e.message)
+        Logging.logDebug(Logging.Category.MONITOR, "getPidForProcessName(): $processName pid: $pid")
 
-            return null
-        }
-        if (processLines.size < 2) {
-            Logging.logError(
-                Logging.Category.MONITOR,
-                "getPidForProcessName(): ps output has less than 2 lines, failure!"
-            )
-
-            return null
-        }
-
-        // figure out what index PID has
-        val headers = processLines[0].split("[\\s]+".toRegex()).toTypedArray()
-        val pidIndex = headers.indexOfFirst { it == "PID" }
-        if (pidIndex == -1) {
-            return null
-        }
-
-        Logging.logDebug(
-            Logging.Category.MONITOR,
-            "getPidForProcessName(): PID at index: $pidIndex for output:" +
-                    " ${processLines[0]}"
-        )
-
-        var pid: Int? = null
-        for (y in 1 until processLines.size) {
-            var found = false
-            val comps = processLines[y].split("[\\s]+".toRegex()).toTypedArray()
-            for (arg in comps) {
-                if (arg == processName) {
-                    Logging.logDebug(
-                        Logging.Category.MONITOR,
-                        "getPidForProcessName(): $processName found in line: $y"
-                    )
-
-                    found = true
-                    break // Break out of inner foreach (comps) loop
-                }
-            }
-            if (found) {
-                try {
-                    pid = comps[pidIndex].toInt()
-
-                    Logging.logDebug(Logging.Category.MONITOR, "getPidForProcessName(): pid: $pid")
-                } catch (e: NumberFormatException) {
-                    Logging.logError(
-                        Logging.Category.MONITOR,
-                        "getPidForProcessName(): NumberFormatException for " +
-                                "${comps[pidIndex]} at index: $pidIndex"
-                    )
-                }
-                break // Break out of outer for (processLinesAr) loop
-            }
-        }
-        // if not happen in ps output, not running?!
-        if (pid == null)
-            Logging.logError(
-                Logging.Category.MONITOR,
-                "getPidForProcessName(): $processName not found in ps output!"
-            )
-
-        // Find required pid
         return pid
     }
 
     /**
      * Exits a process by sending it Linux SIGQUIT and SIGKILL signals
      *
-     * @param processName name of process to be killed, according to output of "ps"
+     * @param processName name of process to be killed, i.e. absolute path of its executable
      */
     private fun quitProcessOsLevel(processName: String) {
         var clientPid = getPidForProcessName(processName)
@@ -904,19 +1011,13 @@ class Monitor : LifecycleService() {
             applicationContext.resources.getInteger(R.integer.shutdown_graceful_os_check_attempts)
         val sleepPeriod =
             applicationContext.resources.getInteger(R.integer.shutdown_graceful_os_check_rate_ms)
-        var x = 0
-        while (x < attempts) {
-            Thread.sleep(sleepPeriod.toLong())
-            if (getPidForProcessName(processName) == null) { //client is now closed
-                Logging.logDebug(
-                    Logging.Category.MONITOR,
-                    "quitClient: graceful SIGQUIT shutdown successful after" +
-                            " $x seconds"
-                )
-
-                x = attempts
-            }
-            x++
+        val start = SystemClock.elapsedRealtime()
+        if (processInspector.awaitExit(processName, attempts.toLong() * sleepPeriod)) { //client is now closed
+            Logging.logDebug(
+                Logging.Category.MONITOR,
+                "quitClient: graceful SIGQUIT shutdown successful after " +
+                        (SystemClock.elapsedRealtime() - start) + " ms"
+            )
         }
         clientPid = getPidForProcessName(processName)
         if (clientPid != null) {
@@ -944,9 +1045,9 @@ class Monitor : LifecycleService() {
             val action = intent.action
             if (action == Intent.ACTION_SCREEN_OFF) {
                 screenOn = false
-                // forces report of device status at next scheduled update
+                // report device status right away instead of after the next screen off delay
                 // allows timely reaction to screen off for resume of computation
-                screenOffStatusOmitCounter = deviceStatusIntervalScreenOff
+                scheduleUpdate(0)
 
                 Logging.logDebug(Logging.Category.MONITOR, "screenOnOffReceiver: screen turned off")
             }
@@ -972,6 +1073,25 @@ class Monitor : LifecycleService() {
         return@coroutineScope
     }
 
+    /**
+     * Runs the polled RPC sequence [poll] for [callback] of a caller in the lifecycle scope,
+     * until it finished, the caller cancelled it with IMonitor.cancelPolling or the Monitor is destroyed.
+     */
+    private fun startPolling(callback: IPollingCallback, poll: suspend () -> Unit) {
+        val binder = callback.asBinder()
+        val job = lifecycleScope.launch(start = CoroutineStart.LAZY) {
+            try {
+                poll()
+            } catch (e: RemoteException) {
+                Logging.logException(Logging.Category.MONITOR, "Monitor.startPolling() callback error: ", e)
+            } finally {
+                pollingJobs.remove(binder)
+            }
+        }
+        pollingJobs[binder] = job
+        job.start()
+    }
+
     // remote service
     val mBinder: IMonitor.Stub = object : IMonitor.Stub() {
         @Throws(RemoteException::class)
@@ -980,8 +1100,13 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun synchronizeAcctMgr(url: String): Boolean {
-            return clientInterface.synchronizeAcctMgr(url)
+        override fun pollSynchronizeAcctMgr(url: String, callback: IPollingCallback) {
+            startPolling(callback) { callback.onSuccess(clientInterface.awaitSynchronizeAcctMgr(url)) }
+        }
+
+        @Throws(RemoteException::class)
+        override fun cancelPolling(callback: IPollingCallback) {
+            pollingJobs.remove(callback.asBinder())?.cancel()
         }
 
         @Throws(RemoteException::class)
@@ -1011,7 +1136,7 @@ class Monitor : LifecycleService() {
 
         @Throws(RemoteException::class)
         override fun resultOp(op: Int, url: String, name: String): Boolean {
-            return clientInterface.resultOp(op, url, name)
+            return clientInterface.priorityLane.call { resultOp(op, url, name) }
         }
 
         @Throws(RemoteException::class)
@@ -1021,7 +1146,7 @@ class Monitor : LifecycleService() {
 
         @Throws(RemoteException::class)
         override fun projectOp(status: Int, url: String): Boolean {
-            return clientInterface.projectOp(status, url)
+            return clientInterface.priorityLane.call { projectOp(status, url) }
         }
 
         @Throws(RemoteException::class)
@@ -1030,8 +1155,8 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun lookupCredentials(credentials: AccountIn): AccountOut {
-            return clientInterface.lookupCredentials(credentials)
+        override fun pollLookupCredentials(credentials: AccountIn, callback: IPollingCallback) {
+            startPolling(callback) { callback.onAccountOut(clientInterface.awaitLookupCredentials(credentials)) }
         }
 
         @Throws(RemoteException::class)
@@ -1054,8 +1179,8 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun getProjectConfigPolling(url: String): ProjectConfig {
-            return clientInterface.getProjectConfigPolling(url)
+        override fun pollProjectConfig(url: String, callback: IPollingCallback) {
+            startPolling(callback) { callback.onProjectConfig(clientInterface.awaitProjectConfig(url)) }
         }
 
         @Throws(RemoteException::class)
@@ -1065,7 +1190,12 @@ class Monitor : LifecycleService() {
 
         @Throws(RemoteException::class)
         override fun getMessages(seq: Int): List<Message> {
-            return clientInterface.getMessages(seq)
+            return clientInterface.getMessageWindow(seq + 1, Int.MAX_VALUE)
+        }
+
+        @Throws(RemoteException::class)
+        override fun getMessageWindow(from: Int, to: Int): List<Message> {
+            return clientInterface.getMessageWindow(from, to)
         }
 
         @Throws(RemoteException::class)
@@ -1108,8 +1238,8 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun createAccountPolling(information: AccountIn): AccountOut {
-            return clientInterface.createAccountPolling(information)
+        override fun pollCreateAccount(information: AccountIn, callback: IPollingCallback) {
+            startPolling(callback) { callback.onAccountOut(clientInterface.awaitCreateAccount(information)) }
         }
 
         @Throws(RemoteException::class)
@@ -1118,26 +1248,33 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun attachProject(
+        override fun pollAttachProject(
             url: String,
             projectName: String,
-            authenticator: String
-        ): Boolean {
-            return clientInterface.attachProject(url, projectName, authenticator)
+            authenticator: String,
+            callback: IPollingCallback
+        ) {
+            startPolling(callback) {
+                callback.onSuccess(clientInterface.awaitAttachProject(url, projectName, authenticator))
+            }
         }
 
-        override fun addAcctMgrErrorNum(
+        @Throws(RemoteException::class)
+        override fun pollAddAcctMgr(
             url: String,
             userName: String,
-            pwd: String
-        ): ErrorCodeDescription {
-            val acctMgr = clientInterface.addAcctMgr(url, userName, pwd)
-            return if (acctMgr != null) {
-                ErrorCodeDescription(
-                    acctMgr.errorNum,
-                    if (acctMgr.messages.isEmpty()) "" else acctMgr.messages.toString()
-                )
-            } else ErrorCodeDescription(-1)
+            pwd: String,
+            callback: IPollingCallback
+        ) {
+            startPolling(callback) {
+                val acctMgr = clientInterface.awaitAddAcctMgr(url, userName, pwd)
+                callback.onErrorCodeDescription(if (acctMgr != null) {
+                    ErrorCodeDescription(
+                        acctMgr.errorNum,
+                        if (acctMgr.messages.isEmpty()) "" else acctMgr.messages.toString()
+                    )
+                } else ErrorCodeDescription(-1))
+            }
         }
 
         @Throws(RemoteException::class)
@@ -1191,8 +1328,8 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun getProjects(): List<Project> {
-            return clientStatus.projects
+        override fun getProjects(): ProjectList {
+            return ProjectList(clientStatus.projects)
         }
 
         @Throws(RemoteException::class)
@@ -1201,8 +1338,8 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun getTransfers(): List<Transfer> {
-            return clientStatus.transfers
+        override fun getTransfers(): TransferList {
+            return TransferList(clientStatus.transfers)
         }
 
         @Throws(RemoteException::class)
@@ -1255,6 +1392,16 @@ class Monitor : LifecycleService() {
             appPreferences.logCategories = categories
         }
 
+        @Throws(RemoteException::class)
+        override fun getParserEngine(): String {
+            return appPreferences.parserEngine
+        }
+
+        @Throws(RemoteException::class)
+        override fun setParserEngine(engine: String) {
+            appPreferences.parserEngine = engine
+        }
+
         @Throws(RemoteException::class)
         override fun setPowerSourceAc(src: Boolean) {
             appPreferences.powerSourceAc = src
@@ -1271,8 +1418,13 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun getTasks(start: Int, count: Int, isActive: Boolean): List<Result> {
-            return clientStatus.getTasks(start, count, isActive)
+        override fun getTasks(start: Int, count: Int, isActive: Boolean): ResultList {
+            return ResultList(clientStatus.getTasks(start, count, isActive))
+        }
+
+        @Throws(RemoteException::class)
+        override fun queryTasks(query: TaskQuery): ResultList {
+            return ResultList(clientStatus.queryTasks(query))
         }
 
         @Throws(RemoteException::class)
@@ -1291,8 +1443,23 @@ class Monitor : LifecycleService() {
         }
 
         @Throws(RemoteException::class)
-        override fun getSlideshowForProject(url: String): List<ImageWrapper> {
-            return clientStatus.getSlideshowForProject(url)
+        override fun getSlideshowForProject(url: String): SharedImageList {
+            return SharedImageList(clientStatus.getSlideshowForProject(url))
+        }
+
+        @Throws(RemoteException::class)
+        override fun attachReplica(replica: IClientStatusCallback): ClientStatusBatch {
+            return clientStatus.attachReplica(replica)
+        }
+
+        @Throws(RemoteException::class)
+        override fun detachReplica(replica: IClientStatusCallback) {
+            clientStatus.detachReplica(replica)
+        }
+
+        @Throws(RemoteException::class)
+        override fun getFullClientStatusBatch(): ClientStatusBatch {
+            return clientStatus.fullBatch
         }
 
         @Throws(RemoteException::class)
@@ -1398,6 +1565,6 @@ class Monitor : LifecycleService() {
 
     companion object {
         private const val INSTALL_FAILED = "Failed to install: "
-        private const val IOEXCEPTION_LOG = "IOException: "
+        private const val CONNECTION_RETRY_INITIAL_MS = 50L
     }
 }
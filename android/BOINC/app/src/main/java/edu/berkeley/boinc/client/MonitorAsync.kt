@@ -22,23 +22,27 @@ import android.graphics.Bitmap
 import android.os.IBinder
 import edu.berkeley.boinc.rpc.AccountIn
 import edu.berkeley.boinc.rpc.AccountManager
-import edu.berkeley.boinc.rpc.AccountOut
 import edu.berkeley.boinc.rpc.AcctMgrInfo
 import edu.berkeley.boinc.rpc.GlobalPreferences
 import edu.berkeley.boinc.rpc.HostInfo
-import edu.berkeley.boinc.rpc.ImageWrapper
 import edu.berkeley.boinc.rpc.Notice
-import edu.berkeley.boinc.rpc.Project
-import edu.berkeley.boinc.rpc.ProjectConfig
 import edu.berkeley.boinc.rpc.ProjectInfo
-import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.ProjectList
+import edu.berkeley.boinc.rpc.ResultList
+import edu.berkeley.boinc.rpc.SharedImageList
 import edu.berkeley.boinc.rpc.Transfer
-import edu.berkeley.boinc.utils.ErrorCodeDescription
+import edu.berkeley.boinc.rpc.TransferList
 import edu.berkeley.boinc.utils.TaskRunner
 
-class MonitorAsync(monitor: IMonitor?) : IMonitor {
+/**
+ * [replica], if given and seeded, serves the reads of the client status without a binder call.
+ */
+class MonitorAsync(monitor: IMonitor?, private val replica: ClientStatusReplica? = null) : IMonitor {
     val monitor = monitor!!
 
+    private val local: ClientStatusReplica?
+        get() = replica?.takeIf { it.isSeeded }
+
     fun quitClientAsync(callback: ((Boolean) -> Unit)? = null) =
             TaskRunner(callback, {quitClient()})
 
@@ -67,48 +71,53 @@ class MonitorAsync(monitor: IMonitor?) : IMonitor {
         return monitor.asBinder()
     }
 
-    override fun attachProject(url: String, projectName: String, authenticator: String): Boolean {
-        return monitor.attachProject(url, projectName, authenticator)
+    override fun pollAttachProject(url: String, projectName: String, authenticator: String,
+                                   callback: IPollingCallback) {
+        monitor.pollAttachProject(url, projectName, authenticator, callback)
     }
 
-    override fun checkProjectAttached(url: String): Boolean {
-        return monitor.checkProjectAttached(url)
+    override fun pollLookupCredentials(credentials: AccountIn, callback: IPollingCallback) {
+        monitor.pollLookupCredentials(credentials, callback)
     }
 
-    override fun lookupCredentials(credentials: AccountIn): AccountOut {
-        return monitor.lookupCredentials(credentials)
+    override fun pollCreateAccount(information: AccountIn, callback: IPollingCallback) {
+        monitor.pollCreateAccount(information, callback)
     }
 
-    override fun projectOp(status: Int, url: String): Boolean {
-        return monitor.projectOp(status, url)
+    override fun pollProjectConfig(url: String, callback: IPollingCallback) {
+        monitor.pollProjectConfig(url, callback)
     }
 
-    override fun resultOp(op: Int, url: String, name: String): Boolean {
-        return monitor.resultOp(op, url, name)
+    override fun pollAddAcctMgr(url: String, userName: String, pwd: String, callback: IPollingCallback) {
+        monitor.pollAddAcctMgr(url, userName, pwd, callback)
     }
 
-    override fun createAccountPolling(information: AccountIn): AccountOut {
-        return monitor.createAccountPolling(information)
+    override fun pollSynchronizeAcctMgr(url: String, callback: IPollingCallback) {
+        monitor.pollSynchronizeAcctMgr(url, callback)
     }
 
-    override fun readAuthToken(path: String): String {
-        return monitor.readAuthToken(path)
+    override fun cancelPolling(callback: IPollingCallback) {
+        monitor.cancelPolling(callback)
     }
 
-    override fun getProjectConfigPolling(url: String): ProjectConfig {
-        return monitor.getProjectConfigPolling(url)
+    override fun checkProjectAttached(url: String): Boolean {
+        return monitor.checkProjectAttached(url)
     }
 
-    override fun addAcctMgrErrorNum(url: String, userName: String, pwd: String): ErrorCodeDescription {
-        return monitor.addAcctMgrErrorNum(url, userName, pwd)
+    override fun projectOp(status: Int, url: String): Boolean {
+        return monitor.projectOp(status, url)
     }
 
-    override fun getAcctMgrInfo(): AcctMgrInfo {
-        return monitor.acctMgrInfo
+    override fun resultOp(op: Int, url: String, name: String): Boolean {
+        return monitor.resultOp(op, url, name)
+    }
+
+    override fun readAuthToken(path: String): String {
+        return monitor.readAuthToken(path)
     }
 
-    override fun synchronizeAcctMgr(url: String): Boolean {
-        return monitor.synchronizeAcctMgr(url)
+    override fun getAcctMgrInfo(): AcctMgrInfo {
+        return monitor.acctMgrInfo
     }
 
     override fun setRunMode(mode: Int): Boolean {
@@ -127,6 +136,10 @@ class MonitorAsync(monitor: IMonitor?) : IMonitor {
         return monitor.getMessages(seq)
     }
 
+    override fun getMessageWindow(from: Int, to: Int): List<Message> {
+        return monitor.getMessageWindow(from, to)
+    }
+
     override fun getNotices(seq: Int): List<Notice> {
         return monitor.getNotices(seq)
     }
@@ -220,27 +233,27 @@ class MonitorAsync(monitor: IMonitor?) : IMonitor {
     }
 
     override fun getSetupStatus(): Int {
-        return monitor.setupStatus
+        return local?.setupStatus ?: monitor.setupStatus
     }
 
     override fun getComputingStatus(): Int {
-        return monitor.computingStatus
+        return local?.computingStatus ?: monitor.computingStatus
     }
 
     override fun getComputingSuspendReason(): Int {
-        return monitor.computingSuspendReason
+        return local?.computingSuspendReason ?: monitor.computingSuspendReason
     }
 
     override fun getNetworkSuspendReason(): Int {
-        return monitor.networkSuspendReason
+        return local?.networkSuspendReason ?: monitor.networkSuspendReason
     }
 
     override fun getCurrentStatusTitle(): String {
-        return monitor.currentStatusTitle
+        return local?.currentStatusTitle ?: monitor.currentStatusTitle
     }
 
     override fun getCurrentStatusDescription(): String {
-        return monitor.currentStatusDescription
+        return local?.currentStatusDescription ?: monitor.currentStatusDescription
     }
 
     override fun getHostInfo(): HostInfo {
@@ -251,24 +264,28 @@ class MonitorAsync(monitor: IMonitor?) : IMonitor {
         return monitor.prefs
     }
 
-    override fun getProjects(): List<Project> {
-        return monitor.projects
+    override fun getProjects(): ProjectList {
+        return local?.let { ProjectList(it.projects) } ?: monitor.projects
     }
 
     override fun getClientAcctMgrInfo(): AcctMgrInfo {
-        return monitor.clientAcctMgrInfo
+        return local?.acctMgrInfo ?: monitor.clientAcctMgrInfo
     }
 
-    override fun getTransfers(): List<Transfer> {
-        return monitor.transfers
+    override fun getTransfers(): TransferList {
+        return local?.let { TransferList(it.transfers) } ?: monitor.transfers
     }
 
-    override fun getTasks(start: Int, count: Int, isActive: Boolean): List<Result> {
-        return monitor.getTasks(start, count, isActive)
+    override fun getTasks(start: Int, count: Int, isActive: Boolean): ResultList {
+        return queryTasks(TaskQuery(isActive, start, count))
+    }
+
+    override fun queryTasks(query: TaskQuery): ResultList {
+        return local?.let { ResultList(it.queryTasks(query)) } ?: monitor.queryTasks(query)
     }
 
     override fun getTasksCount(): Int {
-        return monitor.tasksCount
+        return local?.tasksCount ?: monitor.tasksCount
     }
 
     override fun getProjectIconByName(name: String): Bitmap? {
@@ -280,17 +297,29 @@ class MonitorAsync(monitor: IMonitor?) : IMonitor {
     }
 
     override fun getProjectStatus(url: String): String {
-        return monitor.getProjectStatus(url)
+        return local?.getProjectStatus(url) ?: monitor.getProjectStatus(url)
     }
 
     override fun getRssNotices(): List<Notice> {
         return monitor.rssNotices
     }
 
-    override fun getSlideshowForProject(url: String): List<ImageWrapper> {
+    override fun getSlideshowForProject(url: String): SharedImageList {
         return monitor.getSlideshowForProject(url)
     }
 
+    override fun attachReplica(replica: IClientStatusCallback): ClientStatusBatch {
+        return monitor.attachReplica(replica)
+    }
+
+    override fun detachReplica(replica: IClientStatusCallback) {
+        monitor.detachReplica(replica)
+    }
+
+    override fun getFullClientStatusBatch(): ClientStatusBatch {
+        return monitor.fullClientStatusBatch
+    }
+
     override fun setAutostart(isAutoStart: Boolean) {
         monitor.autostart = isAutoStart
     }
@@ -331,6 +360,14 @@ class MonitorAsync(monitor: IMonitor?) : IMonitor {
         monitor.logCategories = categories
     }
 
+    override fun getParserEngine(): String {
+        return monitor.parserEngine
+    }
+
+    override fun setParserEngine(engine: String) {
+        monitor.parserEngine = engine
+    }
+
     override fun setPowerSourceAc(src: Boolean) {
         monitor.powerSourceAc = src
     }
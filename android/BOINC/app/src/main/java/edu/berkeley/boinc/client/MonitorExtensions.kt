@@ -20,10 +20,6 @@ package edu.berkeley.boinc.client
 
 import android.os.Build
 import android.os.PowerManager
-import com.google.common.io.ByteStreams
-import com.google.common.io.Files
-import java.io.File
-import java.io.InputStream
 
 // This file contains extensions that are only used in Monitor.
 // This file was created to avoid creating clutter in the Monitor class file.
@@ -32,11 +28,6 @@ internal fun allNotNull(vararg values: Any?) = values.none { it == null }
 
 internal fun CharSequence.containsAny(vararg sequences: CharSequence) = sequences.any { it in this }
 
-internal fun InputStream.copyToFile(destFile: File) {
-    destFile.parentFile?.mkdirs()
-    Files.write(ByteStreams.toByteArray(this), destFile)
-}
-
 internal val PowerManager.isScreenOnCompat: Boolean
     get() {
         return if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT_WATCH) {
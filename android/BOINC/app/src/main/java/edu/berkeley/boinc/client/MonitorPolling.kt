@@ -0,0 +1,115 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@file:JvmName("MonitorPolling")
+
+package edu.berkeley.boinc.client
+
+import android.os.RemoteException
+import edu.berkeley.boinc.rpc.AccountIn
+import edu.berkeley.boinc.rpc.AccountOut
+import edu.berkeley.boinc.rpc.ProjectConfig
+import edu.berkeley.boinc.utils.ErrorCodeDescription
+import edu.berkeley.boinc.utils.Logging
+import kotlin.coroutines.resume
+import kotlinx.coroutines.suspendCancellableCoroutine
+
+// Suspending callers of the polled RPC sequences of IMonitor. The Monitor polls in its own
+// lifecycle scope and answers through an IPollingCallback, so no thread of the caller waits for
+// the client. Cancelling the calling coroutine (e.g. with the scope of a fragment or activity)
+// cancels the poll in the Monitor.
+
+/**
+ * Reads project configuration for specified master URL.
+ *
+ * @return project configuration information, null if the RPC failed
+ * @throws RemoteException if the Monitor can not be reached
+ */
+suspend fun IMonitor.awaitProjectConfig(url: String): ProjectConfig? =
+        poll { pollProjectConfig(url, it) }
+
+/**
+ * Attaches project, requires authenticator
+ *
+ * @return success
+ * @throws RemoteException if the Monitor can not be reached
+ */
+suspend fun IMonitor.awaitAttachProject(url: String, projectName: String, authenticator: String?): Boolean =
+        poll { pollAttachProject(url, projectName, authenticator, it) }
+
+/**
+ * Looks up account credentials for given user data.
+ * Contains authentication key for project attachment.
+ *
+ * @return account credentials, null if the RPC failed
+ * @throws RemoteException if the Monitor can not be reached
+ */
+suspend fun IMonitor.awaitLookupCredentials(credentials: AccountIn): AccountOut? =
+        poll { pollLookupCredentials(credentials, it) }
+
+/**
+ * Creates account for given user information.
+ *
+ * @return account credentials (see status inside, to check success), null if the RPC failed
+ * @throws RemoteException if the Monitor can not be reached
+ */
+suspend fun IMonitor.awaitCreateAccount(information: AccountIn): AccountOut? =
+        poll { pollCreateAccount(information, it) }
+
+/**
+ * Adds account manager to BOINC client, empty arguments detach the current one.
+ *
+ * @return status of attachment, code -1 if the RPC failed
+ * @throws RemoteException if the Monitor can not be reached
+ */
+suspend fun IMonitor.awaitAddAcctMgr(url: String, userName: String, pwd: String): ErrorCodeDescription =
+        poll { pollAddAcctMgr(url, userName, pwd, it) }
+
+/**
+ * Synchronizes BOINC client projects with information of account manager.
+ *
+ * @return false if one of the polls failed
+ * @throws RemoteException if the Monitor can not be reached
+ */
+suspend fun IMonitor.awaitSynchronizeAcctMgr(url: String): Boolean =
+        poll { pollSynchronizeAcctMgr(url, it) }
+
+private suspend fun <T> IMonitor.poll(start: (IPollingCallback) -> Unit): T =
+        suspendCancellableCoroutine { continuation ->
+            val callback = PollingCallback<T> { continuation.resume(it) }
+            continuation.invokeOnCancellation {
+                try {
+                    cancelPolling(callback)
+                } catch (e: RemoteException) {
+                    Logging.logException(Logging.Category.MONITOR, "MonitorPolling: cancelPolling() error: ", e)
+                }
+            }
+            start(callback)
+        }
+
+// every poll answers through exactly one of the methods, the one matching its result type
+@Suppress("UNCHECKED_CAST")
+private class PollingCallback<T>(private val onResult: (T) -> Unit) : IPollingCallback.Stub() {
+    override fun onProjectConfig(config: ProjectConfig?) = onResult(config as T)
+
+    override fun onAccountOut(credentials: AccountOut?) = onResult(credentials as T)
+
+    override fun onErrorCodeDescription(reply: ErrorCodeDescription?) = onResult(reply as T)
+
+    override fun onSuccess(success: Boolean) = onResult(success as T)
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Notice
+
+/**
+ * Notices of ClientStatus, RSS and server notices kept apart. Each kind is held newest first by
+ * creation time and capped at [capacity], the oldest notice is dropped once it is exceeded.
+ * Notices are sorted in as they arrive, so readers never sort.
+ * Not thread-safe, ClientStatus synchronizes the access.
+ */
+class NoticeStore(private val capacity: Int = DEFAULT_CAPACITY) {
+    private val rss = ArrayList<Notice>()
+    private val server = ArrayList<Notice>()
+
+    /**
+     * sequence number of the most recent notice read from the client, notices are requested after it
+     */
+    var mostRecentSeqNo = 0
+        private set
+
+    val rssNotices: List<Notice>
+        get() = ArrayList(rss)
+
+    val serverNotices: List<Notice>
+        get() = ArrayList(server)
+
+    /**
+     * Adds the notices that are newer than [mostRecentSeqNo], client notices only advance it.
+     *
+     * @return number of notices that were actually new
+     */
+    fun add(notices: List<Notice>): Int {
+        var added = 0
+        for (notice in notices) {
+            if (notice.seqno <= mostRecentSeqNo) {
+                continue
+            }
+            when {
+                notice.isServerNotice -> insert(server, notice)
+                !notice.isClientNotice -> insert(rss, notice)
+            }
+            mostRecentSeqNo = notice.seqno
+            added++
+        }
+        return added
+    }
+
+    /**
+     * Replaces the notices by ones kept from an earlier run, that have been read up to [seqNo].
+     */
+    fun restore(notices: List<Notice>, seqNo: Int) {
+        clear()
+        for (notice in notices) {
+            insert(if (notice.isServerNotice) server else rss, notice)
+        }
+        mostRecentSeqNo = seqNo
+    }
+
+    /**
+     * Forgets all notices, e.g. after the client restarted and numbers its notices anew.
+     */
+    fun clear() {
+        rss.clear()
+        server.clear()
+        mostRecentSeqNo = 0
+    }
+
+    private fun insert(notices: MutableList<Notice>, notice: Notice) {
+        // binary search for the first older notice, equal creation times keep their arrival order
+        var low = 0
+        var high = notices.size
+        while (low < high) {
+            val middle = (low + high) ushr 1
+            if (notices[middle].createTime >= notice.createTime) low = middle + 1 else high = middle
+        }
+        if (low >= capacity) {
+            return // older than every kept notice
+        }
+        notices.add(low, notice)
+        if (notices.size > capacity) {
+            notices.removeAt(notices.lastIndex)
+        }
+    }
+
+    companion object {
+        const val DEFAULT_CAPACITY = 100
+    }
+}
@@ -40,6 +40,25 @@ class PersistentStorage @Inject constructor(context: Context) {
             store.edit { putLong("lastNotifiedNoticeArrivalTime", arrivalTime.toRawBits()) }
         }
 
+    /**
+     * sequence number of the most recent notice read from the client, see [lastNoticeClient]
+     */
+    var lastNoticeSeqNo: Int
+        get() = store.getInt("lastNoticeSeqNo", 0)
+        set(seqNo) {
+            store.edit { putInt("lastNoticeSeqNo", seqNo) }
+        }
+
+    /**
+     * process key (see [ProcessInspector.processKey]) of the client [lastNoticeSeqNo] belongs to,
+     * a client numbers its notices anew when it starts
+     */
+    var lastNoticeClient: String
+        get() = store.getString("lastNoticeClient", "") ?: ""
+        set(clientKey) {
+            store.edit { putString("lastNoticeClient", clientKey) }
+        }
+
     var lastEmailAddress: String?
         get() = store.getString("lastEmailAddress", "")
         set(email) {
@@ -0,0 +1,118 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.utils.Logging
+import java.io.File
+import java.io.IOException
+
+/**
+ * Finds processes by the executable path they were started with, reading /proc/<pid>/cmdline
+ * instead of forking `ps`. The PID found last is cached per path and re-validated with a single
+ * read of its cmdline, so checking on a running or just ended process does not scan /proc.
+ * Processes of other users may be hidden (hidepid), the client runs under the uid of the app though.
+ *
+ * The Process handle of Runtime.exec() can not be used instead, the client started with --daemon
+ * forks and the started process exits right away.
+ */
+class ProcessInspector @JvmOverloads constructor(private val procDir: File = File("/proc")) {
+    private val cachedPids = HashMap<String, Int>()
+
+    /**
+     * @param executable absolute path of the executable, the first argument of the command line
+     * @return PID of a process started with [executable], null if there is none
+     */
+    @Synchronized
+    fun findPid(executable: String): Int? {
+        cachedPids[executable]?.let { pid ->
+            if (isAlive(pid, executable)) {
+                return pid
+            }
+            cachedPids.remove(executable)
+        }
+        val pid = procDir.list()?.asSequence()
+                ?.mapNotNull { it.toIntOrNull() }
+                ?.firstOrNull { isAlive(it, executable) }
+        if (pid != null) {
+            cachedPids[executable] = pid
+        }
+        return pid
+    }
+
+    /**
+     * @return whether process [pid] exists and was started with [executable]
+     */
+    fun isAlive(pid: Int, executable: String): Boolean {
+        val cmdline = try {
+            File(procDir, "$pid/cmdline").readBytes()
+        } catch (e: IOException) {
+            return false // ended, or not visible
+        }
+        // arguments are separated by \0, zombies have an empty command line
+        val end = cmdline.indexOf(0.toByte()).let { if (it == -1) cmdline.size else it }
+        return end > 0 && String(cmdline, 0, end) == executable
+    }
+
+    /**
+     * Identity of the process [pid] that a later process with the same PID does not share:
+     * the PID, the start time of the process in clock ticks since boot (field 22 of /proc/<pid>/stat)
+     * and the boot ID, as the start time repeats across reboots.
+     *
+     * @return key of process [pid], null if it does not exist or is not visible
+     */
+    fun processKey(pid: Int): String? {
+        val stat = try {
+            File(procDir, "$pid/stat").readText()
+        } catch (e: IOException) {
+            return null
+        }
+        // the command name in parentheses may contain spaces, count the fields after it (state is field 3)
+        val startTime = stat.substringAfterLast(')').trim().split(' ').getOrNull(STAT_START_TIME - 3)
+                ?: return null
+        val bootId = try {
+            File(procDir, "sys/kernel/random/boot_id").readText().trim()
+        } catch (e: IOException) {
+            "" // start time alone still tells processes of the same boot apart
+        }
+        return "$pid:$startTime:$bootId"
+    }
+
+    /**
+     * Waits until no process of [executable] is left, checking every [pollMs].
+     *
+     * @return true if it ended within [timeoutMs]
+     */
+    @Throws(InterruptedException::class)
+    fun awaitExit(executable: String, timeoutMs: Long, pollMs: Long = POLL_MS): Boolean {
+        val deadline = System.nanoTime() + timeoutMs * 1_000_000
+        while (findPid(executable) != null) {
+            if (System.nanoTime() >= deadline) {
+                return false
+            }
+            Thread.sleep(pollMs)
+        }
+        Logging.logDebug(Logging.Category.MONITOR, "ProcessInspector: $executable ended")
+        return true
+    }
+
+    companion object {
+        private const val POLL_MS = 50L
+        private const val STAT_START_TIME = 22
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.AccountManager
+import edu.berkeley.boinc.rpc.AllProjectsList
+import edu.berkeley.boinc.rpc.ProjectInfo
+import edu.berkeley.boinc.utils.Logging
+import okio.HashingSource
+import okio.blackholeSink
+import okio.buffer
+import okio.source
+import java.io.File
+import java.io.IOException
+
+/**
+ * Parsed all_projects_list.xml, kept until the installed file changes.
+ * The catalogue is versioned by the SHA-256 of [file], which is only hashed again if its size
+ * or modification time changed, so a re-install of identical content does not cause a reload.
+ * As long as [file] is unknown or unreadable, every call to [get] loads the list again.
+ * A list without projects, from an error reply or a malformed file, counts as a failed load
+ * and is not cached.
+ */
+class ProjectCatalog(private val load: () -> AllProjectsList?) {
+    @Volatile
+    var file: File? = null
+
+    private var catalog: Catalog? = null
+    private var fileStat: Pair<Long, Long>? = null
+    private var fileHash: String? = null
+
+    /**
+     * @return the current catalogue, the previous one if loading failed, null if none could be loaded yet
+     */
+    @Synchronized
+    fun get(): Catalog? {
+        val version = version()
+        catalog?.let {
+            if (version != null && it.version == version) {
+                return it
+            }
+        }
+        val list = load()
+        if (list == null || list.projects.isEmpty()) {
+            Logging.logError(Logging.Category.CLIENT, "ProjectCatalog: loading failed or list is empty, version $version")
+
+            return catalog
+        }
+        Logging.logDebug(Logging.Category.CLIENT, "ProjectCatalog: loaded ${list.projects.size} projects, " +
+                "${list.accountManagers.size} account managers, version $version")
+        return Catalog(version, list).also { catalog = it }
+    }
+
+    private fun version(): String? {
+        val file = file ?: return null
+        val stat = file.length() to file.lastModified()
+        if (stat.second == 0L) { // file does not exist
+            return null
+        }
+        if (stat != fileStat || fileHash == null) {
+            fileStat = stat
+            fileHash = try {
+                // hashed while streaming, the content is not held in memory
+                HashingSource.sha256(file.source()).use { source ->
+                    source.buffer().readAll(blackholeSink())
+                    source.hash.hex()
+                }
+            } catch (e: IOException) {
+                Logging.logException(Logging.Category.CLIENT, "ProjectCatalog: could not hash ${file.path}", e)
+                null
+            }
+        }
+        return fileHash
+    }
+
+    /**
+     * Projects and account managers of one version of all_projects_list.xml,
+     * indexed by master URL and by the platforms asked for.
+     */
+    class Catalog internal constructor(internal val version: String?, list: AllProjectsList) {
+        val projects: List<ProjectInfo> = list.projects
+        val accountManagers: List<AccountManager> = list.accountManagers
+
+        // first entry wins on duplicate URLs, as the former linear search did
+        private val byUrl = HashMap<String, ProjectInfo>(projects.size * 2).apply {
+            projects.forEach { if (!containsKey(it.url)) put(it.url, it) }
+        }
+        private val byPlatform = HashMap<String, List<ProjectInfo>>()
+
+        fun projectInfo(url: String): ProjectInfo? = byUrl[url]
+
+        /**
+         * @return distinct projects with a platform containing [platform] or, if not empty, [altPlatform]
+         */
+        @Synchronized
+        fun forPlatform(platform: String, altPlatform: String): List<ProjectInfo> =
+                byPlatform.getOrPut("$platform\n$altPlatform") {
+                    projects.filter { project ->
+                        project.platforms.any {
+                            it.contains(platform) || (altPlatform.isNotEmpty() && it.contains(altPlatform))
+                        }
+                    }.distinct()
+                }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.os.SystemClock
+
+/**
+ * Durations of the phases of one client setup in the Monitor, written to the log when the setup ends.
+ * Phases may run in parallel, each one is measured on its own and the total is the wall time since creation.
+ */
+class StartupTrace(private val clock: () -> Long = SystemClock::elapsedRealtime) {
+    private val start = clock()
+    private val phases = LinkedHashMap<String, Long>()
+
+    val totalMs: Long
+        get() = clock() - start
+
+    /**
+     * Runs [block] and records its duration as [phase].
+     */
+    fun <T> measure(phase: String, block: () -> T): T {
+        val begin = clock()
+        try {
+            return block()
+        } finally {
+            val duration = clock() - begin
+            synchronized(phases) { phases[phase] = duration }
+        }
+    }
+
+    /**
+     * @return duration of [phase] in milliseconds, null if it did not run
+     */
+    fun durationMs(phase: String): Long? = synchronized(phases) { phases[phase] }
+
+    override fun toString(): String {
+        val measured = synchronized(phases) { phases.entries.joinToString("") { "${it.key} ${it.value} ms, " } }
+        return "${measured}total $totalMs ms"
+    }
+}
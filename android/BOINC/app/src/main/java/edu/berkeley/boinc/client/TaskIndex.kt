@@ -0,0 +1,86 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Result
+import kotlin.math.min
+
+/**
+ * Tasks of ClientStatus, partitioned into active and inactive tasks on every update.
+ * Filtered and sorted views are built on first use and kept until the next update,
+ * so every further page is a copy of the requested range only.
+ * Not thread safe, ClientStatus guards it with its own lock.
+ */
+class TaskIndex {
+    private var active: List<Result> = emptyList()
+    private var inactive: List<Result> = emptyList()
+    private val views = HashMap<TaskQuery, List<Result>>()
+
+    val size: Int
+        get() = active.size + inactive.size
+
+    fun update(results: List<Result>) {
+        val (newActive, newInactive) = results.partition { it.isActiveTask }
+        active = newActive
+        inactive = newInactive
+        views.clear()
+    }
+
+    /**
+     * A query with [TaskQuery.after] set starts behind that task. If it is gone since the previous
+     * page, the page starts at the beginning of the view again, callers collect the pages by name.
+     */
+    fun page(query: TaskQuery): List<Result> {
+        val view = view(query.view)
+        val start = query.after?.let { after -> view.indexOfFirst { it.name == after } + 1 } ?: query.cursor
+        if (start < 0 || query.count <= 0 || start >= view.size) {
+            return emptyList()
+        }
+        return ArrayList(view.subList(start, min(view.size, start + query.count)))
+    }
+
+    private fun view(view: TaskQuery): List<Result> {
+        val base = if (view.isActive) active else inactive
+        if (view.projectUrl == null && view.state == TaskQuery.ANY_STATE && view.deadlineBefore == 0L &&
+                view.sortOrder == TaskQuery.SORT_CLIENT_ORDER) {
+            return base
+        }
+        return views[view] ?: build(base, view).also {
+            if (views.size >= MAX_VIEWS) views.clear()
+            views[view] = it
+        }
+    }
+
+    private fun build(base: List<Result>, view: TaskQuery): List<Result> {
+        val filtered = base.filter {
+            (view.projectUrl == null || it.projectURL == view.projectUrl) &&
+                    (view.state == TaskQuery.ANY_STATE || it.state == view.state) &&
+                    (view.deadlineBefore == 0L || it.reportDeadline < view.deadlineBefore)
+        }
+        return when (view.sortOrder) {
+            TaskQuery.SORT_DEADLINE -> filtered.sortedBy { it.reportDeadline }
+            TaskQuery.SORT_PROJECT -> filtered.sortedBy { it.project?.projectName ?: it.projectURL }
+            else -> filtered
+        }
+    }
+
+    companion object {
+        private const val MAX_VIEWS = 8
+    }
+}
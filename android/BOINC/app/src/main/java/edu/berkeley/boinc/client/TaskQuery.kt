@@ -0,0 +1,84 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.os.Parcel
+import android.os.Parcelable
+import edu.berkeley.boinc.rpc.Result
+
+/**
+ * One page of the active or inactive tasks in ClientStatus, optionally filtered and sorted.
+ * [cursor] is the position of the first task of the page within the filtered and sorted tasks.
+ * [after] is the name of the last task of the previous page, the page starts behind it wherever
+ * it moved to by updates in between. Use [next] to get the query of the following page.
+ */
+data class TaskQuery @JvmOverloads constructor(
+        val isActive: Boolean,
+        val cursor: Int = 0,
+        val count: Int = DEFAULT_PAGE_SIZE,
+        val projectUrl: String? = null, // null = all projects
+        val state: Int = ANY_STATE, // RESULT_* state of the task
+        val deadlineBefore: Long = 0, // report deadline in seconds since epoch, 0 = any deadline
+        val sortOrder: Int = SORT_CLIENT_ORDER,
+        val after: String? = null // name of the last task of the previous page, null = start at cursor
+) : Parcelable {
+    private constructor(parcel: Parcel) : this(parcel.readByte() != 0.toByte(), parcel.readInt(),
+            parcel.readInt(), parcel.readString(), parcel.readInt(), parcel.readLong(), parcel.readInt(),
+            parcel.readString())
+
+    /**
+     * Query of the page after [page]
+     */
+    fun next(page: List<Result>) = if (page.isEmpty()) this else copy(cursor = 0, after = page.last().name)
+
+    /**
+     * Same filter and sort order, without paging
+     */
+    internal val view: TaskQuery
+        get() = copy(cursor = 0, count = 0, after = null)
+
+    override fun describeContents() = 0
+
+    override fun writeToParcel(parcel: Parcel, flags: Int) {
+        parcel.writeByte(if (isActive) 1 else 0)
+        parcel.writeInt(cursor)
+        parcel.writeInt(count)
+        parcel.writeString(projectUrl)
+        parcel.writeInt(state)
+        parcel.writeLong(deadlineBefore)
+        parcel.writeInt(sortOrder)
+        parcel.writeString(after)
+    }
+
+    companion object {
+        const val DEFAULT_PAGE_SIZE = 50
+        const val ANY_STATE = -1
+
+        const val SORT_CLIENT_ORDER = 0
+        const val SORT_DEADLINE = 1
+        const val SORT_PROJECT = 2
+
+        @JvmField
+        val CREATOR: Parcelable.Creator<TaskQuery> = object : Parcelable.Creator<TaskQuery> {
+            override fun createFromParcel(parcel: Parcel) = TaskQuery(parcel)
+
+            override fun newArray(size: Int) = arrayOfNulls<TaskQuery>(size)
+        }
+    }
+}
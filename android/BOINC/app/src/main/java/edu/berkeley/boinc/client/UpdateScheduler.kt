@@ -0,0 +1,100 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+
+/**
+ * Picks the delay until the next status update of the Monitor from the observed activity:
+ * - [intervalMs] while the screen is on and a task is about to finish or a file transfer is running,
+ *   so the UI does not look stale at the moments the user waits for
+ * - [intervalMs] while the screen is on and the client status changes, doubling with every update once
+ *   nothing changed for [idleUpdates] updates, up to [maxIdleDelayMs], or up to [maxListeningDelayMs]
+ *   while the change listener wakes the Monitor up on changes anyway
+ * - [screenOffDelayMs] while the screen is off, the updates then only report the device status
+ *   and adjust the wake locks
+ * All delays but the fast one of a busy client are multiplied by [batteryFactor] while the device
+ * runs on battery. Not thread safe, it is only used by the update task of the Monitor.
+ */
+class UpdateScheduler(
+        private val intervalMs: Long,
+        private val screenOffDelayMs: Long,
+        private val idleUpdates: Int = 3,
+        private val maxIdleDelayMs: Long = 5000,
+        private val maxListeningDelayMs: Long = 30000,
+        private val batteryFactor: Long = 2
+) {
+    private var unchangedUpdates = 0
+    private var scheduled = 0L
+    private var totalDelayMs = 0L
+
+    /**
+     * Average of the delays handed out so far, 3600000 / averageDelayMs is the number of updates per hour
+     */
+    val averageDelayMs: Long
+        get() = if (scheduled == 0L) 0 else totalDelayMs / scheduled
+
+    /**
+     * @param change change set of the last update, null if it did not read the complete status
+     * @param screenOn whether the screen is on
+     * @param onBattery whether the device runs on battery only
+     * @param busy a task is about to finish or a transfer is running, see [isBusy]
+     * @param listening whether the change listener is connected
+     * @return delay until the next update
+     */
+    fun next(change: ClientStatusChange?, screenOn: Boolean, onBattery: Boolean, busy: Boolean,
+             listening: Boolean): Long {
+        if (change != null) {
+            unchangedUpdates = if (change.isEmpty) unchangedUpdates + 1 else 0
+        }
+        val delayMs = when {
+            !screenOn -> onBattery(screenOffDelayMs, onBattery)
+            busy -> intervalMs
+            unchangedUpdates < idleUpdates -> onBattery(intervalMs, onBattery)
+            else -> {
+                val maxDelayMs = if (listening) maxListeningDelayMs else maxIdleDelayMs
+                val idleDelayMs = intervalMs shl (unchangedUpdates - idleUpdates + 1).coerceAtMost(MAX_SHIFT)
+                onBattery(idleDelayMs.coerceAtMost(maxDelayMs), onBattery)
+            }
+        }
+        scheduled++
+        totalDelayMs += delayMs
+        return delayMs
+    }
+
+    private fun onBattery(delayMs: Long, onBattery: Boolean) = if (onBattery) delayMs * batteryFactor else delayMs
+
+    companion object {
+        private const val MAX_SHIFT = 16
+        private const val NEAR_COMPLETION_FRACTION = 0.95f
+        private const val NEAR_COMPLETION_SECONDS = 30.0
+
+        /**
+         * @return whether an active task is about to finish or a file transfer is running
+         */
+        @JvmStatic
+        fun isBusy(results: List<Result>, transfers: List<Transfer>): Boolean {
+            return transfers.any { it.isTransferActive } || results.any {
+                it.isActiveTask && (it.fractionDone >= NEAR_COMPLETION_FRACTION ||
+                        (it.estimatedCPUTimeRemaining > 0 && it.estimatedCPUTimeRemaining < NEAR_COMPLETION_SECONDS))
+            }
+        }
+    }
+}
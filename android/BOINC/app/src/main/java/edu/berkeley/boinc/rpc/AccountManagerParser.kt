@@ -19,8 +19,10 @@
 package edu.berkeley.boinc.rpc
 
 import android.util.Log
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import okio.BufferedSource
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
 
@@ -76,18 +78,51 @@ class AccountManagerParser : BaseParser() {
 
     companion object {
         const val IMAGE_TAG = "image"
+
+        private val ACCOUNT_MANAGER_FIELDS = PullFields<AccountManager> {
+            field(NAME) { it.name = text() }
+            field(URL) { it.url = text() }
+            field(DESCRIPTION) { it.description = text() }
+            field(IMAGE_TAG) { it.imageUrl = text() }
+        }
+
+        internal fun readAccountManagers(reader: PullReader): List<AccountManager> {
+            val accountManagers = mutableListOf<AccountManager>()
+            reader.forEachElement(ACCOUNT_MANAGER) { element ->
+                readAccountManager(element)?.let { accountManagers.add(it) }
+            }
+            return accountManagers
+        }
+
+        /**
+         * @return the account manager of the current element, null if it has no name
+         */
+        internal fun readAccountManager(reader: PullReader): AccountManager? {
+            val accountManager = AccountManager()
+            ACCOUNT_MANAGER_FIELDS.read(reader, accountManager)
+            return accountManager.takeIf { it.name.isNotEmpty() } // name is a must
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<AccountManagerParser, List<AccountManager>>("AccountManagerParser", ::AccountManagerParser,
+                { it.accountManagerInfos }, { readAccountManagers(it) }, emptyList())
+
         @JvmStatic
 		fun parse(rpcResult: String?): List<AccountManager> {
-            return try {
-                val parser = AccountManagerParser()
-                Xml.parse(rpcResult, parser)
-                parser.accountManagerInfos
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "AccountManagerParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "AccountManagerParser: $rpcResult")
+            return ENGINE_PARSER.parse(rpcResult)
+        }
 
-                emptyList()
-            }
+        /**
+         * Parse the RPC result (all projects list) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return list of account managers
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): List<AccountManager> {
+            return ENGINE_PARSER.parse(reply)
         }
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import androidx.annotation.VisibleForTesting
+import java.io.IOException
+import okio.BufferedSource
+import org.xml.sax.Attributes
+import org.xml.sax.SAXException
+import org.xml.sax.helpers.DefaultHandler
+
+/**
+ * Reads the projects and the account managers of all_projects_list.xml in a single pass,
+ * the handler passes every event on to a [ProjectInfoParser] and an [AccountManagerParser].
+ */
+class AllProjectsListParser : DefaultHandler() {
+    private val projectInfoParser = ProjectInfoParser()
+    private val accountManagerParser = AccountManagerParser()
+
+    val allProjectsList: AllProjectsList
+        get() = AllProjectsList(projectInfoParser.projectInfos, accountManagerParser.accountManagerInfos)
+
+    @Throws(SAXException::class)
+    override fun startElement(uri: String?, localName: String, qName: String?, attributes: Attributes?) {
+        projectInfoParser.startElement(uri, localName, qName, attributes)
+        accountManagerParser.startElement(uri, localName, qName, attributes)
+    }
+
+    @Throws(SAXException::class)
+    override fun endElement(uri: String?, localName: String, qName: String?) {
+        projectInfoParser.endElement(uri, localName, qName)
+        accountManagerParser.endElement(uri, localName, qName)
+    }
+
+    @Throws(SAXException::class)
+    override fun characters(ch: CharArray, start: Int, length: Int) {
+        projectInfoParser.characters(ch, start, length)
+        accountManagerParser.characters(ch, start, length)
+    }
+
+    companion object {
+        internal fun readAllProjectsList(reader: PullReader): AllProjectsList {
+            val projectInfos = mutableListOf<ProjectInfo>()
+            val accountManagers = mutableListOf<AccountManager>()
+            reader.forEachElement(PROJECT, ACCOUNT_MANAGER) { element ->
+                if (element.name.equals(PROJECT, ignoreCase = true)) {
+                    ProjectInfoParser.readProjectInfo(element)?.let { projectInfos.add(it) }
+                } else {
+                    AccountManagerParser.readAccountManager(element)?.let { accountManagers.add(it) }
+                }
+            }
+            return AllProjectsList(projectInfos, accountManagers)
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<AllProjectsListParser, AllProjectsList>("AllProjectsListParser",
+                { AllProjectsListParser() }, { it.allProjectsList }, { readAllProjectsList(it) },
+                AllProjectsList(emptyList(), emptyList()))
+
+        /**
+         * Parse the RPC result (all projects list) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return projects and account managers, both empty if the reply is malformed
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): AllProjectsList {
+            return ENGINE_PARSER.parse(reply)
+        }
+    }
+}
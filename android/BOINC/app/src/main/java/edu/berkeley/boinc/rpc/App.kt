@@ -30,11 +30,11 @@ constructor(
         var nonCpuIntensive: Int = 0,
         var project: Project? = null
 ) : Parcelable {
-    private constructor(parcel: Parcel) : this(
-            parcel.readString(),
-            parcel.readString(),
+    internal constructor(parcel: Parcel, codec: ParcelCodec) : this(
+            codec.readString(parcel),
+            codec.readString(parcel),
             parcel.readInt(),
-            parcel.readValue(Project::class.java.classLoader) as Project?
+            codec.readShared(parcel, Project::class.java) { Project(parcel, codec) }
     )
 
     val displayName: String?
@@ -58,17 +58,19 @@ constructor(
 
     override fun describeContents() = 0
 
-    override fun writeToParcel(dest: Parcel, flags: Int) {
-        dest.writeString(name)
-        dest.writeString(userFriendlyName)
+    override fun writeToParcel(dest: Parcel, flags: Int) = writeToParcel(dest, ParcelCodec.PLAIN)
+
+    internal fun writeToParcel(dest: Parcel, codec: ParcelCodec) {
+        codec.writeString(dest, name)
+        codec.writeString(dest, userFriendlyName)
         dest.writeInt(nonCpuIntensive)
-        dest.writeValue(project)
+        codec.writeShared(dest, project) { it.writeToParcel(dest, codec) }
     }
 
     companion object {
         @JvmField
         val CREATOR: Parcelable.Creator<App> = object : Parcelable.Creator<App> {
-            override fun createFromParcel(parcel: Parcel) = App(parcel)
+            override fun createFromParcel(parcel: Parcel) = App(parcel, ParcelCodec.PLAIN)
 
             override fun newArray(size: Int) = arrayOfNulls<App>(size)
         }
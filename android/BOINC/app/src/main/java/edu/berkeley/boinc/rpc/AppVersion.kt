@@ -37,32 +37,34 @@ data class AppVersion(
         this.versionNum = versionNum
     }
 
-    private constructor(parcel: Parcel) : this(
-            parcel.readString(),
+    internal constructor(parcel: Parcel, codec: ParcelCodec) : this(
+            codec.readString(parcel),
             parcel.readInt(),
-            parcel.readString(),
-            parcel.readString(),
-            parcel.readString(),
+            codec.readString(parcel),
+            codec.readString(parcel),
+            codec.readString(parcel),
             parcel.readDouble(),
             parcel.readDouble(),
             parcel.readDouble(),
-            parcel.readValue(App::class.java.classLoader) as App?,
-            parcel.readValue(Project::class.java.classLoader) as Project?
+            codec.readShared(parcel, App::class.java) { App(parcel, codec) },
+            codec.readShared(parcel, Project::class.java) { Project(parcel, codec) }
     )
 
     override fun describeContents() = 0
 
-    override fun writeToParcel(dest: Parcel, flags: Int) {
-        dest.writeString(appName)
+    override fun writeToParcel(dest: Parcel, flags: Int) = writeToParcel(dest, ParcelCodec.PLAIN)
+
+    internal fun writeToParcel(dest: Parcel, codec: ParcelCodec) {
+        codec.writeString(dest, appName)
         dest.writeInt(versionNum)
-        dest.writeString(platform)
-        dest.writeString(planClass)
-        dest.writeString(apiVersion)
+        codec.writeString(dest, platform)
+        codec.writeString(dest, planClass)
+        codec.writeString(dest, apiVersion)
         dest.writeDouble(avgNoOfCPUs)
         dest.writeDouble(maxNoOfCPUs)
         dest.writeDouble(gpuRam)
-        dest.writeValue(app)
-        dest.writeValue(project)
+        codec.writeShared(dest, app) { it.writeToParcel(dest, codec) }
+        codec.writeShared(dest, project) { it.writeToParcel(dest, codec) }
     }
 
     object Fields {
@@ -73,7 +75,7 @@ data class AppVersion(
     companion object {
         @JvmField
         val CREATOR: Parcelable.Creator<AppVersion> = object : Parcelable.Creator<AppVersion> {
-            override fun createFromParcel(parcel: Parcel) = AppVersion(parcel)
+            override fun createFromParcel(parcel: Parcel) = AppVersion(parcel, ParcelCodec.PLAIN)
 
             override fun newArray(size: Int) = arrayOfNulls<AppVersion>(size)
         }
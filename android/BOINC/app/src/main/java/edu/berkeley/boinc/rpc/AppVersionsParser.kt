@@ -19,7 +19,7 @@
 package edu.berkeley.boinc.rpc
 
 import android.util.Log
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
@@ -81,6 +81,33 @@ class AppVersionsParser : BaseParser() {
 
     companion object {
         const val APP_VERSION_TAG = "app_version"
+
+        private val APP_VERSION_FIELDS = PullFields<AppVersion> {
+            field(AppVersion.Fields.APP_NAME) { it.appName = text() }
+            field(AppVersion.Fields.VERSION_NUM) { it.versionNum = int() }
+        }
+
+        /**
+         * Reads the <app_version> element the reader is positioned on ([ParserEngine.PULL])
+         *
+         * @return the app version, null if it has no app name
+         */
+        internal fun readAppVersion(reader: PullReader): AppVersion? {
+            val appVersion = AppVersion()
+            APP_VERSION_FIELDS.read(reader, appVersion)
+            return appVersion.takeUnless { it.appName.isNullOrEmpty() } // appName is a must
+        }
+
+        internal fun readAppVersions(reader: PullReader): List<AppVersion> {
+            val appVersions = mutableListOf<AppVersion>()
+            reader.forEachElement(APP_VERSION_TAG) { readAppVersion(it)?.let(appVersions::add) }
+            return appVersions
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<AppVersionsParser, List<AppVersion>>("AppVersionsParser", ::AppVersionsParser,
+                { it.appVersions }, { readAppVersions(it) }, emptyList())
+
         /**
          * Parse the RPC result (app_version) and generate corresponding vector
          *
@@ -89,16 +116,7 @@ class AppVersionsParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): List<AppVersion> {
-            return try {
-                val parser = AppVersionsParser()
-                Xml.parse(rpcResult, parser)
-                parser.appVersions
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "AppVersionsParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "AppVersionsParser: $rpcResult")
-
-                emptyList()
-            }
+            return ENGINE_PARSER.parse(rpcResult)
         }
     }
 }
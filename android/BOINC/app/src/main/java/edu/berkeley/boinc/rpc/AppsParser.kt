@@ -18,7 +18,7 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
@@ -71,6 +71,34 @@ class AppsParser : BaseParser() {
 
     companion object {
         const val APP_TAG = "app"
+
+        private val APP_FIELDS = PullFields<App> {
+            field(NAME) { it.name = text() }
+            field(USER_FRIENDLY_NAME) { it.userFriendlyName = text() }
+            field(NON_CPU_INTENSIVE) { it.nonCpuIntensive = int() }
+        }
+
+        /**
+         * Reads the <app> element the reader is positioned on ([ParserEngine.PULL])
+         *
+         * @return the app, null if it has no name
+         */
+        internal fun readApp(reader: PullReader): App? {
+            val app = App()
+            APP_FIELDS.read(reader, app)
+            return app.takeUnless { it.name.isNullOrEmpty() } // name is a must
+        }
+
+        internal fun readApps(reader: PullReader): List<App> {
+            val apps = mutableListOf<App>()
+            reader.forEachElement(APP_TAG) { readApp(it)?.let(apps::add) }
+            return apps
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<AppsParser, List<App>>("AppsParser", ::AppsParser,
+                { it.apps }, { readApps(it) }, emptyList())
+
         /**
          * Parse the RPC result (app) and generate vector of app
          *
@@ -79,16 +107,7 @@ class AppsParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): List<App> {
-            return try {
-                val parser = AppsParser()
-                Xml.parse(rpcResult, parser)
-                parser.apps
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "AppsParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "AppsParser: $rpcResult")
-
-                emptyList()
-            }
+            return ENGINE_PARSER.parse(rpcResult)
         }
     }
 }
@@ -18,6 +18,8 @@
  */
 package edu.berkeley.boinc.rpc
 
+import java.util.Locale
+
 data class CcState
 @JvmOverloads // generates overloaded constructors
 constructor(
@@ -31,32 +33,101 @@ constructor(
         val workUnits: MutableList<WorkUnit> = mutableListOf(),
         val results: MutableList<Result> = mutableListOf()
 ) {
+    // Hash indexes for the lookups, keyed by project URL and lower-case names. Entries appended to
+    // the lists are indexed on the next lookup, so linking while parsing stays linear.
+    // The lists are append-only between calls to clearArrays().
+    private val appIndex = HashMap<Pair<String?, String?>, App>()
+    private val workUnitIndex = HashMap<Pair<String?, String?>, WorkUnit>()
+    private val appVersionIndex = HashMap<AppVersionKey, AppVersion>()
+    private var indexedApps = 0
+    private var indexedWorkUnits = 0
+    private var indexedAppVersions = 0
+
+    private data class AppVersionKey(val projectUrl: String?, val appName: String?, val versionNum: Int,
+                                     val planClass: String?)
+
     fun clearArrays() {
         projects.clear()
         apps.clear()
         appVersions.clear()
         workUnits.clear()
         results.clear()
+        appIndex.clear()
+        workUnitIndex.clear()
+        appVersionIndex.clear()
+        indexedApps = 0
+        indexedWorkUnits = 0
+        indexedAppVersions = 0
     }
 
     fun lookupApp(project: Project?, appName: String?): App? {
-        return apps.filter { it.project == project }
-                .firstOrNull { it.name.equals(appName, ignoreCase = true) }
+        indexedApps = index(apps, indexedApps, appIndex) { key(it.project, it.name) }
+        return appIndex[key(project, appName)]
     }
 
     fun lookupWorkUnit(project: Project?, workUnitName: String?): WorkUnit? {
-        return workUnits.filter { it.project == project }
-                .firstOrNull { it.name.equals(workUnitName, ignoreCase = true) }
+        indexedWorkUnits = index(workUnits, indexedWorkUnits, workUnitIndex) { key(it.project, it.name) }
+        return workUnitIndex[key(project, workUnitName)]
     }
 
     fun lookupAppVersion(project: Project?, app: App?, versionNum: Int, planClass: String?): AppVersion? {
-        // Sequences process elements lazily, which can improve performance with large collections and
-        // complex operations.
-        return appVersions.asSequence()
-                .filter { it.project == project } //Check if projects match
-                .filter { it.app == app } //Check if app matches
-                .filter { it.versionNum == versionNum } //Check version_num
-                .firstOrNull { it.planClass.equals(planClass, ignoreCase = true) } //Check plan class
+        indexedAppVersions = index(appVersions, indexedAppVersions, appVersionIndex) {
+            AppVersionKey(it.project?.masterURL, it.app?.name?.lowercase(Locale.ROOT), it.versionNum,
+                    it.planClass?.lowercase(Locale.ROOT))
+        }
+        return appVersionIndex[AppVersionKey(project?.masterURL, app?.name?.lowercase(Locale.ROOT),
+                versionNum, planClass?.lowercase(Locale.ROOT))]
+    }
+
+    private fun key(project: Project?, name: String?) = project?.masterURL to name?.lowercase(Locale.ROOT)
+
+    /**
+     * Adds the entries appended to [list] since the last call to [index], the first entry of a key wins
+     * like it did for the linear search. The index is rebuilt if the list got shorter.
+     *
+     * @return number of indexed entries
+     */
+    private inline fun <K, V> index(list: List<V>, indexed: Int, index: MutableMap<K, V>, key: (V) -> K): Int {
+        var from = indexed
+        if (list.size < from) {
+            index.clear()
+            from = 0
+        }
+        for (i in from until list.size) {
+            val k = key(list[i])
+            if (k !in index) {
+                index[k] = list[i]
+            }
+        }
+        return list.size
+    }
+
+    /**
+     * Merges a get_results(active_only) reply into this state. Results are matched by name and
+     * take over the project, work unit, app and app version of the result they replace.
+     * Nothing is changed if the reply does not fit this state, i.e. it contains a result this state
+     * does not know or a result that had an active task is missing.
+     *
+     * @return true if merged, false if a complete get_state is required
+     */
+    fun mergeActiveResults(activeResults: List<Result>): Boolean {
+        val indices = results.withIndex().associate { it.value.name to it.index }
+        val replacements = ArrayList<IndexedValue<Result>>(activeResults.size)
+        for (result in activeResults) {
+            val index = indices[result.name] ?: return false // new task
+            val known = results[index]
+            result.project = known.project
+            result.workUnit = known.workUnit
+            result.app = known.app
+            result.appVersion = known.appVersion
+            replacements.add(IndexedValue(index, result))
+        }
+        val activeNames = activeResults.mapTo(HashSet()) { it.name }
+        if (results.any { it.isActiveTask && it.name !in activeNames }) {
+            return false // task finished or left memory, state of the result changed
+        }
+        replacements.forEach { results[it.index] = it.value }
+        return true
     }
 
     object Fields {
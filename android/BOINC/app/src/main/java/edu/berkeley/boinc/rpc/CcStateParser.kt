@@ -18,8 +18,10 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import okio.BufferedSource
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
 
@@ -245,6 +247,93 @@ class CcStateParser : BaseParser() {
         const val CORE_CLIENT_MAJOR_VERSION_TAG = "core_client_major_version"
         const val CORE_CLIENT_MINOR_VERSION_TAG = "core_client_minor_version"
         const val CORE_CLIENT_RELEASE_TAG = "core_client_release"
+
+        /**
+         * What the [ParserEngine.PULL] engine needs to link the parts of the client state
+         */
+        private class PullTarget {
+            val ccState = CcState()
+            val versionInfo = VersionInfo()
+            var project = Project()
+        }
+
+        private val CLIENT_STATE_FIELDS = PullFields<PullTarget> {
+            field(HostInfoParser.HOST_INFO_TAG) { it.ccState.hostInfo = HostInfoParser.readHostInfo(this) }
+            field(PROJECT) {
+                val project = ProjectsParser.readProject(this)
+                if (project != null) {
+                    it.project = project
+                    it.ccState.projects.add(project)
+                }
+            }
+            field(AppsParser.APP_TAG) {
+                val app = AppsParser.readApp(this)
+                if (app != null) {
+                    app.project = it.project
+                    it.ccState.apps.add(app)
+                }
+            }
+            field(AppVersionsParser.APP_VERSION_TAG) {
+                val appVersion = AppVersionsParser.readAppVersion(this)
+                if (appVersion != null) {
+                    appVersion.project = it.project
+                    appVersion.app = it.ccState.lookupApp(it.project, appVersion.appName)
+                    it.ccState.appVersions.add(appVersion)
+                }
+            }
+            field(WorkUnitsParser.WORKUNIT_TAG) {
+                val workUnit = WorkUnitsParser.readWorkUnit(this)
+                if (workUnit != null) {
+                    workUnit.project = it.project
+                    workUnit.app = it.ccState.lookupApp(it.project, workUnit.appName)
+                    it.ccState.workUnits.add(workUnit)
+                }
+            }
+            field(ResultsParser.RESULT_TAG) {
+                val result = ResultsParser.readResult(this)
+                if (result != null) {
+                    result.project = it.project
+                    result.workUnit = it.ccState.lookupWorkUnit(it.project, result.workUnitName)
+                    if (result.workUnit != null) {
+                        result.app = result.workUnit!!.app
+                        result.appVersion = it.ccState.lookupAppVersion(it.project, result.app,
+                                result.versionNum, result.planClass)
+                    }
+                    it.ccState.results.add(result)
+                }
+            }
+            field(CORE_CLIENT_MAJOR_VERSION_TAG) {
+                it.versionInfo.major = int()
+                it.ccState.versionInfo = it.versionInfo
+            }
+            field(CORE_CLIENT_MINOR_VERSION_TAG) {
+                it.versionInfo.minor = int()
+                it.ccState.versionInfo = it.versionInfo
+            }
+            field(CORE_CLIENT_RELEASE_TAG) {
+                it.versionInfo.release = int()
+                it.ccState.versionInfo = it.versionInfo
+            }
+            field(CcState.Fields.HAVE_ATI) {
+                it.ccState.haveAti = bool()
+                it.ccState.versionInfo = it.versionInfo
+            }
+            field(CcState.Fields.HAVE_CUDA) {
+                it.ccState.haveCuda = bool()
+                it.ccState.versionInfo = it.versionInfo
+            }
+        }
+
+        internal fun readCcState(reader: PullReader): CcState {
+            val target = PullTarget()
+            reader.forEachElement(CLIENT_STATE_TAG) { CLIENT_STATE_FIELDS.read(it, target) }
+            return target.ccState
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<CcStateParser, CcState?>("CcStateParser", ::CcStateParser,
+                { it.ccState }, { readCcState(it) }, null)
+
         /**
          * Parse the RPC result (state) and generate vector of projects info
          *
@@ -253,16 +342,20 @@ class CcStateParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): CcState? {
-            return try {
-                val parser = CcStateParser()
-                Xml.parse(rpcResult, parser)
-                parser.ccState
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "CcStateParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "CcStateParser: $rpcResult")
+            return ENGINE_PARSER.parse(rpcResult)
+        }
 
-                null
-            }
+        /**
+         * Parse the RPC result (state) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return connected client state
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): CcState? {
+            return ENGINE_PARSER.parse(reply)
         }
     }
 }
@@ -18,8 +18,10 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import okio.BufferedSource
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
 
@@ -105,18 +107,59 @@ class CcStatusParser : BaseParser() {
 
     companion object {
         const val CC_STATUS_TAG = "cc_status"
+
+        private val CC_STATUS_FIELDS = PullFields<CcStatus> {
+            field(CcStatus.Fields.TASK_MODE) { it.taskMode = int() }
+            field(CcStatus.Fields.TASK_MODE_PERM) { it.taskModePerm = int() }
+            field(CcStatus.Fields.TASK_MODE_DELAY) { it.taskModeDelay = double() }
+            field(CcStatus.Fields.TASK_SUSPEND_REASON) { it.taskSuspendReason = int() }
+            field(CcStatus.Fields.NETWORK_MODE) { it.networkMode = int() }
+            field(CcStatus.Fields.NETWORK_MODE_PERM) { it.networkModePerm = int() }
+            field(CcStatus.Fields.NETWORK_MODE_DELAY) { it.networkModeDelay = double() }
+            field(CcStatus.Fields.NETWORK_SUSPEND_REASON) { it.networkSuspendReason = int() }
+            field(CcStatus.Fields.NETWORK_STATUS) { it.networkStatus = int() }
+            field(CcStatus.Fields.AMS_PASSWORD_ERROR) { it.amsPasswordError = flag() }
+            field(CcStatus.Fields.MANAGER_MUST_QUIT) { it.managerMustQuit = flag() }
+            field(CcStatus.Fields.DISALLOW_ATTACH) { it.disallowAttach = flag() }
+            field(CcStatus.Fields.SIMPLE_GUI_ONLY) { it.simpleGuiOnly = flag() }
+        }
+
+        /**
+         * Same rule as the SAX engine: one character or empty element means set
+         */
+        private fun PullReader.flag(): Boolean {
+            val value = text()
+            return if (value.length > 1) 0 != value.toInt() else true
+        }
+
+        internal fun readCcStatus(reader: PullReader): CcStatus? {
+            var ccStatus: CcStatus? = null
+            reader.forEachElement(CC_STATUS_TAG) {
+                ccStatus = CcStatus().also { status -> CC_STATUS_FIELDS.read(it, status) }
+            }
+            return ccStatus
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<CcStatusParser, CcStatus?>("CcStatusParser", ::CcStatusParser,
+                { it.ccStatus }, { readCcStatus(it) }, null)
+
         @JvmStatic
         fun parse(rpcResult: String?): CcStatus? {
-            return try {
-                val parser = CcStatusParser()
-                Xml.parse(rpcResult, parser)
-                parser.ccStatus
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "CcStatusParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "CcStatusParser: $rpcResult")
+            return ENGINE_PARSER.parse(rpcResult)
+        }
 
-                null
-            }
+        /**
+         * Parse the RPC result (status) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return client status
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): CcStatus? {
+            return ENGINE_PARSER.parse(reply)
         }
     }
 }
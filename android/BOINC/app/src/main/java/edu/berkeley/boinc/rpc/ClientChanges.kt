@@ -0,0 +1,36 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+/**
+ * Reply of the wait_for_changes RPC: which parts of the client state changed before [seqno]
+ * was handed out. [seqno] is passed to the next wait_for_changes to continue from there.
+ * [unsupported] is set instead if the client does not know the RPC, i.e. replied "unrecognized op".
+ */
+data class ClientChanges(
+        val seqno: Long = 0,
+        val tasks: Boolean = false,
+        val transfers: Boolean = false,
+        val notices: Boolean = false,
+        val status: Boolean = false,
+        val unsupported: Boolean = false
+) {
+    val isEmpty: Boolean
+        get() = !tasks && !transfers && !notices && !status
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import androidx.annotation.VisibleForTesting
+import edu.berkeley.boinc.utils.Logging
+import java.util.Locale
+import org.xml.sax.Attributes
+import org.xml.sax.SAXException
+
+class ClientChangesParser : BaseParser() {
+    private var seqno = 0L
+    private var tasks = false
+    private var transfers = false
+    private var notices = false
+    private var status = false
+    private var inChanges = false
+    private var parsed = false
+    private var unsupported = false
+
+    /**
+     * The changes, flagged [ClientChanges.unsupported] if the client does not know the RPC,
+     * null if the reply had neither
+     */
+    val changes: ClientChanges?
+        get() = when {
+            unsupported -> ClientChanges(unsupported = true)
+            parsed -> ClientChanges(seqno, tasks, transfers, notices, status)
+            else -> null
+        }
+
+    @Throws(SAXException::class)
+    override fun startElement(uri: String?, localName: String, qName: String?, attributes: Attributes?) {
+        super.startElement(uri, localName, qName, attributes)
+        if (localName.equals(CLIENT_CHANGES_TAG, ignoreCase = true)) {
+            inChanges = true
+            parsed = true
+        } else {
+            mElementStarted = true
+            mCurrentElement.setLength(0)
+        }
+    }
+
+    @Throws(SAXException::class)
+    override fun endElement(uri: String?, localName: String, qName: String?) {
+        super.endElement(uri, localName, qName)
+        try {
+            if (localName.equals(CLIENT_CHANGES_TAG, ignoreCase = true)) {
+                inChanges = false
+            } else if (inChanges) {
+                trimEnd()
+                when {
+                    localName.equals(SEQNO, ignoreCase = true) -> seqno = mCurrentElement.toString().toLong()
+                    localName.equals(TASKS, ignoreCase = true) -> tasks = true
+                    localName.equals(TRANSFERS, ignoreCase = true) -> transfers = true
+                    localName.equals(NOTICES, ignoreCase = true) -> notices = true
+                    localName.equals(STATUS, ignoreCase = true) -> status = true
+                }
+            } else if (localName.equals(ERROR, ignoreCase = true)) {
+                trimEnd()
+                unsupported = isUnrecognizedOp(mCurrentElement.toString())
+            }
+        } catch (e: NumberFormatException) {
+            Logging.logException(Logging.Category.XML, "ClientChangesParser.endElement error: ", e)
+        }
+        mElementStarted = false
+    }
+
+    companion object {
+        const val CLIENT_CHANGES_TAG = "client_changes"
+        const val SEQNO = "seqno"
+        const val TASKS = "tasks"
+        const val TRANSFERS = "transfers"
+        const val NOTICES = "notices"
+        const val STATUS = "status"
+        private const val ERROR = "error"
+
+        private val CLIENT_CHANGES_FIELDS = PullFields<ClientChangesParser> {
+            field(SEQNO) { it.seqno = text().toLong() }
+            field(TASKS) { it.tasks = true; skip() }
+            field(TRANSFERS) { it.transfers = true; skip() }
+            field(NOTICES) { it.notices = true; skip() }
+            field(STATUS) { it.status = true; skip() }
+        }
+
+        // reply of clients without wait_for_changes: <error>unrecognized op: wait_for_changes</error>
+        private fun isUnrecognizedOp(error: String) = error.startsWith("unrecognized op")
+
+        internal fun readClientChanges(reader: PullReader): ClientChanges? {
+            val parser = ClientChangesParser()
+            if (reader.nextChild(0)) { // boinc_gui_rpc_reply
+                while (reader.nextChild(1)) {
+                    when (reader.name.lowercase(Locale.ROOT)) {
+                        CLIENT_CHANGES_TAG -> {
+                            parser.parsed = true
+                            CLIENT_CHANGES_FIELDS.read(reader, parser)
+                        }
+                        ERROR -> parser.unsupported = isUnrecognizedOp(reader.text())
+                        else -> reader.skip()
+                    }
+                }
+            }
+            return parser.changes
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<ClientChangesParser, ClientChanges?>("ClientChangesParser", ::ClientChangesParser,
+                { it.changes }, { readClientChanges(it) }, null)
+
+        /**
+         * Parse the RPC result (wait_for_changes)
+         *
+         * @param rpcResult String returned by RPC call of core client
+         * @return the changes, flagged [ClientChanges.unsupported] if the client does not know the RPC,
+         * null if the reply could not be parsed
+         */
+        @JvmStatic
+        fun parse(rpcResult: String?): ClientChanges? {
+            return try {
+                ENGINE_PARSER.parse(rpcResult)
+            } catch (e: NumberFormatException) {
+                Logging.logException(Logging.Category.RPC, "ClientChangesParser: malformed seqno ", e)
+
+                null
+            }
+        }
+    }
+}
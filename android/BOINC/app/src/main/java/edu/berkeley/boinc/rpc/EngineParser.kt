@@ -0,0 +1,120 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import android.util.Xml
+import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import javax.xml.parsers.SAXParserFactory
+import okio.BufferedSource
+import org.xml.sax.InputSource
+import org.xml.sax.SAXException
+import org.xml.sax.helpers.DefaultHandler
+import org.xmlpull.v1.XmlPullParserException
+
+/**
+ * Entry points of a rpc parser that runs with both [ParserEngine]s.
+ * Malformed replies are logged the same way for all parsers and give [malformed].
+ *
+ * @param name name of the parser in the log
+ * @param newHandler creates the [ParserEngine.SAX] handler
+ * @param handlerResult result of the handler after the reply has been parsed
+ * @param read reads the reply with the [ParserEngine.PULL] engine
+ * @param malformed result of a malformed reply
+ */
+internal class EngineParser<H : DefaultHandler, T>(
+        private val name: String,
+        private val newHandler: () -> H,
+        private val handlerResult: (H) -> T,
+        private val read: (PullReader) -> T,
+        private val malformed: T
+) {
+    /**
+     * Parses the complete reply
+     */
+    fun parse(rpcResult: String?, engine: ParserEngine = ParserEngine.current): T {
+        return try {
+            when (engine) {
+                ParserEngine.PULL -> PullReader.parse(rpcResult, read)
+                ParserEngine.SAX -> {
+                    val handler = newHandler()
+                    Xml.parse(rpcResult, handler)
+                    handlerResult(handler)
+                }
+            }
+        } catch (e: SAXException) {
+            malformed(e, rpcResult)
+        } catch (e: XmlPullParserException) {
+            malformed(e, rpcResult)
+        }
+    }
+
+    /**
+     * Parses the reply while it is read from the socket.
+     * The encoding is taken from the XML declaration of the reply, UTF-8 without one.
+     *
+     * @throws IOException if error occurs when reading the reply
+     */
+    @Throws(IOException::class)
+    fun parse(reply: BufferedSource, engine: ParserEngine = ParserEngine.current): T {
+        // the reply is gone after parsing, keep its start for the log of a malformed reply
+        val head = if (Logging.isLoggable(Logging.Level.DEBUG, Logging.Category.XML)) head(reply) else null
+        return try {
+            when (engine) {
+                ParserEngine.PULL -> PullReader.parse(reply, read)
+                ParserEngine.SAX -> {
+                    val handler = newHandler()
+                    val reader = synchronized(saxParserFactory) { saxParserFactory.newSAXParser() }.xmlReader
+                    reader.contentHandler = handler
+                    reader.parse(InputSource(reply.inputStream()))
+                    handlerResult(handler)
+                }
+            }
+        } catch (e: SAXException) {
+            malformed(e, head)
+        } catch (e: XmlPullParserException) {
+            malformed(e, head)
+        }
+    }
+
+    private fun malformed(e: Exception, xml: String?): T {
+        Logging.logException(Logging.Category.RPC, "$name: malformed XML ", e)
+        if (xml != null) {
+            Logging.logDebug(Logging.Category.XML, "$name: $xml")
+        }
+
+        return malformed
+    }
+
+    companion object {
+        private const val LOG_HEAD_BYTES = 4096L
+
+        // same reader setup as android.util.Xml.parse()
+        private val saxParserFactory = SAXParserFactory.newInstance().apply { isNamespaceAware = true }
+
+        /**
+         * Up to [LOG_HEAD_BYTES] of the reply, without consuming them
+         */
+        @Throws(IOException::class)
+        private fun head(reply: BufferedSource): String {
+            reply.request(LOG_HEAD_BYTES)
+            return reply.buffer.snapshot(minOf(reply.buffer.size, LOG_HEAD_BYTES).toInt()).utf8()
+        }
+    }
+}
@@ -18,7 +18,7 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
@@ -120,6 +120,50 @@ class HostInfoParser : BaseParser() {
 
     companion object {
         const val HOST_INFO_TAG = "host_info"
+
+        private val HOST_INFO_FIELDS = PullFields<HostInfo> {
+            field(HostInfo.Fields.TIMEZONE) { it.timezone = int() }
+            field(HostInfo.Fields.DOMAIN_NAME) { it.domainName = text() }
+            field(HostInfo.Fields.IP_ADDR) { it.ipAddress = text() }
+            field(HostInfo.Fields.HOST_CPID) { it.hostCpid = text() }
+            field(HostInfo.Fields.P_NCPUS) { it.noOfCPUs = int() }
+            field(HostInfo.Fields.P_VENDOR) { it.cpuVendor = text() }
+            field(HostInfo.Fields.P_MODEL) { it.cpuModel = text() }
+            field(HostInfo.Fields.P_FEATURES) { it.cpuFeatures = text() }
+            field(HostInfo.Fields.P_FPOPS) { it.cpuFloatingPointOps = double() }
+            field(HostInfo.Fields.P_IOPS) { it.cpuIntegerOps = double() }
+            field(HostInfo.Fields.P_MEMBW) { it.cpuMembw = double() }
+            field(HostInfo.Fields.P_CALCULATED) { it.cpuCalculated = double().toLong() }
+            field(HostInfo.Fields.PRODUCT_NAME) { it.productName = text() }
+            field(HostInfo.Fields.M_NBYTES) { it.memoryInBytes = double() }
+            field(HostInfo.Fields.M_CACHE) { it.memoryCache = double() }
+            field(HostInfo.Fields.M_SWAP) { it.memorySwap = double() }
+            field(HostInfo.Fields.D_TOTAL) { it.totalDiskSpace = double() }
+            field(HostInfo.Fields.D_FREE) { it.freeDiskSpace = double() }
+            field(HostInfo.Fields.OS_NAME) { it.osName = text() }
+            field(HostInfo.Fields.OS_VERSION) { it.osVersion = text() }
+            field(HostInfo.Fields.VIRTUALBOX_VERSION) { it.virtualBoxVersion = text() }
+        }
+
+        /**
+         * Reads the <host_info> element the reader is positioned on ([ParserEngine.PULL])
+         */
+        internal fun readHostInfo(reader: PullReader): HostInfo {
+            val hostInfo = HostInfo()
+            HOST_INFO_FIELDS.read(reader, hostInfo)
+            return hostInfo
+        }
+
+        internal fun readFirstHostInfo(reader: PullReader): HostInfo? {
+            var hostInfo: HostInfo? = null
+            reader.forEachElement(HOST_INFO_TAG) { if (hostInfo == null) hostInfo = readHostInfo(it) else it.skip() }
+            return hostInfo
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<HostInfoParser, HostInfo?>("HostInfoParser", ::HostInfoParser,
+                { it.hostInfo }, { readFirstHostInfo(it) }, null)
+
         /**
          * Parse the RPC result (host_info) and generate vector of projects info
          *
@@ -128,16 +172,7 @@ class HostInfoParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): HostInfo? {
-            return try {
-                val parser = HostInfoParser()
-                Xml.parse(rpcResult, parser)
-                parser.hostInfo
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "HostInfoParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "HostInfoParser: $rpcResult")
-
-                null
-            }
+            return ENGINE_PARSER.parse(rpcResult)
         }
     }
 }
@@ -18,7 +18,7 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
@@ -74,6 +74,31 @@ class MessagesParser : BaseParser() {
 
     companion object {
         const val MESSAGE = "msg"
+
+        private val MESSAGE_FIELDS = PullFields<Message> {
+            field(Message.Fields.BODY) { it.body = textKeepEnd() }
+            field(Message.Fields.PRIORITY) { it.priority = int() }
+            field(PROJECT) { it.project = textKeepEnd() }
+            field(Message.Fields.TIMESTAMP) { it.timestamp = double().toLong() }
+            field(SEQNO) { it.seqno = int() }
+        }
+
+        internal fun readMessages(reader: PullReader): List<Message> {
+            val messages = mutableListOf<Message>()
+            reader.forEachElement(MESSAGE) {
+                val message = Message()
+                MESSAGE_FIELDS.read(it, message)
+                if (message.seqno != -1) {
+                    messages.add(message)
+                }
+            }
+            return messages
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<MessagesParser, List<Message>>("MessagesParser", ::MessagesParser,
+                { it.messages }, { readMessages(it) }, emptyList())
+
         /**
          * Parse the RPC result (messages) and generate corresponding list.
          *
@@ -82,18 +107,8 @@ class MessagesParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String): List<Message> {
-            return try {
-                // Replace 0x03 character in the rpcResult string
-                val rpcResultReplaced = rpcResult.replace("\u0003", "")
-                val parser = MessagesParser()
-                Xml.parse(rpcResultReplaced, parser)
-                parser.messages
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "MessagesParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "MessagesParser: $rpcResult")
-
-                emptyList()
-            }
+            // Replace 0x03 character in the rpcResult string
+            return ENGINE_PARSER.parse(rpcResult.replace("\u0003", ""))
         }
     }
 }
@@ -18,7 +18,7 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
@@ -81,18 +81,45 @@ class NoticesParser : BaseParser() {
 
     companion object {
         const val NOTICE_TAG = "notice"
-        @JvmStatic
-        fun parse(rpcResult: String): List<Notice> {
-            return try {
-                val parser = NoticesParser()
-                Xml.parse(rpcResult.replace("&", "&amp;"), parser)
-                parser.notices
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "NoticesParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "NoticesParser: $rpcResult")
 
-                emptyList()
+        private val NOTICE_FIELDS = PullFields<Notice> {
+            field(Notice.Fields.SEQNO) { it.seqno = int() }
+            field(Notice.Fields.TITLE) { it.title = textKeepEnd() }
+            field(DESCRIPTION) { it.description = textKeepEnd() }
+            field(Notice.Fields.CREATE_TIME) { it.createTime = double() }
+            field(Notice.Fields.ARRIVAL_TIME) { it.arrivalTime = double() }
+            field(Notice.Fields.Category) {
+                it.category = textKeepEnd()
+                if (it.category.equalsAny("server", "scheduler", ignoreCase = false)) {
+                    it.isServerNotice = true
+                }
+                if (it.category == "client") {
+                    it.isClientNotice = true
+                }
             }
+            field(Notice.Fields.LINK) { it.link = textKeepEnd() }
+            field(PROJECT_NAME) { it.projectName = textKeepEnd() }
+        }
+
+        internal fun readNotices(reader: PullReader): List<Notice> {
+            val notices = mutableListOf<Notice>()
+            reader.forEachElement(NOTICE_TAG) {
+                val notice = Notice()
+                NOTICE_FIELDS.read(it, notice)
+                if (notice.seqno != -1) { // seqno is a must
+                    notices.add(notice)
+                }
+            }
+            return notices
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<NoticesParser, List<Notice>>("NoticesParser", ::NoticesParser,
+                { it.notices }, { readNotices(it) }, emptyList())
+
+        @JvmStatic
+        fun parse(rpcResult: String): List<Notice> {
+            return ENGINE_PARSER.parse(rpcResult.replace("&", "&amp;"))
         }
     }
 }
@@ -0,0 +1,167 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import android.os.Parcel
+import android.os.Parcelable
+import java.util.IdentityHashMap
+
+/**
+ * Writes and reads the strings and the referenced objects (projects, apps, app versions, work units)
+ * of the rpc data classes. The plain codec produces the regular Parcelable format,
+ * [InterningParcelCodec] the compact one of the bulk lists.
+ */
+internal open class ParcelCodec {
+    open fun writeString(dest: Parcel, value: String?) = dest.writeString(value)
+
+    open fun readString(parcel: Parcel): String? = parcel.readString()
+
+    /**
+     * [write] writes the fields of [value] with this codec, if the codec decides to write them inline.
+     */
+    open fun <T : Parcelable> writeShared(dest: Parcel, value: T?, write: (T) -> Unit) = dest.writeValue(value)
+
+    /**
+     * [read] reads the fields written by the write function of [writeShared].
+     */
+    open fun <T : Parcelable> readShared(parcel: Parcel, type: Class<T>, read: () -> T): T? =
+            type.cast(parcel.readValue(type.classLoader))
+
+    companion object {
+        val PLAIN = ParcelCodec()
+    }
+}
+
+/**
+ * Writes every distinct string and every referenced object only once per parcel, later occurrences
+ * are written as the index into the table of the already written ones. Objects are compared by identity,
+ * so the results of a project share one Project instance on both sides, strings by equality.
+ * One instance is used either for writing or for reading a single parcel.
+ */
+internal class InterningParcelCodec : ParcelCodec() {
+    private val stringIndex = HashMap<String, Int>()
+    private val strings = ArrayList<String>()
+    private val objectIndex = IdentityHashMap<Any, Int>()
+    private val objects = ArrayList<Any>()
+
+    override fun writeString(dest: Parcel, value: String?) {
+        val index = if (value == null) NULL else stringIndex[value]
+        if (index != null) {
+            dest.writeInt(index)
+        } else {
+            dest.writeInt(NEW)
+            dest.writeString(value)
+            stringIndex[value!!] = stringIndex.size
+        }
+    }
+
+    override fun readString(parcel: Parcel): String? {
+        return when (val index = parcel.readInt()) {
+            NULL -> null
+            NEW -> parcel.readString()!!.also { strings.add(it) }
+            else -> strings[index]
+        }
+    }
+
+    // nested objects are added to the table before the object that references them, on both sides
+    override fun <T : Parcelable> writeShared(dest: Parcel, value: T?, write: (T) -> Unit) {
+        val index = if (value == null) NULL else objectIndex[value]
+        if (index != null) {
+            dest.writeInt(index)
+        } else {
+            dest.writeInt(NEW)
+            write(value!!)
+            objectIndex[value] = objectIndex.size
+        }
+    }
+
+    override fun <T : Parcelable> readShared(parcel: Parcel, type: Class<T>, read: () -> T): T? {
+        return when (val index = parcel.readInt()) {
+            NULL -> null
+            NEW -> read().also { objects.add(it) }
+            else -> type.cast(objects[index])
+        }
+    }
+
+    companion object {
+        private const val NULL = -1
+        private const val NEW = -2
+    }
+}
+
+/**
+ * List of rpc data objects as returned by the bulk getters of IMonitor, written with an
+ * [InterningParcelCodec]. A page of tasks carries every project, app and app version once
+ * instead of once per task, and the unparceled tasks share those instances.
+ */
+sealed class BulkList<T>(val items: List<T>) : Parcelable {
+    internal abstract fun writeItem(dest: Parcel, item: T, codec: ParcelCodec)
+
+    override fun describeContents() = 0
+
+    override fun writeToParcel(dest: Parcel, flags: Int) {
+        val codec = InterningParcelCodec()
+        dest.writeInt(items.size)
+        items.forEach { writeItem(dest, it, codec) }
+    }
+
+    internal class Creator<T, L : BulkList<T>>(
+            private val readItem: (Parcel, ParcelCodec) -> T,
+            private val create: (List<T>) -> L,
+            private val createArray: (Int) -> Array<L?>
+    ) : Parcelable.Creator<L> {
+        override fun createFromParcel(parcel: Parcel): L {
+            val codec = InterningParcelCodec()
+            val size = parcel.readInt()
+            return create(List(size) { readItem(parcel, codec) })
+        }
+
+        override fun newArray(size: Int) = createArray(size)
+    }
+}
+
+class ResultList(items: List<Result>) : BulkList<Result>(items) {
+    override fun writeItem(dest: Parcel, item: Result, codec: ParcelCodec) = item.writeToParcel(dest, codec)
+
+    companion object {
+        @JvmField
+        val CREATOR: Parcelable.Creator<ResultList> =
+                Creator(::Result, ::ResultList) { arrayOfNulls<ResultList>(it) }
+    }
+}
+
+class ProjectList(items: List<Project>) : BulkList<Project>(items) {
+    override fun writeItem(dest: Parcel, item: Project, codec: ParcelCodec) = item.writeToParcel(dest, codec)
+
+    companion object {
+        @JvmField
+        val CREATOR: Parcelable.Creator<ProjectList> =
+                Creator(::Project, ::ProjectList) { arrayOfNulls<ProjectList>(it) }
+    }
+}
+
+class TransferList(items: List<Transfer>) : BulkList<Transfer>(items) {
+    override fun writeItem(dest: Parcel, item: Transfer, codec: ParcelCodec) = item.writeToParcel(dest, codec)
+
+    companion object {
+        @JvmField
+        val CREATOR: Parcelable.Creator<TransferList> =
+                Creator(::Transfer, ::TransferList) { arrayOfNulls<TransferList>(it) }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+/**
+ * XML engine used by the parse() entry points of the rpc parsers.
+ * [SAX] drives the DefaultHandler subclasses, [PULL] reads the reply with [PullReader]
+ * and the field tables of the parsers. Parsers without a field table always use SAX.
+ * The Monitor sets it from the debug preference "parserEngine".
+ */
+enum class ParserEngine {
+    SAX, PULL;
+
+    companion object {
+        @JvmStatic
+        @Volatile
+        var current = SAX
+    }
+}
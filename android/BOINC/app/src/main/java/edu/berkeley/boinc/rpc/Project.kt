@@ -93,11 +93,11 @@ data class Project(
     val name: String?
         get() = if (projectName.isEmpty()) masterURL else projectName
 
-    private constructor(parcel: Parcel) :
-            this(masterURL = parcel.readString() ?: "", projectDir = parcel.readString() ?: "",
-                    resourceShare = parcel.readFloat(), projectName = parcel.readString() ?: "",
-                    userName = parcel.readString() ?: "", teamName = parcel.readString() ?: "",
-                    hostVenue = parcel.readString() ?: "", hostId = parcel.readInt(),
+    internal constructor(parcel: Parcel, codec: ParcelCodec) :
+            this(masterURL = codec.readString(parcel) ?: "", projectDir = codec.readString(parcel) ?: "",
+                    resourceShare = parcel.readFloat(), projectName = codec.readString(parcel) ?: "",
+                    userName = codec.readString(parcel) ?: "", teamName = codec.readString(parcel) ?: "",
+                    hostVenue = codec.readString(parcel) ?: "", hostId = parcel.readInt(),
                     userTotalCredit = parcel.readDouble(), userExpAvgCredit = parcel.readDouble(),
                     hostTotalCredit = parcel.readDouble(), hostExpAvgCredit = parcel.readDouble(),
                     diskUsage = parcel.readDouble(), noOfRPCFailures = parcel.readInt(),
@@ -169,14 +169,16 @@ data class Project(
 
     override fun describeContents() = 0
 
-    override fun writeToParcel(dest: Parcel, flags: Int) {
-        dest.writeString(masterURL)
-        dest.writeString(projectDir)
+    override fun writeToParcel(dest: Parcel, flags: Int) = writeToParcel(dest, ParcelCodec.PLAIN)
+
+    internal fun writeToParcel(dest: Parcel, codec: ParcelCodec) {
+        codec.writeString(dest, masterURL)
+        codec.writeString(dest, projectDir)
         dest.writeFloat(resourceShare)
-        dest.writeString(projectName)
-        dest.writeString(userName)
-        dest.writeString(teamName)
-        dest.writeString(hostVenue)
+        codec.writeString(dest, projectName)
+        codec.writeString(dest, userName)
+        codec.writeString(dest, teamName)
+        codec.writeString(dest, hostVenue)
         dest.writeInt(hostId)
         dest.writeDouble(userTotalCredit)
         dest.writeDouble(userExpAvgCredit)
@@ -265,7 +267,7 @@ data class Project(
     companion object {
         @JvmField
         val CREATOR: Parcelable.Creator<Project> = object : Parcelable.Creator<Project> {
-            override fun createFromParcel(parcel: Parcel) = Project(parcel)
+            override fun createFromParcel(parcel: Parcel) = Project(parcel, ParcelCodec.PLAIN)
 
             override fun newArray(size: Int) = arrayOfNulls<Project>(size)
         }
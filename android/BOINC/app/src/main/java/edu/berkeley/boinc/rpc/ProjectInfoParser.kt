@@ -18,8 +18,10 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import okio.BufferedSource
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
 
@@ -96,20 +98,64 @@ class ProjectInfoParser : BaseParser() {
     }
 
     companion object {
+        private val PROJECT_INFO_FIELDS = PullFields<ProjectInfo> {
+            field(NAME) { it.name = text() }
+            field(URL) { it.url = text() }
+            field(ProjectInfo.Fields.GENERAL_AREA) { it.generalArea = text() }
+            field(ProjectInfo.Fields.SPECIFIC_AREA) { it.specificArea = text() }
+            field(DESCRIPTION) { it.description = text() }
+            field(ProjectInfo.Fields.HOME) { it.home = text() }
+            field(ProjectInfo.Fields.IMAGE_URL) { it.imageUrl = text() }
+            field(ProjectInfo.Fields.SUMMARY) { it.summary = text() }
+            field(ProjectInfo.Fields.PLATFORMS) {
+                val platforms = mutableListOf<String>()
+                PLATFORM_FIELDS.read(this, platforms)
+                it.platforms = platforms
+            }
+        }
+
+        private val PLATFORM_FIELDS = PullFields<MutableList<String>> {
+            field(NAME) { it.add(text()) }
+        }
+
+        internal fun readProjectInfos(reader: PullReader): List<ProjectInfo> {
+            val projectInfos = mutableListOf<ProjectInfo>()
+            reader.forEachElement(PROJECT) { element ->
+                readProjectInfo(element)?.let { projectInfos.add(it) }
+            }
+            return projectInfos
+        }
+
+        /**
+         * @return the project of the current element, null if it has no name
+         */
+        internal fun readProjectInfo(reader: PullReader): ProjectInfo? {
+            val projectInfo = ProjectInfo()
+            PROJECT_INFO_FIELDS.read(reader, projectInfo)
+            return projectInfo.takeIf { it.name.isNotEmpty() } // name is a must
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<ProjectInfoParser, List<ProjectInfo>>("ProjectInfoParser", ::ProjectInfoParser,
+                { it.projectInfos }, { readProjectInfos(it) }, emptyList())
+
         @JvmStatic
         fun parse(rpcResult: String): List<ProjectInfo> {
-            return try {
-                val parser = ProjectInfoParser()
-                // Uncomment if any issues arise
-                // Xml.parse(rpcResult.replace("<?xml version=\"1.0\" encoding=\"ISO-8859-1\" ?>", ""), parser)
-                Xml.parse(rpcResult, parser)
-                parser.projectInfos
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "ProjectInfoParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "ProjectInfoParser: $rpcResult")
+            // the String is decoded already, its encoding declaration can only conflict
+            return ENGINE_PARSER.parse(rpcResult.replace("<?xml version=\"1.0\" encoding=\"ISO-8859-1\" ?>", ""))
+        }
 
-                emptyList()
-            }
+        /**
+         * Parse the RPC result (all projects list) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return list of project info
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): List<ProjectInfo> {
+            return ENGINE_PARSER.parse(reply)
         }
     }
 }
@@ -182,3 +182,8 @@ data class ProjectInfo(
         }
     }
 }
+
+/**
+ * Projects and account managers of all_projects_list.xml, as read by a single get_all_projects_list RPC.
+ */
+data class AllProjectsList(val projects: List<ProjectInfo>, val accountManagers: List<AccountManager>)
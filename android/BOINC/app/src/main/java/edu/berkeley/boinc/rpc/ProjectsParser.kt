@@ -18,8 +18,10 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import okio.BufferedSource
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
 
@@ -178,6 +180,91 @@ class ProjectsParser : BaseParser() {
     companion object {
         const val SHORT_TERM_DEBT_TAG = "short_term_debt"
         const val LONG_TERM_DEBT_TAG = "long_term_debt"
+        const val GUI_URLS_TAG = "gui_urls"
+
+        private val GUI_URL_FIELDS = PullFields<GuiUrl> {
+            field(NAME) { it.name = text() }
+            field(DESCRIPTION) { it.description = text() }
+            field(URL) { it.url = text() }
+        }
+
+        private val PROJECT_FIELDS = PullFields<Project> {
+            field(MASTER_URL) { it.masterURL = text() }
+            field(Project.Fields.PROJECT_DIR) { it.projectDir = text() }
+            field(Project.Fields.RESOURCE_SHARE) { it.resourceShare = float() }
+            field(PROJECT_NAME) { it.projectName = text() }
+            field(Project.Fields.USER_NAME) { it.userName = text() }
+            field(Project.Fields.TEAM_NAME) { it.teamName = text() }
+            field(Project.Fields.HOSTID) { it.hostId = int() }
+            field(Project.Fields.HOST_VENUE) { it.hostVenue = text() }
+            field(Project.Fields.USER_TOTAL_CREDIT) { it.userTotalCredit = double() }
+            field(Project.Fields.USER_EXPAVG_CREDIT) { it.userExpAvgCredit = double() }
+            field(Project.Fields.HOST_TOTAL_CREDIT) { it.hostTotalCredit = double() }
+            field(Project.Fields.HOST_EXPAVG_CREDIT) { it.hostExpAvgCredit = double() }
+            field(Project.Fields.NRPC_FAILURES) { it.noOfRPCFailures = int() }
+            field(Project.Fields.MASTER_FETCH_FAILURES) { it.masterFetchFailures = int() }
+            field(Project.Fields.MIN_RPC_TIME) { it.minRPCTime = double() }
+            field(Project.Fields.DOWNLOAD_BACKOFF) { it.downloadBackoff = double() }
+            field(Project.Fields.UPLOAD_BACKOFF) { it.uploadBackoff = double() }
+            field(SHORT_TERM_DEBT_TAG) { it.cpuShortTermDebt = double() }
+            field(LONG_TERM_DEBT_TAG) { it.cpuLongTermDebt = double() }
+            field(Project.Fields.CPU_BACKOFF_TIME) { it.cpuBackoffTime = double() }
+            field(Project.Fields.CPU_BACKOFF_INTERVAL) { it.cpuBackoffInterval = double() }
+            field(Project.Fields.CUDA_DEBT) { it.cudaDebt = double() }
+            field(Project.Fields.CUDA_SHORT_TERM_DEBT) { it.cudaShortTermDebt = double() }
+            field(Project.Fields.CUDA_BACKOFF_TIME) { it.cudaBackoffTime = double() }
+            field(Project.Fields.CUDA_BACKOFF_INTERVAL) { it.cudaBackoffInterval = double() }
+            field(Project.Fields.ATI_DEBT) { it.atiDebt = double() }
+            field(Project.Fields.ATI_SHORT_TERM_DEBT) { it.atiShortTermDebt = double() }
+            field(Project.Fields.ATI_BACKOFF_TIME) { it.atiBackoffTime = double() }
+            field(Project.Fields.ATI_BACKOFF_INTERVAL) { it.atiBackoffInterval = double() }
+            field(Project.Fields.DURATION_CORRECTION_FACTOR) { it.durationCorrectionFactor = double() }
+            field(Project.Fields.MASTER_URL_FETCH_PENDING) { it.masterURLFetchPending = bool() }
+            field(Project.Fields.SCHED_RPC_PENDING) { it.scheduledRPCPending = int() }
+            field(NON_CPU_INTENSIVE) { it.nonCPUIntensive = bool() }
+            field(Project.Fields.SUSPENDED_VIA_GUI) { it.suspendedViaGUI = bool() }
+            field(Project.Fields.DONT_REQUEST_MORE_WORK) { it.doNotRequestMoreWork = bool() }
+            field(Project.Fields.SCHEDULER_RPC_IN_PROGRESS) { it.schedulerRPCInProgress = bool() }
+            field(Project.Fields.ATTACHED_VIA_ACCT_MGR) { it.attachedViaAcctMgr = bool() }
+            field(Project.Fields.DETACH_WHEN_DONE) { it.detachWhenDone = bool() }
+            field(Project.Fields.ENDED) { it.ended = bool() }
+            field(Project.Fields.TRICKLE_UP_PENDING) { it.trickleUpPending = bool() }
+            field(Project.Fields.PROJECT_FILES_DOWNLOADED_TIME) { it.projectFilesDownloadedTime = double() }
+            field(Project.Fields.LAST_RPC_TIME) { it.lastRPCTime = double() }
+            field(Project.Fields.NO_CPU_PREF) { it.noCPUPref = bool() }
+            field(Project.Fields.NO_CUDA_PREF) { it.noCUDAPref = bool() }
+            field(Project.Fields.NO_ATI_PREF) { it.noATIPref = bool() }
+            field(Project.Fields.DISK_USAGE) { it.diskUsage = double() }
+            // <gui_url> elements are wrapped in <gui_urls>
+            container(GUI_URLS_TAG)
+            field(GUI_URL) {
+                val guiUrl = GuiUrl()
+                GUI_URL_FIELDS.read(this, guiUrl)
+                it.guiURLs.add(guiUrl)
+            }
+        }
+
+        /**
+         * Reads the <project> element the reader is positioned on ([ParserEngine.PULL])
+         *
+         * @return the project, null if it has no master URL
+         */
+        internal fun readProject(reader: PullReader): Project? {
+            val project = Project()
+            PROJECT_FIELDS.read(reader, project)
+            return project.takeIf { it.masterURL.isNotEmpty() } // master_url is a must
+        }
+
+        internal fun readProjects(reader: PullReader): List<Project> {
+            val projects = mutableListOf<Project>()
+            reader.forEachElement(PROJECT) { readProject(it)?.let(projects::add) }
+            return projects
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<ProjectsParser, List<Project>>("ProjectsParser", ::ProjectsParser,
+                { it.projects }, { readProjects(it) }, emptyList())
+
         /**
          * Parse the RPC result (projects) and generate vector of projects info
          *
@@ -186,16 +273,20 @@ class ProjectsParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): List<Project> {
-            return try {
-                val parser = ProjectsParser()
-                Xml.parse(rpcResult, parser)
-                parser.projects
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "ProjectsParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "ProjectsParser: $rpcResult")
+            return ENGINE_PARSER.parse(rpcResult)
+        }
 
-                emptyList()
-            }
+        /**
+         * Parse the RPC result (project status) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return vector of projects info
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): List<Project> {
+            return ENGINE_PARSER.parse(reply)
         }
     }
 }
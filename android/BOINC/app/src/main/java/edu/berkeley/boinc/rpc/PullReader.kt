@@ -0,0 +1,279 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import android.util.Xml
+import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import java.io.StringReader
+import java.util.Locale
+import okio.BufferedSource
+import org.xmlpull.v1.XmlPullParser
+import org.xmlpull.v1.XmlPullParserException
+
+/**
+ * Cursor over a GUI RPC reply for the [ParserEngine.PULL] engine.
+ * Element text is copied into one reused buffer, numbers are read from that buffer directly,
+ * so reading a numeric field does not allocate.
+ */
+class PullReader(private val parser: XmlPullParser) {
+    private var chars = CharArray(INITIAL_TEXT_SIZE)
+    private var begin = 0
+    private var end = 0
+    private val holder = IntArray(2)
+
+    val name: String
+        get() = parser.name
+
+    val depth: Int
+        get() = parser.depth
+
+    /**
+     * Advances to the next child element of the element at [depth].
+     *
+     * @return true when positioned on the start tag of a child, false when the element is closed
+     */
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun nextChild(depth: Int): Boolean {
+        while (true) {
+            when (parser.next()) {
+                XmlPullParser.START_TAG -> if (parser.depth == depth + 1) return true
+                XmlPullParser.END_TAG -> if (parser.depth <= depth) return false
+                XmlPullParser.END_DOCUMENT -> return false
+            }
+        }
+    }
+
+    /**
+     * Calls [read] for every element named like one of [tags] in the rest of the document,
+     * wherever it is nested. [read] is expected to consume the element.
+     */
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun forEachElement(vararg tags: String, read: (PullReader) -> Unit) {
+        while (true) {
+            when (parser.next()) {
+                XmlPullParser.START_TAG -> if (tags.any { parser.name.equals(it, ignoreCase = true) }) read(this)
+                XmlPullParser.END_DOCUMENT -> return
+            }
+        }
+    }
+
+    /**
+     * Skips the current element including all of its children
+     */
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun skip() {
+        val depth = parser.depth
+        while (true) {
+            val event = parser.next()
+            if ((event == XmlPullParser.END_TAG && parser.depth == depth) || event == XmlPullParser.END_DOCUMENT) {
+                return
+            }
+        }
+    }
+
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun text(): String {
+        readChars(true)
+        return currentText()
+    }
+
+    /**
+     * Same as [text], but keeps trailing white-spaces (message and notice bodies)
+     */
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun textKeepEnd(): String {
+        readChars(false)
+        return currentText()
+    }
+
+    /**
+     * Flag elements are true unless their content is "0", also when they are empty
+     */
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun bool(): Boolean {
+        readChars(true)
+        return !(end - begin == 1 && chars[begin] == '0')
+    }
+
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun int(): Int {
+        readChars(true)
+        var i = begin
+        val negative = i < end && chars[i] == '-'
+        if (negative || (i < end && chars[i] == '+')) i++
+        if (i == end || end - i > MAX_FAST_INT_DIGITS) return currentText().toInt()
+        var value = 0
+        while (i < end) {
+            val digit = chars[i] - '0'
+            if (digit < 0 || digit > 9) return currentText().toInt()
+            value = value * 10 + digit
+            i++
+        }
+        return if (negative) -value else value
+    }
+
+    /**
+     * Plain decimals with up to 15 significant digits are converted exactly from the buffer
+     * (mantissa and power of ten are both exact doubles, so the division rounds correctly),
+     * everything else goes through [String.toDouble].
+     */
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun double(): Double {
+        readChars(true)
+        var i = begin
+        val negative = i < end && chars[i] == '-'
+        if (negative || (i < end && chars[i] == '+')) i++
+        var mantissa = 0L
+        var digits = 0
+        var fractionDigits = 0
+        var sawDigit = false
+        var inFraction = false
+        while (i < end) {
+            val c = chars[i]
+            if (c in '0'..'9') {
+                sawDigit = true
+                if (mantissa != 0L || c != '0') digits++
+                if (digits > MAX_FAST_DOUBLE_DIGITS) return currentText().toDouble()
+                mantissa = mantissa * 10 + (c - '0')
+                if (inFraction) fractionDigits++
+            } else if (c == '.' && !inFraction) {
+                inFraction = true
+            } else {
+                return currentText().toDouble()
+            }
+            i++
+        }
+        if (!sawDigit || fractionDigits >= POWERS_OF_TEN.size) return currentText().toDouble()
+        val value = mantissa.toDouble() / POWERS_OF_TEN[fractionDigits]
+        return if (negative) -value else value
+    }
+
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun float() = double().toFloat()
+
+    private fun currentText() = String(chars, begin, end - begin)
+
+    /**
+     * Moves from the start tag of a leaf element to its end tag, collecting all text in between
+     */
+    private fun readChars(trimEnd: Boolean) {
+        val depth = parser.depth
+        var length = 0
+        var event = parser.next()
+        while (event != XmlPullParser.END_DOCUMENT && !(event == XmlPullParser.END_TAG && parser.depth == depth)) {
+            if (event == XmlPullParser.TEXT) {
+                val text = parser.getTextCharacters(holder)
+                val count = holder[1]
+                if (length + count > chars.size) {
+                    chars = chars.copyOf(maxOf(chars.size * 2, length + count))
+                }
+                System.arraycopy(text, holder[0], chars, length, count)
+                length += count
+            }
+            event = parser.next()
+        }
+        begin = 0
+        end = length
+        while (begin < end && chars[begin].isWhitespace()) begin++
+        if (trimEnd) {
+            while (end > begin && chars[end - 1].isWhitespace()) end--
+        }
+    }
+
+    companion object {
+        private const val INITIAL_TEXT_SIZE = 256
+        private const val MAX_FAST_INT_DIGITS = 9
+        private const val MAX_FAST_DOUBLE_DIGITS = 15
+        private val POWERS_OF_TEN = doubleArrayOf(
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        )
+
+        /**
+         * Runs [read] on a pull parser over the RPC reply
+         */
+        @JvmStatic
+        @Throws(XmlPullParserException::class, IOException::class)
+        fun <T> parse(rpcResult: String?, read: (PullReader) -> T): T {
+            val parser = Xml.newPullParser()
+            parser.setInput(StringReader(rpcResult.orEmpty()))
+            return read(PullReader(parser))
+        }
+
+        /**
+         * Runs [read] on a pull parser over the RPC reply streamed from the socket
+         */
+        @JvmStatic
+        @Throws(XmlPullParserException::class, IOException::class)
+        fun <T> parse(reply: BufferedSource, read: (PullReader) -> T): T {
+            val parser = Xml.newPullParser()
+            parser.setInput(reply.inputStream(), null) // encoding of the XML declaration
+            return read(PullReader(parser))
+        }
+    }
+}
+
+/**
+ * Maps child element names of one entity to the code that reads them, the lookup is a single
+ * hash lookup instead of a chain of string comparisons. Unknown children are skipped with
+ * their whole subtree.
+ */
+class PullFields<T>(declare: PullFields<T>.() -> Unit) {
+    private val fields = HashMap<String, PullReader.(T) -> Unit>()
+
+    init {
+        declare()
+    }
+
+    fun field(tag: String, read: PullReader.(T) -> Unit) {
+        fields[tag] = read
+    }
+
+    /**
+     * Wrapper element whose children belong to the same target, [open] runs before they are read
+     */
+    fun container(tag: String, open: (T) -> Unit = {}) {
+        fields[tag] = { target ->
+            open(target)
+            this@PullFields.read(this, target)
+        }
+    }
+
+    /**
+     * Reads the children of the current element into [target]
+     */
+    @Throws(XmlPullParserException::class, IOException::class)
+    fun read(reader: PullReader, target: T) {
+        val depth = reader.depth
+        while (reader.nextChild(depth)) {
+            val name = reader.name
+            val field = fields[name] ?: fields[name.lowercase(Locale.ROOT)]
+            if (field == null) {
+                reader.skip()
+                continue
+            }
+            try {
+                reader.field(target)
+            } catch (e: NumberFormatException) {
+                Logging.logException(Logging.Category.XML, "PullFields.read error: ", e)
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import java.io.IOException
+import okio.Buffer
+import okio.BufferedSource
+import okio.Source
+import okio.Timeout
+
+/**
+ * Exposes exactly one GUI RPC reply of the socket as a [Source].
+ * Bytes are passed through as they arrive, the stream ends at the `\u0003` end-of-reply marker.
+ * Closing this source does not close the socket, it only skips whatever is left of the
+ * current reply, so the next request starts on a clean stream.
+ */
+internal class ReplySource(private val source: BufferedSource) : Source {
+    private var terminated = false
+
+    /**
+     * Number of reply bytes handed out so far (excluding the end-of-reply marker)
+     */
+    var bytesRead = 0L
+        private set
+
+    /**
+     * The stream ended before the end-of-reply marker, i.e. the other side closed the connection
+     */
+    var endOfStream = false
+        private set
+
+    @Throws(IOException::class)
+    override fun read(sink: Buffer, byteCount: Long): Long {
+        require(byteCount >= 0L) { "byteCount < 0: $byteCount" }
+        if (terminated) return -1L
+        if (!source.request(1L)) {
+            // End of stream without marker, most probably client shut down
+            terminated = true
+            endOfStream = true
+            return -1L
+        }
+        val limit = minOf(source.buffer.size, byteCount)
+        val end = source.buffer.indexOf(REPLY_TERMINATOR, 0L, limit)
+        if (end == 0L) {
+            source.skip(1L)
+            terminated = true
+            return -1L
+        }
+        val count = if (end == -1L) limit else end
+        sink.write(source.buffer, count)
+        bytesRead += count
+        return count
+    }
+
+    override fun timeout(): Timeout = source.timeout()
+
+    @Throws(IOException::class)
+    override fun close() {
+        if (terminated) return
+        terminated = true
+        val end = source.indexOf(REPLY_TERMINATOR)
+        source.skip(if (end == -1L) source.buffer.size else end + 1L)
+    }
+
+    companion object {
+        const val REPLY_TERMINATOR: Byte = 0x03
+    }
+}
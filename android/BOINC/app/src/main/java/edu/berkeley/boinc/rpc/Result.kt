@@ -75,20 +75,20 @@ data class Result(
         var needsShmem: Boolean = false,
         var isEdfScheduled: Boolean = false
 ) : Parcelable {
-    private constructor(parcel: Parcel) : this(name = parcel.readString() ?: "", workUnitName = parcel.readString() ?: "",
-            projectURL = parcel.readString() ?: "", versionNum = parcel.readInt(), planClass = parcel.readString(),
+    internal constructor(parcel: Parcel, codec: ParcelCodec) : this(name = codec.readString(parcel) ?: "",
+            workUnitName = codec.readString(parcel) ?: "", projectURL = codec.readString(parcel) ?: "", versionNum = parcel.readInt(), planClass = codec.readString(parcel),
             reportDeadline = parcel.readLong(), receivedTime = parcel.readLong(), finalCPUTime = parcel.readDouble(),
             finalElapsedTime = parcel.readDouble(), state = parcel.readInt(), schedulerState = parcel.readInt(),
-            exitStatus = parcel.readInt(), signal = parcel.readInt(), stderrOut = parcel.readString(),
+            exitStatus = parcel.readInt(), signal = parcel.readInt(), stderrOut = codec.readString(parcel),
             activeTaskState = parcel.readInt(), appVersionNum = parcel.readInt(), slot = parcel.readInt(),
             pid = parcel.readInt(), checkpointCPUTime = parcel.readDouble(), currentCPUTime = parcel.readDouble(),
             fractionDone = parcel.readFloat(), elapsedTime = parcel.readDouble(), swapSize = parcel.readDouble(),
             workingSetSizeSmoothed = parcel.readDouble(), estimatedCPUTimeRemaining = parcel.readDouble(),
-            graphicsModeAcked = parcel.readInt(), graphicsExecPath = parcel.readString(), slotPath = parcel.readString(),
-            resources = parcel.readString(), project = parcel.readValue(Project::class.java.classLoader) as Project?,
-            appVersion = parcel.readValue(AppVersion::class.java.classLoader) as AppVersion?,
-            app = parcel.readValue(App::class.java.classLoader) as App?,
-            workUnit = parcel.readValue(WorkUnit::class.java.classLoader) as WorkUnit?,
+            graphicsModeAcked = parcel.readInt(), graphicsExecPath = codec.readString(parcel), slotPath = codec.readString(parcel),
+            resources = codec.readString(parcel), project = codec.readShared(parcel, Project::class.java) { Project(parcel, codec) },
+            appVersion = codec.readShared(parcel, AppVersion::class.java) { AppVersion(parcel, codec) },
+            app = codec.readShared(parcel, App::class.java) { App(parcel, codec) },
+            workUnit = codec.readShared(parcel, WorkUnit::class.java) { WorkUnit(parcel, codec) },
             isReadyToReport = readBoolean(parcel), gotServerAck = readBoolean(parcel),
             isSuspendedViaGUI = readBoolean(parcel), isProjectSuspendedViaGUI = readBoolean(parcel),
             isCoprocMissing = readBoolean(parcel), gpuMemWait = readBoolean(parcel),
@@ -97,12 +97,14 @@ data class Result(
 
     override fun describeContents() = 0
 
-    override fun writeToParcel(dest: Parcel, flags: Int) {
-        dest.writeString(name)
-        dest.writeString(workUnitName)
-        dest.writeString(projectURL)
+    override fun writeToParcel(dest: Parcel, flags: Int) = writeToParcel(dest, ParcelCodec.PLAIN)
+
+    internal fun writeToParcel(dest: Parcel, codec: ParcelCodec) {
+        codec.writeString(dest, name)
+        codec.writeString(dest, workUnitName)
+        codec.writeString(dest, projectURL)
         dest.writeInt(versionNum)
-        dest.writeString(planClass)
+        codec.writeString(dest, planClass)
         dest.writeLong(reportDeadline)
         dest.writeLong(receivedTime)
         dest.writeDouble(finalCPUTime)
@@ -111,7 +113,7 @@ data class Result(
         dest.writeInt(schedulerState)
         dest.writeInt(exitStatus)
         dest.writeInt(signal)
-        dest.writeString(stderrOut)
+        codec.writeString(dest, stderrOut)
         dest.writeInt(activeTaskState)
         dest.writeInt(appVersionNum)
         dest.writeInt(slot)
@@ -124,13 +126,13 @@ data class Result(
         dest.writeDouble(workingSetSizeSmoothed)
         dest.writeDouble(estimatedCPUTimeRemaining)
         dest.writeInt(graphicsModeAcked)
-        dest.writeString(graphicsExecPath)
-        dest.writeString(slotPath)
-        dest.writeString(resources)
-        dest.writeValue(project)
-        dest.writeValue(appVersion)
-        dest.writeValue(app)
-        dest.writeValue(workUnit)
+        codec.writeString(dest, graphicsExecPath)
+        codec.writeString(dest, slotPath)
+        codec.writeString(dest, resources)
+        codec.writeShared(dest, project) { it.writeToParcel(dest, codec) }
+        codec.writeShared(dest, appVersion) { it.writeToParcel(dest, codec) }
+        codec.writeShared(dest, app) { it.writeToParcel(dest, codec) }
+        codec.writeShared(dest, workUnit) { it.writeToParcel(dest, codec) }
         writeBoolean(dest, isReadyToReport)
         writeBoolean(dest, gotServerAck)
         writeBoolean(dest, isSuspendedViaGUI)
@@ -183,7 +185,7 @@ data class Result(
     companion object {
         @JvmField
         val CREATOR: Parcelable.Creator<Result> = object : Parcelable.Creator<Result> {
-            override fun createFromParcel(parcel: Parcel) = Result(parcel)
+            override fun createFromParcel(parcel: Parcel) = Result(parcel, ParcelCodec.PLAIN)
 
             override fun newArray(size: Int) = arrayOfNulls<Result>(size)
         }
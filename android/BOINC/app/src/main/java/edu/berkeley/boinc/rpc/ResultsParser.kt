@@ -18,8 +18,10 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import okio.BufferedSource
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
 
@@ -27,10 +29,18 @@ class ResultsParser : BaseParser() {
     val results: MutableList<Result> = mutableListOf()
     private lateinit var mResult: Result
     private var mInActiveTask = false
+    /**
+     * whether the reply has a <results> element, an error reply has none
+     */
+    var hasResults = false
+        private set
 
     @Throws(SAXException::class)
     override fun startElement(uri: String?, localName: String, qName: String?, attributes: Attributes?) {
         super.startElement(uri, localName, qName, attributes)
+        if (localName.equals(RESULTS_TAG, ignoreCase = true)) {
+            hasResults = true
+        }
         when {
             localName.equals(RESULT_TAG, ignoreCase = true) && !this::mResult.isInitialized -> {
                 mResult = Result()
@@ -185,6 +195,110 @@ class ResultsParser : BaseParser() {
 
     companion object {
         const val RESULT_TAG = "result"
+        const val RESULTS_TAG = "results"
+
+        private val ACTIVE_TASK_FIELDS = PullFields<Result> {
+            field(Result.Fields.ACTIVE_TASK_STATE) { it.activeTaskState = int() }
+            field(Result.Fields.APP_VERSION_NUM) { it.appVersionNum = int() }
+            field(Result.Fields.SCHEDULER_STATE) { it.schedulerState = int() }
+            field(Result.Fields.CHECKPOINT_CPU_TIME) { it.checkpointCPUTime = double() }
+            field(Result.Fields.CURRENT_CPU_TIME) { it.currentCPUTime = double() }
+            field(Result.Fields.FRACTION_DONE) { it.fractionDone = float() }
+            field(Result.Fields.ELAPSED_TIME) { it.elapsedTime = double() }
+            field(Result.Fields.SWAP_SIZE) { it.swapSize = double() }
+            field(Result.Fields.WORKING_SET_SIZE_SMOOTHED) { it.workingSetSizeSmoothed = double() }
+            field(Result.Fields.ESTIMATED_CPU_TIME_REMAINING) { it.estimatedCPUTimeRemaining = double() }
+            field(Result.Fields.SUPPORTS_GRAPHICS) { it.supportsGraphics = bool() }
+            field(Result.Fields.GRAPHICS_MODE_ACKED) { it.graphicsModeAcked = int() }
+            field(Result.Fields.TOO_LARGE) { it.isTooLarge = bool() }
+            field(Result.Fields.NEEDS_SHMEM) { it.needsShmem = bool() }
+            field(Result.Fields.EDF_SCHEDULED) { it.isEdfScheduled = bool() }
+            field(Result.Fields.PID) { it.pid = int() }
+            field(Result.Fields.SLOT) { it.slot = int() }
+            field(Result.Fields.GRAPHICS_EXEC_PATH) { it.graphicsExecPath = text() }
+            field(Result.Fields.SLOT_PATH) { it.slotPath = text() }
+        }
+
+        private val RESULT_FIELDS = PullFields<Result> {
+            field(NAME) { it.name = text() }
+            field(Result.Fields.WU_NAME) { it.workUnitName = text() }
+            field(PROJECT_URL) { it.projectURL = text() }
+            field(Result.Fields.VERSION_NUM) { it.versionNum = int() }
+            field(Result.Fields.READY_TO_REPORT) { it.isReadyToReport = bool() }
+            field(Result.Fields.GOT_SERVER_ACK) { it.gotServerAck = bool() }
+            field(Result.Fields.FINAL_CPU_TIME) { it.finalCPUTime = double() }
+            field(Result.Fields.FINAL_ELAPSED_TIME) { it.finalElapsedTime = double() }
+            field(Result.Fields.STATE) { it.state = int() }
+            field(Result.Fields.REPORT_DEADLINE) { it.reportDeadline = double().toLong() }
+            field(Result.Fields.RECEIVED_TIME) { it.receivedTime = double().toLong() }
+            field(Result.Fields.ESTIMATED_CPU_TIME_REMAINING) { it.estimatedCPUTimeRemaining = double() }
+            field(Result.Fields.EXIT_STATUS) { it.exitStatus = int() }
+            field(Result.Fields.SUSPENDED_VIA_GUI) { it.isSuspendedViaGUI = bool() }
+            field(Result.Fields.PROJECT_SUSPENDED_VIA_GUI) { it.isProjectSuspendedViaGUI = bool() }
+            field(Result.Fields.RESOURCES) { it.resources = text() }
+            field(Result.Fields.ACTIVE_TASK) {
+                ACTIVE_TASK_FIELDS.read(this, it)
+                it.isActiveTask = true
+            }
+        }
+
+        /**
+         * Reads the <result> element the reader is positioned on ([ParserEngine.PULL])
+         *
+         * @return the result, null if it has no name
+         */
+        internal fun readResult(reader: PullReader): Result? {
+            val result = Result()
+            RESULT_FIELDS.read(reader, result)
+            return result.takeIf { it.name.isNotEmpty() } // name is a must
+        }
+
+        internal fun readResults(reader: PullReader): List<Result> {
+            val results = mutableListOf<Result>()
+            reader.forEachElement(RESULT_TAG) { readResult(it)?.let(results::add) }
+            return results
+        }
+
+        /**
+         * Same as [readResults], but null if the reply has no <results> element
+         */
+        internal fun readResultsOrNull(reader: PullReader): List<Result>? {
+            var results: MutableList<Result>? = null
+            reader.forEachElement(RESULTS_TAG) {
+                val list = results ?: mutableListOf<Result>().also { results = it }
+                val depth = it.depth
+                while (it.nextChild(depth)) {
+                    if (it.name.equals(RESULT_TAG, ignoreCase = true)) {
+                        readResult(it)?.let(list::add)
+                    } else {
+                        it.skip()
+                    }
+                }
+            }
+            return results
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<ResultsParser, List<Result>>("ResultsParser", ::ResultsParser,
+                { it.results }, { readResults(it) }, emptyList())
+
+        @VisibleForTesting
+        internal val OR_NULL_ENGINE_PARSER = EngineParser<ResultsParser, List<Result>?>("ResultsParser", ::ResultsParser,
+                { parser -> parser.results.takeIf { parser.hasResults } }, { readResultsOrNull(it) }, null)
+
+        /**
+         * Parse the RPC result (results) while it is read from the socket. Unlike [parse], failures are
+         * told apart from an empty list.
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return vector of results info, null if the reply is an error or malformed
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parseOrNull(reply: BufferedSource): List<Result>? {
+            return OR_NULL_ENGINE_PARSER.parse(reply)
+        }
+
         /**
          * Parse the RPC result (results) and generate vector of results info
          *
@@ -193,16 +307,20 @@ class ResultsParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): List<Result> {
-            return try {
-                val parser = ResultsParser()
-                Xml.parse(rpcResult, parser)
-                parser.results
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "ResultsParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "ResultsParser: $rpcResult")
+            return ENGINE_PARSER.parse(rpcResult)
+        }
 
-                emptyList()
-            }
+        /**
+         * Parse the RPC result (results) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return vector of results info
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): List<Result> {
+            return ENGINE_PARSER.parse(reply)
         }
     }
 }
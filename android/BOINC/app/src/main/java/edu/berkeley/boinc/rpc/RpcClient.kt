@@ -46,6 +46,7 @@ import java.time.Duration
 import java.time.Instant
 import java.util.*
 import kotlin.text.Charsets.ISO_8859_1
+import okio.Buffer
 import okio.BufferedSink
 import okio.BufferedSource
 import okio.ByteString.Companion.encodeUtf8
@@ -76,6 +77,19 @@ open class RpcClient {
 
     private var mLastErrorMessage: String? = null
 
+    // set when a request or reply failed (I/O error, timeout, end of stream), cleared when the connection is opened
+    @Volatile
+    private var connectionBroken = false
+
+    // read timeout of the sockets opened from now on, in milliseconds
+    @VisibleForTesting
+    internal var readTimeout = READ_TIMEOUT
+
+    /**
+     * Request latency of this connection and callers queued for it through a [RpcLane]
+     */
+    val metrics = RpcMetrics()
+
     internal class Auth1Parser(var mResult: StringBuilder) : DefaultHandler() {
         private var mCurrentElement: String? = null
         private var mNonceParsed = false
@@ -129,7 +143,7 @@ open class RpcClient {
         try {
             mTcpSocket = Socket()
             mTcpSocket!!.connect(InetSocketAddress(address, port), CONNECT_TIMEOUT)
-            mTcpSocket!!.soTimeout = READ_TIMEOUT
+            mTcpSocket!!.soTimeout = readTimeout
         } catch (e: IOException) {
             logException(CLIENT, "connect failure: IO", e)
             mTcpSocket = null
@@ -138,6 +152,16 @@ open class RpcClient {
         return initBuffersFromSocket(false)
     }
 
+    /**
+     * Use in-memory streams instead of a socket, e.g. to replay recorded replies in benchmarks
+     */
+    @VisibleForTesting
+    internal fun open(source: BufferedSource, sink: BufferedSink) {
+        socketSource = source
+        socketSink = sink
+        connectionBroken = false
+    }
+
     /**
      * Connect to BOINC core client via Unix Domain Socket (abstract, "boinc_socket")
      *
@@ -148,7 +172,7 @@ open class RpcClient {
         try {
             mSocket = LocalSocket()
             mSocket!!.connect(LocalSocketAddress(socketAddress))
-            mSocket!!.soTimeout = READ_TIMEOUT
+            mSocket!!.soTimeout = readTimeout
         } catch (e: IOException) {
             logException(CLIENT, "connect failure: IO", e)
             mSocket = null
@@ -161,7 +185,7 @@ open class RpcClient {
      * Closes the currently opened connection to BOINC core client
      */
     @Synchronized
-    fun close() {
+    open fun close() {
         if (!isConnected) {
             // Not connected - just return (can be cleanup "for sure")
             return
@@ -248,25 +272,13 @@ open class RpcClient {
 
     /**
      * Checks whether current connection can be used (data can be sent and received)
-     * This is achieved by sending the empty BOINC command - so in case there is
-     * socket still opened, but other side already closed connection, it will be detected.
+     * The health is tracked from the RPCs done on the connection: an I/O error, a timeout or the end
+     * of stream (most probably client shut down) marks it as broken until it is opened again.
+     * No request is sent, so a broken connection is noticed by the first RPC after the failure.
      *
-     * @return true if other side responds, false if data cannot be sent or received
+     * @return true if connected and no RPC failed since, false otherwise
      */
-    @Synchronized
-    fun connectionAlive(): Boolean {
-        if (!isConnected) return false
-        return try {
-            // We just get the status via socket and do not parse reply
-            sendRequest("<get_cc_status/>\n")
-            val result = receiveReply()
-            // If end of stream reached and no data were received in reply
-            // we assume that socket is closed on the other side, most probably client shut down
-            result.isNotEmpty()
-        } catch (e: IOException) {
-            false
-        }
-    }
+    fun connectionAlive(): Boolean = isConnected && !connectionBroken
     /*
      * Private methods for send/receive data
      */
@@ -289,8 +301,14 @@ open class RpcClient {
         }
         val requestBody =
             "<boinc_gui_rpc_request>\n$request</boinc_gui_rpc_request>\n\u0003"
-        socketSink!!.writeString(requestBody, ISO_8859_1)
-        socketSink!!.flush()
+        try {
+            socketSink!!.writeString(requestBody, ISO_8859_1)
+            socketSink!!.flush()
+        } catch (e: IOException) {
+            connectionBroken = true
+            throw e
+        }
+        metrics.requestSent()
     }
 
     /**
@@ -311,42 +329,83 @@ open class RpcClient {
         // The chosen buffer size is 2048
         var bytesRead: Int
         if (socketSource == null) return mResult.toString() // empty string
-        do {
-            bytesRead = socketSource!!.read(mReadBuffer)
-            if (bytesRead == -1) break
-            mResult.append(String(mReadBuffer, 0, bytesRead))
-            if (mReadBuffer[bytesRead - 1] == '\u0003'.code.toByte()) {
-                // Last read byte marks the end of transfer
-                mResult.setLength(mResult.length - 1)
-                break
-            }
-        } while (true)
+        try {
+            do {
+                bytesRead = socketSource!!.read(mReadBuffer)
+                if (bytesRead == -1) {
+                    // end of stream without marker, most probably client shut down
+                    connectionBroken = true
+                    break
+                }
+                mResult.append(String(mReadBuffer, 0, bytesRead))
+                if (mReadBuffer[bytesRead - 1] == '\u0003'.code.toByte()) {
+                    // Last read byte marks the end of transfer
+                    mResult.setLength(mResult.length - 1)
+                    break
+                }
+            } while (true)
+        } catch (e: IOException) {
+            connectionBroken = true
+            throw e
+        }
+        metrics.replyReceived()
         if (isLoggable(DEBUG, RPC)) {
-            var duration = Duration.between(Instant.now(), start).seconds.toFloat()
-            val bytesCount = mResult.length.toLong()
-            if (duration == 0f) duration = 0.001f
-            logDebug(
-                RPC,
-                "Reading from socket took " + duration + " seconds, " +
-                        bytesCount + " bytes read (" + bytesCount / duration +
-                        " bytes/second)"
-            )
+            logReply(mResult, start, mResult.length.toLong())
         }
         logVerbose(RPC, "mResult.capacity() = " + mResult.capacity())
-        if (isLoggable(DEBUG, RPC)) {
-            val dbr = BufferedReader(CharSource.wrap(mResult).openStream())
-            var dl: String?
-            var ln = 0
-            try {
-                while ((dbr.readLineLimit(4096).also { dl = it }) != null) {
-                    ++ln
-                    logDebug(RPC, String.format("%4d: %s", ln, dl))
-                }
-            } catch (e: IOException) {
-                logException(RPC, "RpcClient.receiveReply error: ", e)
+        return mResult.toString()
+    }
+
+    /**
+     * Read the reply from BOINC core client and pass it to the parser as a byte stream,
+     * without copying the reply into a String first.
+     *
+     * @param parse the parser consuming the reply, it sees the reply up to the end-of-reply marker
+     * @return the result of the parser
+     * @throws IOException if error occurs when reading from socket
+     */
+    @Throws(IOException::class)
+    protected fun <T> receiveReply(parse: (BufferedSource) -> T): T {
+        if (socketSource == null) return parse(Buffer()) // empty reply
+        val start = Instant.now()
+        val reply = ReplySource(socketSource!!)
+        try {
+            if (isLoggable(DEBUG, RPC)) {
+                // Logging needs the text anyway, so read the full reply before parsing
+                val buffer = Buffer()
+                reply.use { buffer.writeAll(it) }
+                logReply(buffer.snapshot().utf8(), start, reply.bytesRead)
+                return parse(buffer).also { metrics.replyReceived() }
             }
+            return reply.buffer().use { parse(it) }.also { metrics.replyReceived() }
+        } catch (e: IOException) {
+            connectionBroken = true
+            throw e
+        } finally {
+            if (reply.endOfStream) connectionBroken = true
+        }
+    }
+
+    private fun logReply(reply: CharSequence, start: Instant, bytesCount: Long) {
+        var duration = Duration.between(Instant.now(), start).seconds.toFloat()
+        if (duration == 0f) duration = 0.001f
+        logDebug(
+            RPC,
+            "Reading from socket took " + duration + " seconds, " +
+                    bytesCount + " bytes read (" + bytesCount / duration +
+                    " bytes/second)"
+        )
+        val dbr = BufferedReader(CharSource.wrap(reply).openStream())
+        var dl: String?
+        var ln = 0
+        try {
+            while ((dbr.readLineLimit(4096).also { dl = it }) != null) {
+                ++ln
+                logDebug(RPC, String.format("%4d: %s", ln, dl))
+            }
+        } catch (e: IOException) {
+            logException(RPC, "RpcClient.receiveReply error: ", e)
         }
-        return mResult.toString()
     }
     /*
      * GUI RPC calls
@@ -362,7 +421,7 @@ open class RpcClient {
             mLastErrorMessage = null
             return try {
                 sendRequest("<get_cc_status/>\n")
-                CcStatusParser.parse(receiveReply())
+                receiveReply { CcStatusParser.parse(it) }
             } catch (e: IOException) {
                 logException(RPC, "error in getCcStatus()", e)
                 e.printStackTrace()
@@ -370,6 +429,35 @@ open class RpcClient {
             }
         }
 
+    /**
+     * Performs wait_for_changes RPC towards BOINC client.
+     * The client holds back the reply until its tasks, transfers, notices or status changed after [seqno],
+     * or [timeout] seconds passed without a change. With [seqno] 0 the client replies at once
+     * with its current sequence number.
+     * Blocks this connection for up to [timeout] seconds, so it needs a connection of its own.
+     *
+     * @param seqno sequence number of the last reply
+     * @param timeout seconds to wait for a change, below the read timeout of the socket
+     * @return the changes, flagged [ClientChanges.unsupported] if the client does not know the RPC,
+     * null in case of connection problems
+     */
+    @Synchronized
+    fun waitForChanges(seqno: Long, timeout: Int): ClientChanges? {
+        return try {
+            mRequest.setLength(0)
+            mRequest.append("<wait_for_changes>\n<seqno>")
+            mRequest.append(seqno)
+            mRequest.append("</seqno>\n<timeout>")
+            mRequest.append(timeout)
+            mRequest.append("</timeout>\n</wait_for_changes>\n")
+            sendRequest(mRequest.toString())
+            ClientChangesParser.parse(receiveReply())
+        } catch (e: IOException) {
+            logException(RPC, "error in waitForChanges()", e)
+            null
+        }
+    }
+
     /**
      * Performs get_file_transfers RPC towards BOINC client
      *
@@ -381,7 +469,7 @@ open class RpcClient {
             mLastErrorMessage = null
             return try {
                 sendRequest("<get_file_transfers/>\n")
-                TransfersParser.parse(receiveReply())
+                receiveReply { TransfersParser.parse(it) }
             } catch (e: IOException) {
                 logException(RPC, "error in getFileTransfers()", e)
                 emptyList()
@@ -475,7 +563,7 @@ open class RpcClient {
             mLastErrorMessage = null
             return try {
                 sendRequest("<get_project_status/>\n")
-                ProjectsParser.parse(receiveReply())
+                receiveReply { ProjectsParser.parse(it) }
             } catch (e: IOException) {
                 logException(RPC, "error in getProjectStatus()", e)
                 emptyList()
@@ -493,13 +581,31 @@ open class RpcClient {
             mLastErrorMessage = null
             return try {
                 sendRequest("<get_results/>\n")
-                ResultsParser.parse(receiveReply())
+                receiveReply { ResultsParser.parse(it) }
             } catch (e: IOException) {
                 logException(RPC, "error in getResults()", e)
                 emptyList()
             }
         }
 
+    /**
+     * Performs get_results RPC towards BOINC client (only results with an active task)
+     *
+     * @return result of RPC call in case of success, null otherwise
+     */
+    @get:Synchronized
+    val activeResults: List<Result>?
+        get() {
+            mLastErrorMessage = null
+            return try {
+                sendRequest("<get_results>\n <active_only>1</active_only>\n</get_results>\n")
+                receiveReply { ResultsParser.parseOrNull(it) }
+            } catch (e: IOException) {
+                logException(RPC, "error in getActiveResults()", e)
+                null
+            }
+        }
+
     /**
      * Performs get_state RPC towards BOINC client
      *
@@ -511,7 +617,7 @@ open class RpcClient {
             mLastErrorMessage = null
             return try {
                 sendRequest("<get_state/>\n")
-                CcStateParser.parse(receiveReply())
+                receiveReply { CcStateParser.parse(it) }
             } catch (e: IOException) {
                 logException(RPC, "error in getState()", e)
                 null
@@ -921,13 +1027,33 @@ open class RpcClient {
                 mRequest.setLength(0)
                 mRequest.append("<get_all_projects_list/>")
                 sendRequest(mRequest.toString())
-                ProjectInfoParser.parse(receiveReply())
+                receiveReply { ProjectInfoParser.parse(it) }
             } catch (e: IOException) {
                 logException(RPC, "error in getAllProjectsList()", e)
                 emptyList()
             }
         }
 
+    /**
+     * Reads all_projects_list.xml via the client and parses both the projects and the account managers
+     * from the same reply.
+     *
+     * @return projects and account managers, null if the RPC failed
+     */
+    @get:Synchronized
+    protected val allProjects: AllProjectsList?
+        get() {
+            return try {
+                mRequest.setLength(0)
+                mRequest.append("<get_all_projects_list/>")
+                sendRequest(mRequest.toString())
+                receiveReply { AllProjectsListParser.parse(it) }
+            } catch (e: IOException) {
+                logException(RPC, "error in getAllProjects()", e)
+                null
+            }
+        }
+
     @get:Synchronized
     protected val accountManagersList: List<AccountManager>
         get() {
@@ -935,7 +1061,7 @@ open class RpcClient {
                 mRequest.setLength(0)
                 mRequest.append("<get_all_projects_list/>")
                 sendRequest(mRequest.toString())
-                AccountManagerParser.parse(receiveReply())
+                receiveReply { AccountManagerParser.parse(it) }
             } catch (e: IOException) {
                 logException(RPC, "error in getAccountManagersList()", e)
                 emptyList()
@@ -1287,6 +1413,7 @@ open class RpcClient {
             mTcpSocket = null
             return false
         }
+        connectionBroken = false
         logDebug(RPC, "Connected successfully")
         return true
     }
@@ -1307,6 +1434,7 @@ open class RpcClient {
         const val UNAUTHORIZED = "unauthorized"
         private const val CONNECT_TIMEOUT = 30000
         private const val READ_TIMEOUT = 15000 // 15s
+        const val WAIT_FOR_CHANGES_TIMEOUT = 10 // seconds, below READ_TIMEOUT
         private const val READ_BUF_SIZE = 2048
         private const val RESULT_BUILDER_INIT_SIZE = 131072 // Yes, 128K
         private const val REQUEST_BUILDER_INIT_SIZE = 80
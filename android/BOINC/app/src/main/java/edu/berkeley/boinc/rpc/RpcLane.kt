@@ -0,0 +1,103 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import java.util.Locale
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Serializes calls on the connection of one [RpcClient] and counts the callers queued for it.
+ * The lane locks the same monitor as the @Synchronized RPCs of the client, so lane calls and
+ * direct calls never interleave on the socket.
+ */
+class RpcLane(val name: String, val client: RpcClient) {
+    fun <T> call(rpc: RpcClient.() -> T): T {
+        client.metrics.enqueue()
+        try {
+            return synchronized(client) { client.rpc() }
+        } finally {
+            client.metrics.dequeue()
+        }
+    }
+
+    override fun toString() = "$name: ${client.metrics}"
+}
+
+/**
+ * Latency and queue depth of one GUI RPC connection.
+ * Latency is measured from sending the request until the reply is read (and parsed, for streamed replies).
+ */
+class RpcMetrics {
+    private val queued = AtomicInteger()
+    private val count = AtomicLong()
+    private val totalNanos = AtomicLong()
+    private var requestStart = 0L // only touched while holding the connection
+
+    /**
+     * Callers running or waiting for a request on this connection through a [RpcLane]
+     */
+    val queueDepth: Int
+        get() = queued.get()
+
+    val requestCount: Long
+        get() = count.get()
+
+    @Volatile
+    var lastLatencyMs = 0L
+        private set
+
+    @Volatile
+    var maxLatencyMs = 0L
+        private set
+
+    val averageLatencyMs: Double
+        get() {
+            val requests = count.get()
+            return if (requests == 0L) 0.0 else totalNanos.get() / 1e6 / requests
+        }
+
+    internal fun enqueue() {
+        queued.incrementAndGet()
+    }
+
+    internal fun dequeue() {
+        queued.decrementAndGet()
+    }
+
+    internal fun requestSent() {
+        requestStart = System.nanoTime()
+    }
+
+    internal fun replyReceived() {
+        if (requestStart == 0L) return // nothing was sent
+        val nanos = System.nanoTime() - requestStart
+        requestStart = 0L
+        count.incrementAndGet()
+        totalNanos.addAndGet(nanos)
+        val latencyMs = TimeUnit.NANOSECONDS.toMillis(nanos)
+        lastLatencyMs = latencyMs
+        if (latencyMs > maxLatencyMs) maxLatencyMs = latencyMs
+    }
+
+    override fun toString() = String.format(Locale.ROOT,
+            "%d requests, %d queued, latency avg %.1f ms, last %d ms, max %d ms",
+            requestCount, queueDepth, averageLatencyMs, lastLatencyMs, maxLatencyMs)
+}
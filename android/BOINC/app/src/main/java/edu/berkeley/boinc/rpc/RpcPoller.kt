@@ -0,0 +1,76 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import edu.berkeley.boinc.utils.ERR_IN_PROGRESS
+import kotlin.math.min
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.flow.lastOrNull
+
+/**
+ * Wait between the polls of an asynchronous GUI RPC, starts with [initialDelayMs]
+ * and grows by [factor] up to [maxDelayMs].
+ */
+data class PollBackoff(val initialDelayMs: Long = 250, val maxDelayMs: Long = 2000, val factor: Double = 2.0) {
+    fun next(delayMs: Long) = min((delayMs * factor).toLong(), maxDelayMs)
+
+    companion object {
+        @JvmField
+        val DEFAULT = PollBackoff()
+    }
+}
+
+/**
+ * Polls an asynchronous GUI RPC (*_poll) until the client reports a final result,
+ * i.e. an error number other than ERR_IN_PROGRESS.
+ * Each poll is a single blocking RPC on Dispatchers.IO, the connection is not held in between and
+ * the waits suspend, so pollers do not pin threads and are cancelled with the collecting scope.
+ *
+ * @param errorNum error number of a reply
+ * @param backoff wait between the polls
+ * @param poll the *_poll RPC, null means the poll failed
+ */
+class RpcPoller<T : Any>(
+        private val errorNum: (T) -> Int,
+        private val backoff: PollBackoff = PollBackoff.DEFAULT,
+        private val poll: () -> T?
+) {
+    /**
+     * Every reply, the last one is final. Completes early without a final reply if a poll fails.
+     */
+    fun replies(): Flow<T> = flow {
+        var delayMs = backoff.initialDelayMs
+        while (true) {
+            delay(delayMs) // the client needs some time anyway
+            val reply = poll() ?: return@flow
+            emit(reply)
+            if (errorNum(reply) != ERR_IN_PROGRESS) return@flow
+            delayMs = backoff.next(delayMs)
+        }
+    }.flowOn(Dispatchers.IO)
+
+    /**
+     * @return the final reply, null if a poll failed
+     */
+    suspend fun await(): T? = replies().lastOrNull()?.takeIf { errorNum(it) != ERR_IN_PROGRESS }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import android.graphics.Bitmap
+import android.os.Build
+import android.os.Parcel
+import android.os.Parcelable
+import android.os.SharedMemory
+import android.system.OsConstants
+import androidx.annotation.RequiresApi
+import java.nio.ByteBuffer
+
+/**
+ * Slideshow images as returned by IMonitor.getSlideshowForProject.
+ *
+ * If the pixels of all images together exceed [SHARED_MEMORY_THRESHOLD], they are copied into one
+ * SharedMemory region and only its file descriptor and a header with the size, config and offset of every
+ * image cross the binder, so a slideshow can not fail with TransactionTooLargeException. Smaller lists,
+ * and all lists before API 27, are written inline like a List<ImageWrapper>.
+ */
+class SharedImageList(val images: List<ImageWrapper>) : Parcelable {
+    override fun describeContents() = if (useSharedMemory()) Parcelable.CONTENTS_FILE_DESCRIPTOR else 0
+
+    override fun writeToParcel(dest: Parcel, flags: Int) {
+        if (useSharedMemory()) {
+            dest.writeInt(SHARED)
+            writeShared(dest, flags)
+        } else {
+            dest.writeInt(INLINE)
+            dest.writeTypedList(images)
+        }
+    }
+
+    private fun useSharedMemory() = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1 &&
+            images.sumOf { it.image?.byteCount ?: 0 } > SHARED_MEMORY_THRESHOLD
+
+    @RequiresApi(Build.VERSION_CODES.O_MR1)
+    private fun writeShared(dest: Parcel, flags: Int) {
+        // copyPixelsToBuffer can not read hardware bitmaps and needs a config to restore the pixels
+        val bitmaps = images.map { image ->
+            image.image?.let { if (it.config in COPYABLE_CONFIGS) it else it.copy(Bitmap.Config.ARGB_8888, false) }
+        }
+        val size = bitmaps.sumOf { it?.byteCount ?: 0 }
+
+        SharedMemory.create("boinc-slideshow", size).use { memory ->
+            val buffer = memory.mapReadWrite()
+            try {
+                dest.writeInt(images.size)
+                images.forEachIndexed { i, image ->
+                    val bitmap = bitmaps[i]
+                    dest.writeString(image.projectName)
+                    dest.writeString(image.path)
+                    if (bitmap == null) {
+                        dest.writeInt(-1)
+                    } else {
+                        dest.writeInt(buffer.position())
+                        dest.writeInt(bitmap.width)
+                        dest.writeInt(bitmap.height)
+                        dest.writeString(bitmap.config.name)
+                        bitmap.copyPixelsToBuffer(buffer)
+                    }
+                }
+            } finally {
+                SharedMemory.unmap(buffer)
+            }
+            // the parcel holds a duplicate of the descriptor, the receiver only needs to read
+            memory.setProtect(OsConstants.PROT_READ)
+            memory.writeToParcel(dest, flags)
+        }
+    }
+
+    companion object {
+        private const val INLINE = 0
+        private const val SHARED = 1
+
+        /**
+         * Pixels in bytes above which the images are passed in shared memory,
+         * smaller lists are cheaper to copy than to map.
+         */
+        const val SHARED_MEMORY_THRESHOLD = 64 * 1024
+
+        private val COPYABLE_CONFIGS = setOf(Bitmap.Config.ARGB_8888, Bitmap.Config.RGB_565, Bitmap.Config.ALPHA_8)
+
+        @RequiresApi(Build.VERSION_CODES.O_MR1)
+        private fun readShared(parcel: Parcel): List<ImageWrapper> {
+            class Entry(val projectName: String?, val path: String?, val offset: Int,
+                        val width: Int, val height: Int, val config: Bitmap.Config?)
+
+            val entries = List(parcel.readInt()) {
+                val projectName = parcel.readString()
+                val path = parcel.readString()
+                val offset = parcel.readInt()
+                if (offset < 0) {
+                    Entry(projectName, path, offset, 0, 0, null)
+                } else {
+                    Entry(projectName, path, offset, parcel.readInt(), parcel.readInt(),
+                            Bitmap.Config.valueOf(parcel.readString()!!))
+                }
+            }
+
+            return SharedMemory.CREATOR.createFromParcel(parcel).use { memory ->
+                val buffer = memory.mapReadOnly()
+                try {
+                    entries.map {
+                        val bitmap = it.config?.let { config ->
+                            Bitmap.createBitmap(it.width, it.height, config).apply {
+                                copyPixelsFromBuffer(buffer.position(it.offset) as ByteBuffer)
+                            }
+                        }
+                        ImageWrapper(bitmap, it.projectName, it.path)
+                    }
+                } finally {
+                    SharedMemory.unmap(buffer)
+                }
+            }
+        }
+
+        @JvmField
+        val CREATOR: Parcelable.Creator<SharedImageList> = object : Parcelable.Creator<SharedImageList> {
+            override fun createFromParcel(parcel: Parcel): SharedImageList {
+                return if (parcel.readInt() == SHARED && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+                    SharedImageList(readShared(parcel))
+                } else {
+                    SharedImageList(parcel.createTypedArrayList(ImageWrapper.CREATOR).orEmpty())
+                }
+            }
+
+            override fun newArray(size: Int) = arrayOfNulls<SharedImageList>(size)
+        }
+    }
+}
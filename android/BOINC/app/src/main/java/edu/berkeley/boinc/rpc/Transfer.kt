@@ -43,17 +43,19 @@ data class Transfer(
         var isTransferActive: Boolean = false,
         var isUpload: Boolean = false
 ) : Serializable, Parcelable {
-    private constructor (parcel: Parcel) :
-            this(parcel.readString() ?: "", parcel.readString() ?: "",
+    internal constructor(parcel: Parcel, codec: ParcelCodec) :
+            this(codec.readString(parcel) ?: "", codec.readString(parcel) ?: "",
                     parcel.readLong(), parcel.readInt(), parcel.readLong(), parcel.readLong(),
                     parcel.readLong(), parcel.readFloat(), parcel.readLong(), readBoolean(parcel),
                     readBoolean(parcel), readBoolean(parcel))
 
     override fun describeContents() = 0
 
-    override fun writeToParcel(dest: Parcel, flags: Int) {
-        dest.writeString(name)
-        dest.writeString(projectUrl)
+    override fun writeToParcel(dest: Parcel, flags: Int) = writeToParcel(dest, ParcelCodec.PLAIN)
+
+    internal fun writeToParcel(dest: Parcel, codec: ParcelCodec) {
+        codec.writeString(dest, name)
+        codec.writeString(dest, projectUrl)
         dest.writeLong(noOfBytes)
         dest.writeInt(status)
         dest.writeLong(nextRequestTime)
@@ -83,7 +85,7 @@ data class Transfer(
 
         @JvmField
         val CREATOR: Parcelable.Creator<Transfer> = object : Parcelable.Creator<Transfer> {
-            override fun createFromParcel(parcel: Parcel) = Transfer(parcel)
+            override fun createFromParcel(parcel: Parcel) = Transfer(parcel, ParcelCodec.PLAIN)
 
             override fun newArray(size: Int) = arrayOfNulls<Transfer>(size)
         }
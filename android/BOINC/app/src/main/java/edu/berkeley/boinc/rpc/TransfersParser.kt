@@ -18,8 +18,10 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
+import java.io.IOException
+import okio.BufferedSource
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
 
@@ -100,6 +102,49 @@ class TransfersParser : BaseParser() {
         const val FILE_TRANSFER_TAG = "file_transfer"
         const val FILE_XFER_TAG = "file_xfer"
         const val LAST_BYTES_XFERRED_TAG = "last_bytes_xferred"
+
+        private const val PERSISTENT_FILE_XFER_TAG = "persistent_file_xfer"
+
+        private val TRANSFER_FIELDS = PullFields<Transfer> {
+            field(PROJECT_URL) { it.projectUrl = text() }
+            field(NAME) { it.name = text() }
+            field(Transfer.Fields.GENERATED_LOCALLY) { it.generatedLocally = bool() }
+            field(Transfer.Fields.IS_UPLOAD) { it.isUpload = bool() }
+            field(Transfer.Fields.NBYTES) { it.noOfBytes = double().toLong() }
+            field(Transfer.Fields.STATUS) { it.status = int() }
+            field(Transfer.Fields.TIME_SO_FAR) { it.timeSoFar = double().toLong() }
+            field(Transfer.Fields.NEXT_REQUEST_TIME) { it.nextRequestTime = double().toLong() }
+            field(LAST_BYTES_XFERRED_TAG) {
+                // See also <bytes_xferred>, both are setting the same parameters
+                val bytesTransferred = double().toLong()
+                if (it.bytesTransferred == 0L) { // Not set yet
+                    it.bytesTransferred = bytesTransferred
+                }
+            }
+            field(Transfer.Fields.BYTES_XFERRED) { it.bytesTransferred = double().toLong() }
+            field(Transfer.Fields.XFER_SPEED) { it.transferSpeed = float() }
+            field(Transfer.Fields.PROJECT_BACKOFF) { it.projectBackoff = double().toLong() }
+            container(PERSISTENT_FILE_XFER_TAG)
+            // Just constructor, flag should be set if it's present
+            container(FILE_XFER_TAG) { it.isTransferActive = true }
+        }
+
+        internal fun readTransfers(reader: PullReader): List<Transfer> {
+            val transfers = mutableListOf<Transfer>()
+            reader.forEachElement(FILE_TRANSFER_TAG) {
+                val transfer = Transfer()
+                TRANSFER_FIELDS.read(it, transfer)
+                if (transfer.projectUrl.isNotEmpty() && transfer.name.isNotEmpty()) { // project_url is a must
+                    transfers.add(transfer)
+                }
+            }
+            return transfers
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<TransfersParser, List<Transfer>>("TransfersParser", ::TransfersParser,
+                { it.transfers }, { readTransfers(it) }, emptyList())
+
         /**
          * Parse the RPC result (projects) and generate vector of projects info
          *
@@ -108,16 +153,20 @@ class TransfersParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): List<Transfer> {
-            return try {
-                val parser = TransfersParser()
-                Xml.parse(rpcResult, parser)
-                parser.transfers
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "TransfersParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "TransfersParser: $rpcResult")
+            return ENGINE_PARSER.parse(rpcResult)
+        }
 
-                emptyList()
-            }
+        /**
+         * Parse the RPC result (transfers) while it is read from the socket
+         *
+         * @param reply reply of RPC call of core client, streamed up to the end-of-reply marker
+         * @return vector of transfers info
+         * @throws IOException if error occurs when reading the reply
+         */
+        @JvmStatic
+        @Throws(IOException::class)
+        fun parse(reply: BufferedSource): List<Transfer> {
+            return ENGINE_PARSER.parse(reply)
         }
     }
 }
@@ -32,24 +32,26 @@ data class WorkUnit(
         var project: Project? = null,
         var app: App? = null
 ) : Parcelable {
-    private constructor(parcel: Parcel) :
-            this(parcel.readString() ?: "", parcel.readString() ?: "",
+    internal constructor(parcel: Parcel, codec: ParcelCodec) :
+            this(codec.readString(parcel) ?: "", codec.readString(parcel) ?: "",
                     parcel.readInt(), parcel.readDouble(), parcel.readDouble(), parcel.readDouble(),
-                    parcel.readDouble(), parcel.readValue(Project::class.java.classLoader) as Project?,
-                    parcel.readValue(App::class.java.classLoader) as App?)
+                    parcel.readDouble(), codec.readShared(parcel, Project::class.java) { Project(parcel, codec) },
+                    codec.readShared(parcel, App::class.java) { App(parcel, codec) })
 
     override fun describeContents() = 0
 
-    override fun writeToParcel(dest: Parcel, flags: Int) {
-        dest.writeString(name)
-        dest.writeString(appName)
+    override fun writeToParcel(dest: Parcel, flags: Int) = writeToParcel(dest, ParcelCodec.PLAIN)
+
+    internal fun writeToParcel(dest: Parcel, codec: ParcelCodec) {
+        codec.writeString(dest, name)
+        codec.writeString(dest, appName)
         dest.writeInt(versionNum)
         dest.writeDouble(rscFloatingPointOpsEst)
         dest.writeDouble(rscFloatingPointOpsBound)
         dest.writeDouble(rscMemoryBound)
         dest.writeDouble(rscDiskBound)
-        dest.writeValue(project)
-        dest.writeValue(app)
+        codec.writeShared(dest, project) { it.writeToParcel(dest, codec) }
+        codec.writeShared(dest, app) { it.writeToParcel(dest, codec) }
     }
 
     object Fields {
@@ -64,7 +66,7 @@ data class WorkUnit(
     companion object {
         @JvmField
         val CREATOR: Parcelable.Creator<WorkUnit> = object : Parcelable.Creator<WorkUnit> {
-            override fun createFromParcel(parcel: Parcel) = WorkUnit(parcel)
+            override fun createFromParcel(parcel: Parcel) = WorkUnit(parcel, ParcelCodec.PLAIN)
 
             override fun newArray(size: Int) = arrayOfNulls<WorkUnit>(size)
         }
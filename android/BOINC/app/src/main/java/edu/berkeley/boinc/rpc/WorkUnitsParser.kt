@@ -18,7 +18,7 @@
  */
 package edu.berkeley.boinc.rpc
 
-import android.util.Xml
+import androidx.annotation.VisibleForTesting
 import edu.berkeley.boinc.utils.Logging
 import org.xml.sax.Attributes
 import org.xml.sax.SAXException
@@ -84,6 +84,38 @@ class WorkUnitsParser : BaseParser() {
 
     companion object {
         const val WORKUNIT_TAG = "workunit"
+
+        private val WORKUNIT_FIELDS = PullFields<WorkUnit> {
+            field(NAME) { it.name = text() }
+            field(WorkUnit.Fields.APP_NAME) { it.appName = text() }
+            field(WorkUnit.Fields.VERSION_NUM) { it.versionNum = int() }
+            field(WorkUnit.Fields.RSC_FPOPS_EST) { it.rscFloatingPointOpsEst = double() }
+            field(WorkUnit.Fields.RSC_FPOPS_BOUND) { it.rscFloatingPointOpsBound = double() }
+            field(WorkUnit.Fields.RSC_MEMORY_BOUND) { it.rscMemoryBound = double() }
+            field(WorkUnit.Fields.RSC_DISK_BOUND) { it.rscDiskBound = double() }
+        }
+
+        /**
+         * Reads the <workunit> element the reader is positioned on ([ParserEngine.PULL])
+         *
+         * @return the work unit, null if it has no name
+         */
+        internal fun readWorkUnit(reader: PullReader): WorkUnit? {
+            val workUnit = WorkUnit()
+            WORKUNIT_FIELDS.read(reader, workUnit)
+            return workUnit.takeIf { it.name.isNotEmpty() } // name is a must
+        }
+
+        internal fun readWorkUnits(reader: PullReader): List<WorkUnit> {
+            val workUnits = mutableListOf<WorkUnit>()
+            reader.forEachElement(WORKUNIT_TAG) { readWorkUnit(it)?.let(workUnits::add) }
+            return workUnits
+        }
+
+        @VisibleForTesting
+        internal val ENGINE_PARSER = EngineParser<WorkUnitsParser, List<WorkUnit>>("WorkUnitsParser", ::WorkUnitsParser,
+                { it.workUnits }, { readWorkUnits(it) }, emptyList())
+
         /**
          * Parse the RPC result (workunit) and generate corresponding vector
          *
@@ -92,16 +124,7 @@ class WorkUnitsParser : BaseParser() {
          */
         @JvmStatic
         fun parse(rpcResult: String?): List<WorkUnit> {
-            return try {
-                val parser = WorkUnitsParser()
-                Xml.parse(rpcResult, parser)
-                parser.workUnits
-            } catch (e: SAXException) {
-                Logging.logException(Logging.Category.RPC, "WorkUnitsParser: malformed XML ", e)
-                Logging.logDebug(Logging.Category.XML, "WorkUnitsParser: $rpcResult")
-
-                emptyList()
-            }
+            return ENGINE_PARSER.parse(rpcResult)
         }
     }
 }
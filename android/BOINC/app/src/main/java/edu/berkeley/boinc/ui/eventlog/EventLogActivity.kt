@@ -35,9 +35,9 @@ import com.google.android.material.tabs.TabLayoutMediator
 import edu.berkeley.boinc.R
 import edu.berkeley.boinc.adapter.ClientLogRecyclerViewAdapter
 import edu.berkeley.boinc.client.IMonitor
+import edu.berkeley.boinc.client.MessageLog
 import edu.berkeley.boinc.client.Monitor
 import edu.berkeley.boinc.databinding.ActivityEventLogBinding
-import edu.berkeley.boinc.rpc.Message
 import edu.berkeley.boinc.utils.Logging
 import java.util.*
 
@@ -49,7 +49,7 @@ class EventLogActivity : AppCompatActivity() {
 
     lateinit var clientLogList: RecyclerView
     lateinit var clientLogRecyclerViewAdapter: ClientLogRecyclerViewAdapter
-    val clientLogData: MutableList<Message> = ArrayList()
+    val clientLogData = MessageLog() // ascending, the list shows it newest first
 
     val guiLogData: List<String> = ArrayList()
 
@@ -26,7 +26,9 @@ import android.view.ViewGroup
 import androidx.fragment.app.Fragment
 import androidx.lifecycle.lifecycleScope
 import androidx.recyclerview.widget.LinearLayoutManager
+import androidx.recyclerview.widget.RecyclerView
 import edu.berkeley.boinc.adapter.ClientLogRecyclerViewAdapter
+import edu.berkeley.boinc.client.MessageLog
 import edu.berkeley.boinc.databinding.EventLogClientLayoutBinding
 import edu.berkeley.boinc.rpc.Message
 import edu.berkeley.boinc.utils.Logging
@@ -41,16 +43,23 @@ class EventLogClientFragment : Fragment() {
     private var _binding: EventLogClientLayoutBinding? = null
     private val binding get() = _binding!!
 
-    private var mostRecentSeqNo = 0
-    private var pastSeqNo = -1 // oldest (lowest) seqNo currently loaded to GUI
+    private var loadingPast = false
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
         activity = getActivity() as EventLogActivity
         _binding = EventLogClientLayoutBinding.inflate(inflater, container, false)
         activity.clientLogList = binding.clientLogList
-        activity.clientLogRecyclerViewAdapter = ClientLogRecyclerViewAdapter(activity.clientLogData)
+        activity.clientLogRecyclerViewAdapter = ClientLogRecyclerViewAdapter(activity.clientLogData.asReversed())
         activity.clientLogList.layoutManager = LinearLayoutManager(context)
         activity.clientLogList.adapter = activity.clientLogRecyclerViewAdapter
+        activity.clientLogList.addOnScrollListener(object : RecyclerView.OnScrollListener() {
+            override fun onScrolled(recyclerView: RecyclerView, dx: Int, dy: Int) {
+                // load the next page of older messages when the end of the list is reached
+                if (dy > 0 && !recyclerView.canScrollVertically(1)) {
+                    init()
+                }
+            }
+        })
         binding.root.setOnRefreshListener { update() }
         return binding.root
     }
@@ -61,8 +70,13 @@ class EventLogClientFragment : Fragment() {
     }
 
     fun init() {
+        if (loadingPast) {
+            return
+        }
+        loadingPast = true
         lifecycleScope.launch {
             retrievePastClientMessages() // read messages
+            loadingPast = false
         }
     }
 
@@ -73,54 +87,67 @@ class EventLogClientFragment : Fragment() {
     }
 
     private suspend fun retrieveRecentClientMessages() {
-        if (activity.clientLogData.isNotEmpty()) {
-            mostRecentSeqNo = activity.clientLogData[0].seqno
+        val log = activity.clientLogData
+        if (log.isEmpty()) {
+            retrievePastClientMessages() // nothing loaded yet, start with the most recent page
+            binding.root.isRefreshing = false
+            return
         }
 
         coroutineScope {
             val messages = withContext(Dispatchers.Default) {
-                return@withContext try {
-                    (getActivity() as EventLogActivity).monitorService.getMessages(mostRecentSeqNo)
+                val messages = mutableListOf<Message>()
+                try {
+                    // the Monitor passes at most MAX_WINDOW messages at once, page after the last one
+                    val monitor = (getActivity() as EventLogActivity).monitorService
+                    var from = log.lastSeqNo + 1
+                    do {
+                        val page = monitor.getMessageWindow(from, Int.MAX_VALUE)
+                        messages.addAll(page)
+                        from = (page.lastOrNull()?.seqno ?: from) + 1
+                    } while (page.size == MessageLog.MAX_WINDOW && messages.size < log.capacity)
                 } catch (e: RemoteException) {
                     e.printStackTrace()
-                    emptyList<Message>()
                 }
+                return@withContext messages
             }
 
-            try {
-                for ((y, x) in messages.indices.reversed().withIndex()) {
-                    activity.clientLogData.add(y, messages[x])
-                }
-            } catch (e: Exception) {
-                Logging.logException(Logging.Category.CLIENT, "EventLogClientFragment.loadRecentMsgs error: ", e)
-            } //IndexOutOfBoundException
-            activity.clientLogRecyclerViewAdapter.notifyDataSetChanged()
+            // back in UI thread
+            // newest messages go on top of the list, the oldest ones drop out at its end once the log is full
+            val sizeBefore = log.size
+            val dropped = log.append(messages)
+            val added = log.size - sizeBefore + dropped
+            activity.clientLogRecyclerViewAdapter.notifyItemRangeInserted(0, added)
+            if (dropped > 0) {
+                activity.clientLogRecyclerViewAdapter.notifyItemRangeRemoved(log.size, dropped)
+            }
             withContext(Dispatchers.Main) { binding.root.isRefreshing = false }
         }
     }
 
     private suspend fun retrievePastClientMessages() {
-        if (activity.clientLogData.isNotEmpty()) {
-            pastSeqNo = activity.clientLogData.last().seqno
-            if (pastSeqNo == 0) {
-                Logging.logDebug(Logging.Category.CLIENT, "cancel, oldest messages already loaded")
+        val log = activity.clientLogData
+        if (log.isNotEmpty() && log.firstSeqNo <= 1) {
+            Logging.logDebug(Logging.Category.CLIENT, "cancel, oldest messages already loaded")
 
-                return // cancel if all past messages are present
-            }
+            return // cancel if all past messages are present
+        }
+        if (log.size == log.capacity) {
+            return // memory bound reached
         }
 
         // message retrieval
-        // amount messages loaded when end of list is reached
-        val pastMsgsLoadingRange = 50
+        // -1: most recent messages
+        val pastSeqNo = if (log.isEmpty()) -1 else log.firstSeqNo
 
         Logging.logDebug(Logging.Category.CLIENT, "calling monitor with: " + pastSeqNo + " / " +
-                pastMsgsLoadingRange)
+                PAST_MESSAGES_PAGE_SIZE)
 
         coroutineScope {
             val messages = withContext(Dispatchers.Default) {
                 return@withContext try {
                     (getActivity() as EventLogActivity).monitorService.getEventLogMessages(pastSeqNo,
-                            pastMsgsLoadingRange)
+                            PAST_MESSAGES_PAGE_SIZE)
                 } catch (e: RemoteException) {
                     e.printStackTrace()
                     emptyList<Message>()
@@ -128,13 +155,15 @@ class EventLogClientFragment : Fragment() {
             }
 
             // back in UI thread
-            // Append old messages to the event log
-            try {
-                activity.clientLogData.addAll(messages.reversed())
-            } catch (e: Exception) {
-                Logging.logException(Logging.Category.CLIENT, "EventLogClientFragment.loadPastMsgs error: ", e)
-            } //IndexOutOfBoundException
-            activity.clientLogRecyclerViewAdapter.notifyDataSetChanged()
+            // Append old messages to the end of the event log
+            val sizeBefore = log.size
+            val taken = log.prepend(messages)
+            activity.clientLogRecyclerViewAdapter.notifyItemRangeInserted(sizeBefore, taken)
         }
     }
+
+    companion object {
+        // amount messages loaded when end of list is reached
+        private const val PAST_MESSAGES_PAGE_SIZE = 50
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.adapter
+
+import android.content.Context
+import android.graphics.Bitmap
+import androidx.test.core.app.ApplicationProvider
+import edu.berkeley.boinc.R
+import edu.berkeley.boinc.rpc.App
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.RpcClient
+import edu.berkeley.boinc.utils.PROCESS_EXECUTING
+import edu.berkeley.boinc.utils.PROCESS_SUSPENDED
+import org.junit.Assert
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class TaskDisplayRowBuilderTest {
+    private lateinit var context: Context
+    private lateinit var builder: TaskDisplayRowBuilder
+    private val icon = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888)
+    private val iconLookups = mutableListOf<String>()
+    private val result = Result(name = "task 1", projectURL = "https://project.org/", app = App(name = "app"),
+            isActiveTask = true, activeTaskState = PROCESS_EXECUTING, fractionDone = 0.5f, elapsedTime = 100.0,
+            reportDeadline = 1_700_000_000)
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        builder = TaskDisplayRowBuilder(context) {
+            iconLookups.add(it)
+            icon
+        }
+    }
+
+    @Test
+    fun `Expect formatted fields`() {
+        val row = builder.build(listOf(result), true).single()
+
+        Assert.assertEquals("task 1", row.name)
+        Assert.assertEquals("app", row.header)
+        Assert.assertEquals(context.getString(R.string.tasks_active_executing), row.statusText)
+        Assert.assertEquals(50, row.progress)
+        Assert.assertEquals("01:40", row.elapsedTime)
+        Assert.assertTrue(row.isExecuting)
+        Assert.assertEquals(RpcClient.RESULT_SUSPEND, row.suspendResumeOperation)
+        Assert.assertSame(icon, row.icon)
+    }
+
+    @Test
+    fun `Expect same row for unchanged result`() {
+        val row = builder.build(listOf(result), true).single()
+
+        Assert.assertSame(row, builder.build(listOf(result), true).single())
+    }
+
+    @Test
+    fun `Expect only progress fields to be formatted again when task made progress`() {
+        val row = builder.build(listOf(result), true).single()
+        val progressed = builder.build(listOf(result.copy(fractionDone = 0.6f, elapsedTime = 110.0)), true).single()
+
+        Assert.assertTrue(row.isProgressOf(progressed))
+        Assert.assertEquals(60, progressed.progress)
+        Assert.assertEquals("01:50", progressed.elapsedTime)
+        Assert.assertSame(row.statusText, progressed.statusText)
+        Assert.assertSame(row.deadline, progressed.deadline)
+    }
+
+    @Test
+    fun `Expect status to be formatted again when task changed its state`() {
+        builder.build(listOf(result), true)
+        val suspended = builder.build(listOf(result.copy(activeTaskState = PROCESS_SUSPENDED)), true).single()
+
+        Assert.assertEquals(context.getString(R.string.tasks_active_suspended), suspended.statusText)
+        Assert.assertEquals(TaskDisplayRow.NO_OPERATION, suspended.suspendResumeOperation)
+    }
+
+    @Test
+    fun `Expect project icon to be looked up once per project`() {
+        builder.build(listOf(result, result.copy(name = "task 2")), true)
+        builder.build(listOf(result.copy(fractionDone = 0.7f), result.copy(name = "task 3")), true)
+
+        Assert.assertEquals(listOf("https://project.org/"), iconLookups)
+    }
+
+    @Test
+    fun `Expect rows of gone tasks to be dropped on complete update only`() {
+        val row = builder.build(listOf(result), true).single()
+        builder.build(emptyList(), false)
+        Assert.assertSame(row, builder.build(listOf(result), false).single())
+
+        builder.build(emptyList(), true)
+        Assert.assertNotSame(row, builder.build(listOf(result), true).single())
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.adapter
+
+import edu.berkeley.boinc.TasksFragment
+import edu.berkeley.boinc.rpc.RpcClient
+import edu.berkeley.boinc.utils.PROCESS_EXECUTING
+import edu.berkeley.boinc.utils.PROCESS_SUSPENDED
+import edu.berkeley.boinc.utils.RESULT_ABORTED
+import io.mockk.mockk
+import org.junit.Assert
+import org.junit.Test
+
+class TaskRecyclerViewAdapterTest {
+    private val callback = TaskRecyclerViewAdapter.DIFF_CALLBACK
+    private val task = mockk<TasksFragment.TaskData>()
+    private val row = TaskDisplayRow(name = "task 1", icon = null, header = "app", projectName = "project",
+            state = PROCESS_EXECUTING, isActiveTask = true, statusText = "Running", showPercentage = true,
+            percentage = "50.000%", progress = 50, isExecuting = true, elapsedTime = "01:40",
+            deadline = "Jan 1, 2023", isAborted = false, suspendResumeOperation = RpcClient.RESULT_SUSPEND)
+
+    private fun item(row: TaskDisplayRow, nextState: Int = -1) = TaskRecyclerViewAdapter.Item(task, row, nextState)
+
+    @Test
+    fun `Expect tasks to be keyed by name`() {
+        Assert.assertTrue(callback.areItemsTheSame(item(row), item(row.copy(progress = 60))))
+        Assert.assertFalse(callback.areItemsTheSame(item(row), item(row.copy(name = "task 2"))))
+    }
+
+    @Test
+    fun `Expect unchanged task to be not rebound`() {
+        Assert.assertTrue(callback.areContentsTheSame(item(row), item(row.copy())))
+    }
+
+    @Test
+    fun `Expect progress payload when task made progress only`() {
+        val progressed = item(row.copy(percentage = "60.000%", progress = 60, elapsedTime = "01:50"))
+
+        Assert.assertFalse(callback.areContentsTheSame(item(row), progressed))
+        Assert.assertEquals(TaskRecyclerViewAdapter.PAYLOAD_PROGRESS, callback.getChangePayload(item(row), progressed))
+    }
+
+    @Test
+    fun `Expect full rebind when task changed its state`() {
+        Assert.assertNull(callback.getChangePayload(item(row), item(row.copy(state = PROCESS_SUSPENDED,
+                statusText = "Suspended"))))
+        Assert.assertNull(callback.getChangePayload(item(row), item(row.copy(
+                suspendResumeOperation = RpcClient.RESULT_RESUME))))
+        Assert.assertNull(callback.getChangePayload(item(row), item(row.copy(isActiveTask = false))))
+    }
+
+    @Test
+    fun `Expect full rebind when task waits for a new state`() {
+        val waiting = item(row, RESULT_ABORTED)
+
+        Assert.assertFalse(callback.areContentsTheSame(item(row), waiting))
+        Assert.assertNull(callback.getChangePayload(item(row), waiting))
+    }
+}
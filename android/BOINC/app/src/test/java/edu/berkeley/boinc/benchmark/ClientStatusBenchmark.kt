@@ -0,0 +1,74 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.benchmark
+
+import android.content.Context
+import android.content.ContextWrapper
+import android.content.Intent
+import androidx.test.core.app.ApplicationProvider
+import edu.berkeley.boinc.client.AppPreferences
+import edu.berkeley.boinc.client.ClientStatus
+import edu.berkeley.boinc.client.DeviceStatus
+import edu.berkeley.boinc.rpc.AcctMgrInfo
+import edu.berkeley.boinc.rpc.CcStateParser
+import edu.berkeley.boinc.rpc.CcStatusParser
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.TransfersParser
+import io.mockk.mockk
+import okio.Buffer
+import org.junit.Test
+import org.junit.experimental.categories.Category
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * ClientStatus.setClientStatus as called by the Monitor on every update,
+ * alternating between two snapshots in which the active tasks made progress.
+ */
+@Category(Benchmark::class)
+@RunWith(RobolectricTestRunner::class)
+class ClientStatusBenchmark {
+    // swallows the "clientstatuschange" broadcasts, Robolectric would keep every one of them
+    private val context = object : ContextWrapper(ApplicationProvider.getApplicationContext<Context>()) {
+        override fun sendBroadcast(intent: Intent?, receiverPermission: String?) {}
+    }
+
+    @Test
+    fun setClientStatus() {
+        // parsed as the Monitor gets them from RpcClient, streamed with the default engine
+        val status = CcStatusParser.parse(Buffer().writeUtf8(Fixtures.ccStatus()))!!
+        val transfers = TransfersParser.parse(Buffer().writeUtf8(Fixtures.transfers(20)))
+        val acctMgrInfo = AcctMgrInfo("Manager", "https://manager.example.org/", true, true)
+
+        for (size in Fixtures.SIZES) {
+            val state = CcStateParser.parse(Buffer().writeUtf8(Fixtures.ccState(size)))!!
+            val snapshots = listOf(state.results.toList(), state.results.map { progressed(it) })
+            val clientStatus = ClientStatus(context, AppPreferences(context), mockk<DeviceStatus>(relaxed = true))
+
+            var tick = 0
+            MicroBenchmark.run("ClientStatus.setClientStatus $size results") {
+                clientStatus.setClientStatus(status, snapshots[tick++ % 2], state.projects, transfers,
+                        state.hostInfo, acctMgrInfo, emptyList())
+            }
+        }
+    }
+
+    private fun progressed(result: Result) =
+            if (result.isActiveTask) result.copy(fractionDone = result.fractionDone + 0.01f) else result
+}
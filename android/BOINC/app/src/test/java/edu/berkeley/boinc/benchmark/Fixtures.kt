@@ -0,0 +1,402 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.benchmark
+
+/**
+ * GUI RPC replies as sent by a client with the given number of projects and tasks.
+ * Element sets follow the replies of a 7.x client, values are varied so the parsers cannot shortcut.
+ */
+object Fixtures {
+    /**
+     * Task counts of the scaled fixtures
+     */
+    val SIZES = listOf(10, 100, 1000, 5000)
+
+    private const val PROJECTS = 8
+
+    private fun reply(body: String) = "<boinc_gui_rpc_reply>\n$body</boinc_gui_rpc_reply>\n"
+
+    private fun projectUrl(p: Int) = "https://project$p.example.org/"
+
+    private fun result(i: Int) = """
+        |<result>
+        |    <name>wu_${i}_task_$i</name>
+        |    <wu_name>wu_$i</wu_name>
+        |    <platform>arm-android-linux-gnu</platform>
+        |    <version_num>${700 + i % 3}</version_num>
+        |    <plan_class>${if (i % 4 == 0) "neon" else ""}</plan_class>
+        |    <project_url>${projectUrl(i % PROJECTS)}</project_url>
+        |    <final_cpu_time>0.000000</final_cpu_time>
+        |    <final_elapsed_time>0.000000</final_elapsed_time>
+        |    <exit_status>0</exit_status>
+        |    <state>${if (i % 10 == 9) 5 else 2}</state>
+        |    <report_deadline>${1_650_000_000 + i * 37}.000000</report_deadline>
+        |    <received_time>${1_640_000_000 + i * 11}.123456</received_time>
+        |    <estimated_cpu_time_remaining>${i * 13.25}</estimated_cpu_time_remaining>
+        |    ${if (i % 10 == 9) "<ready_to_report/>" else ""}
+        |    ${if (i % 25 == 0) activeTask(i) else ""}
+        |</result>
+        |""".trimMargin()
+
+    private fun activeTask(i: Int) = """
+        |<active_task>
+        |        <active_task_state>1</active_task_state>
+        |        <app_version_num>${700 + i % 3}</app_version_num>
+        |        <slot>${i % 8}</slot>
+        |        <pid>${10_000 + i}</pid>
+        |        <scheduler_state>2</scheduler_state>
+        |        <checkpoint_cpu_time>${i * 1.5}</checkpoint_cpu_time>
+        |        <fraction_done>0.${(i * 7919) % 1000}</fraction_done>
+        |        <current_cpu_time>${i * 2.25}</current_cpu_time>
+        |        <elapsed_time>${i * 2.5}</elapsed_time>
+        |        <swap_size>${i * 4096}.000000</swap_size>
+        |        <working_set_size_smoothed>${i * 2048}.000000</working_set_size_smoothed>
+        |        <progress_rate>0.000123</progress_rate>
+        |        <slot_path>/data/user/0/edu.berkeley.boinc/client/slots/${i % 8}</slot_path>
+        |    </active_task>""".trimMargin()
+
+    private fun project(p: Int) = """
+        |<project>
+        |    <master_url>${projectUrl(p)}</master_url>
+        |    <project_name>Project $p</project_name>
+        |    <symstore></symstore>
+        |    <user_name>volunteer</user_name>
+        |    <team_name>Team &amp; Friends</team_name>
+        |    <host_venue></host_venue>
+        |    <email_hash>0123456789abcdef0123456789abcdef</email_hash>
+        |    <cross_project_id>fedcba9876543210fedcba9876543210</cross_project_id>
+        |    <cpid_time>1600000000.000000</cpid_time>
+        |    <user_total_credit>${p * 12345.678}</user_total_credit>
+        |    <user_expavg_credit>${p * 12.5}</user_expavg_credit>
+        |    <host_total_credit>${p * 1234.5}</host_total_credit>
+        |    <host_expavg_credit>${p * 1.25}</host_expavg_credit>
+        |    <nrpc_failures>0</nrpc_failures>
+        |    <master_fetch_failures>0</master_fetch_failures>
+        |    <min_rpc_time>0.000000</min_rpc_time>
+        |    <next_rpc_time>0.000000</next_rpc_time>
+        |    <rec>${p * 100.5}</rec>
+        |    <rec_time>1650000000.000000</rec_time>
+        |    <resource_share>100.000000</resource_share>
+        |    <desired_disk_usage>0.000000</desired_disk_usage>
+        |    <duration_correction_factor>1.000000</duration_correction_factor>
+        |    <sched_rpc_pending>0</sched_rpc_pending>
+        |    <send_time_stats_log>0</send_time_stats_log>
+        |    <send_job_log>0</send_job_log>
+        |    <njobs_success>${p * 10}</njobs_success>
+        |    <njobs_error>0</njobs_error>
+        |    <elapsed_time>${p * 3600.0}</elapsed_time>
+        |    <last_rpc_time>1650000000.000000</last_rpc_time>
+        |    <dont_use_dcf/>
+        |    <gui_urls>
+        |        <gui_url>
+        |            <name>Your account</name>
+        |            <description>View your account information</description>
+        |            <url>${projectUrl(p)}home.php</url>
+        |        </gui_url>
+        |        <gui_url>
+        |            <name>Forums</name>
+        |            <description>Message boards</description>
+        |            <url>${projectUrl(p)}forum_index.php</url>
+        |        </gui_url>
+        |    </gui_urls>
+        |    <project_dir>/data/user/0/edu.berkeley.boinc/client/projects/project$p.example.org</project_dir>
+        |</project>
+        |""".trimMargin()
+
+    private fun app(p: Int) = """
+        |<app>
+        |    <name>app_$p</name>
+        |    <user_friendly_name>Application $p</user_friendly_name>
+        |    <non_cpu_intensive>0</non_cpu_intensive>
+        |</app>
+        |""".trimMargin()
+
+    private fun appVersion(p: Int, version: Int) = """
+        |<app_version>
+        |    <app_name>app_$p</app_name>
+        |    <version_num>$version</version_num>
+        |    <platform>arm-android-linux-gnu</platform>
+        |    <avg_ncpus>1.000000</avg_ncpus>
+        |    <flops>${1_000_000_000.0 + version}</flops>
+        |    <plan_class>${if (version == 700) "neon" else ""}</plan_class>
+        |    <api_version>7.17.0</api_version>
+        |</app_version>
+        |""".trimMargin()
+
+    private fun workUnit(i: Int) = """
+        |<workunit>
+        |    <name>wu_$i</name>
+        |    <app_name>app_${i % PROJECTS}</app_name>
+        |    <version_num>${700 + i % 3}</version_num>
+        |    <rsc_fpops_est>${i * 1e12}</rsc_fpops_est>
+        |    <rsc_fpops_bound>${i * 1e14}</rsc_fpops_bound>
+        |    <rsc_memory_bound>${i * 1e8}</rsc_memory_bound>
+        |    <rsc_disk_bound>${i * 1e9}</rsc_disk_bound>
+        |</workunit>
+        |""".trimMargin()
+
+    private fun hostInfoElement() = """
+        |<host_info>
+        |    <timezone>3600</timezone>
+        |    <domain_name>android</domain_name>
+        |    <ip_addr>192.168.1.10</ip_addr>
+        |    <host_cpid>0123456789abcdef0123456789abcdef</host_cpid>
+        |    <p_ncpus>8</p_ncpus>
+        |    <p_vendor>ARM</p_vendor>
+        |    <p_model>ARMv8 Processor rev 4 (v8l)</p_model>
+        |    <p_features>fp asimd evtstrm aes pmull sha1 sha2 crc32</p_features>
+        |    <p_fpops>2612354893.174553</p_fpops>
+        |    <p_iops>12353414324.000000</p_iops>
+        |    <p_membw>1000000000.000000</p_membw>
+        |    <p_calculated>1650000000.000000</p_calculated>
+        |    <product_name>Pixel</product_name>
+        |    <m_nbytes>3879927808.000000</m_nbytes>
+        |    <m_cache>1048576.000000</m_cache>
+        |    <m_swap>536866816.000000</m_swap>
+        |    <d_total>52459294720.000000</d_total>
+        |    <d_free>20164550656.000000</d_free>
+        |    <os_name>Android</os_name>
+        |    <os_version>Linux 4.14.150 (Android 11)</os_version>
+        |</host_info>
+        |""".trimMargin()
+
+    private fun projects() = (0 until PROJECTS).joinToString("") { project(it) }
+
+    fun ccState(results: Int) = reply(buildString {
+        append("<client_state>\n")
+        append(hostInfoElement())
+        append("<platform_name>arm-android-linux-gnu</platform_name>\n")
+        append("<core_client_major_version>7</core_client_major_version>\n")
+        append("<core_client_minor_version>18</core_client_minor_version>\n")
+        append("<core_client_release>1</core_client_release>\n")
+        for (p in 0 until PROJECTS) {
+            append(project(p))
+            append(app(p))
+            for (version in 700..702) append(appVersion(p, version))
+        }
+        for (i in 0 until results) append(workUnit(i))
+        for (i in 0 until results) append(result(i))
+        append("<have_ati>0</have_ati>\n<have_cuda>0</have_cuda>\n")
+        append("</client_state>\n")
+    })
+
+    fun results(results: Int) = reply("<results>\n${(0 until results).joinToString("") { result(it) }}</results>\n")
+
+    fun messages(messages: Int) = reply("<msgs>\n${(0 until messages).joinToString("") {
+        """
+        |<msg>
+        |    <project>${if (it % 3 == 0) "" else "Project ${it % PROJECTS}"}</project>
+        |    <pri>${1 + it % 3}</pri>
+        |    <seqno>${it + 1}</seqno>
+        |    <body>
+        |Scheduler request completed: got ${it % 5} new tasks
+        |</body>
+        |    <time>${1_650_000_000 + it}</time>
+        |</msg>
+        |""".trimMargin()
+    }}</msgs>\n")
+
+    fun notices(notices: Int) = reply("<notices>\n${(0 until notices).joinToString("") {
+        """
+        |<notice>
+        |    <title>News $it</title>
+        |    <description><![CDATA[<p>Notice number $it with <b>markup</b> &amp; a link.</p>]]></description>
+        |    <create_time>${1_650_000_000 + it}.000000</create_time>
+        |    <arrival_time>${1_650_000_100 + it}.000000</arrival_time>
+        |    <is_private>0</is_private>
+        |    <project_name>Project ${it % PROJECTS}</project_name>
+        |    <category>${if (it % 4 == 0) "server" else "news"}</category>
+        |    <link>${projectUrl(it % PROJECTS)}forum_thread.php?id=$it</link>
+        |    <seqno>${it + 1}</seqno>
+        |</notice>
+        |""".trimMargin()
+    }}</notices>\n")
+
+    fun projectStatus() = reply("<projects>\n${projects()}</projects>\n")
+
+    fun transfers(transfers: Int) = reply("<file_transfers>\n${(0 until transfers).joinToString("") {
+        """
+        |<file_transfer>
+        |    <project_url>${projectUrl(it % PROJECTS)}</project_url>
+        |    <project_name>Project ${it % PROJECTS}</project_name>
+        |    <name>wu_${it}_task_${it}_r0</name>
+        |    <nbytes>${it * 1024 + 4096}.000000</nbytes>
+        |    <status>0</status>
+        |    <is_upload>${it % 2}</is_upload>
+        |    <persistent_file_xfer>
+        |        <num_retries>0</num_retries>
+        |        <first_request_time>1650000000.000000</first_request_time>
+        |        <next_request_time>1650000000.000000</next_request_time>
+        |        <time_so_far>${it * 0.5}</time_so_far>
+        |        <last_bytes_xferred>${it * 512}.000000</last_bytes_xferred>
+        |        <is_upload>${it % 2}</is_upload>
+        |    </persistent_file_xfer>
+        |    <file_xfer>
+        |        <bytes_xferred>${it * 512}.000000</bytes_xferred>
+        |        <file_offset>0.000000</file_offset>
+        |        <xfer_speed>${it * 10.5}</xfer_speed>
+        |        <url>${projectUrl(it % PROJECTS)}upload_handler</url>
+        |    </file_xfer>
+        |</file_transfer>
+        |""".trimMargin()
+    }}</file_transfers>\n")
+
+    fun ccStatus() = reply("""
+        |<cc_status>
+        |    <network_status>2</network_status>
+        |    <ams_password_error>0</ams_password_error>
+        |    <task_suspend_reason>0</task_suspend_reason>
+        |    <task_mode>2</task_mode>
+        |    <task_mode_perm>2</task_mode_perm>
+        |    <task_mode_delay>0.000000</task_mode_delay>
+        |    <gpu_suspend_reason>0</gpu_suspend_reason>
+        |    <network_suspend_reason>0</network_suspend_reason>
+        |    <network_mode>2</network_mode>
+        |    <network_mode_perm>2</network_mode_perm>
+        |    <network_mode_delay>0.000000</network_mode_delay>
+        |    <disallow_attach>0</disallow_attach>
+        |    <simple_gui_only>0</simple_gui_only>
+        |    <max_event_log_lines>2000</max_event_log_lines>
+        |</cc_status>
+        |""".trimMargin())
+
+    fun hostInfo() = reply(hostInfoElement())
+
+    fun apps() = reply((0 until PROJECTS).joinToString("") { app(it) })
+
+    fun appVersions() = reply((0 until PROJECTS).joinToString("") { p ->
+        (700..702).joinToString("") { appVersion(p, it) }
+    })
+
+    fun workUnits(workUnits: Int) = reply((0 until workUnits).joinToString("") { workUnit(it) })
+
+    fun allProjectsList(projects: Int, managers: Int = 0) = reply("<projects>\n${(0 until projects).joinToString("") {
+        """
+        |<project>
+        |    <name>Project $it</name>
+        |    <id>$it</id>
+        |    <url>${projectUrl(it)}</url>
+        |    <web_url>${projectUrl(it)}</web_url>
+        |    <general_area>Biology and Medicine</general_area>
+        |    <specific_area>Protein folding</specific_area>
+        |    <description><![CDATA[Project $it studies proteins.]]></description>
+        |    <home>University $it</home>
+        |    <platforms>
+        |        <name>windows_x86_64</name>
+        |        <name>x86_64-pc-linux-gnu</name>
+        |        <name>arm-android-linux-gnu</name>
+        |        <name>aarch64-android-linux-gnu</name>
+        |    </platforms>
+        |    <image>${projectUrl(it)}logo.png</image>
+        |    <summary>Protein research $it</summary>
+        |</project>
+        |""".trimMargin()
+    }}${accountManagerList(managers)}</projects>\n")
+
+    fun accountManagers(managers: Int) = reply(accountManagerList(managers))
+
+    private fun accountManagerList(managers: Int) = (0 until managers).joinToString("") {
+        """
+        |<account_manager>
+        |    <name>Manager $it</name>
+        |    <url>https://manager$it.example.org/</url>
+        |    <description>Account manager $it</description>
+        |    <image>https://manager$it.example.org/logo.png</image>
+        |</account_manager>
+        |""".trimMargin()
+    }
+
+    fun accountOut() = reply("<error_num>0</error_num>\n<authenticator>0123456789abcdef0123456789abcdef</authenticator>\n")
+
+    fun acctMgrInfo() = reply("""
+        |<acct_mgr_info>
+        |    <acct_mgr_url>https://manager.example.org/</acct_mgr_url>
+        |    <acct_mgr_name>Manager</acct_mgr_name>
+        |    <have_credentials/>
+        |    <cookie_required/>
+        |    <cookie_failure_url>https://manager.example.org/failure</cookie_failure_url>
+        |</acct_mgr_info>
+        |""".trimMargin())
+
+    fun acctMgrRpcReply() = reply("<acct_mgr_rpc_reply>\n<error_num>0</error_num>\n<message>ok</message>\n</acct_mgr_rpc_reply>\n")
+
+    fun projectAttachReply() = reply("<project_attach_reply>\n<error_num>0</error_num>\n</project_attach_reply>\n")
+
+    fun projectConfig() = reply("""
+        |<project_config>
+        |    <name>Project 1</name>
+        |    <master_url>${projectUrl(1)}</master_url>
+        |    <web_rpc_url_base>${projectUrl(1)}</web_rpc_url_base>
+        |    <local_revision>4.3.2</local_revision>
+        |    <min_passwd_length>6</min_passwd_length>
+        |    <account_manager/>
+        |    <uses_username/>
+        |    <client_account_creation_disabled/>
+        |    <terms_of_use>Be nice.</terms_of_use>
+        |    <platforms>
+        |        <platform><platform_name>arm-android-linux-gnu</platform_name></platform>
+        |        <platform><platform_name>aarch64-android-linux-gnu</platform_name></platform>
+        |    </platforms>
+        |</project_config>
+        |""".trimMargin())
+
+    fun globalPreferences() = reply("""
+        |<global_preferences>
+        |    <run_on_batteries>0</run_on_batteries>
+        |    <battery_charge_min_pct>90.000000</battery_charge_min_pct>
+        |    <battery_max_temperature>40.000000</battery_max_temperature>
+        |    <run_gpu_if_user_active>0</run_gpu_if_user_active>
+        |    <run_if_user_active>0</run_if_user_active>
+        |    <idle_time_to_run>3.000000</idle_time_to_run>
+        |    <suspend_cpu_usage>50.000000</suspend_cpu_usage>
+        |    <start_hour>0.000000</start_hour>
+        |    <end_hour>0.000000</end_hour>
+        |    <net_start_hour>0.000000</net_start_hour>
+        |    <net_end_hour>0.000000</net_end_hour>
+        |    <max_ncpus_pct>50.000000</max_ncpus_pct>
+        |    <leave_apps_in_memory>0</leave_apps_in_memory>
+        |    <dont_verify_images>0</dont_verify_images>
+        |    <work_buf_min_days>0.100000</work_buf_min_days>
+        |    <work_buf_additional_days>0.500000</work_buf_additional_days>
+        |    <disk_interval>60.000000</disk_interval>
+        |    <cpu_scheduling_period_minutes>60.000000</cpu_scheduling_period_minutes>
+        |    <disk_max_used_gb>0.000000</disk_max_used_gb>
+        |    <disk_max_used_pct>90.000000</disk_max_used_pct>
+        |    <disk_min_free_gb>0.100000</disk_min_free_gb>
+        |    <ram_max_used_busy_pct>50.000000</ram_max_used_busy_pct>
+        |    <ram_max_used_idle_pct>50.000000</ram_max_used_idle_pct>
+        |    <max_bytes_sec_up>0.000000</max_bytes_sec_up>
+        |    <max_bytes_sec_down>0.000000</max_bytes_sec_down>
+        |    <cpu_usage_limit>100.000000</cpu_usage_limit>
+        |    <daily_xfer_limit_mb>0.000000</daily_xfer_limit_mb>
+        |    <daily_xfer_period_days>0</daily_xfer_period_days>
+        |    <day_prefs>
+        |        <day_of_week>1</day_of_week>
+        |        <start_hour>8.000000</start_hour>
+        |        <end_hour>18.000000</end_hour>
+        |    </day_prefs>
+        |</global_preferences>
+        |""".trimMargin())
+
+    fun simpleReply() = reply("<success/>\n")
+
+    fun serverVersion() = reply("<server_version>\n<major>7</major>\n<minor>18</minor>\n<release>1</release>\n</server_version>\n")
+
+    fun messageCount() = reply("<seqno>1234</seqno>\n")
+}
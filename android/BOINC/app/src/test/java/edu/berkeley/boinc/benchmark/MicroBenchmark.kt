@@ -0,0 +1,93 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.benchmark
+
+import java.io.File
+import java.lang.management.ManagementFactory
+import java.util.Locale
+
+/**
+ * JUnit category of the benchmarks. They are excluded from the unit tests and run only with
+ * `./gradlew testDebugUnitTest -Pbenchmark`.
+ */
+interface Benchmark
+
+/**
+ * Measured throughput and allocation of one benchmarked operation.
+ * [bytesPerOp] is -1 if the JVM can not measure allocations.
+ */
+data class BenchmarkResult(val name: String, val ops: Long, val nanos: Long, val bytesPerOp: Long) {
+    val opsPerSec: Double
+        get() = ops * 1e9 / nanos
+
+    override fun toString() = String.format(Locale.ROOT, "%-48s %12.1f ops/s %14d B/op", name, opsPerSec, bytesPerOp)
+}
+
+/**
+ * Small JMH-like harness: runs an operation for a warm-up period, then for a measurement period,
+ * and reports operations per second and bytes allocated per operation on the calling thread.
+ * The periods can be changed with the system properties benchmark.warmupMillis and benchmark.measureMillis,
+ * results are appended to the file given by benchmark.report, if set.
+ */
+object MicroBenchmark {
+    private val warmupNanos = System.getProperty("benchmark.warmupMillis", "500").toLong() * 1_000_000
+    private val measureNanos = System.getProperty("benchmark.measureMillis", "1000").toLong() * 1_000_000
+    private val threads = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+
+    @Volatile
+    private var sink = 0 // keeps the results of the operations alive
+
+    fun run(name: String, operation: () -> Any?): BenchmarkResult {
+        loop(warmupNanos, operation)
+
+        val bytesBefore = allocatedBytes()
+        val start = System.nanoTime()
+        val ops = loop(measureNanos, operation)
+        val nanos = System.nanoTime() - start
+        val bytesAfter = allocatedBytes()
+
+        val bytesPerOp = if (bytesBefore < 0 || bytesAfter < 0) -1 else (bytesAfter - bytesBefore) / ops
+        return BenchmarkResult(name, ops, nanos, bytesPerOp).also { report(it) }
+    }
+
+    private fun loop(durationNanos: Long, operation: () -> Any?): Long {
+        val end = System.nanoTime() + durationNanos
+        var ops = 0L
+        do {
+            // identity hash, hashCode() of a data class walks its whole content
+            sink += System.identityHashCode(operation())
+            ops++
+        } while (System.nanoTime() < end)
+        return ops
+    }
+
+    private fun allocatedBytes(): Long {
+        val threads = threads ?: return -1
+        return if (threads.isThreadAllocatedMemorySupported && threads.isThreadAllocatedMemoryEnabled) {
+            threads.getThreadAllocatedBytes(Thread.currentThread().id)
+        } else {
+            -1
+        }
+    }
+
+    private fun report(result: BenchmarkResult) {
+        println(result)
+        System.getProperty("benchmark.report")?.let { File(it).appendText("$result\n") }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.benchmark
+
+import android.util.Xml
+import edu.berkeley.boinc.rpc.AccountManagerParser
+import edu.berkeley.boinc.rpc.AccountOutParser
+import edu.berkeley.boinc.rpc.AllProjectsListParser
+import edu.berkeley.boinc.rpc.AcctMgrInfoParser
+import edu.berkeley.boinc.rpc.AcctMgrRPCReplyParser
+import edu.berkeley.boinc.rpc.AppVersionsParser
+import edu.berkeley.boinc.rpc.AppsParser
+import edu.berkeley.boinc.rpc.CcStateParser
+import edu.berkeley.boinc.rpc.CcStatusParser
+import edu.berkeley.boinc.rpc.GlobalPreferencesParser
+import edu.berkeley.boinc.rpc.HostInfoParser
+import edu.berkeley.boinc.rpc.MessageCountParser
+import edu.berkeley.boinc.rpc.MessagesParser
+import edu.berkeley.boinc.rpc.NoticesParser
+import edu.berkeley.boinc.rpc.ParserEngine
+import edu.berkeley.boinc.rpc.ProjectAttachReplyParser
+import edu.berkeley.boinc.rpc.ProjectConfigReplyParser
+import edu.berkeley.boinc.rpc.ProjectInfoParser
+import edu.berkeley.boinc.rpc.ProjectsParser
+import edu.berkeley.boinc.rpc.ResultsParser
+import edu.berkeley.boinc.rpc.SimpleReplyParser
+import edu.berkeley.boinc.rpc.TransfersParser
+import edu.berkeley.boinc.rpc.VersionInfoParser
+import edu.berkeley.boinc.rpc.WorkUnitsParser
+import okio.Buffer
+import okio.BufferedSource
+import okio.ByteString
+import okio.ByteString.Companion.encodeUtf8
+import org.junit.After
+import org.junit.Assert
+import org.junit.Test
+import org.junit.experimental.categories.Category
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.xml.sax.helpers.DefaultHandler
+
+/**
+ * Throughput and allocation of every parse() entry point of the rpc parsers, for both parser engines.
+ */
+@Category(Benchmark::class)
+@RunWith(RobolectricTestRunner::class)
+class ParserBenchmark {
+    private val engine = ParserEngine.current
+
+    @After
+    fun tearDown() {
+        ParserEngine.current = engine
+    }
+
+    // SAX on complete replies needs the native expat parser, streamed SAX runs on every JVM
+    private fun engines() = ParserEngine.values().filter { it != ParserEngine.SAX || isXmlParseAvailable }
+
+    private fun source(reply: ByteString): BufferedSource = Buffer().write(reply)
+
+    private fun benchmark(name: String, reply: String, parse: (String) -> Any?) {
+        for (engine in engines()) {
+            ParserEngine.current = engine
+            Assert.assertNotNull(parse(reply))
+            MicroBenchmark.run("$name [$engine]") { parse(reply) }
+        }
+    }
+
+    private fun benchmarkStreamed(name: String, reply: String, parse: (BufferedSource) -> Any?) {
+        val bytes = reply.encodeUtf8()
+        for (engine in ParserEngine.values()) {
+            ParserEngine.current = engine
+            Assert.assertNotNull(parse(source(bytes)))
+            MicroBenchmark.run("$name streamed [$engine]") { parse(source(bytes)) }
+        }
+    }
+
+    @Test
+    fun getState() {
+        for (size in Fixtures.SIZES) {
+            val reply = Fixtures.ccState(size)
+            benchmark("CcStateParser $size results", reply) { CcStateParser.parse(it) }
+            benchmarkStreamed("CcStateParser $size results", reply) { CcStateParser.parse(it) }
+        }
+    }
+
+    @Test
+    fun getResults() {
+        for (size in Fixtures.SIZES) {
+            val reply = Fixtures.results(size)
+            benchmark("ResultsParser $size results", reply) { ResultsParser.parse(it) }
+            benchmarkStreamed("ResultsParser $size results", reply) { ResultsParser.parse(it) }
+        }
+    }
+
+    @Test
+    fun getMessages() {
+        for (size in Fixtures.SIZES) {
+            benchmark("MessagesParser $size messages", Fixtures.messages(size)) { MessagesParser.parse(it) }
+        }
+    }
+
+    @Test
+    fun getNotices() {
+        for (size in Fixtures.SIZES) {
+            benchmark("NoticesParser $size notices", Fixtures.notices(size)) { NoticesParser.parse(it) }
+        }
+    }
+
+    @Test
+    fun getFileTransfers() {
+        for (size in Fixtures.SIZES) {
+            val reply = Fixtures.transfers(size)
+            benchmark("TransfersParser $size transfers", reply) { TransfersParser.parse(it) }
+            benchmarkStreamed("TransfersParser $size transfers", reply) { TransfersParser.parse(it) }
+        }
+    }
+
+    @Test
+    fun getAllProjectsList() {
+        val reply = Fixtures.allProjectsList(100)
+        benchmark("ProjectInfoParser 100 projects", reply) { ProjectInfoParser.parse(it) }
+        benchmarkStreamed("ProjectInfoParser 100 projects", reply) { ProjectInfoParser.parse(it) }
+    }
+
+    @Test
+    fun getAllProjects() {
+        val reply = Fixtures.allProjectsList(100, 10)
+        benchmarkStreamed("AllProjectsListParser 100 projects 10 managers", reply) { AllProjectsListParser.parse(it) }
+    }
+
+    @Test
+    fun getAccountManagers() {
+        val reply = Fixtures.accountManagers(10)
+        benchmark("AccountManagerParser 10 managers", reply) { AccountManagerParser.parse(it) }
+        benchmarkStreamed("AccountManagerParser 10 managers", reply) { AccountManagerParser.parse(it) }
+    }
+
+    @Test
+    fun getProjectStatus() {
+        val reply = Fixtures.projectStatus()
+        benchmark("ProjectsParser", reply) { ProjectsParser.parse(it) }
+        benchmarkStreamed("ProjectsParser", reply) { ProjectsParser.parse(it) }
+    }
+
+    @Test
+    fun getCcStatus() {
+        val reply = Fixtures.ccStatus()
+        benchmark("CcStatusParser", reply) { CcStatusParser.parse(it) }
+        benchmarkStreamed("CcStatusParser", reply) { CcStatusParser.parse(it) }
+    }
+
+    @Test
+    fun smallReplies() {
+        benchmark("HostInfoParser", Fixtures.hostInfo()) { HostInfoParser.parse(it) }
+        benchmark("AppsParser", Fixtures.apps()) { AppsParser.parse(it) }
+        benchmark("AppVersionsParser", Fixtures.appVersions()) { AppVersionsParser.parse(it) }
+        benchmark("WorkUnitsParser 1000 workunits", Fixtures.workUnits(1000)) { WorkUnitsParser.parse(it) }
+        benchmark("AccountOutParser", Fixtures.accountOut()) { AccountOutParser.parse(it) }
+        benchmark("AcctMgrInfoParser", Fixtures.acctMgrInfo()) { AcctMgrInfoParser.parse(it) }
+        benchmark("AcctMgrRPCReplyParser", Fixtures.acctMgrRpcReply()) { AcctMgrRPCReplyParser.parse(it) }
+        benchmark("ProjectAttachReplyParser", Fixtures.projectAttachReply()) { ProjectAttachReplyParser.parse(it) }
+        benchmark("ProjectConfigReplyParser", Fixtures.projectConfig()) { ProjectConfigReplyParser.parse(it) }
+        benchmark("GlobalPreferencesParser", Fixtures.globalPreferences()) { GlobalPreferencesParser.parse(it) }
+        benchmark("SimpleReplyParser", Fixtures.simpleReply()) { SimpleReplyParser.parse(it) }
+        benchmark("VersionInfoParser", Fixtures.serverVersion()) { VersionInfoParser.parse(it) }
+        benchmark("MessageCountParser", Fixtures.messageCount()) { MessageCountParser.getSeqnoOfReply(it) }
+    }
+
+    companion object {
+        /**
+         * android.util.Xml.parse() needs the native expat parser, which is not available on every JVM
+         */
+        internal val isXmlParseAvailable: Boolean by lazy {
+            try {
+                Xml.parse("<a/>", DefaultHandler())
+                true
+            } catch (e: LinkageError) {
+                println("android.util.Xml not available on this JVM, SAX on complete replies skipped: $e")
+                false
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.benchmark
+
+import edu.berkeley.boinc.rpc.RpcClient
+import okio.Buffer
+import okio.ByteString
+import okio.ByteString.Companion.encodeUtf8
+import org.junit.Assert
+import org.junit.Test
+import org.junit.experimental.categories.Category
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * Request framing, reply reading and parsing of RpcClient against an in-memory socket,
+ * with the default parser engine as shipped.
+ */
+@Category(Benchmark::class)
+@RunWith(RobolectricTestRunner::class)
+class RpcClientBenchmark {
+    private val socket = Buffer()
+    private val requests = Buffer()
+    private val client = RpcClient().apply { open(socket, requests) }
+
+    private fun terminated(reply: String): ByteString = "$reply\u0003".encodeUtf8()
+
+    private fun exchange(reply: ByteString, rpc: RpcClient.() -> Any?): Any? {
+        requests.clear()
+        socket.write(reply)
+        return client.rpc()
+    }
+
+    private fun benchmark(name: String, reply: String, rpc: RpcClient.() -> Any?) {
+        val bytes = terminated(reply)
+        Assert.assertNotNull(exchange(bytes, rpc))
+        MicroBenchmark.run("RpcClient.$name") { exchange(bytes, rpc) }
+        Assert.assertTrue(socket.exhausted())
+    }
+
+    @Test
+    fun getState() {
+        for (size in Fixtures.SIZES) {
+            benchmark("state $size results", Fixtures.ccState(size)) { state }
+        }
+    }
+
+    @Test
+    fun getResults() {
+        for (size in Fixtures.SIZES) {
+            benchmark("results $size results", Fixtures.results(size)) { results }
+        }
+    }
+
+    @Test
+    fun getMessages() {
+        // the messages are parsed as complete reply, with android.util.Xml
+        if (!ParserBenchmark.isXmlParseAvailable) return
+        for (size in Fixtures.SIZES) {
+            benchmark("getMessages $size messages", Fixtures.messages(size)) { getMessages(0) }
+        }
+    }
+
+    @Test
+    fun getCcStatus() {
+        benchmark("ccStatus", Fixtures.ccStatus()) { ccStatus }
+    }
+}
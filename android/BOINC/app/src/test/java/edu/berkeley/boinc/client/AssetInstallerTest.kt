@@ -0,0 +1,110 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import java.io.ByteArrayInputStream
+import java.io.File
+import java.io.FileNotFoundException
+import java.io.InputStream
+import java.security.MessageDigest
+import okio.ByteString.Companion.toByteString
+import org.junit.Assert
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class AssetInstallerTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val client = "arm64-v8a/boinc"
+    private val assets = mutableMapOf(client to "client binary".toByteArray())
+    private val opened = mutableListOf<String>()
+    private val workingDir by lazy { folder.newFolder("client") }
+    private val target by lazy { File(workingDir, "boinc") }
+
+    private fun open(path: String): InputStream {
+        opened += path
+        return ByteArrayInputStream(assets[path] ?: throw FileNotFoundException(path))
+    }
+
+    private fun installer() = AssetInstaller(::open, workingDir)
+
+    private fun withManifest() {
+        assets[AssetInstaller.MANIFEST] = assets.entries.joinToString("") { (path, bytes) ->
+            val sha256 = MessageDigest.getInstance("SHA-256").digest(bytes).toByteString().hex()
+            "$sha256 ${bytes.size} $path\n"
+        }.toByteArray()
+    }
+
+    @Test
+    fun `When asset is installed then expect content and executable target`() {
+        Assert.assertTrue(installer().install(client, target, true))
+        Assert.assertEquals("client binary", target.readText())
+        Assert.assertTrue(target.canExecute())
+        Assert.assertFalse(File(target.path + ".tmp").exists())
+    }
+
+    @Test
+    fun `When target was never installed then expect not installed`() {
+        target.writeText("client binary")
+        Assert.assertFalse(installer().isInstalled(client, target))
+    }
+
+    @Test
+    fun `When manifest matches record then expect installed without reading asset`() {
+        withManifest()
+        installer().install(client, target, true)
+        opened.clear()
+
+        // a new installer, like after a restart of the Monitor
+        Assert.assertTrue(installer().isInstalled(client, target))
+        Assert.assertEquals(listOf(AssetInstaller.MANIFEST), opened)
+    }
+
+    @Test
+    fun `When asset changed then expect not installed`() {
+        installer().install(client, target, true)
+        assets[client] = "new client binary".toByteArray()
+        withManifest()
+        Assert.assertFalse(installer().isInstalled(client, target))
+    }
+
+    @Test
+    fun `When installed file was modified then expect not installed`() {
+        withManifest()
+        installer().install(client, target, true)
+        target.writeText("corrupted")
+        Assert.assertFalse(installer().isInstalled(client, target))
+    }
+
+    @Test
+    fun `When manifest is missing then expect asset to be hashed`() {
+        val installer = installer()
+        installer.install(client, target, true)
+        Assert.assertTrue(installer.isInstalled(client, target))
+        Assert.assertTrue(opened.count { it == client } > 1)
+    }
+
+    @Test
+    fun `When asset is missing then expect failed install`() {
+        Assert.assertFalse(installer().install("x86/boinc", target, true))
+        Assert.assertFalse(target.exists())
+    }
+}
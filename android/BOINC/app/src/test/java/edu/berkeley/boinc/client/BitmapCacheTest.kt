@@ -0,0 +1,89 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.graphics.Bitmap
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.Assert
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class BitmapCacheTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private var decodes = 0
+    private val cache = BitmapCache(1000) { decodes++; bitmap(400) }
+
+    private fun bitmap(bytes: Int) = mockk<Bitmap> { every { byteCount } returns bytes }
+
+    @Test
+    fun `When image is requested twice then expect it to be decoded once`() {
+        val image = folder.newFile("icon.png").path
+        val first = cache.decode(image)
+        Assert.assertSame(first, cache.decode(image))
+        Assert.assertEquals(1, decodes)
+    }
+
+    @Test
+    fun `When image file changed then expect it to be decoded again`() {
+        val image = folder.newFile("icon.png")
+        cache.decode(image.path)
+        image.setLastModified(image.lastModified() - 10_000)
+        cache.decode(image.path)
+        Assert.assertEquals(2, decodes)
+    }
+
+    @Test
+    fun `When cache is full then expect least recently used image to be evicted`() {
+        val images = (1..3).map { folder.newFile("slideshow_$it.png").path }
+        images.forEach { cache.decode(it) } // 3 * 400 bytes > 1000 bytes
+        cache.decode(images[2])
+        Assert.assertEquals(3, decodes)
+        cache.decode(images[0])
+        Assert.assertEquals(4, decodes)
+    }
+
+    @Test
+    fun `When icons are warmed up again then expect only new and changed ones to be decoded`() {
+        val images = (1..3).map { folder.newFile("icon_$it.png") }
+        images.forEach { cache.warm(it.path) } // evicts the first one
+        images[1].setLastModified(images[1].lastModified() - 10_000)
+        images.forEach { cache.warm(it.path) }
+        Assert.assertEquals(4, decodes)
+    }
+
+    @Test
+    fun `When soft link is resolved twice then expect it to be read once`() {
+        val link = folder.newFile("stat_icon").path
+        var reads = 0
+        val resolve = { _: String -> reads++; "/projects/p/icon.png" }
+        Assert.assertEquals("/projects/p/icon.png", cache.resolveSoftLink(link, resolve))
+        Assert.assertEquals("/projects/p/icon.png", cache.resolveSoftLink(link, resolve))
+        Assert.assertEquals(1, reads)
+    }
+
+    @Test
+    fun `When soft link file does not exist then expect null without reading it`() {
+        val target = cache.resolveSoftLink(folder.root.path + "/missing") { error("must not be read") }
+        Assert.assertNull(target)
+    }
+}
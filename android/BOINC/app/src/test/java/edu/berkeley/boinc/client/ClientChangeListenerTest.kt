@@ -0,0 +1,89 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.ClientChanges
+import edu.berkeley.boinc.rpc.ParserEngine
+import edu.berkeley.boinc.rpc.PollBackoff
+import edu.berkeley.boinc.rpc.RpcClient
+import edu.berkeley.boinc.rpc.StandInClient
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import org.junit.After
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class ClientChangeListenerTest {
+    private val engine = ParserEngine.current.also { ParserEngine.current = ParserEngine.PULL }
+    private val pendingChanges = LinkedBlockingQueue<String>()
+    private val seqno = AtomicLong(1)
+    private val received = LinkedBlockingQueue<ClientChanges>()
+    @Volatile
+    private var supported = true
+
+    // long-polls like the client would: replies on the next change or after a short timeout
+    private val server = StandInClient { request ->
+        when {
+            !supported -> "<error>unrecognized op: wait_for_changes</error>\n"
+            request.contains("<seqno>0</seqno>") -> "<client_changes>\n<seqno>${seqno.get()}</seqno>\n</client_changes>\n"
+            else -> {
+                val changed = pendingChanges.poll(100, TimeUnit.MILLISECONDS).orEmpty()
+                "<client_changes>\n<seqno>${seqno.incrementAndGet()}</seqno>\n$changed</client_changes>\n"
+            }
+        }
+    }
+    private val listener = ClientChangeListener({ it.open(server.address, server.port) }, { received.add(it) },
+            RpcClient(), PollBackoff(10, 10))
+
+    @After
+    fun tearDown() {
+        listener.stop()
+        server.close()
+        ParserEngine.current = engine
+    }
+
+    @Test
+    fun `When client reports changes then expect them to be passed on`() {
+        listener.start()
+        pendingChanges.add("<tasks/>\n<status/>\n")
+        val changes = received.poll(5, TimeUnit.SECONDS)
+        Assert.assertNotNull(changes)
+        Assert.assertTrue(changes!!.tasks)
+        Assert.assertTrue(changes.status)
+        Assert.assertFalse(changes.transfers)
+        Assert.assertTrue(listener.isListening)
+    }
+
+    @Test
+    fun `When client does not support the RPC then expect listener to give up`() {
+        supported = false
+        listener.start()
+        val deadline = System.currentTimeMillis() + 5000
+        while (listener.isSupported && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        Assert.assertFalse(listener.isSupported)
+        Assert.assertFalse(listener.isListening)
+        Assert.assertTrue(received.isEmpty())
+    }
+}
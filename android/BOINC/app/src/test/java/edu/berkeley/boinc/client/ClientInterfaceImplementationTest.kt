@@ -0,0 +1,147 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Message
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.spyk
+import io.mockk.verify
+import java.time.Duration
+import org.junit.Assert
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.shadows.ShadowSystemClock
+
+@RunWith(RobolectricTestRunner::class)
+class ClientInterfaceImplementationTest {
+    private lateinit var clientInterface: ClientInterfaceImplementation
+    // messages of the client process currently connected
+    private var clientMessages = emptyList<Message>()
+    // seqnos get_messages was called with
+    private val messagesRequested = mutableListOf<Int>()
+
+    private fun messages(seqNos: IntRange, body: String) = seqNos.map { Message(seqno = it, body = "$body $it") }
+
+    @Before
+    fun setUp() {
+        clientInterface = spyk(ClientInterfaceImplementation(mockk(relaxed = true)))
+        every { clientInterface.getMessages(any()) } answers {
+            val seqNo = firstArg<Int>()
+            messagesRequested.add(seqNo)
+            clientMessages.filter { it.seqno > seqNo }
+        }
+        every { clientInterface.messageCount } answers { clientMessages.lastOrNull()?.seqno ?: 0 }
+    }
+
+    @Test
+    fun `When the client process changes then expect the message log to be read anew`() {
+        clientInterface.setMessageLogClient("100:5000:boot")
+        clientMessages = messages(1..5, "first")
+        Assert.assertEquals(5, clientInterface.getEventLogMessages(0, 10).size)
+
+        clientInterface.setMessageLogClient("200:9000:boot")
+        clientMessages = messages(1..2, "second")
+        Assert.assertEquals(listOf("second 1", "second 2"), clientInterface.getEventLogMessages(0, 10).map { it.body })
+    }
+
+    @Test
+    fun `When the same client process connects again then expect the message log to be kept`() {
+        clientInterface.setMessageLogClient("100:5000:boot")
+        clientMessages = messages(1..3, "first")
+        clientInterface.getEventLogMessages(0, 10)
+
+        clientInterface.setMessageLogClient("100:5000:boot")
+        clientMessages = messages(1..4, "first")
+        Assert.assertEquals(listOf(1, 2, 3, 4), clientInterface.getEventLogMessages(0, 10).map { it.seqno })
+    }
+
+    @Test
+    fun `When a new client process got the PID of the previous one then expect the message log to be read anew`() {
+        clientInterface.setMessageLogClient("100:5000:boot")
+        clientMessages = messages(1..5, "first")
+        clientInterface.getEventLogMessages(0, 10)
+
+        clientInterface.setMessageLogClient("100:7000:boot")
+        clientMessages = messages(1..5, "second")
+        Assert.assertEquals(List(5) { "second ${it + 1}" }, clientInterface.getEventLogMessages(0, 10).map { it.body })
+    }
+
+    @Test
+    fun `When the log is empty then expect only the most recent messages to be requested`() {
+        clientMessages = messages(1..2000, "message")
+
+        Assert.assertEquals((1951..2000).toList(), clientInterface.getEventLogMessages(0, 50).map { it.seqno })
+        Assert.assertEquals(listOf(1950), messagesRequested)
+    }
+
+    @Test
+    fun `When older messages are requested then expect them to be read once`() {
+        clientMessages = messages(1..2000, "message")
+        clientInterface.getEventLogMessages(0, 50)
+
+        Assert.assertEquals((1901..1950).toList(), clientInterface.getEventLogMessages(1951, 50).map { it.seqno })
+        Assert.assertEquals((1901..1950).toList(), clientInterface.getEventLogMessages(1951, 50).map { it.seqno })
+        Assert.assertEquals(listOf(1950, 1900, 2000), messagesRequested)
+    }
+
+    @Test
+    fun `When the message window is larger than a page then expect it to be paged`() {
+        clientMessages = messages(1..(MessageLog.MAX_WINDOW + 10), "message")
+
+        val page = clientInterface.getMessageWindow(1, Int.MAX_VALUE)
+        Assert.assertEquals((1..MessageLog.MAX_WINDOW).toList(), page.map { it.seqno })
+        val rest = clientInterface.getMessageWindow(page.last().seqno + 1, Int.MAX_VALUE)
+        Assert.assertEquals(((MessageLog.MAX_WINDOW + 1)..(MessageLog.MAX_WINDOW + 10)).toList(), rest.map { it.seqno })
+    }
+
+    @Test
+    fun `When the priority connection is not available then expect the bulk lane until it is reopened`() {
+        every { clientInterface.openPriorityLane(any(), any()) } returns false
+        clientInterface.connectPriorityLane("socket", "auth")
+        Assert.assertSame(clientInterface.bulkLane, clientInterface.priorityLane)
+
+        every { clientInterface.openPriorityLane(any(), any()) } returns true
+        ShadowSystemClock.advanceBy(Duration.ofMillis(ClientInterfaceImplementation.PRIORITY_RECONNECT_INTERVAL_MS))
+        Assert.assertNotSame(clientInterface.bulkLane, clientInterface.priorityLane)
+        verify(exactly = 3) { clientInterface.openPriorityLane("socket", "auth") }
+    }
+
+    @Test
+    fun `When reopening the priority connection failed then expect no further attempt within the interval`() {
+        every { clientInterface.openPriorityLane(any(), any()) } returns false
+        clientInterface.connectPriorityLane("socket", "auth")
+        repeat(5) { clientInterface.priorityLane }
+
+        verify(exactly = 2) { clientInterface.openPriorityLane(any(), any()) }
+    }
+
+    @Test
+    fun `When the connection was closed then expect the priority connection not to be reopened`() {
+        every { clientInterface.openPriorityLane(any(), any()) } returns false
+        clientInterface.connectPriorityLane("socket", "auth")
+        clientInterface.close()
+        ShadowSystemClock.advanceBy(Duration.ofMillis(ClientInterfaceImplementation.PRIORITY_RECONNECT_INTERVAL_MS))
+
+        Assert.assertSame(clientInterface.bulkLane, clientInterface.priorityLane)
+        verify(exactly = 1) { clientInterface.openPriorityLane(any(), any()) }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Project
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+import org.junit.Assert
+import org.junit.Test
+
+class ClientStatusDifferTest {
+    private val differ = ClientStatusDiffer()
+    private val projects = listOf(Project(masterURL = "https://a.org/"), Project(masterURL = "https://b.org/"))
+
+    @Test
+    fun `When first snapshot is set then expect everything to be new`() {
+        val change = differ.diff(listOf(Result(name = "t1")), projects, emptyList(), 2, false)
+        Assert.assertEquals(listOf("t1"), change.addedTasks)
+        Assert.assertEquals(2, change.changedProjects.size)
+        Assert.assertTrue(change.transfersChanged)
+        Assert.assertTrue(change.statusChanged)
+        Assert.assertEquals(2, change.newNotices)
+    }
+
+    @Test
+    fun `When snapshot is unchanged then expect empty change set`() {
+        differ.diff(listOf(Result(name = "t1")), projects, emptyList(), 0, false)
+        val change = differ.diff(listOf(Result(name = "t1")), projects.map { it.copy() }, emptyList(), 0, false)
+        Assert.assertTrue(change.isEmpty)
+    }
+
+    @Test
+    fun `When tasks are added, removed and changed then expect them to be reported by name`() {
+        differ.diff(listOf(Result(name = "t1"), Result(name = "t2")), projects, emptyList(), 0, false)
+        val change = differ.diff(listOf(Result(name = "t2", fractionDone = 0.5f), Result(name = "t3")),
+                projects, emptyList(), 0, false)
+        Assert.assertEquals(listOf("t3"), change.addedTasks)
+        Assert.assertEquals(listOf("t1"), change.removedTasks)
+        Assert.assertEquals(listOf("t2"), change.changedTasks)
+        Assert.assertFalse(change.projectsChanged)
+    }
+
+    @Test
+    fun `When credit of project changes then expect the project but not its tasks to be reported`() {
+        differ.diff(listOf(Result(name = "t1", project = projects[0])), projects, emptyList(), 0, false)
+        val credited = listOf(projects[0].copy(userTotalCredit = 10.0), projects[1])
+        val change = differ.diff(listOf(Result(name = "t1", project = credited[0])), credited, emptyList(), 0, false)
+        Assert.assertEquals(listOf("https://a.org/"), change.changedProjects)
+        Assert.assertFalse(change.tasksChanged)
+    }
+
+    @Test
+    fun `When project is detached and list is reused then expect it to be reported`() {
+        val live = projects.toMutableList()
+        differ.diff(emptyList(), live, emptyList(), 0, false)
+        live.removeAt(1)
+        val change = differ.diff(emptyList(), live, emptyList(), 0, false)
+        Assert.assertEquals(listOf("https://b.org/"), change.changedProjects)
+    }
+
+    @Test
+    fun `When transfers change then expect only transfers to be reported`() {
+        differ.diff(emptyList(), projects, emptyList(), 0, false)
+        val change = differ.diff(emptyList(), projects, listOf(Transfer(name = "file")), 0, false)
+        Assert.assertTrue(change.transfersChanged)
+        Assert.assertFalse(change.tasksChanged)
+        Assert.assertFalse(change.projectsChanged)
+    }
+}
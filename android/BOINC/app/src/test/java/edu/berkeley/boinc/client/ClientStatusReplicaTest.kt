@@ -0,0 +1,191 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.content.Context
+import android.content.ContextWrapper
+import android.content.Intent
+import android.os.Parcel
+import androidx.test.core.app.ApplicationProvider
+import edu.berkeley.boinc.rpc.CcStatus
+import edu.berkeley.boinc.rpc.Project
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.Assert
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class ClientStatusReplicaTest {
+    private val broadcasts = mutableListOf<Intent>()
+    private val context = object : ContextWrapper(ApplicationProvider.getApplicationContext<Context>()) {
+        override fun sendBroadcast(intent: Intent?, receiverPermission: String?) {
+            broadcasts.add(intent!!)
+        }
+    }
+    private val status = CcStatus(taskMode = 2, taskModeDelay = 30.0, networkStatus = 1, simpleGuiOnly = true)
+    private val project = Project(masterURL = "https://a.org/", projectName = "A")
+
+    private lateinit var clientStatus: ClientStatus
+    private lateinit var monitor: IMonitor
+    private lateinit var replica: ClientStatusReplica
+
+    @Before
+    fun setUp() {
+        clientStatus = ClientStatus(context, AppPreferences(context), mockk<DeviceStatus>(relaxed = true))
+        // the replica's callback is a local binder, so ClientStatus calls it directly
+        monitor = mockk(relaxed = true)
+        every { monitor.attachReplica(any()) } answers { clientStatus.attachReplica(firstArg()) }
+        every { monitor.detachReplica(any()) } answers { clientStatus.detachReplica(firstArg()) }
+        every { monitor.fullClientStatusBatch } answers { clientStatus.fullBatch }
+        replica = ClientStatusReplica(context)
+    }
+
+    private fun task(name: String, fractionDone: Float = 0f, isActive: Boolean = false) =
+            Result(name = name, projectURL = project.masterURL, fractionDone = fractionDone, isActiveTask = isActive)
+
+    private fun update(results: List<Result>, projects: List<Project> = listOf(project),
+                       transfers: List<Transfer> = emptyList()) =
+            clientStatus.setClientStatus(status, results, projects, transfers, null, null, emptyList())
+
+    private fun replicaTasks(isActive: Boolean = false) = replica.queryTasks(TaskQuery(isActive)).map { it.name }
+
+    @Test
+    fun `When attached then expect the replica to be seeded with the current state`() {
+        update(listOf(task("t1"), task("t2", isActive = true)))
+
+        replica.attach(monitor)
+
+        Assert.assertTrue(replica.isSeeded)
+        Assert.assertEquals(clientStatus.fullBatch.version, replica.version)
+        Assert.assertEquals(listOf("t1"), replicaTasks())
+        Assert.assertEquals(listOf("t2"), replicaTasks(isActive = true))
+        Assert.assertEquals(2, replica.tasksCount)
+        Assert.assertEquals(listOf("A"), replica.projects.map { it.projectName })
+        Assert.assertEquals(clientStatus.currentStatusTitle, replica.currentStatusTitle)
+        Assert.assertEquals(clientStatus.computingStatus, replica.computingStatus)
+    }
+
+    @Test
+    fun `When tasks change then expect the replica to follow the delta batches`() {
+        update(listOf(task("t1"), task("t2"), task("t3")))
+        replica.attach(monitor)
+
+        update(listOf(task("t1", fractionDone = 0.5f), task("t2"), task("t3")))
+        Assert.assertEquals(0.5f, replica.queryTasks(TaskQuery(false))[0].fractionDone)
+
+        update(listOf(task("t1", fractionDone = 0.5f), task("t3"), task("t4")))
+        Assert.assertEquals(listOf("t1", "t3", "t4"), replicaTasks())
+        Assert.assertEquals(clientStatus.fullBatch.version, replica.version)
+        verify(exactly = 0) { monitor.fullClientStatusBatch }
+    }
+
+    @Test
+    fun `When a delta batch is applied then expect the replica to broadcast its change set`() {
+        update(listOf(task("t1"), task("t2")))
+        replica.attach(monitor)
+        broadcasts.clear()
+
+        update(listOf(task("t1", fractionDone = 0.5f), task("t2")))
+
+        Assert.assertEquals(1, broadcasts.size)
+        Assert.assertEquals(listOf("t1"), ClientStatusChange.fromIntent(broadcasts[0])!!.changedTasks)
+    }
+
+    @Test
+    fun `When no replica is attached then expect ClientStatus to broadcast`() {
+        update(listOf(task("t1")))
+
+        Assert.assertEquals(1, broadcasts.size)
+        Assert.assertEquals(listOf("t1"), ClientStatusChange.fromIntent(broadcasts[0])!!.addedTasks)
+    }
+
+    @Test
+    fun `When projects and transfers change then expect them replaced`() {
+        update(listOf(task("t1")))
+        replica.attach(monitor)
+
+        update(listOf(task("t1")), listOf(project, Project(masterURL = "https://b.org/", projectName = "B")),
+                listOf(Transfer(name = "f1")))
+
+        Assert.assertEquals(listOf("A", "B"), replica.projects.map { it.projectName })
+        Assert.assertEquals(listOf("f1"), replica.transfers.map { it.name })
+    }
+
+    @Test
+    fun `When a batch is missed then expect the replica to fetch a full batch`() {
+        update(listOf(task("t1")))
+        replica.attach(monitor)
+        val seeded = replica.version
+        every { monitor.fullClientStatusBatch } answers {
+            Assert.assertFalse(Thread.holdsLock(replica)) // the getters are not blocked by the binder call
+            clientStatus.fullBatch
+        }
+        broadcasts.clear()
+
+        replica.applyBatch(ClientStatusBatch(seeded + 2, seeded + 1, listOf(task("t9"))))
+
+        verify(exactly = 1) { monitor.fullClientStatusBatch }
+        Assert.assertEquals(listOf("t1"), replicaTasks())
+        Assert.assertEquals(seeded, replica.version)
+        Assert.assertNull(ClientStatusChange.fromIntent(broadcasts.single())) // everything may have changed
+    }
+
+    @Test
+    fun `When detached then expect no more batches applied`() {
+        update(listOf(task("t1")))
+        replica.attach(monitor)
+
+        replica.detach()
+        update(listOf(task("t2")))
+
+        Assert.assertFalse(replica.isSeeded)
+        Assert.assertEquals(listOf("t1"), replicaTasks())
+    }
+
+    @Test
+    fun `When a batch is parceled then expect tasks to share their project`() {
+        val tasks = listOf(task("t1").copy(project = project), task("t2").copy(project = project))
+        val change = ClientStatusChange(removedTasks = listOf("t0"), changedTasks = listOf("t1"), newNotices = 2)
+        val expected = ClientStatusBatch(3, 2, tasks, listOf("t0"), listOf("t1", "t2"), listOf(project), null, null, ClientStatus.SETUP_STATUS_AVAILABLE,
+                ClientStatus.COMPUTING_STATUS_COMPUTING, 0, 0, "Running", "Computing", change)
+        val parcel = Parcel.obtain()
+        expected.writeToParcel(parcel, 0)
+        parcel.setDataPosition(0)
+        val actual = ClientStatusBatch.CREATOR.createFromParcel(parcel)
+        parcel.recycle()
+
+        Assert.assertEquals(3L, actual.version)
+        Assert.assertEquals(2L, actual.baseVersion)
+        Assert.assertEquals(expected.results, actual.results)
+        Assert.assertSame(actual.results[0].project, actual.results[1].project)
+        Assert.assertEquals(listOf("t0"), actual.removedTasks)
+        Assert.assertEquals(listOf("t1", "t2"), actual.taskOrder)
+        Assert.assertEquals(listOf(project), actual.projects)
+        Assert.assertNull(actual.transfers)
+        Assert.assertEquals(ClientStatus.COMPUTING_STATUS_COMPUTING, actual.computingStatus)
+        Assert.assertEquals("Computing", actual.statusDescription)
+        Assert.assertEquals(change, actual.change)
+    }
+}
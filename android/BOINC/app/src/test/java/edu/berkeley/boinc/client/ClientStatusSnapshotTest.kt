@@ -0,0 +1,154 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import android.content.Context
+import android.content.ContextWrapper
+import android.content.Intent
+import androidx.test.core.app.ApplicationProvider
+import edu.berkeley.boinc.rpc.AcctMgrInfo
+import edu.berkeley.boinc.rpc.CcStatus
+import edu.berkeley.boinc.rpc.HostInfo
+import edu.berkeley.boinc.rpc.Notice
+import edu.berkeley.boinc.rpc.Project
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+import io.mockk.mockk
+import java.io.File
+import java.util.concurrent.Executor
+import org.junit.Assert
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class ClientStatusSnapshotTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val file by lazy { File(folder.root, "client_status.snapshot") }
+    private val state = ClientStatusSnapshot.State(
+            CcStatus(taskMode = 2, taskModeDelay = 30.0, networkStatus = 1, simpleGuiOnly = true),
+            listOf(Result(name = "t1", projectURL = "https://a.org/"), Result(name = "t2")),
+            listOf(Project(masterURL = "https://a.org/", projectName = "A")),
+            listOf(Transfer(name = "f1")),
+            HostInfo(domainName = "phone"),
+            null,
+            listOf(Notice(seqno = 3, title = "server", isServerNotice = true), Notice(seqno = 4, title = "rss"))
+    )
+
+    private var broadcasts = 0
+    private val context = object : ContextWrapper(ApplicationProvider.getApplicationContext<Context>()) {
+        override fun sendBroadcast(intent: Intent?, receiverPermission: String?) {
+            broadcasts++
+        }
+    }
+
+    private fun clientStatus(snapshotWriter: Executor = Executor { it.run() }) =
+            ClientStatus(context, AppPreferences(context), mockk<DeviceStatus>(relaxed = true)).also {
+                it.snapshotWriter = snapshotWriter
+            }
+
+    @Test
+    fun `When state is written then expect it to be read back`() {
+        Assert.assertTrue(ClientStatusSnapshot(file, 1).write(state))
+        val read = ClientStatusSnapshot(file, 1).read()!!
+        Assert.assertEquals(state.status, read.status)
+        Assert.assertEquals(listOf("t1", "t2"), read.results.map { it.name })
+        Assert.assertEquals("https://a.org/", read.results[0].projectURL)
+        Assert.assertEquals(listOf("A"), read.projects.map { it.projectName })
+        Assert.assertEquals(listOf("f1"), read.transfers.map { it.name })
+        Assert.assertEquals("phone", read.hostInfo?.domainName)
+        Assert.assertNull(read.acctMgrInfo)
+        Assert.assertEquals(listOf(3, 4), read.notices.map { it.seqno })
+    }
+
+    @Test
+    fun `When snapshot was written by another version then expect null`() {
+        ClientStatusSnapshot(file, 1).write(state)
+        Assert.assertNull(ClientStatusSnapshot(file, 2).read())
+    }
+
+    @Test
+    fun `When snapshot is missing or corrupt then expect null`() {
+        Assert.assertNull(ClientStatusSnapshot(file, 1).read())
+        file.writeBytes(byteArrayOf(1, 2, 3))
+        Assert.assertNull(ClientStatusSnapshot(file, 1).read())
+    }
+
+    @Test
+    fun `When snapshot is restored then expect last known state and a broadcast`() {
+        ClientStatusSnapshot(file, 1).write(state.copy(acctMgrInfo = AcctMgrInfo("BAM!", "https://bam.org/", true)))
+        val clientStatus = clientStatus()
+        Assert.assertTrue(clientStatus.restoreSnapshot(ClientStatusSnapshot(file, 1), 4))
+        Assert.assertEquals(ClientStatus.SETUP_STATUS_AVAILABLE, clientStatus.setupStatus)
+        Assert.assertEquals(2, clientStatus.tasksCount)
+        Assert.assertEquals("phone", clientStatus.hostInfo.domainName)
+        Assert.assertEquals(listOf("server"), clientStatus.serverNotices.map { it.title })
+        Assert.assertEquals(listOf("rss"), clientStatus.rssNotices.map { it.title })
+        Assert.assertEquals(1, broadcasts)
+    }
+
+    @Test
+    fun `When client status is read then expect notices after the restored ones and a new snapshot`() {
+        ClientStatusSnapshot(file, 1).write(state)
+        val clientStatus = clientStatus()
+        clientStatus.restoreSnapshot(ClientStatusSnapshot(file, 1), 4)
+        Assert.assertEquals(4, clientStatus.mostRecentNoticeSeqNo)
+        val change = clientStatus.setClientStatus(state.status, listOf(Result(name = "t3")), state.projects,
+                emptyList(), state.hostInfo, AcctMgrInfo(),
+                listOf(Notice(seqno = 4, title = "rss"), Notice(seqno = 5, title = "live", createTime = 1.0,
+                        isServerNotice = true)))
+
+        Assert.assertEquals(1, change.newNotices)
+        Assert.assertEquals(listOf("live", "server"), clientStatus.serverNotices.map { it.title })
+        Assert.assertEquals(listOf("rss"), clientStatus.rssNotices.map { it.title })
+        Assert.assertEquals(listOf("t3"), ClientStatusSnapshot(file, 1).read()!!.results.map { it.name })
+    }
+
+    @Test
+    fun `When snapshots are written faster than the writer then expect only the latest one written`() {
+        ClientStatusSnapshot(file, 1).write(state)
+        val queued = mutableListOf<Runnable>()
+        val clientStatus = clientStatus { queued.add(it) }
+        clientStatus.restoreSnapshot(ClientStatusSnapshot(file, 1), 4)
+
+        clientStatus.setClientStatus(state.status, listOf(Result(name = "t3")), state.projects, emptyList(),
+                state.hostInfo, null, emptyList())
+        clientStatus.setClientStatus(state.status, listOf(Result(name = "t4")), state.projects, emptyList(),
+                state.hostInfo, null, emptyList())
+        Assert.assertEquals(listOf("t1", "t2"), ClientStatusSnapshot(file, 1).read()!!.results.map { it.name })
+
+        Assert.assertEquals(1, queued.size)
+        queued.single().run()
+        Assert.assertEquals(listOf("t4"), ClientStatusSnapshot(file, 1).read()!!.results.map { it.name })
+    }
+
+    @Test
+    fun `When notices are reset then expect them to be read again`() {
+        ClientStatusSnapshot(file, 1).write(state)
+        val clientStatus = clientStatus()
+        clientStatus.restoreSnapshot(ClientStatusSnapshot(file, 1), 4)
+        clientStatus.resetNotices()
+        Assert.assertEquals(0, clientStatus.mostRecentNoticeSeqNo)
+        Assert.assertTrue(clientStatus.serverNotices.isEmpty())
+    }
+}
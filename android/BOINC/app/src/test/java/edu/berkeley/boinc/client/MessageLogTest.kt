@@ -0,0 +1,103 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Message
+import org.junit.Assert
+import org.junit.Test
+
+class MessageLogTest {
+    private val log = MessageLog(capacity = 4)
+
+    private fun messages(seqNos: IntRange) = seqNos.map { Message(seqno = it, body = "message $it") }
+
+    private fun seqNos(messages: List<Message>) = messages.map { it.seqno }
+
+    @Test
+    fun `When messages are appended then expect them in ascending order`() {
+        Assert.assertEquals(0, log.append(messages(1..3)))
+        Assert.assertEquals(listOf(1, 2, 3), seqNos(log))
+        Assert.assertEquals(1, log.firstSeqNo)
+        Assert.assertEquals(3, log.lastSeqNo)
+    }
+
+    @Test
+    fun `When capacity is exceeded then expect the oldest messages to be dropped`() {
+        log.append(messages(1..3))
+        Assert.assertEquals(2, log.append(messages(4..5)))
+        Assert.assertEquals(listOf(2, 3, 4, 5), seqNos(log))
+        Assert.assertEquals(3, log.append(messages(6..8)))
+        Assert.assertEquals(listOf(5, 6, 7, 8), seqNos(log))
+    }
+
+    @Test
+    fun `When known messages are appended again then expect them to be skipped`() {
+        log.append(messages(1..3))
+        log.append(messages(2..4))
+        Assert.assertEquals(listOf(1, 2, 3, 4), seqNos(log))
+    }
+
+    @Test
+    fun `When older messages are prepended then expect them as far as there is room`() {
+        log.append(messages(8..9))
+        Assert.assertEquals(2, log.prepend(messages(4..7)))
+        Assert.assertEquals(listOf(6, 7, 8, 9), seqNos(log))
+        Assert.assertEquals(0, log.prepend(messages(1..3)))
+    }
+
+    @Test
+    fun `When messages are prepended to an empty log then expect them all`() {
+        Assert.assertEquals(2, log.prepend(messages(5..6)))
+        Assert.assertEquals(listOf(5, 6), seqNos(log))
+    }
+
+    @Test
+    fun `When window is requested then expect the messages within it`() {
+        log.append(messages(1..2))
+        log.append(messages(4..6)) // wraps around, 1 dropped
+        Assert.assertEquals(listOf(2, 4), seqNos(log.window(2, 5)))
+        Assert.assertEquals(listOf(4, 5, 6), seqNos(log.window(3, Int.MAX_VALUE)))
+        Assert.assertTrue(log.window(7, 10).isEmpty())
+        Assert.assertTrue(log.window(5, 5).isEmpty())
+    }
+
+    @Test
+    fun `When window is limited then expect its oldest messages`() {
+        log.append(messages(1..4))
+        Assert.assertEquals(listOf(2, 3), seqNos(log.window(2, Int.MAX_VALUE, 2)))
+        Assert.assertEquals(listOf(4), seqNos(log.window(4, Int.MAX_VALUE, 2)))
+        Assert.assertEquals(listOf(1, 2, 3, 4), seqNos(log.window(0, Int.MAX_VALUE, Int.MAX_VALUE)))
+    }
+
+    @Test
+    fun `When log is reset then expect it empty`() {
+        log.append(messages(1..3))
+        log.reset()
+        Assert.assertTrue(log.isEmpty())
+        Assert.assertEquals(0, log.lastSeqNo)
+        log.append(messages(1..1))
+        Assert.assertEquals(listOf(1), seqNos(log))
+    }
+
+    @Test
+    fun `When log is viewed reversed then expect newest first`() {
+        log.append(messages(1..6))
+        Assert.assertEquals(listOf(6, 5, 4, 3), seqNos(log.asReversed()))
+    }
+}
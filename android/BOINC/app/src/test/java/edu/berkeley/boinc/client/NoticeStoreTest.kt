@@ -0,0 +1,76 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Notice
+import org.junit.Assert
+import org.junit.Test
+
+class NoticeStoreTest {
+    private val store = NoticeStore(capacity = 3)
+
+    private fun rss(seqno: Int, createTime: Double) = Notice(seqno = seqno, title = "rss $seqno", createTime = createTime)
+
+    @Test
+    fun `When notices are added then expect them newest first by kind`() {
+        val added = store.add(listOf(rss(1, 10.0), Notice(seqno = 2, isServerNotice = true), rss(3, 30.0),
+                rss(4, 20.0), Notice(seqno = 5, isClientNotice = true)))
+        Assert.assertEquals(5, added)
+        Assert.assertEquals(listOf(3, 4, 1), store.rssNotices.map { it.seqno })
+        Assert.assertEquals(listOf(2), store.serverNotices.map { it.seqno })
+        Assert.assertEquals(5, store.mostRecentSeqNo)
+    }
+
+    @Test
+    fun `When notices were seen already then expect them to be skipped`() {
+        store.add(listOf(rss(1, 10.0), rss(2, 20.0)))
+        Assert.assertEquals(1, store.add(listOf(rss(1, 10.0), rss(2, 20.0), rss(3, 30.0))))
+        Assert.assertEquals(3, store.rssNotices.size)
+    }
+
+    @Test
+    fun `When capacity is exceeded then expect the oldest notices to be dropped`() {
+        store.add(listOf(rss(1, 40.0), rss(2, 10.0), rss(3, 30.0), rss(4, 20.0), rss(5, 5.0)))
+        Assert.assertEquals(listOf(1, 3, 4), store.rssNotices.map { it.seqno })
+        Assert.assertEquals(5, store.mostRecentSeqNo)
+    }
+
+    @Test
+    fun `When notices have the same creation time then expect arrival order`() {
+        store.add(listOf(rss(1, 10.0), rss(2, 10.0)))
+        Assert.assertEquals(listOf(1, 2), store.rssNotices.map { it.seqno })
+    }
+
+    @Test
+    fun `When notices are restored then expect them sorted and reading to continue after seqno`() {
+        store.restore(listOf(rss(1, 10.0), Notice(seqno = 2, isServerNotice = true), rss(3, 30.0)), 7)
+        Assert.assertEquals(listOf(3, 1), store.rssNotices.map { it.seqno })
+        Assert.assertEquals(1, store.serverNotices.size)
+        Assert.assertEquals(0, store.add(listOf(rss(7, 70.0))))
+        Assert.assertEquals(1, store.add(listOf(rss(8, 80.0))))
+    }
+
+    @Test
+    fun `When store is cleared then expect no notices and seqno 0`() {
+        store.add(listOf(rss(1, 10.0)))
+        store.clear()
+        Assert.assertTrue(store.rssNotices.isEmpty())
+        Assert.assertEquals(0, store.mostRecentSeqNo)
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import java.io.File
+import org.junit.Assert
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class ProcessInspectorTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val client = "/data/user/0/edu.berkeley.boinc/client/boinc"
+    private val inspector by lazy { ProcessInspector(folder.root) }
+
+    private fun process(pid: Int, vararg args: String): File {
+        val dir = folder.newFolder(pid.toString())
+        return File(dir, "cmdline").apply { writeBytes(args.joinToString("\u0000", postfix = "\u0000").toByteArray()) }
+    }
+
+    @Test
+    fun `When client is running then expect its PID`() {
+        process(1, "/init")
+        process(4711, client, "--daemon", "--gui_rpc_unix_domain")
+        folder.newFolder("self")
+        Assert.assertEquals(4711, inspector.findPid(client))
+    }
+
+    @Test
+    fun `When only an argument matches then expect no PID`() {
+        process(42, "/system/bin/sh", client)
+        Assert.assertNull(inspector.findPid(client))
+    }
+
+    @Test
+    fun `When cached process ended then expect null`() {
+        val cmdline = process(4711, client)
+        Assert.assertEquals(4711, inspector.findPid(client))
+        cmdline.parentFile!!.deleteRecursively()
+        Assert.assertNull(inspector.findPid(client))
+    }
+
+    @Test
+    fun `When process is a zombie then expect it not to be alive`() {
+        process(4711, client).writeBytes(ByteArray(0))
+        Assert.assertFalse(inspector.isAlive(4711, client))
+    }
+
+    private fun stat(pid: Int, comm: String, startTime: Long) = File(folder.root, "$pid/stat").writeText(
+            "$pid ($comm) S 1 $pid 0 0 -1 4194560 100 0 0 0 5 3 0 0 20 0 1 0 $startTime 12345678 500 0\n")
+
+    private fun bootId(id: String) = File(folder.root, "sys/kernel/random").apply { mkdirs() }
+            .resolve("boot_id").writeText("$id\n")
+
+    @Test
+    fun `When process is started again with the same PID then expect another process key`() {
+        bootId("boot-1")
+        process(4711, client)
+        stat(4711, "boinc", 5000)
+        val first = inspector.processKey(4711)
+        stat(4711, "boinc", 9000)
+        Assert.assertEquals("4711:5000:boot-1", first)
+        Assert.assertEquals("4711:9000:boot-1", inspector.processKey(4711))
+    }
+
+    @Test
+    fun `When command name contains spaces and parentheses then expect the start time`() {
+        process(4711, client)
+        stat(4711, "bo (inc) x", 5000)
+        Assert.assertEquals("4711:5000:", inspector.processKey(4711))
+    }
+
+    @Test
+    fun `When process does not exist then expect no process key`() {
+        Assert.assertNull(inspector.processKey(4711))
+    }
+
+    @Test
+    fun `When process does not end then expect awaitExit to time out`() {
+        process(4711, client)
+        Assert.assertFalse(inspector.awaitExit(client, 30, 10))
+    }
+
+    @Test
+    fun `When process ends then expect awaitExit to return`() {
+        val cmdline = process(4711, client)
+        val exit = Thread {
+            Thread.sleep(20)
+            cmdline.parentFile!!.deleteRecursively()
+        }.apply { start() }
+        Assert.assertTrue(inspector.awaitExit(client, 5000, 5))
+        exit.join()
+    }
+}
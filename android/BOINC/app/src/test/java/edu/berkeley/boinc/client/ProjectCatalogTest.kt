@@ -0,0 +1,119 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.AccountManager
+import edu.berkeley.boinc.rpc.AllProjectsList
+import edu.berkeley.boinc.rpc.ProjectInfo
+import org.junit.Assert
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class ProjectCatalogTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private var loads = 0
+    private var list: AllProjectsList? = AllProjectsList(listOf(
+            ProjectInfo(name = "Arm", url = "https://arm.example/", platforms = listOf("arm-android-linux-gnu")),
+            ProjectInfo(name = "X86", url = "https://x86.example/", platforms = listOf("x86-android-linux-gnu")),
+            ProjectInfo(name = "Both", url = "https://both.example/",
+                    platforms = listOf("arm-android-linux-gnu", "x86-android-linux-gnu"))
+    ), listOf(AccountManager(name = "Manager", url = "https://manager.example/")))
+    private val catalog = ProjectCatalog { loads++; list }
+
+    @Test
+    fun `When installed file is unchanged then expect list to be loaded once`() {
+        catalog.file = folder.newFile("all_projects_list.xml").apply { writeText("<projects/>") }
+        val first = catalog.get()
+        Assert.assertSame(first, catalog.get())
+        Assert.assertEquals(1, loads)
+    }
+
+    @Test
+    fun `When installed file changed then expect list to be loaded again`() {
+        val file = folder.newFile("all_projects_list.xml").apply { writeText("<projects/>") }
+        catalog.file = file
+        catalog.get()
+        file.writeText("<projects><project/></projects>")
+        catalog.get()
+        Assert.assertEquals(2, loads)
+    }
+
+    @Test
+    fun `When installed file is touched with same content then expect list not to be loaded again`() {
+        val file = folder.newFile("all_projects_list.xml").apply { writeText("<projects/>") }
+        catalog.file = file
+        catalog.get()
+        file.setLastModified(file.lastModified() - 10_000)
+        catalog.get()
+        Assert.assertEquals(1, loads)
+    }
+
+    @Test
+    fun `When installed file is unknown then expect list to be loaded on every call`() {
+        catalog.get()
+        catalog.get()
+        Assert.assertEquals(2, loads)
+    }
+
+    @Test
+    fun `When loading fails then expect previous catalog`() {
+        val first = catalog.get()
+        list = null
+        Assert.assertSame(first, catalog.get())
+    }
+
+    @Test
+    fun `When loaded list is empty then expect previous catalog and list to be loaded again`() {
+        catalog.file = folder.newFile("all_projects_list.xml").apply { writeText("<projects/>") }
+        val first = catalog.get()
+        catalog.file = folder.newFile("all_projects_list_2.xml").apply { writeText("<error/>") }
+        list = AllProjectsList(emptyList(), emptyList())
+        Assert.assertSame(first, catalog.get())
+        Assert.assertSame(first, catalog.get())
+        Assert.assertEquals(3, loads)
+    }
+
+    @Test
+    fun `When first loaded list is empty then expect no catalog`() {
+        list = AllProjectsList(emptyList(), emptyList())
+        catalog.file = folder.newFile("all_projects_list.xml").apply { writeText("<error/>") }
+        Assert.assertNull(catalog.get())
+        Assert.assertNull(catalog.get())
+        Assert.assertEquals(2, loads)
+    }
+
+    @Test
+    fun `Expect projects to be filtered by platform and alternative platform`() {
+        val catalog = catalog.get()!!
+        Assert.assertEquals(listOf("Arm", "Both"), catalog.forPlatform("arm-android", "").map { it.name })
+        Assert.assertEquals(listOf("Arm", "X86", "Both"),
+                catalog.forPlatform("arm-android", "x86-android").map { it.name })
+    }
+
+    @Test
+    fun `Expect project info and account managers to be found`() {
+        val catalog = catalog.get()!!
+        Assert.assertEquals("Both", catalog.projectInfo("https://both.example/")?.name)
+        Assert.assertNull(catalog.projectInfo("https://unknown.example/"))
+        Assert.assertEquals(1, catalog.accountManagers.size)
+    }
+}
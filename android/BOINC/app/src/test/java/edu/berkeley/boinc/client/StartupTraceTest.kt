@@ -0,0 +1,47 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import org.junit.Assert
+import org.junit.Test
+
+class StartupTraceTest {
+    private var now = 1000L
+    private val trace = StartupTrace { now }
+
+    @Test
+    fun `When phases ran then expect their durations and total`() {
+        trace.measure("detect") { now += 20 }
+        Assert.assertEquals("connected", trace.measure("connect") { now += 300; "connected" })
+        Assert.assertEquals(20L, trace.durationMs("detect"))
+        Assert.assertEquals(300L, trace.durationMs("connect"))
+        Assert.assertNull(trace.durationMs("install"))
+        Assert.assertEquals("detect 20 ms, connect 300 ms, total 320 ms", trace.toString())
+    }
+
+    @Test
+    fun `When phase throws then expect its duration to be recorded`() {
+        try {
+            trace.measure("install") { now += 5; throw IllegalStateException() }
+            Assert.fail()
+        } catch (e: IllegalStateException) {
+            Assert.assertEquals(5L, trace.durationMs("install"))
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.utils.RESULT_FILES_DOWNLOADED
+import edu.berkeley.boinc.utils.RESULT_FILES_UPLOADED
+import org.junit.Assert
+import org.junit.Before
+import org.junit.Test
+
+class TaskIndexTest {
+    private val index = TaskIndex()
+
+    @Before
+    fun setUp() {
+        index.update((0 until 25).map {
+            Result(name = "t$it", isActiveTask = it % 5 == 0, projectURL = if (it % 2 == 0) "a" else "b",
+                    reportDeadline = (100 - it).toLong(),
+                    state = if (it < 10) RESULT_FILES_DOWNLOADED else RESULT_FILES_UPLOADED)
+        })
+    }
+
+    @Test
+    fun `When inactive tasks are paged then expect every task exactly once`() {
+        val names = mutableListOf<String>()
+        var query = TaskQuery(false, count = 7)
+        while (true) {
+            val page = index.page(query)
+            names.addAll(page.map { it.name })
+            if (page.size < query.count) break
+            query = query.next(page)
+        }
+        Assert.assertEquals(20, names.size)
+        Assert.assertEquals(names.distinct(), names)
+        Assert.assertEquals("t1", names.first())
+    }
+
+    @Test
+    fun `When tasks before the cursor are removed between pages then expect no task to be skipped`() {
+        val first = index.page(TaskQuery(false, count = 3))
+        Assert.assertEquals(listOf("t1", "t2", "t3"), first.map { it.name })
+        index.update((2 until 25).map { Result(name = "t$it") })
+        Assert.assertEquals(listOf("t4", "t5", "t6"), index.page(TaskQuery(false, count = 3).next(first)).map { it.name })
+    }
+
+    @Test
+    fun `When last task of the previous page is gone then expect paging to restart`() {
+        val first = index.page(TaskQuery(false, count = 3))
+        index.update((4 until 25).map { Result(name = "t$it") })
+        Assert.assertEquals(listOf("t4", "t5", "t6"), index.page(TaskQuery(false, count = 3).next(first)).map { it.name })
+    }
+
+    @Test
+    fun `When active tasks are queried then expect only active tasks`() {
+        Assert.assertEquals(listOf("t0", "t5", "t10", "t15", "t20"), index.page(TaskQuery(true)).map { it.name })
+    }
+
+    @Test
+    fun `When filtered by project and state then expect matching tasks only`() {
+        val page = index.page(TaskQuery(false, projectUrl = "b", state = RESULT_FILES_DOWNLOADED))
+        Assert.assertEquals(listOf("t1", "t3", "t7", "t9"), page.map { it.name })
+    }
+
+    @Test
+    fun `When sorted by deadline then expect earliest deadline first`() {
+        val page = index.page(TaskQuery(false, count = 2, sortOrder = TaskQuery.SORT_DEADLINE))
+        Assert.assertEquals(listOf("t24", "t23"), page.map { it.name })
+    }
+
+    @Test
+    fun `When filtered by deadline then expect earlier deadlines only`() {
+        val page = index.page(TaskQuery(true, deadlineBefore = 90))
+        Assert.assertEquals(listOf("t15", "t20"), page.map { it.name })
+    }
+
+    @Test
+    fun `When cursor is beyond the end then expect empty page`() {
+        Assert.assertTrue(index.page(TaskQuery(true, cursor = 5)).isEmpty())
+    }
+
+    @Test
+    fun `When index is updated then expect cached views to be dropped`() {
+        index.page(TaskQuery(false, projectUrl = "a"))
+        index.update(listOf(Result(name = "new", projectURL = "a")))
+        Assert.assertEquals(listOf("new"), index.page(TaskQuery(false, projectUrl = "a")).map { it.name })
+        Assert.assertEquals(1, index.size)
+    }
+}
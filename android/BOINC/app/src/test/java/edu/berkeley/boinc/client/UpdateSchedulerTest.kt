@@ -0,0 +1,82 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.client
+
+import edu.berkeley.boinc.rpc.Result
+import edu.berkeley.boinc.rpc.Transfer
+import org.junit.Assert
+import org.junit.Test
+
+class UpdateSchedulerTest {
+    private val scheduler = UpdateScheduler(1000, 10000, idleUpdates = 2, maxIdleDelayMs = 5000,
+            maxListeningDelayMs = 30000, batteryFactor = 2)
+    private val changed = ClientStatusChange(changedTasks = listOf("task"))
+    private val unchanged = ClientStatusChange()
+
+    private fun next(change: ClientStatusChange? = unchanged, screenOn: Boolean = true, onBattery: Boolean = false,
+                     busy: Boolean = false, listening: Boolean = false) =
+            scheduler.next(change, screenOn, onBattery, busy, listening)
+
+    @Test
+    fun `When status changes then expect the interval`() {
+        repeat(5) { Assert.assertEquals(1000L, next(changed)) }
+    }
+
+    @Test
+    fun `When nothing changed for a few updates then expect the delay to double up to the maximum`() {
+        Assert.assertEquals(listOf(1000L, 2000L, 4000L, 5000L, 5000L), (1..5).map { next() })
+    }
+
+    @Test
+    fun `When change listener is connected then expect the delay to grow further`() {
+        Assert.assertEquals(30000L, (1..10).map { next(listening = true) }.last())
+    }
+
+    @Test
+    fun `When client status changes again then expect the interval at once`() {
+        repeat(5) { next() }
+        Assert.assertEquals(1000L, next(changed))
+    }
+
+    @Test
+    fun `When client is busy then expect the interval even if nothing changed`() {
+        repeat(5) { next() }
+        Assert.assertEquals(1000L, next(busy = true, onBattery = true))
+    }
+
+    @Test
+    fun `When screen is off then expect the screen off delay`() {
+        Assert.assertEquals(10000L, next(change = null, screenOn = false, busy = true))
+    }
+
+    @Test
+    fun `When device runs on battery then expect slower updates`() {
+        Assert.assertEquals(2000L, next(changed, onBattery = true))
+        Assert.assertEquals(20000L, next(change = null, screenOn = false, onBattery = true))
+    }
+
+    @Test
+    fun `Expect busy when a task is about to finish or a transfer is running`() {
+        val running = Result(isActiveTask = true, fractionDone = 0.5f, estimatedCPUTimeRemaining = 3600.0)
+        Assert.assertFalse(UpdateScheduler.isBusy(listOf(running), listOf(Transfer())))
+        Assert.assertTrue(UpdateScheduler.isBusy(listOf(running.copy(fractionDone = 0.97f)), emptyList()))
+        Assert.assertTrue(UpdateScheduler.isBusy(listOf(running.copy(estimatedCPUTimeRemaining = 10.0)), emptyList()))
+        Assert.assertTrue(UpdateScheduler.isBusy(emptyList(), listOf(Transfer(isTransferActive = true))))
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import android.os.Parcel
+import android.os.Parcelable
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class BulkListParcelableTest {
+    private val project = Project(masterURL = "https://project.org/", projectName = "Project",
+            guiURLs = mutableListOf(GuiUrl("Forum", "Message boards", "https://project.org/forum")))
+    private val app = App("app", "Application", 0, project)
+    private val appVersion = AppVersion("app", 700, "arm-android-linux-gnu", null, null, 1.0, 1.0, 0.0, app, project)
+
+    private fun results(count: Int) = List(count) {
+        Result(name = "task_$it", workUnitName = "wu_$it", projectURL = project.masterURL,
+                project = project, app = app, appVersion = appVersion,
+                workUnit = WorkUnit("wu_$it", "app", 700, project = project, app = app))
+    }
+
+    private fun <T : Parcelable> roundTrip(value: T, creator: Parcelable.Creator<T>): T {
+        val parcel = Parcel.obtain()
+        try {
+            value.writeToParcel(parcel, value.describeContents())
+            parcel.setDataPosition(0)
+            return creator.createFromParcel(parcel)
+        } finally {
+            parcel.recycle()
+        }
+    }
+
+    private fun dataSize(write: (Parcel) -> Unit): Int {
+        val parcel = Parcel.obtain()
+        try {
+            write(parcel)
+            return parcel.dataSize()
+        } finally {
+            parcel.recycle()
+        }
+    }
+
+    @Test
+    fun `Test ResultList round trip`() {
+        val expected = results(10)
+        val actual = roundTrip(ResultList(expected), ResultList.CREATOR).items
+
+        Assert.assertEquals(expected, actual)
+    }
+
+    @Test
+    fun `Test ResultList shares referenced objects and strings`() {
+        val actual = roundTrip(ResultList(results(3)), ResultList.CREATOR).items
+
+        val sharedProject = actual[0].project
+        Assert.assertNotNull(sharedProject)
+        actual.forEach {
+            Assert.assertSame(sharedProject, it.project)
+            Assert.assertSame(sharedProject, it.app!!.project)
+            Assert.assertSame(sharedProject, it.appVersion!!.project)
+            Assert.assertSame(sharedProject, it.workUnit!!.project)
+            Assert.assertSame(actual[0].app, it.workUnit!!.app)
+            Assert.assertSame(sharedProject!!.masterURL, it.projectURL)
+        }
+    }
+
+    @Test
+    fun `Test ResultList with null references`() {
+        val expected = listOf(Result(name = "task"), Result(name = "task", planClass = "opencl"))
+        val actual = roundTrip(ResultList(expected), ResultList.CREATOR).items
+
+        Assert.assertEquals(expected, actual)
+        Assert.assertNull(actual[0].project)
+        Assert.assertNull(actual[0].planClass)
+    }
+
+    @Test
+    fun `Test empty ResultList`() {
+        Assert.assertEquals(emptyList<Result>(), roundTrip(ResultList(emptyList()), ResultList.CREATOR).items)
+    }
+
+    @Test
+    fun `Test ResultList is smaller than the plain list`() {
+        val results = results(50)
+        val plain = dataSize { it.writeTypedList(results) }
+        val interned = dataSize { ResultList(results).writeToParcel(it, 0) }
+
+        Assert.assertTrue("$interned bytes, plain $plain bytes", interned * 3 < plain)
+    }
+
+    @Test
+    fun `Test plain Parcelable format is unchanged by the codec`() {
+        val expected = results(1)[0]
+        val parcel = Parcel.obtain()
+        expected.writeToParcel(parcel, 0)
+        parcel.setDataPosition(0)
+
+        Assert.assertEquals("task_0", parcel.readString())
+        parcel.setDataPosition(0)
+        Assert.assertEquals(expected, Result.CREATOR.createFromParcel(parcel))
+        parcel.recycle()
+    }
+
+    @Test
+    fun `Test ProjectList round trip`() {
+        val expected = listOf(project, Project(masterURL = "https://other.org/", userName = "user"))
+
+        Assert.assertEquals(expected, roundTrip(ProjectList(expected), ProjectList.CREATOR).items)
+    }
+
+    @Test
+    fun `Test TransferList round trip`() {
+        val expected = listOf(Transfer("file_1", project.masterURL, 1000, isUpload = true),
+                Transfer("file_2", project.masterURL, 2000, bytesTransferred = 500))
+        val actual = roundTrip(TransferList(expected), TransferList.CREATOR).items
+
+        Assert.assertEquals(expected, actual)
+        Assert.assertSame(actual[0].projectUrl, actual[1].projectUrl)
+    }
+
+    @Test
+    fun `Test Creator newArray()`() {
+        Assert.assertEquals(2, ResultList.CREATOR.newArray(2).size)
+        Assert.assertEquals(2, ProjectList.CREATOR.newArray(2).size)
+        Assert.assertEquals(2, TransferList.CREATOR.newArray(2).size)
+    }
+}
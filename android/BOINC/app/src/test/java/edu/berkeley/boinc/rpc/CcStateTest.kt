@@ -179,7 +179,61 @@ class CcStateTest {
         Assertions.assertEquals(PLAN_CLASS, foundAppVersion.planClass)
     }
 
+    @Test
+    fun `Expect lookupWorkUnit() to find work units added after a previous lookup`() {
+        Assertions.assertNull(ccState.lookupWorkUnit(project, "$WORK_UNIT 2"))
+        ccState.workUnits.add(WorkUnit(name = "$WORK_UNIT 2", project = project))
+
+        Assertions.assertEquals("$WORK_UNIT 2", ccState.lookupWorkUnit(project, "$WORK_UNIT 2")!!.name)
+    }
+
+    @Test
+    fun `Expect lookupApp() to match app name ignoring case`() {
+        Assertions.assertEquals(app, ccState.lookupApp(project, APP.uppercase()))
+    }
+
+    @Test
+    fun `Expect lookupApp() to forget apps removed by clearArrays()`() {
+        Assertions.assertNotNull(ccState.lookupApp(project, APP))
+        ccState.clearArrays()
+        ccState.apps.add(App(name = "$APP 2", project = project))
+
+        Assertions.assertNull(ccState.lookupApp(project, APP))
+        Assertions.assertNotNull(ccState.lookupApp(project, "$APP 2"))
+    }
+
+    @Test
+    fun `Expect mergeActiveResults() to replace active results and keep their links`() {
+        ccState.results.add(Result(name = RESULT, app = app, project = project, isActiveTask = true))
+        ccState.results.add(Result(name = "$RESULT 2"))
+        val active = Result(name = RESULT, isActiveTask = true, fractionDone = 0.5f)
+
+        Assertions.assertTrue(ccState.mergeActiveResults(listOf(active)))
+        Assertions.assertSame(active, ccState.results[0])
+        Assertions.assertEquals(app, active.app)
+        Assertions.assertEquals(project, active.project)
+        Assertions.assertEquals("$RESULT 2", ccState.results[1].name)
+    }
+
+    @Test
+    fun `Expect mergeActiveResults() to return false when result is unknown`() {
+        ccState.results.add(Result(name = RESULT))
+
+        Assertions.assertFalse(ccState.mergeActiveResults(listOf(Result(name = "$RESULT 2"))))
+        Assertions.assertEquals(RESULT, ccState.results[0].name)
+    }
+
+    @Test
+    fun `Expect mergeActiveResults() to return false when active result is missing`() {
+        val known = Result(name = RESULT, isActiveTask = true)
+        ccState.results.add(known)
+
+        Assertions.assertFalse(ccState.mergeActiveResults(emptyList()))
+        Assertions.assertSame(known, ccState.results[0])
+    }
+
     companion object {
+        private const val RESULT = "Result"
         private const val APP = "App"
         private const val PLAN_CLASS = "Plan Class"
         private const val URL_1 = "URL 1"
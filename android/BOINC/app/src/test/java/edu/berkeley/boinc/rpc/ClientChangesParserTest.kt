@@ -0,0 +1,82 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import org.junit.After
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class ClientChangesParserTest {
+    private val engine = ParserEngine.current
+
+    @After
+    fun tearDown() {
+        ParserEngine.current = engine
+    }
+
+    private fun parse(body: String): ClientChanges? {
+        ParserEngine.current = ParserEngine.PULL
+        return ClientChangesParser.parse("<boinc_gui_rpc_reply>\n$body</boinc_gui_rpc_reply>\n")
+    }
+
+    @Test
+    fun `When reply has changed parts then expect them to be set`() {
+        Assert.assertEquals(ClientChanges(seqno = 42, tasks = true, notices = true),
+                parse("<client_changes>\n<seqno>42</seqno>\n<tasks/>\n<notices/>\n</client_changes>\n"))
+    }
+
+    @Test
+    fun `When wait timed out then expect empty changes`() {
+        val changes = parse("<client_changes>\n<seqno>7</seqno>\n</client_changes>\n")
+        Assert.assertEquals(7L, changes?.seqno)
+        Assert.assertTrue(changes!!.isEmpty)
+    }
+
+    @Test
+    fun `When client does not know the RPC then expect unsupported`() {
+        Assert.assertTrue(parse("<error>unrecognized op: wait_for_changes</error>\n")!!.unsupported)
+    }
+
+    @Test
+    fun `When seqno is -1 then expect it not to be taken for unsupported`() {
+        Assert.assertFalse(parse("<client_changes>\n<seqno>-1</seqno>\n</client_changes>\n")!!.unsupported)
+    }
+
+    @Test
+    fun `When reply is empty then expect null`() {
+        ParserEngine.current = ParserEngine.PULL
+        Assert.assertNull(ClientChangesParser.parse(""))
+    }
+
+    @Test
+    fun `When SAX parser gets changed parts then expect them to be set`() {
+        val parser = ClientChangesParser()
+        parser.startElement(null, ClientChangesParser.CLIENT_CHANGES_TAG, null, null)
+        parser.startElement(null, ClientChangesParser.SEQNO, null, null)
+        parser.characters("3".toCharArray(), 0, 1)
+        parser.endElement(null, ClientChangesParser.SEQNO, null)
+        parser.startElement(null, ClientChangesParser.TRANSFERS, null, null)
+        parser.endElement(null, ClientChangesParser.TRANSFERS, null)
+        parser.endElement(null, ClientChangesParser.CLIENT_CHANGES_TAG, null)
+        Assert.assertEquals(ClientChanges(seqno = 3, transfers = true), parser.changes)
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import okio.Buffer
+import org.junit.After
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class EngineParserTest {
+    @After
+    fun tearDown() {
+        ParserEngine.current = ParserEngine.SAX
+    }
+
+    private fun latin1Reply() = Buffer().write(("<?xml version=\"1.0\" encoding=\"ISO-8859-1\" ?>\n" +
+            "<projects><project><name>Einstein@Höme</name></project></projects>").toByteArray(Charsets.ISO_8859_1))
+
+    @Test
+    fun `When streamed reply declares ISO-8859-1 then expect it to be decoded with SAX`() {
+        ParserEngine.current = ParserEngine.SAX
+        Assert.assertEquals("Einstein@Höme", ProjectInfoParser.parse(latin1Reply()).single().name)
+    }
+
+    @Test
+    fun `When streamed reply declares ISO-8859-1 then expect it to be decoded with PULL`() {
+        ParserEngine.current = ParserEngine.PULL
+        Assert.assertEquals("Einstein@Höme", ProjectInfoParser.parse(latin1Reply()).single().name)
+    }
+
+    @Test
+    fun `When streamed reply is malformed then expect empty list with SAX`() {
+        ParserEngine.current = ParserEngine.SAX
+        Assert.assertTrue(TransfersParser.parse(Buffer().writeUtf8("<file_transfers><file_transfer>")).isEmpty())
+    }
+
+    @Test
+    fun `When streamed reply is malformed then expect empty list with PULL`() {
+        ParserEngine.current = ParserEngine.PULL
+        Assert.assertTrue(TransfersParser.parse(Buffer().writeUtf8("<file_transfers><file_transfer>")).isEmpty())
+    }
+
+    @Test
+    fun `When streamed reply is malformed then expect null`() {
+        Assert.assertNull(ResultsParser.parseOrNull(Buffer().writeUtf8("<results><result></results>")))
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import edu.berkeley.boinc.benchmark.Fixtures
+import okio.Buffer
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * Runs every parser with both [ParserEngine]s on the same reply and expects the same result.
+ */
+@RunWith(RobolectricTestRunner::class)
+class ParserEngineParityTest {
+    private fun <T> parseWithBoth(parser: EngineParser<*, T>, reply: String): T {
+        val sax = parser.parse(Buffer().writeUtf8(reply), ParserEngine.SAX)
+        val pull = parser.parse(Buffer().writeUtf8(reply), ParserEngine.PULL)
+        Assert.assertEquals(sax, pull)
+        return pull
+    }
+
+    @Test
+    fun `When parsing client state then expect same state with both engines`() {
+        val ccState = parseWithBoth(CcStateParser.ENGINE_PARSER, Fixtures.ccState(100))!!
+        Assert.assertEquals(100, ccState.results.size)
+        Assert.assertTrue(ccState.projects.all { it.guiURLs.size == 2 })
+    }
+
+    @Test
+    fun `When parsing project status then expect same projects and gui urls with both engines`() {
+        val projects = parseWithBoth(ProjectsParser.ENGINE_PARSER, Fixtures.projectStatus())
+        Assert.assertEquals(8, projects.size)
+        Assert.assertEquals(listOf("Your account", "Forums"), projects[0].guiURLs.map { it.name })
+        Assert.assertEquals("https://project0.example.org/home.php", projects[0].guiURLs[0].url)
+    }
+
+    @Test
+    fun `When parsing results then expect same results with both engines`() {
+        Assert.assertEquals(100, parseWithBoth(ResultsParser.ENGINE_PARSER, Fixtures.results(100)).size)
+        Assert.assertEquals(100, parseWithBoth(ResultsParser.OR_NULL_ENGINE_PARSER, Fixtures.results(100))!!.size)
+    }
+
+    @Test
+    fun `When parsing status then expect same status with both engines`() {
+        Assert.assertNotNull(parseWithBoth(CcStatusParser.ENGINE_PARSER, Fixtures.ccStatus()))
+    }
+
+    @Test
+    fun `When parsing transfers then expect same transfers with both engines`() {
+        Assert.assertEquals(100, parseWithBoth(TransfersParser.ENGINE_PARSER, Fixtures.transfers(100)).size)
+    }
+
+    @Test
+    fun `When parsing messages then expect same messages with both engines`() {
+        Assert.assertEquals(100, parseWithBoth(MessagesParser.ENGINE_PARSER, Fixtures.messages(100)).size)
+    }
+
+    @Test
+    fun `When parsing notices then expect same notices with both engines`() {
+        Assert.assertEquals(100, parseWithBoth(NoticesParser.ENGINE_PARSER, Fixtures.notices(100)).size)
+    }
+
+    @Test
+    fun `When parsing host info then expect same host info with both engines`() {
+        Assert.assertNotNull(parseWithBoth(HostInfoParser.ENGINE_PARSER, Fixtures.hostInfo()))
+    }
+
+    @Test
+    fun `When parsing apps then expect same apps with both engines`() {
+        Assert.assertEquals(8, parseWithBoth(AppsParser.ENGINE_PARSER, Fixtures.apps()).size)
+        Assert.assertEquals(24, parseWithBoth(AppVersionsParser.ENGINE_PARSER, Fixtures.appVersions()).size)
+    }
+
+    @Test
+    fun `When parsing work units then expect same work units with both engines`() {
+        Assert.assertEquals(100, parseWithBoth(WorkUnitsParser.ENGINE_PARSER, Fixtures.workUnits(100)).size)
+    }
+
+    @Test
+    fun `When parsing all projects list then expect same projects and account managers with both engines`() {
+        Assert.assertEquals(100, parseWithBoth(ProjectInfoParser.ENGINE_PARSER, Fixtures.allProjectsList(100)).size)
+        Assert.assertEquals(10, parseWithBoth(AccountManagerParser.ENGINE_PARSER, Fixtures.accountManagers(10)).size)
+    }
+
+    @Test
+    fun `When parsing all projects list in one pass then expect same projects and account managers with both engines`() {
+        val list = parseWithBoth(AllProjectsListParser.ENGINE_PARSER, Fixtures.allProjectsList(100, 10))
+        Assert.assertEquals(100, list.projects.size)
+        Assert.assertEquals(4, list.projects[0].platforms.size)
+        Assert.assertEquals(10, list.accountManagers.size)
+        Assert.assertEquals("https://manager9.example.org/logo.png", list.accountManagers[9].imageUrl)
+    }
+
+    @Test
+    fun `When parsing client changes then expect same changes with both engines`() {
+        val changes = parseWithBoth(ClientChangesParser.ENGINE_PARSER, "<boinc_gui_rpc_reply>\n<client_changes>\n" +
+                "<seqno>5</seqno>\n<tasks/>\n<notices/>\n</client_changes>\n</boinc_gui_rpc_reply>\n")!!
+        Assert.assertEquals(5L, changes.seqno)
+        Assert.assertTrue(changes.tasks && changes.notices)
+        Assert.assertTrue(parseWithBoth(ClientChangesParser.ENGINE_PARSER,
+                "<boinc_gui_rpc_reply>\n<error>unrecognized op: wait_for_changes</error>\n</boinc_gui_rpc_reply>\n")!!.unsupported)
+    }
+}
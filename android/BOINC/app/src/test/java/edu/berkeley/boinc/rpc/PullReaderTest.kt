@@ -0,0 +1,170 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class PullReaderTest {
+    private fun <T> readValue(value: String, read: PullReader.() -> T): T =
+            PullReader.parse("<value>$value</value>") { reader ->
+                var result: T? = null
+                reader.forEachElement("value") { result = it.read() }
+                result!!
+            }
+
+    @Test
+    fun `When reading ints then expect same values as String_toInt()`() {
+        for (value in listOf("0", "7", "-42", "+13", "123456789", "2147483647", "-2147483648")) {
+            Assert.assertEquals(value.toInt(), readValue(value) { int() })
+        }
+    }
+
+    @Test
+    fun `When reading doubles then expect same values as String_toDouble()`() {
+        for (value in listOf("0", "0.1", "-2.5", "1234.5678", "0.000001", "1618033.988749",
+                "1.5e3", "1E-7", "123456789012345678", "3.14159265358979323846")) {
+            Assert.assertEquals(value, value.toDouble(), readValue(value) { double() }, 0.0)
+        }
+    }
+
+    @Test
+    fun `When reading padded text then expect trimmed text`() {
+        Assert.assertEquals("text", readValue("\n  text \n") { text() })
+        Assert.assertEquals("text \n", readValue("\n  text \n") { textKeepEnd() })
+        Assert.assertEquals(12, readValue("\n  12 \n") { int() })
+    }
+
+    @Test
+    fun `When reading flags then expect everything but 0 to be true`() {
+        Assert.assertTrue(readValue("") { bool() })
+        Assert.assertTrue(readValue("1") { bool() })
+        Assert.assertFalse(readValue("0") { bool() })
+    }
+
+    @Test(expected = NumberFormatException::class)
+    fun `When int is malformed then expect NumberFormatException`() {
+        readValue("12a") { int() }
+    }
+
+    @Test
+    fun `When fields are read then expect unknown elements to be skipped`() {
+        val fields = PullFields<MutableMap<String, String>> {
+            field("a") { it["a"] = text() }
+            field("b") { it["b"] = text() }
+        }
+        val values = mutableMapOf<String, String>()
+        PullReader.parse("<x><a>1</a><unknown><b>2</b></unknown><B>3</B></x>") { reader ->
+            reader.forEachElement("x") { fields.read(it, values) }
+        }
+        Assert.assertEquals(mapOf("a" to "1", "b" to "3"), values)
+    }
+
+    @Test
+    fun `When field is malformed then expect the other fields to be read`() {
+        val results = PullReader.parse("""
+            <results>
+                <result>
+                    <name>result</name>
+                    <state>two</state>
+                    <final_cpu_time>1.25</final_cpu_time>
+                </result>
+            </results>
+        """.trimIndent()) { ResultsParser.readResults(it) }
+        Assert.assertEquals(1, results.size)
+        Assert.assertEquals("result", results[0].name)
+        Assert.assertEquals(1.25, results[0].finalCPUTime, 0.0)
+    }
+
+    @Test
+    fun `When result has active task then expect active task fields`() {
+        val results = PullReader.parse("""
+            <results>
+                <result>
+                    <name>result</name>
+                    <active_task>
+                        <pid>123</pid>
+                        <fraction_done>0.5</fraction_done>
+                    </active_task>
+                </result>
+                <result/>
+            </results>
+        """.trimIndent()) { ResultsParser.readResults(it) }
+        Assert.assertEquals(1, results.size)
+        Assert.assertTrue(results[0].isActiveTask)
+        Assert.assertEquals(123, results[0].pid)
+        Assert.assertEquals(0.5f, results[0].fractionDone)
+    }
+
+    @Test
+    fun `When results are read or null then expect empty list for no results and null for error reply`() {
+        val empty = PullReader.parse("<boinc_gui_rpc_reply>\n<results>\n</results>\n</boinc_gui_rpc_reply>") {
+            ResultsParser.readResultsOrNull(it)
+        }
+        Assert.assertEquals(emptyList<Result>(), empty)
+        Assert.assertNull(PullReader.parse("<boinc_gui_rpc_reply>\n<error>unauthorized</error>\n</boinc_gui_rpc_reply>") {
+            ResultsParser.readResultsOrNull(it)
+        })
+        val results = PullReader.parse("<results><result><name>result</name></result><other/></results>") {
+            ResultsParser.readResultsOrNull(it)
+        }
+        Assert.assertEquals(listOf("result"), results?.map { it.name })
+    }
+
+    @Test
+    fun `When transfer has file_xfer then expect active transfer with file_xfer fields`() {
+        val transfers = PullReader.parse("""
+            <file_transfers>
+                <file_transfer>
+                    <project_url>https://project.example/</project_url>
+                    <name>file</name>
+                    <persistent_file_xfer>
+                        <last_bytes_xferred>10</last_bytes_xferred>
+                    </persistent_file_xfer>
+                    <file_xfer>
+                        <bytes_xferred>20</bytes_xferred>
+                    </file_xfer>
+                </file_transfer>
+            </file_transfers>
+        """.trimIndent()) { TransfersParser.readTransfers(it) }
+        Assert.assertEquals(1, transfers.size)
+        Assert.assertTrue(transfers[0].isTransferActive)
+        Assert.assertEquals(20L, transfers[0].bytesTransferred)
+    }
+
+    @Test
+    fun `When client state is read then expect results linked to work units`() {
+        val ccState = PullReader.parse("""
+            <client_state>
+                <project><master_url>https://project.example/</master_url></project>
+                <app><name>app</name></app>
+                <workunit><name>wu</name><app_name>app</app_name></workunit>
+                <result><name>result</name><wu_name>wu</wu_name></result>
+                <core_client_major_version>7</core_client_major_version>
+            </client_state>
+        """.trimIndent()) { CcStateParser.readCcState(it) }
+        Assert.assertEquals(1, ccState.results.size)
+        Assert.assertEquals("wu", ccState.results[0].workUnit?.name)
+        Assert.assertEquals("app", ccState.results[0].app?.name)
+        Assert.assertEquals(7, ccState.versionInfo?.major)
+    }
+}
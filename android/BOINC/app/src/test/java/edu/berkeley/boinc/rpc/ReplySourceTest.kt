@@ -0,0 +1,69 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import okio.Buffer
+import okio.buffer
+import org.junit.Assert
+import org.junit.Test
+
+class ReplySourceTest {
+    @Test
+    fun `When reply is terminated then expect reply without terminator`() {
+        val socket = Buffer().writeUtf8("<boinc_gui_rpc_reply/>\u0003")
+        val reply = ReplySource(socket).buffer().readUtf8()
+        Assert.assertEquals("<boinc_gui_rpc_reply/>", reply)
+        Assert.assertTrue(socket.exhausted())
+    }
+
+    @Test
+    fun `When two replies are queued then expect only the first one`() {
+        val socket = Buffer().writeUtf8("<first/>\u0003<second/>\u0003")
+        Assert.assertEquals("<first/>", ReplySource(socket).buffer().readUtf8())
+        Assert.assertEquals("<second/>", ReplySource(socket).buffer().readUtf8())
+    }
+
+    @Test
+    fun `When reply is only partially read then expect close to skip the rest`() {
+        val socket = Buffer().writeUtf8("<first>content</first>\u0003<second/>\u0003")
+        ReplySource(socket).buffer().use { Assert.assertEquals("<first>", it.readUtf8(7)) }
+        Assert.assertEquals("<second/>", ReplySource(socket).buffer().readUtf8())
+    }
+
+    @Test
+    fun `When stream ends without terminator then expect remaining data`() {
+        val socket = Buffer().writeUtf8("<boinc_gui_rpc_reply/>")
+        val source = ReplySource(socket)
+        Assert.assertEquals("<boinc_gui_rpc_reply/>", source.buffer().readUtf8())
+        Assert.assertEquals(22L, source.bytesRead)
+        Assert.assertTrue(source.endOfStream)
+    }
+
+    @Test
+    fun `When reply is terminated then expect no end of stream`() {
+        val source = ReplySource(Buffer().writeUtf8("<boinc_gui_rpc_reply/>\u0003"))
+        source.buffer().readUtf8()
+        Assert.assertFalse(source.endOfStream)
+    }
+
+    @Test
+    fun `When stream is empty then expect empty reply`() {
+        Assert.assertEquals("", ReplySource(Buffer()).buffer().readUtf8())
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import java.io.IOException
+import java.util.concurrent.CountDownLatch
+import okio.Buffer
+import okio.Sink
+import okio.Timeout
+import okio.buffer
+import org.junit.After
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class RpcClientConnectionTest {
+    private val requests = mutableListOf<String>()
+    private val replyReleased = CountDownLatch(1)
+
+    @Volatile
+    private var clientRunning = true
+
+    @Volatile
+    private var clientBusy = false
+
+    private val server = StandInClient { request ->
+        synchronized(requests) { requests.add(request) }
+        if (!clientRunning) throw IOException("client shut down") // closes the connection
+        if (clientBusy) replyReleased.await()
+        "<cc_status>\n<task_mode>2</task_mode>\n</cc_status>\n"
+    }
+    private val client = RpcClient()
+
+    @After
+    fun tearDown() {
+        replyReleased.countDown()
+        client.close()
+        server.close()
+    }
+
+    @Test
+    fun `When RPCs succeed then expect connection alive without extra requests`() {
+        Assert.assertTrue(client.open(server.address, server.port))
+        Assert.assertTrue(client.connectionAlive())
+        Assert.assertNotNull(client.ccStatus)
+        Assert.assertTrue(client.connectionAlive())
+        Assert.assertEquals(1, synchronized(requests) { requests.size })
+    }
+
+    @Test
+    fun `When client closes the connection then expect connection not alive`() {
+        client.open(server.address, server.port)
+        clientRunning = false
+        Assert.assertNull(client.ccStatus)
+        Assert.assertFalse(client.connectionAlive())
+    }
+
+    @Test
+    fun `When broken connection is opened again then expect connection alive`() {
+        client.open(server.address, server.port)
+        clientRunning = false
+        client.ccStatus
+        clientRunning = true
+        Assert.assertTrue(client.open(server.address, server.port))
+        Assert.assertTrue(client.connectionAlive())
+        Assert.assertNotNull(client.ccStatus)
+    }
+
+    @Test
+    fun `When reply does not arrive in time then expect connection not alive`() {
+        client.readTimeout = 200
+        client.open(server.address, server.port)
+        clientBusy = true
+        Assert.assertNull(client.ccStatus)
+        Assert.assertFalse(client.connectionAlive())
+    }
+
+    @Test
+    fun `When request can not be written then expect connection not alive and no reply read`() {
+        client.open(server.address, server.port)
+        val reply = Buffer().writeUtf8("<boinc_gui_rpc_reply>\n</boinc_gui_rpc_reply>\n\u0003")
+        val failingSink = object : Sink {
+            override fun write(source: Buffer, byteCount: Long) {
+                throw IOException("broken pipe")
+            }
+
+            override fun flush() {}
+
+            override fun timeout() = Timeout.NONE
+
+            override fun close() {}
+        }
+        client.open(reply, failingSink.buffer()) // keeps the socket, replaces its streams
+        Assert.assertNull(client.ccStatus)
+        Assert.assertFalse(client.connectionAlive())
+        Assert.assertFalse(reply.exhausted()) // the reply was left unread
+    }
+
+    @Test
+    fun `When not connected then expect connection not alive`() {
+        Assert.assertFalse(client.connectionAlive())
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import org.junit.Assert
+import org.junit.Test
+
+class RpcLaneTest {
+    private val client = RpcClient()
+    private val lane = RpcLane("test", client)
+
+    @Test
+    fun `When call is running then expect it to be counted in queue depth`() {
+        val depth = lane.call { metrics.queueDepth }
+        Assert.assertEquals(1, depth)
+        Assert.assertEquals(0, client.metrics.queueDepth)
+    }
+
+    @Test
+    fun `When call throws then expect queue depth to be released`() {
+        try {
+            lane.call { error("failed") }
+        } catch (e: IllegalStateException) {
+            // expected
+        }
+        Assert.assertEquals(0, client.metrics.queueDepth)
+    }
+
+    @Test
+    fun `When call runs then expect it to hold the client monitor`() {
+        Assert.assertTrue(lane.call { Thread.holdsLock(this) })
+    }
+
+    @Test
+    fun `When reply is received then expect latency to be recorded`() {
+        client.metrics.requestSent()
+        client.metrics.replyReceived()
+        Assert.assertEquals(1L, client.metrics.requestCount)
+        Assert.assertTrue(client.metrics.averageLatencyMs >= 0.0)
+    }
+
+    @Test
+    fun `When no request was sent then expect no latency to be recorded`() {
+        client.metrics.replyReceived()
+        Assert.assertEquals(0L, client.metrics.requestCount)
+    }
+}
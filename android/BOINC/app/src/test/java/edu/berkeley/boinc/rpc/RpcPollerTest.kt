@@ -0,0 +1,61 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import edu.berkeley.boinc.utils.ERR_IN_PROGRESS
+import edu.berkeley.boinc.utils.ERR_OK
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert
+import org.junit.Test
+
+class RpcPollerTest {
+    private val backoff = PollBackoff(1, 1)
+
+    private fun poller(vararg replies: Int?): RpcPoller<ProjectConfig> {
+        val queue = replies.toMutableList()
+        return RpcPoller({ it.errorNum }, backoff) {
+            queue.removeAt(0)?.let { ProjectConfig(errorNum = it) }
+        }
+    }
+
+    @Test
+    fun `When client finishes after polls in progress then expect final reply`() {
+        val reply = runBlocking { poller(ERR_IN_PROGRESS, ERR_IN_PROGRESS, ERR_OK).await() }
+        Assert.assertEquals(ERR_OK, reply?.errorNum)
+    }
+
+    @Test
+    fun `When poll fails then expect null`() {
+        Assert.assertNull(runBlocking { poller(ERR_IN_PROGRESS, null).await() })
+    }
+
+    @Test
+    fun `When replies are collected then expect every reply up to the final one`() {
+        val replies = runBlocking { poller(ERR_IN_PROGRESS, -1, ERR_OK).replies().toList() }
+        Assert.assertEquals(listOf(ERR_IN_PROGRESS, -1), replies.map { it.errorNum })
+    }
+
+    @Test
+    fun `When backoff grows then expect it to stop at the maximum`() {
+        val growing = PollBackoff(250, 2000, 2.0)
+        Assert.assertEquals(500L, growing.next(250))
+        Assert.assertEquals(2000L, growing.next(1500))
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import android.graphics.Bitmap
+import android.graphics.Color
+import android.os.Parcel
+import android.os.Parcelable
+import org.junit.Assert
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class SharedImageListParcelableTest {
+    private fun image(size: Int, color: Int, path: String) =
+            ImageWrapper(Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888).apply {
+                eraseColor(color)
+                setPixel(0, 0, Color.BLACK)
+            }, "Project", path)
+
+    private fun roundTrip(expected: SharedImageList): SharedImageList {
+        val parcel = Parcel.obtain()
+        try {
+            expected.writeToParcel(parcel, Parcelable.PARCELABLE_WRITE_RETURN_VALUE)
+            parcel.setDataPosition(0)
+            return SharedImageList.CREATOR.createFromParcel(parcel)
+        } finally {
+            parcel.recycle()
+        }
+    }
+
+    private fun assertImagesEqual(expected: List<ImageWrapper>, actual: List<ImageWrapper>) {
+        Assert.assertEquals(expected.size, actual.size)
+        expected.zip(actual).forEach { (e, a) ->
+            Assert.assertEquals(e.projectName, a.projectName)
+            Assert.assertEquals(e.path, a.path)
+            if (e.image == null) {
+                Assert.assertNull(a.image)
+            } else {
+                Assert.assertEquals(e.image!!.width, a.image!!.width)
+                Assert.assertEquals(e.image!!.height, a.image!!.height)
+                Assert.assertEquals(e.image!!.getPixel(0, 0), a.image!!.getPixel(0, 0))
+                Assert.assertEquals(e.image!!.getPixel(1, 1), a.image!!.getPixel(1, 1))
+            }
+        }
+    }
+
+    @Test
+    fun `Test small list is written inline`() {
+        val expected = SharedImageList(listOf(image(40, Color.RED, "/slideshow_1.png")))
+
+        Assert.assertEquals(0, expected.describeContents())
+        assertImagesEqual(expected.images, roundTrip(expected).images)
+    }
+
+    @Test
+    fun `Test large list is passed in shared memory`() {
+        val expected = SharedImageList(listOf(image(200, Color.RED, "/slideshow_1.png"),
+                ImageWrapper(null, "Project", "/slideshow_2.png"),
+                image(150, Color.BLUE, "/slideshow_3.png")))
+
+        Assert.assertEquals(Parcelable.CONTENTS_FILE_DESCRIPTOR, expected.describeContents())
+        assertImagesEqual(expected.images, roundTrip(expected).images)
+    }
+
+    @Test
+    fun `Test empty list`() {
+        Assert.assertTrue(roundTrip(SharedImageList(emptyList())).images.isEmpty())
+    }
+
+    @Test
+    fun `Test Creator newArray()`() {
+        Assert.assertEquals(2, SharedImageList.CREATOR.newArray(2).size)
+    }
+}
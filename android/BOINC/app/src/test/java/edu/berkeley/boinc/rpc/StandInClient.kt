@@ -0,0 +1,89 @@
+/*
+ * This file is part of BOINC.
+ * https://boinc.berkeley.edu
+ * Copyright (C) 2022 University of California
+ *
+ * BOINC is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * BOINC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with BOINC.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.berkeley.boinc.rpc
+
+import java.io.Closeable
+import java.io.IOException
+import java.net.InetAddress
+import java.net.ServerSocket
+import java.net.Socket
+import kotlin.concurrent.thread
+import okio.buffer
+import okio.sink
+import okio.source
+
+/**
+ * Local stand-in for the GUI RPC server of the core client. Accepts connections on a loopback port
+ * and answers every request with the reply body returned by [reply], on a thread per connection,
+ * so it may block like a long-polling RPC of the client.
+ *
+ * @param reply gets the request without the request envelope, returns the body of the reply
+ */
+class StandInClient(private val reply: (String) -> String) : Closeable {
+    private val server = ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+
+    val address: String
+        get() = server.inetAddress.hostAddress!!
+
+    val port: Int
+        get() = server.localPort
+
+    init {
+        thread(isDaemon = true, name = "StandInClient") {
+            try {
+                while (true) {
+                    val socket = server.accept()
+                    thread(isDaemon = true, name = "StandInClient connection") { serve(socket) }
+                }
+            } catch (e: IOException) {
+                // closed
+            }
+        }
+    }
+
+    private fun serve(socket: Socket) {
+        try {
+            socket.use {
+                val source = it.source().buffer()
+                val sink = it.sink().buffer()
+                while (true) {
+                    val end = source.indexOf(END_OF_MESSAGE)
+                    if (end == -1L) return
+                    val request = source.readUtf8(end)
+                            .removePrefix("<boinc_gui_rpc_request>\n")
+                            .removeSuffix("</boinc_gui_rpc_request>\n")
+                    source.skip(1)
+                    sink.writeUtf8("<boinc_gui_rpc_reply>\n${reply(request)}</boinc_gui_rpc_reply>\n")
+                    sink.writeByte(END_OF_MESSAGE.toInt())
+                    sink.flush()
+                }
+            }
+        } catch (e: IOException) {
+            // connection closed by the RpcClient
+        }
+    }
+
+    override fun close() {
+        server.close()
+    }
+
+    companion object {
+        private const val END_OF_MESSAGE: Byte = 3
+    }
+}
@@ -1253,6 +1253,9 @@ void ACTIVE_TASK_SET::init() {
 
 void ACTIVE_TASK::set_task_state(int val, const char* where) {
     _task_state = val;
+#ifndef SIM
+    gstate.gui_rpcs.note_change(GUI_RPC_CHANGE_TASKS);
+#endif
     if (log_flags.task_debug) {
         msg_printf(result->project, MSG_INFO,
             "[task] task_state=%s for %s from %s",
@@ -1672,6 +1672,7 @@ bool CLIENT_STATE::garbage_collect_always() {
                 add_old_result(*rp);
                 delete rp;
                 result_iter = results.erase(result_iter);
+                gui_rpcs.note_change(GUI_RPC_CHANGE_TASKS);
                 action = true;
                 continue;
             }
@@ -439,6 +439,9 @@ bool NOTICES::append(NOTICE& n) {
         );
     }
     notices.push_front(n);
+#ifndef SIM
+    gstate.gui_rpcs.note_change(GUI_RPC_CHANGE_NOTICES);
+#endif
 #if 0
     if (!strlen(n.feed_url)) {
         write_archive(NULL);
@@ -91,6 +91,10 @@ GUI_RPC_CONN::GUI_RPC_CONN(int s) :
     au_mgr_state = AU_MGR_INIT;
 
     notice_refresh = false;
+    http_request = false;
+    waiting_for_changes = false;
+    wait_seqno = 0;
+    wait_deadline = 0;
 }
 
 GUI_RPC_CONN::~GUI_RPC_CONN() {
@@ -102,17 +106,84 @@ GUI_RPC_CONN_SET::GUI_RPC_CONN_SET() {
     lsock = -1;
     time_of_last_rpc_needing_network = 0;
     safe_strcpy(password,"");
+    change_seqno = 1;
+    for (int i=0; i<GUI_RPC_NCHANGE_KINDS; i++) {
+        change_seqnos[i] = 0;
+    }
+    memset(last_status, 0, sizeof(last_status));
 }
 
 bool GUI_RPC_CONN_SET::poll() {
     unsigned int i;
     bool action = false;
+    check_status_change();
     for (i=0; i<gui_rpcs.size(); i++) {
-        action |= gui_rpcs[i]->gui_http.poll();
+        GUI_RPC_CONN* gr = gui_rpcs[i];
+        action |= gr->gui_http.poll();
+
+        // answer held back wait_for_changes
+        //
+        if (gr->waiting_for_changes) {
+            if (gr->wait_seqno != change_seqno || gstate.now >= gr->wait_deadline) {
+                gr->send_changes();
+            }
+        }
     }
     return action;
 }
 
+// called wherever the client state changes in a way
+// that GUIs waiting in wait_for_changes should learn about
+//
+void GUI_RPC_CONN_SET::note_change(int kind) {
+    change_seqno++;
+    change_seqnos[kind] = change_seqno;
+}
+
+// suspend reasons and run modes are changed in many places;
+// compare them with the last check instead
+//
+void GUI_RPC_CONN_SET::check_status_change() {
+    int status[7] = {
+        gstate.suspend_reason,
+        gpu_suspend_reason,
+        gstate.network_suspend_reason,
+        gstate.cpu_run_mode.get_current(),
+        gstate.gpu_run_mode.get_current(),
+        gstate.network_run_mode.get_current(),
+        net_status.network_status()
+    };
+    if (memcmp(status, last_status, sizeof(status))) {
+        memcpy(last_status, status, sizeof(status));
+        note_change(GUI_RPC_CHANGE_STATUS);
+    }
+}
+
+// write the reply of wait_for_changes:
+// the current seqno and the kinds of state that changed after the given one.
+// A seqno above the current one comes from before a client restart;
+// report everything as changed then.
+//
+void GUI_RPC_CONN_SET::write_changes(MIOFILE& fout, int seqno) {
+    static const char* change_tags[GUI_RPC_NCHANGE_KINDS] = {
+        "tasks", "transfers", "notices", "status"
+    };
+    fout.printf(
+        "<client_changes>\n"
+        "   <seqno>%d</seqno>\n",
+        change_seqno
+    );
+    if (seqno) {
+        bool restarted = seqno > change_seqno;
+        for (int i=0; i<GUI_RPC_NCHANGE_KINDS; i++) {
+            if (restarted || change_seqnos[i] > seqno) {
+                fout.printf("   <%s/>\n", change_tags[i]);
+            }
+        }
+    }
+    fout.printf("</client_changes>\n");
+}
+
 bool GUI_RPC_CONN_SET::recent_rpc_needs_network(double interval) {
     if (!time_of_last_rpc_needing_network) return false;
     if (gstate.now < time_of_last_rpc_needing_network + interval) return true;
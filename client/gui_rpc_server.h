@@ -39,6 +39,17 @@
 
 #define GUI_RPC_REQ_MSG_SIZE    100000
 
+// kinds of client state changes reported by wait_for_changes
+
+#define GUI_RPC_CHANGE_TASKS        0
+#define GUI_RPC_CHANGE_TRANSFERS    1
+#define GUI_RPC_CHANGE_NOTICES      2
+#define GUI_RPC_CHANGE_STATUS       3
+#define GUI_RPC_NCHANGE_KINDS       4
+
+#define WAIT_FOR_CHANGES_MAX_TIMEOUT    60
+    // longest a wait_for_changes reply is held back, seconds
+
 class GUI_RPC_CONN {
 public:
     int sock;
@@ -69,6 +80,14 @@ public:
     GET_PROJECT_CONFIG_OP get_project_config_op;
     LOOKUP_ACCOUNT_OP lookup_account_op;
     CREATE_ACCOUNT_OP create_account_op;
+    bool http_request;
+        // the request being handled came as HTTP POST
+    bool waiting_for_changes;
+        // the reply to a wait_for_changes is held back
+        // until the client state changes after wait_seqno,
+        // or wait_deadline passes
+    int wait_seqno;
+    double wait_deadline;
 private:
     bool notice_refresh;
         // next time we get a get_notices RPC,
@@ -90,6 +109,8 @@ public:
     int handle_auth2(char*, MIOFILE&);
     void http_error(const char* msg);
     void handle_get();
+    void send_reply();
+    void send_changes();
 };
 
 // authentication for GUI RPCs:
@@ -104,7 +125,15 @@ class GUI_RPC_CONN_SET {
     int insert(GUI_RPC_CONN*);
     bool check_allowed_list(sockaddr_storage& ip_addr);
     bool remote_hosts_configured;
+    int change_seqnos[GUI_RPC_NCHANGE_KINDS];
+        // change_seqno of the last change of each kind
+    int last_status[7];
+        // suspend reasons and run modes at the last check
+    void check_status_change();
 public:
+    int change_seqno;
+        // bumped on every change reported by wait_for_changes.
+        // Starts at 1, a wait_for_changes with seqno 0 gets it right away
     int lsock;
     double time_of_last_rpc_needing_network;
         // time of the last RPC that needs network access to handle
@@ -120,6 +149,8 @@ public:
     void send_quits();
     bool quits_sent();
     bool poll();
+    void note_change(int kind);
+    void write_changes(MIOFILE&, int seqno);
     void set_notice_refresh() {
         for (unsigned int i=0; i<gui_rpcs.size(); i++) {
             gui_rpcs[i]->set_notice_refresh();
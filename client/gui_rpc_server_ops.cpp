@@ -1739,6 +1739,33 @@ int DEVICE_STATUS::parse(XML_PARSER& xp) {
 
 typedef void (*GUI_RPC_HANDLER)(GUI_RPC_CONN&);
 
+// Long poll for changes of the client state.
+// The reply is held back until tasks, transfers, notices or status
+// change after the given seqno, or until the timeout passes.
+// With seqno 0 the current seqno is returned right away.
+// The reply is sent by GUI_RPC_CONN_SET::poll().
+//
+static void handle_wait_for_changes(GUI_RPC_CONN& grc) {
+    int seqno = 0;
+    double timeout = 0;
+    while (!grc.xp.get_tag()) {
+        if (grc.xp.match_tag("/wait_for_changes")) break;
+        if (grc.xp.parse_int("seqno", seqno)) continue;
+        if (grc.xp.parse_double("timeout", timeout)) continue;
+    }
+    GUI_RPC_CONN_SET& gs = gstate.gui_rpcs;
+    if (seqno == 0 || seqno != gs.change_seqno || timeout <= 0 || grc.http_request) {
+        gs.write_changes(grc.mfout, seqno);
+        return;
+    }
+    if (timeout > WAIT_FOR_CHANGES_MAX_TIMEOUT) {
+        timeout = WAIT_FOR_CHANGES_MAX_TIMEOUT;
+    }
+    grc.waiting_for_changes = true;
+    grc.wait_seqno = seqno;
+    grc.wait_deadline = gstate.now + timeout;
+}
+
 struct GUI_RPC {
     const char* req_tag;
     char alt_req_tag[256];
@@ -1831,6 +1858,7 @@ GUI_RPC gui_rpcs[] = {
     GUI_RPC("set_proxy_settings", handle_set_proxy_settings,        true,   false,  false),
     GUI_RPC("set_run_mode", handle_set_run_mode,                    true,   false,  false),
     GUI_RPC("suspend_result", handle_suspend_result,                true,   false,  false),
+    GUI_RPC("wait_for_changes", handle_wait_for_changes,            true,   false,  true),
 
     // ops requiring temporary network access start here
 
@@ -2041,7 +2069,13 @@ int GUI_RPC_CONN::handle_rpc() {
         handle_get();
         return 1;
     }
-    bool http_request;
+    // a new request on a connection waiting for changes:
+    // answer the wait first, replies go out in order
+    //
+    if (waiting_for_changes) {
+        send_changes();
+    }
+
     if (is_http_post_request(request_msg)) {
         http_request = true;
         if (authenticated_request(request_msg)) {
@@ -2096,8 +2130,28 @@ int GUI_RPC_CONN::handle_rpc() {
         retval = handle_rpc_aux(*this);
     }
 
+    // the reply of wait_for_changes is completed and sent later
+    //
+    if (!waiting_for_changes) {
+        send_reply();
+    }
+    return retval;
+}
+
+// complete the reply of a held back wait_for_changes and send it
+//
+void GUI_RPC_CONN::send_changes() {
+    gstate.gui_rpcs.write_changes(mfout, wait_seqno);
+    waiting_for_changes = false;
+    send_reply();
+}
+
 #define XML_HEADER "<?xml version=\"1.0\" encoding=\"ISO-8859-1\" ?>\n"
 
+// complete the reply in mfout and send it
+//
+void GUI_RPC_CONN::send_reply() {
+    char* p;
     mfout.printf("</boinc_gui_rpc_reply>\n");
     if (!http_request) {
         mfout.printf("\003");   // delimiter for non-HTTP replies
@@ -2134,5 +2188,4 @@ int GUI_RPC_CONN::handle_rpc() {
         }
         free(p);
     }
-    return retval;
 }
@@ -532,6 +532,9 @@ bool PERS_FILE_XFER_SET::poll() {
 //
 int PERS_FILE_XFER_SET::insert(PERS_FILE_XFER* pfx) {
     pers_file_xfers.push_back(pfx);
+#ifndef SIM
+    gstate.gui_rpcs.note_change(GUI_RPC_CHANGE_TRANSFERS);
+#endif
     return 0;
 }
 
@@ -545,6 +548,9 @@ int PERS_FILE_XFER_SET::remove(PERS_FILE_XFER* pfx) {
     while (iter != pers_file_xfers.end()) {
         if (*iter == pfx) {
             iter = pers_file_xfers.erase(iter);
+#ifndef SIM
+            gstate.gui_rpcs.note_change(GUI_RPC_CHANGE_TRANSFERS);
+#endif
             return 0;
         }
         ++iter;
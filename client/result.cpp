@@ -698,6 +698,9 @@ static const char* result_state_name(int val) {
 
 void RESULT::set_state(int val, const char* where) {
     _state = val;
+#ifndef SIM
+    gstate.gui_rpcs.note_change(GUI_RPC_CHANGE_TASKS);
+#endif
     if (log_flags.task_debug) {
         msg_printf(project, MSG_INFO,
             "[task] result state=%s for %s from %s",